@@ -1,13 +1,18 @@
 package com.ali.animalsanctuary;
 
+import com.ali.animalsanctuary.service.impl.AnimalImportRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class AnimalSanctuaryApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(AnimalSanctuaryApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(AnimalSanctuaryApplication.class, args);
+        if (context.getBean(AnimalImportRunner.class).isImportRun()) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 
 }
@@ -67,10 +67,14 @@ public class SpringSecurity {
                         .requestMatchers("/register/**").permitAll()
                         .requestMatchers("/index").permitAll()
                         .requestMatchers("/users").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/animals/import").hasRole("ADMIN")
                         .requestMatchers("/animals/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers(HttpMethod.POST, "/animals/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/animals/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/animals/**").hasRole("ADMIN")
+                        .requestMatchers("/volunteers/assign/**").hasRole("ADMIN")
+                        .requestMatchers("/volunteers/recurring/add", "/volunteers/recurring/save").hasRole("ADMIN")
+                        .requestMatchers("/volunteers/recurring/delete/**").hasRole("ADMIN")
                         .requestMatchers("/volunteers/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers(HttpMethod.POST, "/volunteers/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/volunteers/**").hasRole("ADMIN")
@@ -78,6 +82,9 @@ public class SpringSecurity {
                         .requestMatchers(HttpMethod.POST, "/visit-slots/create").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/visit-slots/update-availability/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/visit-slots/delete/**").hasRole("ADMIN")
+                        .requestMatchers("/visits/generate").hasRole("ADMIN")
+                        .requestMatchers("/visits/cancel-all/**").hasRole("ADMIN")
+                        .requestMatchers("/visits/usage").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/visits").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/visits/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
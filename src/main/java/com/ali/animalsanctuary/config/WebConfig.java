@@ -0,0 +1,31 @@
+package com.ali.animalsanctuary.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+
+/**
+ * Spring MVC configuration for the Animal Sanctuary application.
+ *
+ * <p>Registers the per-route {@code Cache-Control} policies. Listing pages are private to the signed-in user and must
+ * be revalidated on every use, which is cheap because their controllers answer conditional requests with
+ * {@code 304 Not Modified}. Animal images set their own policy in {@code AnimalController}.
+ */
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Adds the interceptor applying {@code Cache-Control} headers to the listing pages.
+     *
+     * @param registry the registry of handler interceptors
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        WebContentInterceptor cacheInterceptor = new WebContentInterceptor();
+        cacheInterceptor.addCacheMapping(CacheControl.noCache().cachePrivate(), "/animals", "/visits");
+        registry.addInterceptor(cacheInterceptor);
+    }
+}
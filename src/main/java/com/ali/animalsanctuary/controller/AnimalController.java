@@ -102,21 +102,46 @@
 
 package com.ali.animalsanctuary.controller;
 
+import com.ali.animalsanctuary.dto.AnimalCard;
+import com.ali.animalsanctuary.dto.AnimalFilter;
+import com.ali.animalsanctuary.dto.AnimalImageInfo;
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.ImportReport;
 import com.ali.animalsanctuary.entity.Animal;
 import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.exception.ImageRejectedException;
+import com.ali.animalsanctuary.service.AnimalImportService;
+import com.ali.animalsanctuary.service.AnimalSearchService;
 import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.ImageStore;
+import com.ali.animalsanctuary.service.ImageVariantService;
 import com.ali.animalsanctuary.service.UserService;
+import com.ali.animalsanctuary.web.ImageResponseWriter;
+import com.ali.animalsanctuary.web.PageEtags;
+import com.ali.animalsanctuary.web.PageLinks;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for handling requests related to animals in the animal sanctuary.
@@ -127,14 +152,16 @@ import java.util.List;
  *
  * <p>Endpoints:
  * <ul>
- *     <li>{@code /animals}: Lists all animals.</li>
+ *     <li>{@code /animals}: Lists one page of the animal catalogue, optionally filtered.</li>
+ *     <li>{@code /animals/search}: Searches animal names and descriptions.</li>
+ *     <li>{@code /animals/import}: Imports animals in bulk from a CSV or JSON Lines file and an image archive.</li>
  *     <li>{@code /animals/add}: Displays a form for adding a new animal.</li>
  *     <li>{@code /animals/save}: Saves a new animal with optional image upload.</li>
  *     <li>{@code /animals/details/{id}}: Displays details of a specific animal.</li>
  *     <li>{@code /animals/edit/{id}}: Displays a form for editing an existing animal.</li>
  *     <li>{@code /animals/update/{id}}: Updates the details of an existing animal with optional image upload.</li>
  *     <li>{@code /animals/{id}}: Deletes a specific animal.</li>
- *     <li>{@code /animals/image/{id}}: Retrieves the image of a specific animal.</li>
+ *     <li>{@code /animals/image/{id}}: Streams the image of a specific animal, with byte range support.</li>
  *     <li>{@code /animals/adopt/{id}}: Allows a user to adopt a specific animal.</li>
  * </ul>
  *
@@ -146,33 +173,144 @@ import java.util.List;
 @RequestMapping("/animals")
 public class AnimalController {
 
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final AnimalService animalService;
     private final UserService userService;
+    private final ImageStore imageStore;
+    private final ImageResponseWriter imageResponseWriter;
+    private final ImageVariantService imageVariantService;
+    private final AnimalSearchService animalSearchService;
+    private final AnimalImportService animalImportService;
 
     /**
      * Constructs an {@code AnimalController} with the specified services.
      *
      * @param animalService the service for handling animal-related operations
      * @param userService the service for handling user-related operations
+     * @param imageStore the store holding animal image content
+     * @param imageResponseWriter the writer streaming images to the client
+     * @param imageVariantService the service providing resized copies of animal images
+     * @param animalSearchService the service searching animal names and descriptions
+     * @param animalImportService the service importing animals in bulk
      */
-    public AnimalController(AnimalService animalService, UserService userService) {
+    public AnimalController(AnimalService animalService, UserService userService, ImageStore imageStore,
+                            ImageResponseWriter imageResponseWriter, ImageVariantService imageVariantService,
+                            AnimalSearchService animalSearchService, AnimalImportService animalImportService) {
         this.animalService = animalService;
         this.userService = userService;
+        this.imageStore = imageStore;
+        this.imageResponseWriter = imageResponseWriter;
+        this.imageVariantService = imageVariantService;
+        this.animalSearchService = animalSearchService;
+        this.animalImportService = animalImportService;
     }
 
     /**
-     * Handles GET requests to list all animals.
+     * Handles GET requests to list one page of the animal catalogue, optionally filtered.
+     *
+     * <p>Pages are addressed by keyset cursors rather than offsets: {@code after} continues past the last animal of
+     * the previous page and {@code before} goes back from the first animal of the following page, so deep pages
+     * cost the same as the first one. The number of matching animals per species, breed, gender, age band and
+     * adoption status is shown next to the filter when the facet index is available. Conditional requests whose weak ETag still matches the animals table are
+     * answered with {@code 304 Not Modified} before any animal is loaded.
      *
+     * @param filter the catalogue filter bound from the request parameters
+     * @param after the ID after which the page starts, or {@code null}
+     * @param before the ID before which the page ends, or {@code null}
+     * @param size the requested page size
      * @param model the model to be used by the view
-     * @return the name of the view template to render the list of animals
+     * @param request the current request
+     * @param webRequest the current request, used for conditional request handling
+     * @return the name of the view template to render the page of animals, or {@code null} if not modified
      */
     @GetMapping
-    public String getAnimals(Model model) {
-        List<Animal> animals = animalService.findAllAnimals();
-        model.addAttribute("animals", animals);
+    public String getAnimals(@ModelAttribute("filter") AnimalFilter filter,
+                             @RequestParam(required = false) Long after,
+                             @RequestParam(required = false) Long before,
+                             @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                             Model model, HttpServletRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(PageEtags.weak(request, animalService.getListingVersion()))) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        CursorPage<AnimalCard> page = animalService.findAnimalCards(filter, after, before, pageSize);
+        model.addAttribute("animals", page.getItems());
+        model.addAttribute("facets", animalService.countFacets(filter).orElse(null));
+        model.addAttribute("nextUrl",
+                page.getNext() == null ? null : PageLinks.pageUrl(request, "after", page.getNext()));
+        model.addAttribute("previousUrl",
+                page.getPrevious() == null ? null : PageLinks.pageUrl(request, "before", page.getPrevious()));
         return "animals";
     }
 
+    /**
+     * Handles GET requests to search animal names and descriptions.
+     *
+     * @param q the query text
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the search results
+     */
+    @GetMapping("/search")
+    public String searchAnimals(@RequestParam(defaultValue = "") String q, Model model) {
+        model.addAttribute("q", q);
+        model.addAttribute("hits", animalSearchService.search(q, MAX_SEARCH_RESULTS));
+        return "animal-search";
+    }
+
+    /**
+     * Displays the form for importing animals in bulk.
+     *
+     * @return the name of the view template to display the import form
+     */
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "import-animals";
+    }
+
+    /**
+     * Handles POST requests to import animals in bulk from a CSV or JSON Lines file and an optional ZIP archive of
+     * the images the rows refer to. The archive is read from a temporary copy, since its entries are looked up by name
+     * as the rows are read.
+     *
+     * @param file the CSV or JSON Lines file listing the animals
+     * @param images the ZIP archive of images, if any
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the import report
+     */
+    @PostMapping("/import")
+    public String importAnimals(@RequestParam("file") MultipartFile file,
+                                @RequestParam(value = "images", required = false) MultipartFile images, Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Choose a CSV or JSON Lines file to import");
+            return "import-animals";
+        }
+
+        File imagesZip = null;
+        try {
+            if (images != null && !images.isEmpty()) {
+                imagesZip = Files.createTempFile("animal-import-", ".zip").toFile();
+                images.transferTo(imagesZip);
+            }
+            ImportReport report;
+            try (InputStream data = file.getInputStream()) {
+                report = animalImportService.importAnimals(data,
+                        AnimalImportService.formatOf(file.getOriginalFilename()), imagesZip);
+            }
+            model.addAttribute("report", report);
+        } catch (IOException e) {
+            e.printStackTrace();
+            model.addAttribute("error", "Error reading the import files: " + e.getMessage());
+        } finally {
+            if (imagesZip != null && !imagesZip.delete()) {
+                imagesZip.deleteOnExit();
+            }
+        }
+        return "import-animals";
+    }
+
     /**
      * Displays a form for adding a new animal.
      *
@@ -203,6 +341,10 @@ public class AnimalController {
 
         try {
             animalService.saveAnimal(animal, file);
+        } catch (ImageRejectedException e) {
+            model.addAttribute("animal", animal);
+            model.addAttribute("error", e.getMessage());
+            return "add-animal";
         } catch (IOException e) {
             e.printStackTrace();
             model.addAttribute("error", "Error saving animal");
@@ -258,6 +400,10 @@ public class AnimalController {
 
         try {
             animalService.updateAnimal(id, animal, file);
+        } catch (ImageRejectedException e) {
+            model.addAttribute("animal", animal);
+            model.addAttribute("error", e.getMessage());
+            return "edit-animal";
         } catch (IOException e) {
             e.printStackTrace();
             model.addAttribute("error", "Error updating animal");
@@ -279,16 +425,70 @@ public class AnimalController {
     }
 
     /**
-     * Retrieves the image of a specific animal.
+     * Streams the image of a specific animal, honouring {@code Range} and {@code If-Range} requests.
+     *
+     * <p>The image's content hash is its strong ETag and the animal's update timestamp its {@code Last-Modified} date.
+     * Both are read through a narrow projection, so conditional requests are answered with {@code 304 Not Modified}
+     * without loading the animal entity or touching the image store. URLs carrying the current hash as {@code v}
+     * can never change content and are cached as immutable.
+     *
+     * <p>With {@code w}, the smallest pre-generated variant at least that wide is served instead of the original.
      *
      * @param id the ID of the animal
-     * @return the image data as a byte array
+     * @param version the image hash the URL was generated for, if any
+     * @param width the width the image is displayed at, if any
+     * @param request the current request
+     * @param response the response the image is streamed to
+     * @param webRequest the current request, used for conditional request handling
+     * @throws IOException if an I/O error occurs while streaming the image
      */
     @GetMapping("/image/{id}")
-    @ResponseBody
-    public byte[] getAnimalImage(@PathVariable Long id) {
-        Animal animal = animalService.findAnimalById(id);
-        return animal.getImage();
+    public void getAnimalImage(@PathVariable Long id, @RequestParam(value = "v", required = false) String version,
+                               @RequestParam(value = "w", required = false) Integer width, HttpServletRequest request, HttpServletResponse response, WebRequest webRequest) throws IOException {
+        AnimalImageInfo imageInfo = animalService.findImageInfo(id);
+        String imageKey = imageInfo.getImageKey();
+        if (imageKey == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        CacheControl cacheControl = imageKey.equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+
+        long lastModified = imageInfo.getUpdatedAt() != null
+                ? imageInfo.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+
+        Optional<Integer> variantWidth = width != null ? imageVariantService.selectWidth(width) : Optional.empty();
+        if (variantWidth.isPresent()) {
+            String variantEtag = "\"" + imageKey + "-w" + variantWidth.get() + "\"";
+            if (webRequest.checkNotModified(variantEtag, lastModified)) {
+                return;
+            }
+            Optional<Resource> variant = imageVariantService.findVariant(imageKey, variantWidth.get());
+            if (variant.isPresent()) {
+                imageResponseWriter.write(variant.get(), MediaType.IMAGE_JPEG_VALUE, variantEtag, lastModified, request, response);
+                return;
+            }
+            // Not generated yet (or wider than the original): serve the original under a validator that will not
+            // match once the variant exists, so caches pick up the smaller image later.
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+
+        String etag = "\"" + imageKey + "\"";
+        if (variantWidth.isEmpty() && webRequest.checkNotModified(etag, lastModified)) {
+            return;
+        }
+        Optional<Resource> image = imageStore.load(imageKey);
+        if (image.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String contentType = imageInfo.getImageContentType() != null
+                ? imageInfo.getImageContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        imageResponseWriter.write(image.get(), contentType, etag, lastModified, request, response);
     }
 
     /**
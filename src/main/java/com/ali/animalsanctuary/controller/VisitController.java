@@ -1,16 +1,41 @@
 package com.ali.animalsanctuary.controller;
 
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.SlotGenerationResult;
+import com.ali.animalsanctuary.dto.VisitRecurrence;
 import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.dto.VisitUsage;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import com.ali.animalsanctuary.service.SlotUpdateBroadcaster;
 import com.ali.animalsanctuary.service.UserService;
 import com.ali.animalsanctuary.service.VisitService;
+import com.ali.animalsanctuary.web.PageEtags;
+import com.ali.animalsanctuary.web.PageLinks;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDate;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,12 +47,19 @@ import java.util.Optional;
  *
  * <p>Endpoints:
  * <ul>
- *     <li>{@code /visits}: Displays a list of all available visits.</li>
+ *     <li>{@code /visits}: Displays one page of the available visits in a date range.</li>
+ *     <li>{@code /visits/calendar}: Displays the days of a month that have open visit slots.</li>
+ *     <li>{@code /visits/usage}: Reports the seats booked on the visits in a date range, optionally including the archive.</li>
+ *     <li>{@code /visits/live}: Streams the changes of the visit slots as server-sent events.</li>
  *     <li>{@code /visits/details/{id}}: Displays details of a specific visit.</li>
  *     <li>{@code /visits/book/{id}}: Books a specific visit for the currently logged-in user.</li>
- *     <li>{@code /visits/cancel/{id}}: Cancels a specific visit.</li>
+ *     <li>{@code /visits/waitlist/{id}}: Puts the currently logged-in user on the waitlist of a specific visit.</li>
+ *     <li>{@code /visits/waitlist/{id}/leave}: Takes the currently logged-in user off the waitlist of a specific visit.</li>
+ *     <li>{@code /visits/cancel/{id}}: Cancels the booking of the currently logged-in user on a specific visit.</li>
+ *     <li>{@code /visits/cancel-all/{id}}: Cancels every booking of a specific visit.</li>
  *     <li>{@code /visits/add}: Displays the form for adding a new visit.</li>
  *     <li>{@code /visits/save}: Handles the creation of a new visit.</li>
+ *     <li>{@code /visits/generate}: Creates the visit slots of a recurring schedule.</li>
  *     <li>{@code /visits/edit/{id}}: Displays the form for editing a specific visit.</li>
  *     <li>{@code /visits/update}: Handles the update of a specific visit.</li>
  *     <li>{@code /visits/delete/{id}}: Deletes a specific visit.</li>
@@ -42,62 +74,274 @@ import java.util.Optional;
 @RequestMapping("/visits")
 public class VisitController {
 
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_USAGE_DAYS = 366;
+
     @Autowired
     private VisitService visitService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AvailabilityCalendar availabilityCalendar;
+
+    @Autowired
+    private SlotUpdateBroadcaster slotUpdateBroadcaster;
+
     /**
-     * Handles GET requests to display a list of all available visits.
+     * Handles GET requests to display one page of the available visits starting between two dates, in start time
+     * order.
+     *
+     * <p>Without a {@code from} date the listing starts at the current minute, so slots in the past are not shown;
+     * without a {@code to} date it has no end. Pages are addressed by keyset cursors, like the animal catalogue.
+     * Conditional requests whose weak ETag still matches the visits table, the window and the messages carried over
+     * from a redirect are answered with {@code 304 Not Modified} before any visit is loaded.
      *
+     * @param from the first day of the range, or {@code null} to start now
+     * @param to the last day of the range, inclusive, or {@code null}
+     * @param after the cursor after which the page starts, or {@code null}
+     * @param before the cursor before which the page ends, or {@code null}
+     * @param size the requested page size
      * @param model the model to be used by the view
-     * @return the name of the view template to render the list of visits
+     * @param request the current request
+     * @param webRequest the current request, used for conditional request handling
+     * @return the name of the view template to render the list of visits, or {@code null} if not modified
      */
     @GetMapping
-    public String getAllVisits(Model model) {
-        List<Visit> visits = visitService.getAvailableVisits();
-        model.addAttribute("visits", visits);
+    public String getAllVisits(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) String after,
+                               @RequestParam(required = false) String before,
+                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                               Model model, HttpServletRequest request, WebRequest webRequest) {
+        LocalDateTime windowStart = from != null ? from.atStartOfDay() : LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime windowEnd = to != null ? to.plusDays(1).atStartOfDay() : null;
+        if (webRequest.checkNotModified(PageEtags.weak(request, visitService.getListingVersion(), windowStart))) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        CursorPage<Visit> page = visitService.findAvailableVisits(windowStart, windowEnd, after, before, pageSize);
+        model.addAttribute("visits", page.getItems());
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("nextUrl",
+                page.getNext() == null ? null : PageLinks.pageUrl(request, "after", page.getNext()));
+        model.addAttribute("previousUrl",
+                page.getPrevious() == null ? null : PageLinks.pageUrl(request, "before", page.getPrevious()));
         return "visits";
     }
 
     /**
-     * Displays the details of a specific visit.
+     * Displays a month as a calendar marking the days that have open visit slots, and optionally the start times of
+     * the open slots of one day. The openings come from the in-memory {@link AvailabilityCalendar}, so the page
+     * does not query the visits table.
+     *
+     * @param month the month to display, or {@code null} for the current month
+     * @param day the day whose open slots are listed, or {@code null}
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the calendar
+     */
+    @GetMapping("/calendar")
+    public String getVisitCalendar(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+                                   Model model) {
+        YearMonth shown = month != null ? month : day != null ? YearMonth.from(day) : YearMonth.now();
+        List<List<LocalDate>> weeks = new ArrayList<>();
+        List<LocalDate> week = new ArrayList<>(Collections.nCopies(shown.atDay(1).getDayOfWeek().getValue() - 1, null));
+        for (LocalDate date = shown.atDay(1); !date.isAfter(shown.atEndOfMonth()); date = date.plusDays(1)) {
+            week.add(date);
+            if (week.size() == 7) {
+                weeks.add(week);
+                week = new ArrayList<>();
+            }
+        }
+        if (!week.isEmpty()) {
+            week.addAll(Collections.nCopies(7 - week.size(), null));
+            weeks.add(week);
+        }
+        model.addAttribute("month", shown);
+        model.addAttribute("previousMonth", shown.minusMonths(1));
+        model.addAttribute("nextMonth", shown.plusMonths(1));
+        model.addAttribute("weeks", weeks);
+        model.addAttribute("openings", availabilityCalendar.countOpenings(shown));
+        model.addAttribute("day", day);
+        model.addAttribute("slots", day != null ? availabilityCalendar.findOpenings(day) : List.of());
+        return "visits-calendar";
+    }
+
+    /**
+     * Displays how many seats were booked on the visits starting between two dates, with the totals. Visits moved to
+     * the archive are only read when asked for; ranges longer than {@value #MAX_USAGE_DAYS} days are cut to their
+     * last {@value #MAX_USAGE_DAYS} days.
+     *
+     * @param from the first day of the range, or {@code null} for a month before the last
+     * @param to the last day of the range, inclusive, or {@code null} for today
+     * @param archived whether archived visits are included
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the usage report
+     */
+    @GetMapping("/usage")
+    public String getVisitUsage(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(defaultValue = "false") boolean archived,
+                                Model model) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null && !from.isAfter(last) ? from : last.minusMonths(1);
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_USAGE_DAYS) {
+            first = last.minusDays(MAX_USAGE_DAYS - 1);
+        }
+        List<VisitUsage> usage = visitService.findVisitUsage(first.atStartOfDay(), last.plusDays(1).atStartOfDay(),
+                archived);
+        model.addAttribute("usage", usage);
+        model.addAttribute("seatsBooked", usage.stream().mapToInt(VisitUsage::getSeatsBooked).sum());
+        model.addAttribute("capacity", usage.stream().mapToInt(VisitUsage::getCapacity).sum());
+        model.addAttribute("from", first);
+        model.addAttribute("to", last);
+        model.addAttribute("archived", archived);
+        return "visit-usage";
+    }
+
+    /**
+     * Opens a stream of server-sent events carrying the seats left on visit slots as they are booked, canceled or
+     * deleted, so that the visits page can update its rows in place instead of being reloaded.
+     *
+     * @return the {@link SseEmitter} of the new stream
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamVisitChanges() {
+        return slotUpdateBroadcaster.subscribe();
+    }
+
+    /**
+     * Displays the details of a specific visit, along with the seats the currently logged-in user booked on it.
      *
      * @param id the ID of the visit to be displayed
+     * @param principal the currently logged-in user
      * @param model the model to be used by the view
      * @return the name of the view template to render the visit details
      */
     @GetMapping("/details/{id}")
-    public String getVisitDetails(@PathVariable Long id, Model model) {
+    public String getVisitDetails(@PathVariable Long id,
+                                  @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                  Model model) {
         Optional<Visit> visit = visitService.getVisitById(id);
-        visit.ifPresent(v -> model.addAttribute("visit", v));
+        visit.ifPresent(v -> {
+            model.addAttribute("visit", v);
+            model.addAttribute("seatsLeft", visitService.getSeatsLeft(id));
+            model.addAttribute("bookedSeats", userService.findByUsername(principal.getUsername())
+                    .map(user -> visitService.getBookedSeats(id, user.getId())).orElse(0));
+        });
         return "visit-details";
     }
 
     /**
-     * Books a specific visit for the currently logged-in user.
+     * Books seats of a specific visit for the currently logged-in user. If other users took the seats first, or the
+     * user already booked the visit or has a visit or volunteer shift at that time, the visits list is shown with an
+     * error message instead, offering to join the waitlist of a full visit.
      *
      * @param id the ID of the visit to be booked
+     * @param seats the number of seats to book
      * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carried over to the visits list
      * @return a redirect URL to the visits list
      */
     @PostMapping("/book/{id}")
-    public String bookVisit(@PathVariable Long id, @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
+    public String bookVisit(@PathVariable Long id, @RequestParam(defaultValue = "1") int seats,
+                            @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                            RedirectAttributes redirectAttributes) {
         Optional<User> user = userService.findByUsername(principal.getUsername());
-        if (user.isPresent()) {
-            visitService.bookVisit(id, user.get().getId());
+        try {
+            if (user.isPresent() && !visitService.bookSeats(id, user.get().getId(), Math.max(1, seats))) {
+                redirectAttributes.addFlashAttribute("error", seats > 1
+                        ? "Sorry, that visit no longer has " + seats + " seats left."
+                        : "Sorry, that visit is fully booked.");
+                redirectAttributes.addFlashAttribute("waitlistVisitId", id);
+                redirectAttributes.addFlashAttribute("waitlistSeats", Math.max(1, seats));
+            }
+        } catch (ScheduleConflictException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking of the same user got past the schedule index and hit the unique booking key.
+            redirectAttributes.addFlashAttribute("error", "You have already booked this visit");
         }
         return "redirect:/visits";
     }
 
     /**
-     * Cancels a specific visit.
+     * Puts the currently logged-in user on the waitlist of a specific visit. Seats freed on the visit are booked for
+     * the waiting users in the order they joined.
      *
-     * @param id the ID of the visit to be canceled
+     * @param id the ID of the visit
+     * @param seats the number of seats wanted
+     * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carried over to the visits list
+     * @return a redirect URL to the visits list
+     */
+    @PostMapping("/waitlist/{id}")
+    public String joinWaitlist(@PathVariable Long id, @RequestParam(defaultValue = "1") int seats,
+                               @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                               RedirectAttributes redirectAttributes) {
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        try {
+            if (user.isPresent()) {
+                visitService.joinWaitlist(id, user.get().getId(), Math.max(1, seats));
+                redirectAttributes.addFlashAttribute("message",
+                        "You are on the waitlist. We will book your seats as soon as they free up.");
+                redirectAttributes.addFlashAttribute("waitingVisitId", id);
+            }
+        } catch (ScheduleConflictException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/visits";
+    }
+
+    /**
+     * Takes the currently logged-in user off the waitlist of a specific visit.
+     *
+     * @param id the ID of the visit
+     * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carried over to the visits list
+     * @return a redirect URL to the visits list
+     */
+    @PostMapping("/waitlist/{id}/leave")
+    public String leaveWaitlist(@PathVariable Long id,
+                                @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                RedirectAttributes redirectAttributes) {
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        if (user.isPresent() && visitService.leaveWaitlist(id, user.get().getId())) {
+            redirectAttributes.addFlashAttribute("message", "You have left the waitlist.");
+        }
+        return "redirect:/visits";
+    }
+
+    /**
+     * Cancels the seats the currently logged-in user booked on a specific visit.
+     *
+     * @param id the ID of the visit
+     * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carried over to the visits list
      * @return a redirect URL to the visits list
      */
     @PostMapping("/cancel/{id}")
+    public String cancelBooking(@PathVariable Long id,
+                                @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                RedirectAttributes redirectAttributes) {
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        if (user.isPresent() && visitService.cancelBooking(id, user.get().getId())) {
+            redirectAttributes.addFlashAttribute("message", "Your booking has been canceled.");
+        }
+        return "redirect:/visits";
+    }
+
+    /**
+     * Cancels every booking of a specific visit.
+     *
+     * @param id the ID of the visit to be canceled
+     * @return a redirect URL to the visits list
+     */
+    @PostMapping("/cancel-all/{id}")
     public String cancelVisit(@PathVariable Long id) {
         visitService.cancelVisit(id);
         return "redirect:/visits";
@@ -119,11 +363,60 @@ public class VisitController {
      * Handles POST requests to create a new visit.
      *
      * @param visitDto the data for the new visit
-     * @return a redirect URL to the list of visits
+     * @param model the model to be used by the view
+     * @return a redirect URL to the list of visits, or the same form if the visit overlaps another one
      */
     @PostMapping("/save")
-    public String createVisit(@ModelAttribute VisitDto visitDto) {
-        visitService.createVisit(visitDto);
+    public String createVisit(@ModelAttribute VisitDto visitDto, Model model) {
+        try {
+            visitService.createVisit(visitDto);
+        } catch (ScheduleConflictException e) {
+            model.addAttribute("visit", visitDto);
+            model.addAttribute("error", e.getMessage());
+            return "add-visit";
+        }
+        return "redirect:/visits";
+    }
+
+    /**
+     * Displays the form for generating the visit slots of a recurring schedule, filled in with every weekday from
+     * 10:00 to 16:00 in 30-minute slots for the next 12 weeks.
+     *
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the generate visits form
+     */
+    @GetMapping("/generate")
+    public String showGenerateVisitsForm(Model model) {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        model.addAttribute("recurrence", new VisitRecurrence(tomorrow, tomorrow.plusWeeks(12).minusDays(1),
+                List.copyOf(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), LocalTime.of(10, 0),
+                LocalTime.of(16, 0), 30, 1));
+        model.addAttribute("daysOfWeek", DayOfWeek.values());
+        return "generate-visits";
+    }
+
+    /**
+     * Handles POST requests to create the visit slots of a recurring schedule. Slots overlapping existing visits are
+     * skipped.
+     *
+     * @param recurrence the recurring schedule
+     * @param model the model to be used by the view
+     * @param redirectAttributes the attributes carried over to the visits list
+     * @return a redirect URL to the visits list, or the same form if the schedule is invalid
+     */
+    @PostMapping("/generate")
+    public String generateVisits(@ModelAttribute("recurrence") VisitRecurrence recurrence, Model model,
+                                 RedirectAttributes redirectAttributes) {
+        SlotGenerationResult result;
+        try {
+            result = visitService.generateVisits(recurrence);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("daysOfWeek", DayOfWeek.values());
+            model.addAttribute("error", e.getMessage());
+            return "generate-visits";
+        }
+        redirectAttributes.addFlashAttribute("message", "Created " + result.getCreated() + " visit slots in "
+                + result.getElapsedMillis() + " ms; skipped " + result.getSkipped() + " overlapping existing visits.");
         return "redirect:/visits";
     }
 
@@ -145,11 +438,18 @@ public class VisitController {
      * Handles POST requests to update a specific visit.
      *
      * @param visitDto the updated data for the visit
-     * @return a redirect URL to the list of visits
+     * @param model the model to be used by the view
+     * @return a redirect URL to the list of visits, or the same form if the visit would overlap another one
      */
     @PostMapping("/update")
-    public String updateVisit(@ModelAttribute VisitDto visitDto) {
-        visitService.updateVisit(visitDto);
+    public String updateVisit(@ModelAttribute VisitDto visitDto, Model model) {
+        try {
+            visitService.updateVisit(visitDto);
+        } catch (ScheduleConflictException e) {
+            model.addAttribute("visit", visitDto);
+            model.addAttribute("error", e.getMessage());
+            return "edit-visit";
+        }
         return "redirect:/visits";
     }
 
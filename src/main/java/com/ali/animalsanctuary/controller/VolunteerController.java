@@ -1,22 +1,39 @@
 package com.ali.animalsanctuary.controller;
 
+import com.ali.animalsanctuary.dto.AssignmentPlan;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.entity.VolunteerRecurrence;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
 import com.ali.animalsanctuary.service.UserService;
+import com.ali.animalsanctuary.service.VolunteerAssignmentService;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerRecurrenceService;
 import com.ali.animalsanctuary.service.VolunteerService;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Controller for managing volunteer works within the animal sanctuary.
@@ -27,6 +44,19 @@ import java.util.Optional;
  * <p>Endpoints:
  * <ul>
  *     <li>{@code /volunteers}: Displays a list of all volunteer works.</li>
+ *     <li>{@code /volunteers/mine}: Displays the volunteer works the currently logged-in user signed up for.</li>
+ *     <li>{@code /volunteers/upcoming}: Displays the one-off volunteer works and the occurrences of the recurring ones in the coming days.</li>
+ *     <li>{@code /volunteers/recurring/add}: Displays the form for adding a new recurring volunteer work.</li>
+ *     <li>{@code /volunteers/recurring/save}: Handles the creation of a new recurring volunteer work.</li>
+ *     <li>{@code /volunteers/recurring/delete/{id}}: Deletes a specific recurring volunteer work.</li>
+ *     <li>{@code /volunteers/recurring/volunteer/{id}}: Allows the currently logged-in user to volunteer for one occurrence of a recurring task.</li>
+ *     <li>{@code /volunteers/availability}: Displays the weekly availability of the currently logged-in user.</li>
+ *     <li>{@code /volunteers/availability/add}: Adds a weekly availability window to the currently logged-in user.</li>
+ *     <li>{@code /volunteers/availability/delete/{id}}: Removes a weekly availability window of the currently logged-in user.</li>
+ *     <li>{@code /volunteers/assign}: Proposes volunteers for the open places of the volunteer works in a date range.</li>
+ *     <li>{@code /volunteers/assign/apply}: Signs up the volunteers of the plan last shown.</li>
+ *     <li>{@code /volunteers/hours}: Displays the volunteer hours leaderboard and the hours of the currently logged-in user.</li>
+ *     <li>{@code /volunteers/hours/{userId}}: Displays the volunteer hours leaderboard and the hours of a specific user, to administrators and that user.</li>
  *     <li>{@code /volunteers/{id}}: Displays details of a specific volunteer work.</li>
  *     <li>{@code /volunteers/add}: Displays the form for adding a new volunteer work.</li>
  *     <li>{@code /volunteers/save}: Handles the creation of a new volunteer work.</li>
@@ -46,14 +76,50 @@ public class VolunteerController {
 
     private static final Logger logger = LoggerFactory.getLogger(VolunteerController.class);
 
+    /**
+     * The number of users shown on the volunteer hours leaderboard.
+     */
+    private static final int LEADERBOARD_SIZE = 20;
+
+    /**
+     * The greatest number of days the upcoming shifts page lists at once.
+     */
+    private static final int MAX_UPCOMING_DAYS = 92;
+
+    /**
+     * The number of days the assignment page plans by default.
+     */
+    private static final int DEFAULT_ASSIGN_DAYS = 28;
+
+    /**
+     * The greatest number of days the assignment page plans at once.
+     */
+    private static final int MAX_ASSIGN_DAYS = 92;
+
+    /**
+     * The session attributes keeping the plan last shown on the assignment page and its token.
+     */
+    private static final String PLAN_ATTRIBUTE = "assignmentPlan";
+    private static final String PLAN_TOKEN_ATTRIBUTE = "assignmentPlanToken";
+
     @Autowired
     private VolunteerService volunteerService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private VolunteerRecurrenceService volunteerRecurrenceService;
+
+    @Autowired
+    private VolunteerAssignmentService volunteerAssignmentService;
+
     /**
-     * Handles GET requests to display a list of all volunteer works.
+     * Handles GET requests to display a list of all volunteer works. The works are read as narrow projections, so
+     * the page loads no members and renders without an open persistence context.
      *
      * @param model the model to be used by the view
      * @return the name of the view template to render the list of volunteer works
@@ -61,10 +127,317 @@ public class VolunteerController {
     @GetMapping
     public String getAllVolunteerWorks(Model model) {
         logger.info("Getting all volunteer works");
-        model.addAttribute("volunteerWorks", volunteerService.getAllVolunteers());
+        model.addAttribute("volunteerWorks", volunteerService.getVolunteerCards());
         return "volunteers";
     }
 
+    /**
+     * Displays the volunteer works the currently logged-in user signed up for, in start time order.
+     *
+     * @param principal the currently logged-in user
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the user's volunteer works
+     */
+    @GetMapping("/mine")
+    public String getMyVolunteerWorks(@AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                      Model model) {
+        logger.info("Getting volunteer works of user {}", principal.getUsername());
+        model.addAttribute("volunteerWorks", userService.findByUsername(principal.getUsername())
+                .map(user -> volunteerService.getVolunteersByUserId(user.getId()))
+                .orElse(List.of()));
+        return "my-volunteer-works";
+    }
+
+    /**
+     * Displays the one-off volunteer works and the occurrences of the recurring ones starting in the coming days,
+     * from the start of today. The occurrences are expanded from their rules for those days only.
+     *
+     * @param days the number of days to list, capped at {@value #MAX_UPCOMING_DAYS}
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the upcoming shifts
+     */
+    @GetMapping("/upcoming")
+    public String getUpcomingVolunteerWorks(@RequestParam(defaultValue = "30") int days, Model model) {
+        int shown = Math.max(1, Math.min(days, MAX_UPCOMING_DAYS));
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        logger.info("Getting volunteer works of the next {} days", shown);
+        model.addAttribute("days", shown);
+        model.addAttribute("shifts", volunteerRecurrenceService.getUpcomingShifts(from, from.plusDays(shown)));
+        return "upcoming-volunteer-works";
+    }
+
+    /**
+     * Displays the form for adding a new recurring volunteer work.
+     *
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the add recurring volunteer form
+     */
+    @GetMapping("/recurring/add")
+    public String showAddRecurringVolunteerForm(Model model) {
+        logger.info("Showing add recurring volunteer form");
+        model.addAttribute("recurrence", new VolunteerRecurrence());
+        return "add-recurring-volunteer";
+    }
+
+    /**
+     * Handles POST requests to create a new recurring volunteer work.
+     *
+     * @param recurrence the data for the new recurring volunteer work
+     * @param result the result of the validation process
+     * @param model the model to be used by the view
+     * @return a redirect URL to the upcoming shifts, or the add form if validation fails or the rule is invalid
+     */
+    @PostMapping("/recurring/save")
+    public String createRecurringVolunteerWork(@Valid @ModelAttribute("recurrence") VolunteerRecurrence recurrence,
+                                               BindingResult result, Model model) {
+        logger.info("Creating new recurring volunteer work");
+        if (result.hasErrors()) {
+            logger.error("Validation errors occurred: {}", result.getAllErrors());
+            return "add-recurring-volunteer";
+        }
+        recurrence.setId(null);
+        try {
+            volunteerRecurrenceService.saveRecurrence(recurrence);
+        } catch (IllegalArgumentException | ScheduleConflictException e) {
+            model.addAttribute("error", e.getMessage());
+            return "add-recurring-volunteer";
+        }
+        return "redirect:/volunteers/upcoming";
+    }
+
+    /**
+     * Deletes a specific recurring volunteer work, with every sign-up for its occurrences.
+     *
+     * @param id the ID of the recurring volunteer work to be deleted
+     * @return a redirect URL to the upcoming shifts
+     */
+    @PostMapping("/recurring/delete/{id}")
+    public String deleteRecurringVolunteerWork(@PathVariable Long id) {
+        logger.info("Deleting recurring volunteer work with id: {}", id);
+        volunteerRecurrenceService.deleteRecurrence(id);
+        return "redirect:/volunteers/upcoming";
+    }
+
+    /**
+     * Allows the currently logged-in user to volunteer for one occurrence of a recurring task.
+     *
+     * @param id the ID of the recurring volunteer work
+     * @param start the start time of the occurrence
+     * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carrying the outcome to the upcoming shifts page
+     * @return a redirect URL to the upcoming shifts
+     */
+    @PostMapping("/recurring/volunteer/{id}")
+    public String volunteerForOccurrence(@PathVariable Long id,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                         @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                         RedirectAttributes redirectAttributes) {
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        try {
+            if (user.isPresent()) {
+                redirectAttributes.addFlashAttribute("message",
+                        volunteerRecurrenceService.signUp(id, start, user.get())
+                                ? "You have successfully volunteered!"
+                                : "You have already volunteered for this work.");
+            }
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/volunteers/upcoming";
+    }
+
+    /**
+     * Displays the weekly availability windows of the currently logged-in user, with a form adding one.
+     *
+     * @param principal the currently logged-in user
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the availability
+     */
+    @GetMapping("/availability")
+    public String getAvailability(@AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                  Model model) {
+        logger.info("Getting availability of user {}", principal.getUsername());
+        model.addAttribute("days", DayOfWeek.values());
+        model.addAttribute("windows", userService.findByUsername(principal.getUsername())
+                .map(user -> volunteerAssignmentService.getAvailability(user.getId()))
+                .orElse(List.of()));
+        return "volunteer-availability";
+    }
+
+    /**
+     * Adds a weekly availability window to the currently logged-in user.
+     *
+     * @param dayOfWeek the day of the week of the window
+     * @param startTime the time of day the window starts
+     * @param endTime the time of day the window ends; {@code 00:00} for midnight
+     * @param principal the currently logged-in user
+     * @param redirectAttributes the attributes carrying the outcome to the availability page
+     * @return a redirect URL to the availability page
+     */
+    @PostMapping("/availability/add")
+    public String addAvailability(@RequestParam DayOfWeek dayOfWeek,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime,
+                                  @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                  RedirectAttributes redirectAttributes) {
+        logger.info("Adding availability to user {}", principal.getUsername());
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        if (user.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "User not found.");
+            return "redirect:/volunteers/availability";
+        }
+        try {
+            volunteerAssignmentService.addAvailability(user.get().getId(), dayOfWeek, startTime, endTime);
+            redirectAttributes.addFlashAttribute("message", "Your availability was added.");
+        } catch (ScheduleConflictException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/volunteers/availability";
+    }
+
+    /**
+     * Removes a weekly availability window of the currently logged-in user.
+     *
+     * @param id the ID of the window
+     * @param principal the currently logged-in user
+     * @return a redirect URL to the availability page
+     */
+    @PostMapping("/availability/delete/{id}")
+    public String removeAvailability(@PathVariable Long id,
+                                     @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
+        logger.info("Removing availability with id {} of user {}", id, principal.getUsername());
+        userService.findByUsername(principal.getUsername())
+                .ifPresent(user -> volunteerAssignmentService.removeAvailability(user.getId(), id));
+        return "redirect:/volunteers/availability";
+    }
+
+    /**
+     * Displays the assignment page. When a range is given, volunteers are proposed for the open places of the
+     * volunteer works starting in it, without signing anyone up. The plan is kept in the session under a new token,
+     * so that applying it signs up exactly the volunteers shown.
+     *
+     * @param from the first day of the range, or {@code null} to show the form only
+     * @param to the day after the last day of the range, at most {@value #MAX_ASSIGN_DAYS} days after the first
+     * @param model the model to be used by the view
+     * @param session the session keeping the plan until it is applied
+     * @return the name of the view template to render the assignment
+     */
+    @GetMapping("/assign")
+    public String showAssignment(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 Model model, HttpSession session) {
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = assignmentEnd(first, to);
+        model.addAttribute("from", first);
+        model.addAttribute("to", last);
+        if (from != null) {
+            logger.info("Planning volunteer assignments from {} to {}", first, last);
+            AssignmentPlan plan = volunteerAssignmentService.planAssignments(first, last);
+            String token = UUID.randomUUID().toString();
+            session.setAttribute(PLAN_ATTRIBUTE, plan);
+            session.setAttribute(PLAN_TOKEN_ATTRIBUTE, token);
+            model.addAttribute("plan", plan);
+            model.addAttribute("planToken", token);
+        }
+        return "assign-volunteers";
+    }
+
+    /**
+     * Signs up the volunteers of the plan last shown on the assignment page, as reviewed, skipping the sign-ups that
+     * no longer fit. A plan is applied at most once.
+     *
+     * @param token the token of the plan shown
+     * @param session the session keeping the plan
+     * @param redirectAttributes the attributes carrying the outcome to the assignment page
+     * @return a redirect URL to the assignment page of the same range
+     */
+    @PostMapping("/assign/apply")
+    public String applyAssignment(@RequestParam String token, HttpSession session,
+                                  RedirectAttributes redirectAttributes) {
+        AssignmentPlan plan = (AssignmentPlan) session.getAttribute(PLAN_ATTRIBUTE);
+        if (plan == null || !token.equals(session.getAttribute(PLAN_TOKEN_ATTRIBUTE))) {
+            redirectAttributes.addFlashAttribute("error", "This plan is no longer current. Please plan again.");
+            return "redirect:/volunteers/assign";
+        }
+        session.removeAttribute(PLAN_ATTRIBUTE);
+        session.removeAttribute(PLAN_TOKEN_ATTRIBUTE);
+        logger.info("Applying volunteer assignments from {} to {}", plan.getFrom(), plan.getTo());
+        int applied = volunteerAssignmentService.applyAssignments(plan);
+        redirectAttributes.addFlashAttribute("message", "Signed up " + applied + " of " + plan.getPlacesFilled()
+                + " proposed volunteers.");
+        redirectAttributes.addAttribute("from", plan.getFrom().toString());
+        redirectAttributes.addAttribute("to", plan.getTo().toString());
+        return "redirect:/volunteers/assign";
+    }
+
+    private static LocalDate assignmentEnd(LocalDate from, LocalDate to) {
+        if (to == null || !to.isAfter(from)) {
+            return from.plusDays(DEFAULT_ASSIGN_DAYS);
+        }
+        return to.isAfter(from.plusDays(MAX_ASSIGN_DAYS)) ? from.plusDays(MAX_ASSIGN_DAYS) : to;
+    }
+
+    /**
+     * Displays the volunteer hours leaderboard over a range of months, along with the hours of the currently
+     * logged-in user. Both are read from the hours rollups only, so the page costs the same however many shifts
+     * the range holds.
+     *
+     * @param from the first month of the range, or {@code null} for the current month
+     * @param to the last month of the range, inclusive, or {@code null} for the current month
+     * @param principal the currently logged-in user
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the volunteer hours
+     */
+    @GetMapping("/hours")
+    public String getVolunteerHours(@RequestParam(required = false) YearMonth from,
+                                    @RequestParam(required = false) YearMonth to,
+                                    @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                    Model model) {
+        logger.info("Getting volunteer hours of user {}", principal.getUsername());
+        Optional<User> user = userService.findByUsername(principal.getUsername());
+        return showVolunteerHours(from, to, user.map(User::getId).orElse(null), "Your hours", model);
+    }
+
+    /**
+     * Displays the volunteer hours leaderboard over a range of months, along with the hours of a specific user. Only
+     * administrators may see the hours of other users; other users may only ask for their own.
+     *
+     * @param userId the ID of the user whose hours are shown
+     * @param from the first month of the range, or {@code null} for the current month
+     * @param to the last month of the range, inclusive, or {@code null} for the current month
+     * @param principal the currently logged-in user
+     * @param model the model to be used by the view
+     * @return the name of the view template to render the volunteer hours
+     * @throws AccessDeniedException if the logged-in user is neither an administrator nor the user asked for
+     */
+    @GetMapping("/hours/{userId}")
+    public String getUserVolunteerHours(@PathVariable Long userId,
+                                        @RequestParam(required = false) YearMonth from,
+                                        @RequestParam(required = false) YearMonth to,
+                                        @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal,
+                                        Model model) {
+        logger.info("Getting volunteer hours of user with id: {}", userId);
+        boolean admin = principal.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && !userService.findByUsername(principal.getUsername())
+                .map(viewer -> viewer.getId().equals(userId)).orElse(false)) {
+            throw new AccessDeniedException("Only administrators can see the hours of other users");
+        }
+        User user = userService.findById(userId);
+        return showVolunteerHours(from, to, userId, user != null ? user.getUsername() : "User " + userId, model);
+    }
+
+    private String showVolunteerHours(YearMonth from, YearMonth to, Long userId, String name, Model model) {
+        YearMonth last = to != null ? to : YearMonth.now();
+        YearMonth first = from != null && !from.isAfter(last) ? from : last;
+        model.addAttribute("from", first);
+        model.addAttribute("to", last);
+        model.addAttribute("leaderboard", volunteerHoursService.getLeaderboard(first, last, LEADERBOARD_SIZE));
+        model.addAttribute("summary", userId == null ? null : volunteerHoursService.getUserSummary(userId, first, last));
+        model.addAttribute("summaryName", name);
+        return "volunteer-hours";
+    }
+
     /**
      * Displays the details of a specific volunteer work.
      *
@@ -80,7 +453,8 @@ public class VolunteerController {
     }
 
     /**
-     * Allows the currently logged-in user to volunteer for a specific task.
+     * Allows the currently logged-in user to volunteer for a specific task. The sign-up is a single insert into the
+     * join table, so the volunteer work and its members are not loaded; signing up twice succeeds without effect.
      *
      * @param id the ID of the volunteer work
      * @param principal the currently logged-in user
@@ -91,20 +465,16 @@ public class VolunteerController {
     public Map<String, Object> volunteer(@PathVariable Long id, @AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Volunteer volunteer = volunteerService.getVolunteerById(id);
-            if (volunteer != null) {
-                Optional<User> optionalUser = userService.findByUsername(principal.getUsername());
-                if (optionalUser.isPresent()) {
-                    User user = optionalUser.get();
-                    volunteerService.addUserToVolunteer(id, user);
-                    response.put("success", true);
-                } else {
-                    response.put("success", false);
-                    response.put("message", "User not found.");
+            Optional<User> optionalUser = userService.findByUsername(principal.getUsername());
+            if (optionalUser.isPresent()) {
+                boolean added = volunteerService.addUserToVolunteer(id, optionalUser.get());
+                response.put("success", true);
+                if (!added) {
+                    response.put("message", "You have already volunteered for this work.");
                 }
             } else {
                 response.put("success", false);
-                response.put("message", "Volunteer work not found.");
+                response.put("message", "User not found.");
             }
         } catch (Exception e) {
             response.put("success", false);
@@ -132,7 +502,8 @@ public class VolunteerController {
      * @param volunteer the data for the new volunteer work
      * @param result the result of the validation process
      * @param model the model to be used by the view
-     * @return a redirect URL to the list of volunteer works or the add form if validation fails
+     * @return a redirect URL to the list of volunteer works or the add form if validation fails or the shift overlaps
+     * another one
      */
     @PostMapping("/save")
     public String createVolunteerWork(@Valid @ModelAttribute Volunteer volunteer, BindingResult result, Model model) {
@@ -142,7 +513,12 @@ public class VolunteerController {
             model.addAttribute("volunteer", volunteer);
             return "add-volunteer";
         }
-        volunteerService.saveVolunteer(volunteer);
+        try {
+            volunteerService.saveVolunteer(volunteer);
+        } catch (ScheduleConflictException e) {
+            model.addAttribute("error", e.getMessage());
+            return "add-volunteer";
+        }
         return "redirect:/volunteers";
     }
 
@@ -168,7 +544,8 @@ public class VolunteerController {
      * @param volunteer the updated data for the volunteer work
      * @param result the result of the validation process
      * @param model the model to be used by the view
-     * @return a redirect URL to the list of volunteer works or the edit form if validation fails
+     * @return a redirect URL to the list of volunteer works or the edit form if validation fails or the shift would
+     * overlap another one
      */
     @PostMapping("/update/{id}")
     public String updateVolunteerWork(@PathVariable Long id, @Valid @ModelAttribute Volunteer volunteer, BindingResult result, Model model) {
@@ -179,7 +556,12 @@ public class VolunteerController {
             return "edit-volunteer";
         }
         volunteer.setId(id);
-        volunteerService.saveVolunteer(volunteer);
+        try {
+            volunteerService.saveVolunteer(volunteer);
+        } catch (ScheduleConflictException e) {
+            model.addAttribute("error", e.getMessage());
+            return "edit-volunteer";
+        }
         return "redirect:/volunteers";
     }
 
@@ -0,0 +1,27 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of an {@code Animal} holding only what the animals listing page renders.
+ *
+ * Fetched with a single narrow SELECT, so listing animals never hydrates the adopter, the adopter's roles, or any
+ * other column the cards do not show.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The unique identifier of the animal.</li>
+ *     <li>{@link #getName()}: The name of the animal.</li>
+ *     <li>{@link #getDescription()}: A description of the animal.</li>
+ *     <li>{@link #getImageKey()}: The content address of the animal's image, or {@code null} if it has none.</li>
+ * </ul>
+ */
+
+public interface AnimalCard {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getImageKey();
+}
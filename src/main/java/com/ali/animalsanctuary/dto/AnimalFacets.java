@@ -0,0 +1,49 @@
+package com.ali.animalsanctuary.dto;
+
+import com.ali.animalsanctuary.entity.Animal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) holding the facet values of one {@link Animal}.
+ *
+ * Read with a narrow constructor expression when the facet index is rebuilt, and derived from the entity when a
+ * single animal changes, so the index never loads the adopter or any other column it does not need.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #id}: The unique identifier of the animal.</li>
+ *     <li>{@link #species}: The species of the animal.</li>
+ *     <li>{@link #breed}: The breed of the animal.</li>
+ *     <li>{@link #gender}: The gender of the animal.</li>
+ *     <li>{@link #age}: The age of the animal.</li>
+ *     <li>{@link #adopted}: Whether the animal is adopted.</li>
+ * </ul>
+ *
+ * @see Animal
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalFacets {
+
+    private Long id;
+    private String species;
+    private String breed;
+    private String gender;
+    private int age;
+    private boolean adopted;
+
+    /**
+     * Extracts the facet values of an {@link Animal} entity.
+     *
+     * @param animal the animal.
+     * @return the {@link AnimalFacets} of the animal.
+     */
+    public static AnimalFacets of(Animal animal) {
+        return new AnimalFacets(animal.getId(), animal.getSpecies(), animal.getBreed(), animal.getGender(),
+                animal.getAge(), animal.isAdopted());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) holding the optional filters of the animal catalogue.
+ *
+ * Every field is optional; a {@code null} or blank field does not restrict the result.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #species}: The species to match exactly.</li>
+ *     <li>{@link #breed}: The breed to match exactly.</li>
+ *     <li>{@link #gender}: The gender to match exactly.</li>
+ *     <li>{@link #minAge}: The minimum age, inclusive.</li>
+ *     <li>{@link #maxAge}: The maximum age, inclusive.</li>
+ *     <li>{@link #adopted}: Whether to list only adopted or only unadopted animals.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalFilter {
+
+    private String species;
+    private String breed;
+    private String gender;
+    private Integer minAge;
+    private Integer maxAge;
+    private Boolean adopted;
+
+    /**
+     * Replaces blank text filters with {@code null} so that empty form fields do not restrict the result.
+     *
+     * @return this filter.
+     */
+    public AnimalFilter normalized() {
+        species = blankToNull(species);
+        breed = blankToNull(breed);
+        gender = blankToNull(gender);
+        return this;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the image columns of an {@code Animal}.
+ *
+ * Used to answer image requests, including conditional ones, without hydrating the full entity and its adopter.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The unique identifier of the animal.</li>
+ *     <li>{@link #getImageKey()}: The content address of the animal's image, or {@code null} if it has none.</li>
+ *     <li>{@link #getImageContentType()}: The MIME type of the image.</li>
+ *     <li>{@link #getUpdatedAt()}: The timestamp when the animal was last updated.</li>
+ * </ul>
+ */
+
+public interface AnimalImageInfo {
+
+    Long getId();
+
+    String getImageKey();
+
+    String getImageContentType();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,34 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for one result of a full-text search over the animals.
+ *
+ * The highlighted fields are HTML: the text is escaped and every matched term is wrapped in a {@code <mark>}
+ * element, so they can be rendered without further escaping.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #id}: The unique identifier of the animal.</li>
+ *     <li>{@link #nameHtml}: The name of the animal with matched terms highlighted.</li>
+ *     <li>{@link #snippetHtml}: The best matching fragments of the description with matched terms highlighted.</li>
+ *     <li>{@link #imageKey}: The content address of the animal's image, or {@code null} if it has none.</li>
+ *     <li>{@link #score}: The BM25 relevance score of the animal.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalSearchHit {
+
+    private Long id;
+    private String nameHtml;
+    private String snippetHtml;
+    private String imageKey;
+    private float score;
+
+}
@@ -0,0 +1,34 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the users an automatic assignment proposes for one volunteer work.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #volunteerId}: The ID of the volunteer work.</li>
+ *     <li>{@link #task}: A description of the volunteer task.</li>
+ *     <li>{@link #startDate}: The start of the volunteer work.</li>
+ *     <li>{@link #endDate}: The end of the volunteer work.</li>
+ *     <li>{@link #userIds}: The IDs of the users proposed for its open places.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignedShift {
+
+    private Long volunteerId;
+    private String task;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private List<Long> userIds;
+
+}
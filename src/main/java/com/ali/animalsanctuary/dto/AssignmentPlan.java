@@ -0,0 +1,43 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) holding an automatic assignment of volunteers to the open places of the volunteer works
+ * in a date range, before it is applied.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #from}: The first day of the range.</li>
+ *     <li>{@link #to}: The day after the last day of the range.</li>
+ *     <li>{@link #shifts}: The number of volunteer works with open places in the range.</li>
+ *     <li>{@link #volunteers}: The number of users with availability who could be assigned.</li>
+ *     <li>{@link #placesOpen}: The number of open places.</li>
+ *     <li>{@link #placesFilled}: The number of open places the assignment fills.</li>
+ *     <li>{@link #moves}: The number of improvements the search made after the first assignment.</li>
+ *     <li>{@link #elapsedMillis}: The time the assignment took, in milliseconds.</li>
+ *     <li>{@link #assignments}: The volunteer works given at least one user, in start time order.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentPlan {
+
+    private LocalDate from;
+    private LocalDate to;
+    private int shifts;
+    private int volunteers;
+    private int placesOpen;
+    private int placesFilled;
+    private long moves;
+    private long elapsedMillis;
+    private List<AssignedShift> assignments;
+
+}
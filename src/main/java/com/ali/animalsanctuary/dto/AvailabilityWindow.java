@@ -0,0 +1,32 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Read-only projection of a {@code VolunteerAvailability} window, with the ID of its user instead of the user.
+ *
+ * Used to load the availability of every volunteer for the automatic shift assignment with one narrow SELECT.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the window.</li>
+ *     <li>{@link #getUserId()}: The ID of the user who is available.</li>
+ *     <li>{@link #getDayOfWeek()}: The day of the week of the window.</li>
+ *     <li>{@link #getStartTime()}: The time of day the window starts.</li>
+ *     <li>{@link #getEndTime()}: The time of day the window ends; {@code 00:00} for midnight.</li>
+ * </ul>
+ */
+
+public interface AvailabilityWindow {
+
+    Long getId();
+
+    Long getUserId();
+
+    DayOfWeek getDayOfWeek();
+
+    LocalTime getStartTime();
+
+    LocalTime getEndTime();
+}
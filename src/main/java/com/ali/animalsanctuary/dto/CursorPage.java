@@ -0,0 +1,34 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a keyset (seek) paginated listing.
+ *
+ * Pages are addressed by opaque cursors taken from the first and last rows of the current page rather than by an
+ * offset, so fetching any page costs the same no matter how deep into the listing it is.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #items}: The rows of the page.</li>
+ *     <li>{@link #next}: The cursor of the following page, or {@code null} if this is the last page.</li>
+ *     <li>{@link #previous}: The cursor of the preceding page, or {@code null} if this is the first page.</li>
+ * </ul>
+ *
+ * @param <T> the type of the rows.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String next;
+    private String previous;
+
+}
@@ -0,0 +1,31 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) holding the result of a faceted query over the animal catalogue.
+ *
+ * The count of each facet value is computed with every filter applied except the one on that facet itself, so it
+ * tells how many animals would match if the visitor picked that value instead of the current one.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #total}: The number of animals matching all filters.</li>
+ *     <li>{@link #counts}: The count of each facet value, keyed by facet name and then by value, most frequent
+ *     value first.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCounts {
+
+    private int total;
+    private Map<String, Map<String, Integer>> counts;
+
+}
@@ -0,0 +1,39 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing the outcome of an animal import.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #rowsRead}: The number of rows read from the import file.</li>
+ *     <li>{@link #imported}: The number of animals saved.</li>
+ *     <li>{@link #errors}: The rows that were rejected, in file order.</li>
+ *     <li>{@link #elapsedMillis}: The wall clock time the import took, in milliseconds.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+    private int rowsRead;
+    private int imported;
+    private List<ImportRowError> errors;
+    private long elapsedMillis;
+
+    /**
+     * Calculates the import throughput.
+     *
+     * @return the number of rows read per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) describing why one row of an animal import was not imported.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #line}: The line of the import file the row starts on.</li>
+ *     <li>{@link #message}: The reason the row was rejected.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+
+    private long line;
+    private String message;
+
+}
@@ -0,0 +1,28 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection summarizing the state of a table for cache validation.
+ *
+ * The row count changes on inserts and deletes and the latest update timestamp changes on inserts and updates,
+ * so together they identify a version of a listing page without loading its rows. Tables written by statements that
+ * stamp their rows from another clock also count the updates of every row, so an update the timestamp misses still
+ * changes the revision.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getCount()}: The number of rows.</li>
+ *     <li>{@link #getLastUpdated()}: The most recent update timestamp, or {@code null} for an empty table.</li>
+ *     <li>{@link #getRevision()}: The sum of the row revisions, or {@code 0} for tables that keep none.</li>
+ * </ul>
+ */
+
+public interface ListingVersion {
+
+    long getCount();
+
+    LocalDateTime getLastUpdated();
+
+    long getRevision();
+}
@@ -0,0 +1,23 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection counting the sign-ups of one occurrence of a recurring volunteer task.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getRecurrenceId()}: The ID of the recurring task.</li>
+ *     <li>{@link #getOccurrenceStart()}: The start time of the occurrence.</li>
+ *     <li>{@link #getSignedUp()}: The number of users signed up for the occurrence.</li>
+ * </ul>
+ */
+
+public interface OccurrenceCount {
+
+    Long getRecurrenceId();
+
+    LocalDateTime getOccurrenceStart();
+
+    long getSignedUp();
+}
@@ -0,0 +1,32 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a sign-up for an occurrence of a recurring volunteer task, with the times of the first
+ * occurrence of the task from which the length of the occurrence follows.
+ *
+ * Used to rebuild the volunteer hours rollups without hydrating the sign-ups, the tasks or the users.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the sign-up.</li>
+ *     <li>{@link #getUserId()}: The ID of the user who signed up.</li>
+ *     <li>{@link #getOccurrenceStart()}: The start time of the occurrence.</li>
+ *     <li>{@link #getFirstStart()}: The start of the first occurrence of the task.</li>
+ *     <li>{@link #getFirstEnd()}: The end of the first occurrence of the task.</li>
+ * </ul>
+ */
+
+public interface OccurrenceSignupTimes {
+
+    Long getId();
+
+    Long getUserId();
+
+    LocalDateTime getOccurrenceStart();
+
+    LocalDateTime getFirstStart();
+
+    LocalDateTime getFirstEnd();
+}
@@ -0,0 +1,18 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of one row of the {@code volunteer_users} join table: a user signed up for a shift.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getShiftId()}: The ID of the volunteer shift.</li>
+ *     <li>{@link #getUserId()}: The ID of the user.</li>
+ * </ul>
+ */
+
+public interface ShiftMember {
+
+    Long getShiftId();
+
+    Long getUserId();
+}
@@ -0,0 +1,38 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) describing one upcoming volunteer shift: either a one-off volunteer work or an
+ * occurrence of a recurring volunteer task, expanded from its rule.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #volunteerId}: The ID of the one-off volunteer work, or {@code null} for an occurrence.</li>
+ *     <li>{@link #recurrenceId}: The ID of the recurring task, or {@code null} for a one-off volunteer work.</li>
+ *     <li>{@link #task}: A description of the volunteer task.</li>
+ *     <li>{@link #startDate}: The start of the shift.</li>
+ *     <li>{@link #endDate}: The end of the shift.</li>
+ *     <li>{@link #capacity}: The maximum number of members, or {@code null} for no limit.</li>
+ *     <li>{@link #signedUp}: The number of users signed up.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftOccurrence {
+
+    private Long volunteerId;
+    private Long recurrenceId;
+    private String task;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Integer capacity;
+    private long signedUp;
+
+}
@@ -0,0 +1,25 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@code Volunteer} shift holding only its ID and the time it occupies.
+ *
+ * Used to build the schedule index without hydrating the shifts or the users who signed up for them.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the shift.</li>
+ *     <li>{@link #getStartDate()}: The start of the shift.</li>
+ *     <li>{@link #getEndDate()}: The end of the shift.</li>
+ * </ul>
+ */
+
+public interface ShiftTimes {
+
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
@@ -0,0 +1,27 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) summarizing the visit slots generated from a {@link VisitRecurrence}.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #created}: The number of slots inserted.</li>
+ *     <li>{@link #skipped}: The number of slots left out because they overlap existing visits.</li>
+ *     <li>{@link #elapsedMillis}: The wall clock time the generation took, in milliseconds.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotGenerationResult {
+
+    private int created;
+    private int skipped;
+    private long elapsedMillis;
+
+}
@@ -0,0 +1,27 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) describing an image written to an {@code ImageStore}.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #key}: The content address (hex encoded SHA-256) of the image.</li>
+ *     <li>{@link #size}: The size of the image in bytes.</li>
+ *     <li>{@link #contentType}: The MIME type of the image.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredImage {
+
+    private String key;
+    private long size;
+    private String contentType;
+
+}
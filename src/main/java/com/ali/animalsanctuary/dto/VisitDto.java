@@ -18,6 +18,8 @@ import java.time.LocalDateTime;
  *     <li>{@link #startTime}: The start time of the visit.</li>
  *     <li>{@link #endTime}: The end time of the visit.</li>
  *     <li>{@link #userId}: The ID of the user associated with the visit.</li>
+ *     <li>{@link #capacity}: The number of seats the visit offers, or {@code null} to keep the current number or
+ *     offer a single seat.</li>
  * </ul>
  *
  */
@@ -32,5 +34,6 @@ public class VisitDto {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Long userId;
+    private Integer capacity;
 
 }
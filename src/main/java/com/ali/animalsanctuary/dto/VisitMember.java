@@ -0,0 +1,21 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of one row of the {@code visit_bookings} table: a user holding seats on a visit slot.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the booking.</li>
+ *     <li>{@link #getVisitId()}: The ID of the visit slot.</li>
+ *     <li>{@link #getUserId()}: The ID of the user.</li>
+ * </ul>
+ */
+
+public interface VisitMember {
+
+    Long getId();
+
+    Long getVisitId();
+
+    Long getUserId();
+}
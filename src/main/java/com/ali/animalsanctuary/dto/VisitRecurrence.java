@@ -0,0 +1,52 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing a recurring schedule of visit slots, such as "every weekday from 10:00 to
+ * 16:00 in 30-minute slots for the next 12 weeks".
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #startDate}: The first day of the schedule.</li>
+ *     <li>{@link #endDate}: The last day of the schedule, inclusive.</li>
+ *     <li>{@link #daysOfWeek}: The days of the week on which slots are offered.</li>
+ *     <li>{@link #dayStart}: The start time of the first slot of each day.</li>
+ *     <li>{@link #dayEnd}: The time by which the last slot of each day ends.</li>
+ *     <li>{@link #slotMinutes}: The length of each slot in minutes.</li>
+ *     <li>{@link #capacity}: The number of seats of each slot; {@code 0} offers a single seat.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitRecurrence {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private List<DayOfWeek> daysOfWeek;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
+    private LocalTime dayStart;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
+    private LocalTime dayEnd;
+
+    private int slotMinutes;
+
+    private int capacity;
+
+}
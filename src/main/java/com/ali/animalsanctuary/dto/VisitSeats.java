@@ -0,0 +1,18 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of the seat counts of a {@code Visit}.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getCapacity()}: The number of seats the slot offers.</li>
+ *     <li>{@link #getSeatsLeft()}: The number of seats not booked yet.</li>
+ * </ul>
+ */
+
+public interface VisitSeats {
+
+    int getCapacity();
+
+    int getSeatsLeft();
+}
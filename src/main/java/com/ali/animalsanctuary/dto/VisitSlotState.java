@@ -0,0 +1,27 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) carrying the current state of a visit slot to the browsers showing it.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #id}: The ID of the visit slot.</li>
+ *     <li>{@link #seatsLeft}: The number of seats left on the slot.</li>
+ *     <li>{@link #removed}: Whether the slot was deleted.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitSlotState {
+
+    private Long id;
+    private int seatsLeft;
+    private boolean removed;
+
+}
@@ -0,0 +1,25 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@code Visit} holding only its ID and the time it occupies.
+ *
+ * Used to check new slots for overlaps and to build the schedule index without hydrating the visits.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the visit.</li>
+ *     <li>{@link #getStartTime()}: The start time of the visit.</li>
+ *     <li>{@link #getEndTime()}: The end time of the visit.</li>
+ * </ul>
+ */
+
+public interface VisitTimes {
+
+    Long getId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
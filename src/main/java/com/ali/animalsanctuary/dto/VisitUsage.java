@@ -0,0 +1,29 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of how many seats of a visit slot were booked, for reports over current and archived visits.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the visit.</li>
+ *     <li>{@link #getStartTime()}: The start time of the visit.</li>
+ *     <li>{@link #getEndTime()}: The end time of the visit.</li>
+ *     <li>{@link #getCapacity()}: The number of seats the visit offered.</li>
+ *     <li>{@link #getSeatsBooked()}: The number of seats booked.</li>
+ * </ul>
+ */
+
+public interface VisitUsage {
+
+    Long getId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    Integer getCapacity();
+
+    Integer getSeatsBooked();
+}
@@ -0,0 +1,35 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@code Volunteer} holding only what the volunteer works listing page renders.
+ *
+ * Fetched with a single narrow SELECT, so listing volunteer works never hydrates their members or the members'
+ * roles, and the page renders without an open persistence context.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The unique identifier of the volunteer work.</li>
+ *     <li>{@link #getTask()}: A description of the volunteer task.</li>
+ *     <li>{@link #getStartDate()}: The start date of the volunteer task.</li>
+ *     <li>{@link #getEndDate()}: The end date of the volunteer task.</li>
+ *     <li>{@link #getCapacity()}: The maximum number of members, or {@code null} for no limit.</li>
+ *     <li>{@link #getSignedUp()}: The number of users signed up.</li>
+ * </ul>
+ */
+
+public interface VolunteerCard {
+
+    Long getId();
+
+    String getTask();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    Integer getCapacity();
+
+    int getSignedUp();
+}
@@ -0,0 +1,23 @@
+package com.ali.animalsanctuary.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of the volunteer hours of a user during one day or one month.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getPeriodStart()}: The day, or the first day of the month.</li>
+ *     <li>{@link #getMinutes()}: The minutes of volunteer work in the period.</li>
+ *     <li>{@link #getShifts()}: The number of shifts in the period.</li>
+ * </ul>
+ */
+
+public interface VolunteerHoursPeriod {
+
+    LocalDate getPeriodStart();
+
+    long getMinutes();
+
+    int getShifts();
+}
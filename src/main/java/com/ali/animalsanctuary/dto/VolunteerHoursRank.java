@@ -0,0 +1,25 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of one line of the volunteer hours leaderboard: the hours a user contributed over a range of
+ * months, summed from the monthly rollups.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getUserId()}: The ID of the user.</li>
+ *     <li>{@link #getUsername()}: The username of the user.</li>
+ *     <li>{@link #getMinutes()}: The minutes of volunteer work over the range.</li>
+ *     <li>{@link #getShifts()}: The number of shifts over the range.</li>
+ * </ul>
+ */
+
+public interface VolunteerHoursRank {
+
+    Long getUserId();
+
+    String getUsername();
+
+    Long getMinutes();
+
+    Long getShifts();
+}
@@ -0,0 +1,34 @@
+package com.ali.animalsanctuary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing the volunteer hours of one user over a range of months, read from the
+ * rollups only.
+ *
+ * <p>Fields:
+ * <ul>
+ *     <li>{@link #userId}: The ID of the user.</li>
+ *     <li>{@link #minutes}: The minutes of volunteer work over the range.</li>
+ *     <li>{@link #shifts}: The number of shifts over the range.</li>
+ *     <li>{@link #months}: The months of the range the user volunteered in, oldest first.</li>
+ *     <li>{@link #days}: The days of the last month of the range the user volunteered on, oldest first.</li>
+ * </ul>
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerHoursSummary {
+
+    private Long userId;
+    private long minutes;
+    private long shifts;
+    private List<VolunteerHoursPeriod> months;
+    private List<VolunteerHoursPeriod> days;
+
+}
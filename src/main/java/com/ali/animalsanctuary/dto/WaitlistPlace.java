@@ -0,0 +1,21 @@
+package com.ali.animalsanctuary.dto;
+
+/**
+ * Read-only projection of one entry of the waitlist of a visit slot.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getId()}: The ID of the entry; lower IDs joined earlier.</li>
+ *     <li>{@link #getUserId()}: The ID of the waiting user.</li>
+ *     <li>{@link #getSeats()}: The number of seats the user wants.</li>
+ * </ul>
+ */
+
+public interface WaitlistPlace {
+
+    Long getId();
+
+    Long getUserId();
+
+    int getSeats();
+}
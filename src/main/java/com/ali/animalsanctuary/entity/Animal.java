@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
 
 /**
  * Represents an animal entity in the Animal Sanctuary application.
@@ -13,10 +15,13 @@ import lombok.NoArgsConstructor;
  *
  * Annotations:
  * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
- * {@code @Table(name = "animals")} - Specifies the name of the database table to be used for mapping.
+ * {@code @Table(name = "animals")} - Specifies the name of the database table to be used for mapping, and declares
+ * the composite indexes that let the filtered catalogue seek on {@code id} within each filter value.
  * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
  * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
  * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @UpdateTimestamp} - Hibernate annotation to automatically set the update timestamp.
+ * {@code @SequenceGenerator} - Assigns IDs from the pooled {@code animals_seq} sequence so inserts can be batched.
  *
  * Fields:
  * {@code id} - The unique identifier for the animal.
@@ -27,23 +32,38 @@ import lombok.NoArgsConstructor;
  * {@code age} - The age of the animal.
  * {@code adoptionStatus} - The adoption status of the animal.
  * {@code description} - A description of the animal.
- * {@code image} - A byte array representing the image of the animal.
+ * {@code imageKey} - The content hash identifying the animal's image in the {@code ImageStore}.
+ * {@code imageSize} - The size of the stored image in bytes.
+ * {@code imageContentType} - The MIME type of the stored image.
  * {@code adopted} - A boolean indicating whether the animal is adopted.
  * {@code adopter} - The user who adopted the animal.
+ * {@code updatedAt} - The timestamp when the animal was last updated.
  *
  * Relationships:
  * {@code @ManyToOne} - Defines a many-to-one relationship with the {@code User} entity.
  */
 
 @Entity
-@Table(name = "animals")
+@Table(name = "animals", indexes = {
+        @Index(name = "idx_animals_species_breed_id", columnList = "species, breed, id"),
+        @Index(name = "idx_animals_gender_id", columnList = "gender, id"),
+        @Index(name = "idx_animals_adopted_id", columnList = "is_adopted, id"),
+        @Index(name = "idx_animals_age_id", columnList = "age, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Animal {
 
+    /**
+     * The number of IDs reserved from {@code animals_seq} at a time. Unlike identity columns, pooled sequence IDs
+     * are known before the insert, which lets Hibernate send inserts in JDBC batches.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "animals_seq")
+    @SequenceGenerator(name = "animals_seq", sequenceName = "animals_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
@@ -54,10 +74,14 @@ public class Animal {
     private String adoptionStatus;
     private String description;
 
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "animal_image", columnDefinition = "LONGBLOB")
-    private byte[] image;
+    @Column(name = "image_key", length = 64)
+    private String imageKey;
+
+    @Column(name = "image_size")
+    private Long imageSize;
+
+    @Column(name = "image_content_type", length = 100)
+    private String imageContentType;
 
     @Column(name = "is_adopted")
     private boolean adopted;
@@ -65,4 +89,7 @@ public class Animal {
     @ManyToOne
     @JoinColumn(name = "adopter_id")
     private User adopter;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 }
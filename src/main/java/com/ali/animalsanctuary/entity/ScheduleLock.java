@@ -0,0 +1,39 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a named row that is locked to serialize changes which must check a whole schedule before writing it,
+ * such as creating a visit slot that must not overlap any other slot. There is nothing to lock for a slot that does
+ * not exist yet, so such changes lock the row of their schedule instead, and the check they make afterwards cannot
+ * race with another change to the same schedule.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "schedule_locks")} - Specifies the name of the database table to be used for mapping.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ *
+ * Fields:
+ * {@code name} - The name of the schedule the row guards, such as {@code visits}.
+ */
+
+@Entity
+@Table(name = "schedule_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+}
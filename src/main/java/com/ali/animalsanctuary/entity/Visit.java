@@ -4,27 +4,45 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 /**
  * Represents a visit entity in the Animal Sanctuary application.
- * Each visit records the user who scheduled the visit, the start and end times, and the availability status.
- * The entity is annotated for use with JPA/Hibernate.
+ * Each visit records the start and end times, the number of seats offered and still free, and the availability
+ * status. Who holds the seats is recorded in {@link VisitBooking}; single-seat slots also keep their visitor in
+ * {@code user}. The entity is annotated for use with JPA/Hibernate.
  *
  * Annotations:
  * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
- * {@code @Table(name = "visits")} - Specifies the name of the database table to be used for mapping.
+ * {@code @Table(name = "visits")} - Specifies the name of the database table to be used for mapping, and declares
+ * the {@code (available, start_time)} index that time window listings of open slots scan, the {@code start_time}
+ * index that usage reports over a time range seek on, and the {@code end_time} index the archival job finds past
+ * visits with.
  * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
  * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
  * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @DynamicUpdate} - Hibernate annotation to only write the changed columns, so that editing the times of a
+ * slot never overwrites the seat counts maintained by the booking statements.
+ * {@code @UpdateTimestamp} - Hibernate annotation to automatically set the update timestamp.
+ * {@code @PreUpdate} - JPA annotation counting the entity updates in {@code revision}, as the seat statements do for
+ * theirs.
+ * {@code @ColumnDefault("1")} - Hibernate annotation giving existing rows a single seat when the columns are added.
  *
  * Fields:
  * {@code id} - The unique identifier for the visit record.
  * {@code startTime} - The start time of the visit.
  * {@code endTime} - The end time of the visit.
- * {@code user} - The user who scheduled the visit.
- * {@code available} - The availability status of the visit slot.
+ * {@code user} - The user who scheduled the visit, for single-seat slots.
+ * {@code capacity} - The number of seats the slot offers.
+ * {@code seatsLeft} - The number of seats not booked yet.
+ * {@code available} - The availability status of the visit slot; {@code true} exactly when seats are left.
+ * {@code updatedAt} - The timestamp when the visit slot was last updated.
+ * {@code revision} - The number of updates of the visit slot, which validates cached listing pages even when two
+ * updates get the same timestamp.
  *
  * Relationships:
  * {@code @ManyToOne(fetch = FetchType.LAZY)} - Defines a many-to-one relationship with the {@code User} entity, with lazy fetching.
@@ -34,7 +52,12 @@ import java.time.LocalDateTime;
  */
 
 @Entity
-@Table(name = "visits")
+@Table(name = "visits", indexes = {
+        @Index(name = "idx_visits_available_start", columnList = "available, start_time"),
+        @Index(name = "idx_visits_start_time", columnList = "start_time"),
+        @Index(name = "idx_visits_end_time", columnList = "end_time")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,7 +77,27 @@ public class Visit {
     @JoinColumn(name = "user_id")
     private User user;
 
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int capacity = 1;
+
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int seatsLeft = 1;
+
     @Column(nullable = false)
     private boolean available = true;
 
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long revision;
+
+    @PreUpdate
+    void countRevision() {
+        revision++;
+    }
+
 }
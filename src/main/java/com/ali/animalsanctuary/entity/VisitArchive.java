@@ -0,0 +1,75 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a past visit slot moved out of the {@code visits} table in the Animal Sanctuary application.
+ * Past visits are never edited, so they are archived in batches once they ended long enough ago, keeping the hot
+ * {@code visits} table roughly constant in size however long the history grows. Reports read both tables.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "visits_archive")} - Specifies the name of the database table to be used for mapping, and
+ * declares the {@code start_time} index that reports over a time range seek on.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ *
+ * Fields:
+ * {@code id} - The identifier the visit had in the {@code visits} table.
+ * {@code startTime} - The start time of the visit.
+ * {@code endTime} - The end time of the visit.
+ * {@code userId} - The ID of the user who booked a single-seat visit, if any. Kept as a plain column, since the
+ * archive outlives the users.
+ * {@code capacity} - The number of seats the visit offered.
+ * {@code seatsLeft} - The number of seats left unbooked.
+ * {@code available} - Whether the visit still had free seats.
+ * {@code updatedAt} - The timestamp when the visit was last updated.
+ * {@code archivedAt} - The timestamp when the visit was archived.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "visits_archive", indexes = {
+        @Index(name = "idx_visits_archive_start", columnList = "start_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitArchive {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(nullable = false)
+    private int seatsLeft;
+
+    @Column(nullable = false)
+    private boolean available;
+
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+}
@@ -0,0 +1,78 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the seats one user holds on a visit slot in the Animal Sanctuary application.
+ * A slot with several seats, such as a group tour, has one booking per user who booked it; the seats they hold are
+ * subtracted from {@link Visit#getSeatsLeft()} in the same transaction the booking is inserted in.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "visit_bookings")} - Specifies the name of the database table to be used for mapping, declares
+ * the unique {@code (visit_id, user_id)} constraint that keeps a user from booking a slot twice, and the
+ * {@code user_id} index that finds the bookings of a user.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @OnDelete(action = OnDeleteAction.CASCADE)} - Hibernate annotation making the database delete the bookings
+ * of a deleted visit or user.
+ * {@code @CreationTimestamp} - Hibernate annotation to automatically set the creation timestamp.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the booking.
+ * {@code visit} - The visit slot booked.
+ * {@code user} - The user who booked the seats.
+ * {@code seats} - The number of seats booked.
+ * {@code createdAt} - The timestamp when the booking was made.
+ *
+ * Relationships:
+ * {@code @ManyToOne(fetch = FetchType.LAZY)} - Defines many-to-one relationships with the {@code Visit} and
+ * {@code User} entities, with lazy fetching.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "visit_bookings", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_visit_bookings_visit_user", columnNames = {"visit_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_visit_bookings_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitBooking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "visit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Visit visit;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(nullable = false)
+    private int seats;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
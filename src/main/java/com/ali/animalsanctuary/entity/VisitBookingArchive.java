@@ -0,0 +1,59 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a booking of an archived visit slot in the Animal Sanctuary application.
+ * Bookings are moved along with their {@link VisitArchive} in the same transaction, so reports over archived visits
+ * still know who attended them. The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "visit_bookings_archive")} - Specifies the name of the database table to be used for mapping,
+ * and declares the {@code visit_id} and {@code user_id} indexes that find the bookings of a visit or a user.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ *
+ * Fields:
+ * {@code id} - The identifier the booking had in the {@code visit_bookings} table.
+ * {@code visitId} - The ID of the archived visit.
+ * {@code userId} - The ID of the user who booked the seats.
+ * {@code seats} - The number of seats booked.
+ * {@code createdAt} - The timestamp when the booking was made.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "visit_bookings_archive", indexes = {
+        @Index(name = "idx_visit_bookings_archive_visit", columnList = "visit_id"),
+        @Index(name = "idx_visit_bookings_archive_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitBookingArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "visit_id", nullable = false)
+    private Long visitId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int seats;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+}
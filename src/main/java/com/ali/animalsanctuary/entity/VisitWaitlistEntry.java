@@ -0,0 +1,77 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a user waiting for seats on a fully booked visit slot in the Animal Sanctuary application.
+ * Entries of a slot are served first come, first served: the entry with the lowest ID is at the head of the
+ * waitlist. The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "visit_waitlist")} - Specifies the name of the database table to be used for mapping, declares
+ * the unique {@code (visit_id, user_id)} constraint that keeps a user from waiting twice for a slot, and the
+ * {@code (visit_id, id)} index that finds the head of the waitlist of a slot with one index seek.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @OnDelete(action = OnDeleteAction.CASCADE)} - Hibernate annotation making the database delete the entries
+ * of a deleted visit or user.
+ * {@code @CreationTimestamp} - Hibernate annotation to automatically set the creation timestamp.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the entry, increasing in the order users joined.
+ * {@code visit} - The visit slot waited for.
+ * {@code user} - The user waiting.
+ * {@code seats} - The number of seats the user wants.
+ * {@code createdAt} - The timestamp when the user joined the waitlist.
+ *
+ * Relationships:
+ * {@code @ManyToOne(fetch = FetchType.LAZY)} - Defines many-to-one relationships with the {@code Visit} and
+ * {@code User} entities, with lazy fetching.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "visit_waitlist", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_visit_waitlist_visit_user", columnNames = {"visit_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_visit_waitlist_visit_id", columnList = "visit_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitWaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "visit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Visit visit;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(nullable = false)
+    private int seats;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
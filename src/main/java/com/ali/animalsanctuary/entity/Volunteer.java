@@ -1,10 +1,12 @@
 package com.ali.animalsanctuary.entity;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -18,7 +20,8 @@ import java.util.Set;
  *
  * Annotations:
  * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
- * {@code @Table(name = "volunteers")} - Specifies the name of the database table to be used for mapping.
+ * {@code @Table(name = "volunteers")} - Specifies the name of the database table to be used for mapping, and the
+ * {@code start_date} index that finds the shifts starting in a date range.
  * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
  * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
  * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
@@ -28,6 +31,9 @@ import java.util.Set;
  * {@code startDate} - The start date of the volunteer task.
  * {@code endDate} - The end date of the volunteer task.
  * {@code task} - A description of the volunteer task.
+ * {@code capacity} - The maximum number of users who can sign up for the task, or {@code null} for no limit.
+ * {@code signedUp} - The number of users signed up for the task, kept alongside the join table so that the capacity
+ * is checked with one guarded update of this row.
  * {@code users} - The set of users assigned to the volunteer task.
  *
  * Relationships:
@@ -37,15 +43,23 @@ import java.util.Set;
  * {@code @NotNull(message = "Start date is required")} - Specifies that the start date cannot be null and provides a custom validation message.
  * {@code @NotNull(message = "End date is required")} - Specifies that the end date cannot be null and provides a custom validation message.
  * {@code @NotNull(message = "Task is required")} - Specifies that the task description cannot be null and provides a custom validation message.
+ * {@code @Min(value = 1, message = "Capacity must be at least 1")} - Specifies that a capacity, when given, is positive.
+ * {@code @Column(updatable = false)} - Leaves {@code signed_up} out of entity updates; after the insert it is only
+ * changed by the sign-up statements of the repository.
+ * {@code @ColumnDefault("0")} - Hibernate annotation giving existing rows a zero count when the column is added.
  *
  * Join Table:
  * {@code @JoinTable(name = "volunteer_users")} - Specifies the join table for the many-to-many relationship between volunteers and users.
  * {@code @JoinColumn(name = "volunteer_id")} - Defines the join column for the volunteer side of the relationship.
  * {@code @JoinColumn(name = "user_id")} - Defines the join column for the user side of the relationship.
+ * {@code @Index(name = "idx_volunteer_users_user")} - Indexes the join table by user, so the shifts of a user are found
+ * with one index seek instead of a scan of every sign-up.
  */
 
 @Entity
-@Table(name = "volunteers")
+@Table(name = "volunteers", indexes = {
+        @Index(name = "idx_volunteers_start_date", columnList = "start_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,11 +77,19 @@ public class Volunteer {
     @NotNull(message = "Task is required")
     private String task;
 
+    @Min(value = 1, message = "Capacity must be at least 1")
+    private Integer capacity;
+
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int signedUp;
+
     @ManyToMany
     @JoinTable(
             name = "volunteer_users",
             joinColumns = @JoinColumn(name = "volunteer_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_volunteer_users_user", columnList = "user_id")
     )
     private Set<User> users = new HashSet<>();
 }
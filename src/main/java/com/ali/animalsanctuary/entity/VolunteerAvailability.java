@@ -0,0 +1,79 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Represents a weekly window during which a user is available for volunteer shifts in the Animal Sanctuary
+ * application, such as "Tuesdays from 9:00 to 13:00".
+ * The automatic shift assignment only assigns a user to a shift lying inside one of their windows on the day it
+ * starts; a user without windows is never assigned automatically.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "volunteer_availability")} - Specifies the name of the database table to be used for mapping,
+ * and the {@code user_id} index that finds the windows of a user.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @OnDelete(action = OnDeleteAction.CASCADE)} - Hibernate annotation making the database delete the windows of a
+ * deleted user.
+ * {@code @Enumerated(EnumType.STRING)} - Stores the day of the week by name.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the window.
+ * {@code user} - The user who is available.
+ * {@code dayOfWeek} - The day of the week of the window.
+ * {@code startTime} - The time of day the window starts.
+ * {@code endTime} - The time of day the window ends; {@code 00:00} for midnight.
+ *
+ * Relationships:
+ * {@code @ManyToOne(fetch = FetchType.LAZY)} - Defines a many-to-one relationship with the {@code User} entity, with
+ * lazy fetching.
+ *
+ * Column Constraints:
+ * {@code @NotNull(message = "Day is required")} - Specifies that the day cannot be null and provides a custom validation message.
+ * {@code @NotNull(message = "Start time is required")} - Specifies that the start time cannot be null and provides a custom validation message.
+ * {@code @NotNull(message = "End time is required")} - Specifies that the end time cannot be null and provides a custom validation message.
+ */
+
+@Entity
+@Table(name = "volunteer_availability", indexes = {
+        @Index(name = "idx_volunteer_availability_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerAvailability {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @NotNull(message = "Day is required")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 9)
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time is required")
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    @Column(nullable = false)
+    private LocalTime endTime;
+}
@@ -0,0 +1,80 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the volunteer hours one user contributed during one day or one month in the Animal Sanctuary
+ * application.
+ * The rows are a rollup of the {@code volunteers}, {@code volunteer_users} and {@code volunteer_occurrence_signups}
+ * tables, kept up to date in the same transaction as every shift or sign-up change, so that hour reports read a few
+ * rows per user and period instead of every shift. A shift is credited in full to the day and the month it starts in.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "volunteer_hours")} - Specifies the name of the database table to be used for mapping, declares
+ * the unique {@code (user_id, granularity, period_start)} constraint that keeps one row per user and period, and the
+ * {@code (granularity, period_start)} index that finds the rows of a date range for the leaderboard.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @Enumerated(EnumType.STRING)} - Stores the granularity by name.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the rollup row.
+ * {@code userId} - The ID of the user. Kept as a plain column, like the archived visits, so that rollups never
+ * load users.
+ * {@code granularity} - Whether the row covers a day or a month.
+ * {@code periodStart} - The day covered, or the first day of the month covered.
+ * {@code minutes} - The minutes of volunteer work the user signed up for in the period.
+ * {@code shifts} - The number of shifts the user signed up for in the period.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "volunteer_hours", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_volunteer_hours_user_period",
+                columnNames = {"user_id", "granularity", "period_start"})
+}, indexes = {
+        @Index(name = "idx_volunteer_hours_period", columnList = "granularity, period_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerHours {
+
+    /**
+     * The length of the period a rollup row covers.
+     */
+    public enum Granularity {
+        DAY,
+        MONTH
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 5)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private long minutes;
+
+    @Column(nullable = false)
+    private int shifts;
+}
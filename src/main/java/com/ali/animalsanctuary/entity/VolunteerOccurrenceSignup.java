@@ -0,0 +1,82 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the sign-up of one user for one occurrence of a recurring volunteer task in the Animal Sanctuary
+ * application.
+ * Occurrences are not stored, so a sign-up is an exception recorded against the {@link VolunteerRecurrence} rule and
+ * the start time of the occurrence. An occurrence nobody signed up for has no row at all.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "volunteer_occurrence_signups")} - Specifies the name of the database table to be used for
+ * mapping, declares the unique {@code (recurrence_id, occurrence_start, user_id)} constraint that keeps a user from
+ * signing up for an occurrence twice, the {@code occurrence_start} index that counts the sign-ups of a date range,
+ * and the {@code user_id} index that finds the sign-ups of a user.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ * {@code @OnDelete(action = OnDeleteAction.CASCADE)} - Hibernate annotation making the database delete the sign-ups
+ * of a deleted recurring task or user.
+ * {@code @CreationTimestamp} - Hibernate annotation to automatically set the creation timestamp.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the sign-up.
+ * {@code recurrence} - The recurring task signed up for.
+ * {@code occurrenceStart} - The start time of the occurrence signed up for.
+ * {@code user} - The user who signed up.
+ * {@code createdAt} - The timestamp when the sign-up was made.
+ *
+ * Relationships:
+ * {@code @ManyToOne(fetch = FetchType.LAZY)} - Defines many-to-one relationships with the {@code VolunteerRecurrence}
+ * and {@code User} entities, with lazy fetching.
+ *
+ * Column Constraints:
+ * {@code @Column(nullable = false)} - Specifies that the column cannot be null.
+ */
+
+@Entity
+@Table(name = "volunteer_occurrence_signups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_volunteer_occurrence_signups",
+                columnNames = {"recurrence_id", "occurrence_start", "user_id"})
+}, indexes = {
+        @Index(name = "idx_volunteer_occurrence_signups_start", columnList = "occurrence_start"),
+        @Index(name = "idx_volunteer_occurrence_signups_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerOccurrenceSignup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "recurrence_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private VolunteerRecurrence recurrence;
+
+    @Column(nullable = false)
+    private LocalDateTime occurrenceStart;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,79 @@
+package com.ali.animalsanctuary.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a recurring volunteer task in the Animal Sanctuary application, such as "feeding every day at 8:00 for a
+ * year".
+ * The task is stored as one row holding its first occurrence and an iCalendar style recurrence rule; the occurrences
+ * are expanded from the rule when a range of dates is listed and never stored. Sign-ups for an occurrence are stored
+ * against the rule as {@link VolunteerOccurrenceSignup} rows.
+ * The entity is annotated for use with JPA/Hibernate.
+ *
+ * Annotations:
+ * {@code @Entity} - Specifies that this class is an entity and is mapped to a database table.
+ * {@code @Table(name = "volunteer_recurrences")} - Specifies the name of the database table to be used for mapping,
+ * and the {@code (start_date, last_start)} index that finds the rules with occurrences in a date range.
+ * {@code @Data} - Lombok annotation to generate boilerplate code such as getters, setters, toString, etc.
+ * {@code @NoArgsConstructor} - Lombok annotation to generate a no-arguments constructor.
+ * {@code @AllArgsConstructor} - Lombok annotation to generate an all-arguments constructor.
+ *
+ * Fields:
+ * {@code id} - The unique identifier for the recurring task.
+ * {@code task} - A description of the volunteer task.
+ * {@code startDate} - The start of the first occurrence; every occurrence starts at its time of day.
+ * {@code endDate} - The end of the first occurrence; every occurrence lasts as long.
+ * {@code rule} - The recurrence rule, such as {@code FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20251231}.
+ * {@code capacity} - The maximum number of users who can sign up for each occurrence, or {@code null} for no limit.
+ * {@code lastStart} - The start of the last occurrence, or {@code null} if the rule repeats forever. Derived from the
+ * rule when the task is saved, so that rules ended before a date range are skipped by the query.
+ *
+ * Column Constraints:
+ * {@code @NotNull(message = "Start date is required")} - Specifies that the start date cannot be null and provides a custom validation message.
+ * {@code @NotNull(message = "End date is required")} - Specifies that the end date cannot be null and provides a custom validation message.
+ * {@code @NotNull(message = "Task is required")} - Specifies that the task description cannot be null and provides a custom validation message.
+ * {@code @NotBlank(message = "Recurrence rule is required")} - Specifies that the rule cannot be blank and provides a custom validation message.
+ * {@code @Min(value = 1, message = "Capacity must be at least 1")} - Specifies that a capacity, when given, is positive.
+ */
+
+@Entity
+@Table(name = "volunteer_recurrences", indexes = {
+        @Index(name = "idx_volunteer_recurrences_window", columnList = "start_date, last_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolunteerRecurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "Task is required")
+    private String task;
+
+    @NotNull(message = "Start date is required")
+    @Column(nullable = false)
+    private LocalDateTime startDate;
+
+    @NotNull(message = "End date is required")
+    @Column(nullable = false)
+    private LocalDateTime endDate;
+
+    @NotBlank(message = "Recurrence rule is required")
+    @Column(nullable = false)
+    private String rule;
+
+    @Min(value = 1, message = "Capacity must be at least 1")
+    private Integer capacity;
+
+    private LocalDateTime lastStart;
+}
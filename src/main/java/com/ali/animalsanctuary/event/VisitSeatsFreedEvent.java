@@ -0,0 +1,20 @@
+package com.ali.animalsanctuary.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published once a change that may let waiting users onto a visit slot has committed: seats were given back, the
+ * capacity grew, or the waitlist of the slot changed.
+ *
+ * Fields:
+ * {@code visitId} - The ID of the visit slot whose waitlist should be served.
+ */
+
+@Data
+@AllArgsConstructor
+public class VisitSeatsFreedEvent {
+
+    private Long visitId;
+
+}
@@ -0,0 +1,20 @@
+package com.ali.animalsanctuary.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published once a change to the seats or existence of a visit slot has committed: a booking, a cancellation, a
+ * waitlist promotion, an edit or a deletion.
+ *
+ * Fields:
+ * {@code visitId} - The ID of the changed visit slot.
+ */
+
+@Data
+@AllArgsConstructor
+public class VisitSlotChangedEvent {
+
+    private Long visitId;
+
+}
@@ -0,0 +1,23 @@
+package com.ali.animalsanctuary.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when uploaded image content is refused by the image store, either because it exceeds the maximum
+ * allowed size or because it is not in a supported image format.
+ *
+ * It extends {@link IOException} so that callers already handling failed uploads treat a rejected image the same
+ * way; the message is safe to show to the user.
+ */
+
+public class ImageRejectedException extends IOException {
+
+    /**
+     * Constructs a new {@link ImageRejectedException} with the specified message.
+     *
+     * @param message the reason the image was rejected.
+     */
+    public ImageRejectedException(String message) {
+        super(message);
+    }
+}
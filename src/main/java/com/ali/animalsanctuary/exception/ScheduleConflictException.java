@@ -0,0 +1,20 @@
+package com.ali.animalsanctuary.exception;
+
+/**
+ * Thrown when a visit slot or volunteer shift would overlap another one, or when a user would be booked for two
+ * things at the same time.
+ *
+ * The message is safe to show to the user.
+ */
+
+public class ScheduleConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@link ScheduleConflictException} with the specified message.
+     *
+     * @param message the conflict to report.
+     */
+    public ScheduleConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,14 +1,25 @@
 package com.ali.animalsanctuary.repository;
 
+import com.ali.animalsanctuary.dto.AnimalCard;
+import com.ali.animalsanctuary.dto.AnimalFacets;
+import com.ali.animalsanctuary.dto.AnimalImageInfo;
+import com.ali.animalsanctuary.dto.ListingVersion;
 import com.ali.animalsanctuary.entity.Animal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for accessing and managing {@link Animal} entities.
  * Provides CRUD operations inherited from {@link JpaRepository}.
  *
- * The repository will be automatically implemented by Spring Data JPA.
+ * Includes custom query methods to check whether an image is still referenced by any animal and to read the
+ * narrow projections used by the keyset paginated catalogue and for HTTP cache validation.
  *
  * @see Animal
  * @see JpaRepository
@@ -16,4 +27,105 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AnimalRepository extends JpaRepository<Animal, Long> {
+
+    /**
+     * The optional catalogue filter shared by the keyset queries. Each condition is disabled by binding
+     * {@code null}, which the database folds away before choosing an index.
+     */
+    String FILTER = "and (:species is null or a.species = :species) "
+            + "and (:breed is null or a.breed = :breed) "
+            + "and (:gender is null or a.gender = :gender) "
+            + "and (:minAge is null or a.age >= :minAge) "
+            + "and (:maxAge is null or a.age <= :maxAge) "
+            + "and (:adopted is null or a.adopted = :adopted) ";
+
+    /**
+     * Checks whether any {@link Animal} entity references the image with the specified key.
+     *
+     * @param imageKey the content address of the image.
+     * @return {@code true} if at least one animal references the image.
+     */
+    boolean existsByImageKey(String imageKey);
+
+    /**
+     * Finds the image columns of the {@link Animal} entity with the specified ID.
+     *
+     * @param id the ID of the animal.
+     * @return an {@link Optional} containing the {@link AnimalImageInfo} projection if found.
+     */
+    @Query("select a.id as id, a.imageKey as imageKey, a.imageContentType as imageContentType, a.updatedAt as updatedAt "
+            + "from Animal a where a.id = :id")
+    Optional<AnimalImageInfo> findImageInfoById(Long id);
+
+    /**
+     * Finds the listing cards of the {@link Animal} entities matching a filter whose ID is greater than a cursor,
+     * in ascending ID order. A {@code null} filter argument does not restrict the result.
+     *
+     * <p>The query seeks directly to the cursor through the primary key or one of the composite filter indexes
+     * declared on {@link Animal}, so every page costs the same regardless of how deep into the catalogue it is.
+     *
+     * @param species the species to match, or {@code null}.
+     * @param breed   the breed to match, or {@code null}.
+     * @param gender  the gender to match, or {@code null}.
+     * @param minAge  the minimum age, or {@code null}.
+     * @param maxAge  the maximum age, or {@code null}.
+     * @param adopted the adoption flag to match, or {@code null}.
+     * @param afterId the ID of the last animal on the previous page; {@code 0} for the first page.
+     * @param limit   the maximum number of cards to return.
+     * @return a list of {@link AnimalCard} projections.
+     */
+    @Query("select a.id as id, a.name as name, a.description as description, a.imageKey as imageKey "
+            + "from Animal a where a.id > :afterId " + FILTER + "order by a.id asc")
+    List<AnimalCard> findCardsAfter(String species, String breed, String gender, Integer minAge, Integer maxAge,
+                                    Boolean adopted, long afterId, Limit limit);
+
+    /**
+     * Finds the listing cards of the {@link Animal} entities matching a filter whose ID is less than a cursor,
+     * in descending ID order. Used to page backwards; a {@code null} filter argument does not restrict the result.
+     *
+     * @param species  the species to match, or {@code null}.
+     * @param breed    the breed to match, or {@code null}.
+     * @param gender   the gender to match, or {@code null}.
+     * @param minAge   the minimum age, or {@code null}.
+     * @param maxAge   the maximum age, or {@code null}.
+     * @param adopted  the adoption flag to match, or {@code null}.
+     * @param beforeId the ID of the first animal on the following page.
+     * @param limit    the maximum number of cards to return.
+     * @return a list of {@link AnimalCard} projections, nearest to the cursor first.
+     */
+    @Query("select a.id as id, a.name as name, a.description as description, a.imageKey as imageKey "
+            + "from Animal a where a.id < :beforeId " + FILTER + "order by a.id desc")
+    List<AnimalCard> findCardsBefore(String species, String breed, String gender, Integer minAge, Integer maxAge,
+                                     Boolean adopted, long beforeId, Limit limit);
+
+    /**
+     * Finds the listing cards of the {@link Animal} entities with the specified IDs, in no particular order.
+     *
+     * @param ids the IDs of the animals.
+     * @return a list of {@link AnimalCard} projections.
+     */
+    @Query("select a.id as id, a.name as name, a.description as description, a.imageKey as imageKey "
+            + "from Animal a where a.id in :ids")
+    List<AnimalCard> findCardsByIdIn(Collection<Long> ids);
+
+    /**
+     * Finds the facet values of the {@link Animal} entities whose ID is greater than a cursor, in ascending ID order.
+     * Used to build the in-memory facet index in keyset batches.
+     *
+     * @param afterId the ID of the last animal of the previous batch; {@code 0} for the first batch.
+     * @param limit   the maximum number of rows to return.
+     * @return a list of {@link AnimalFacets}.
+     */
+    @Query("select new com.ali.animalsanctuary.dto.AnimalFacets(a.id, a.species, a.breed, a.gender, a.age, a.adopted) "
+            + "from Animal a where a.id > :afterId order by a.id")
+    List<AnimalFacets> findFacetsAfter(long afterId, Limit limit);
+
+    /**
+     * Summarizes the animals table for validating cached listing pages. Animals are only written through the entity,
+     * whose update timestamps all come from the application clock, so they keep no row revisions.
+     *
+     * @return the {@link ListingVersion} of the animals table.
+     */
+    @Query("select count(a) as count, max(a.updatedAt) as lastUpdated, 0L as revision from Animal a")
+    ListingVersion findListingVersion();
 }
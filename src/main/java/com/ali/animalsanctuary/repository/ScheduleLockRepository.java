@@ -0,0 +1,46 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.entity.ScheduleLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing {@link ScheduleLock} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Includes a locking read that holds the row of a schedule until the end of the transaction, and a native insert
+ * creating the row the first time it is needed.
+ *
+ * @see ScheduleLock
+ * @see JpaRepository
+ */
+
+@Repository
+public interface ScheduleLockRepository extends JpaRepository<ScheduleLock, String> {
+
+    /**
+     * Finds the row of a schedule and locks it until the end of the transaction.
+     *
+     * @param name the name of the schedule.
+     * @return an {@link Optional} containing the {@link ScheduleLock}, if its row exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from ScheduleLock l where l.name = :name")
+    Optional<ScheduleLock> findLockedByName(String name);
+
+    /**
+     * Creates the row of a schedule. The primary key rejects a row created concurrently.
+     *
+     * @param name the name of the schedule.
+     * @return {@code 1}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO schedule_locks (name) VALUES (:name)", nativeQuery = true)
+    int insertLock(String name);
+}
@@ -1,16 +1,22 @@
 package com.ali.animalsanctuary.repository;
 
 import com.ali.animalsanctuary.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for accessing and managing {@link User} entities.
  * Provides CRUD operations inherited from {@link JpaRepository}.
  *
- * Includes custom query methods to find users by email and username.
+ * Includes custom query methods to find users by email and username, and a locking read serializing the bookings
+ * and sign-ups of a user.
  *
  * @see User
  * @see JpaRepository
@@ -34,4 +40,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an {@link Optional} containing the {@link User} entity if found.
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Locks the rows of the specified users until the end of the transaction, in ID order, so that concurrent
+     * bookings and sign-ups of one user check their other commitments one at a time. Neither the users nor their
+     * roles are loaded.
+     *
+     * @param ids the IDs of the users.
+     * @return the IDs of the users that exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from User u where u.id in :ids order by u.id asc")
+    List<Long> lockAllById(Collection<Long> ids);
 }
@@ -0,0 +1,114 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.dto.VisitMember;
+import com.ali.animalsanctuary.entity.VisitBooking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing {@link VisitBooking} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Includes custom statements to record and remove bookings without loading the visits or users they refer to, and a
+ * keyset query reading who booked which slot for the schedule index.
+ *
+ * @see VisitBooking
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VisitBookingRepository extends JpaRepository<VisitBooking, Long> {
+
+    /**
+     * Records that a user holds seats on a visit slot. Meant to run in the transaction that took the seats from the
+     * slot; the unique {@code (visit_id, user_id)} constraint makes a second booking of the same slot by the same
+     * user fail, rolling the seats back with it.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @param seats   the number of seats booked.
+     * @return {@code 1}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO visit_bookings (visit_id, user_id, seats, created_at) "
+            + "VALUES (:visitId, :userId, :seats, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertBooking(Long visitId, Long userId, int seats);
+
+    /**
+     * Finds the number of seats a user holds on a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @return an {@link Optional} containing the number of seats, or {@link Optional#empty()} if the user has no
+     * booking on the slot.
+     */
+    @Query("select b.seats from VisitBooking b where b.visit.id = :visitId and b.user.id = :userId")
+    Optional<Integer> findSeats(Long visitId, Long userId);
+
+    /**
+     * Checks whether a user booked a visit slot, other than the specified one, that overlaps a time range.
+     *
+     * @param userId  the ID of the user.
+     * @param from    the start of the range, inclusive.
+     * @param to      the end of the range, exclusive.
+     * @param visitId the ID of the visit slot to leave out, or {@code null}.
+     * @return {@code true} if the user holds seats on an overlapping slot.
+     */
+    @Query("select count(b) > 0 from VisitBooking b join b.visit v where b.user.id = :userId "
+            + "and v.startTime < :to and v.endTime > :from and (:visitId is null or v.id <> :visitId)")
+    boolean existsOverlapping(Long userId, LocalDateTime from, LocalDateTime to, Long visitId);
+
+    /**
+     * Deletes the booking of a user on a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @return {@code 1} if the booking was deleted, {@code 0} if there was none, for instance because a concurrent
+     * cancellation deleted it first.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM visit_bookings WHERE visit_id = :visitId AND user_id = :userId", nativeQuery = true)
+    int deleteBooking(Long visitId, Long userId);
+
+    /**
+     * Deletes every booking of a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @return the number of bookings deleted.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM visit_bookings WHERE visit_id = :visitId", nativeQuery = true)
+    int deleteBookings(Long visitId);
+
+    /**
+     * Finds the bookings whose ID is greater than a cursor, in ID order. Used to build the schedule index in keyset
+     * batches.
+     *
+     * @param afterId the ID of the last booking of the previous batch; {@code 0} for the first batch.
+     * @param limit   the maximum number of bookings to return.
+     * @return a list of {@link VisitMember} projections.
+     */
+    @Query("select b.id as id, b.visit.id as visitId, b.user.id as userId from VisitBooking b "
+            + "where b.id > :afterId order by b.id asc")
+    List<VisitMember> findMembersAfter(long afterId, Limit limit);
+
+    /**
+     * Copies the bookings of visits into the {@code visit_bookings_archive} table, keeping their IDs.
+     *
+     * @param visitIds the IDs of the visits.
+     * @return the number of bookings copied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO visit_bookings_archive (id, visit_id, user_id, seats, created_at) "
+            + "SELECT id, visit_id, user_id, seats, created_at FROM visit_bookings WHERE visit_id IN (:visitIds)",
+            nativeQuery = true)
+    int copyToArchive(Collection<Long> visitIds);
+}
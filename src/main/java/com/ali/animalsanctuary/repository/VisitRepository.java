@@ -1,17 +1,32 @@
 package com.ali.animalsanctuary.repository;
 
+import com.ali.animalsanctuary.dto.ListingVersion;
+import com.ali.animalsanctuary.dto.VisitSeats;
+import com.ali.animalsanctuary.dto.VisitTimes;
+import com.ali.animalsanctuary.dto.VisitUsage;
 import com.ali.animalsanctuary.entity.Visit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for accessing and managing {@link Visit} entities.
  * Provides CRUD operations inherited from {@link JpaRepository}.
  *
- * Includes custom query methods to find visits that are available and by ID if available.
+ * Includes custom query methods to find visits that are available, by ID if available, and page by page within a
+ * time window, to read the times of the visits for overlap checks and the availability calendar, to take and give back
+ * seats atomically, and to summarize the table for HTTP cache validation.
  *
  * @see Visit
  * @see JpaRepository
@@ -20,6 +35,12 @@ import java.util.Optional;
 @Repository
 public interface VisitRepository extends JpaRepository<Visit, Long> {
 
+    /**
+     * The time window shared by the keyset queries: available slots starting at or after {@code from} and, unless
+     * {@code to} is {@code null}, before {@code to}.
+     */
+    String WINDOW = "v.available = true and v.startTime >= :from and (:to is null or v.startTime < :to) ";
+
     /**
      * Finds all {@link Visit} entities that are currently available.
      *
@@ -34,4 +55,263 @@ public interface VisitRepository extends JpaRepository<Visit, Long> {
      * @return an {@link Optional} containing the {@link Visit} entity if found and available.
      */
     Optional<Visit> findByIdAndAvailableTrue(Long id);
+
+    /**
+     * Finds the available {@link Visit} slots in a time window that come after a cursor, in start time order. Slots
+     * starting at the same time are ordered by ID, so the cursor is the start time and ID of the last slot of the
+     * previous page.
+     *
+     * <p>The query is a range scan over the {@code (available, start_time)} index declared on {@link Visit} that
+     * starts at the cursor, so every page costs the same however many slots lie before it. Only the {@code visits}
+     * rows are read: the lazy {@code user} of each slot stays an unloaded proxy, which the listing page never
+     * navigates, so rendering a page issues no query per slot.
+     *
+     * @param from       the start of the window, inclusive.
+     * @param to         the end of the window, exclusive, or {@code null} for no end.
+     * @param afterStart the start time of the last slot of the previous page; {@code from} for the first page.
+     * @param afterId    the ID of the last slot of the previous page; {@code 0} for the first page.
+     * @param limit      the maximum number of slots to return.
+     * @return a list of available {@link Visit} entities.
+     */
+    @Query("select v from Visit v where " + WINDOW
+            + "and (v.startTime > :afterStart or (v.startTime = :afterStart and v.id > :afterId)) "
+            + "order by v.startTime asc, v.id asc")
+    List<Visit> findAvailableAfter(LocalDateTime from, LocalDateTime to, LocalDateTime afterStart, long afterId,
+                                   Limit limit);
+
+    /**
+     * Finds the available {@link Visit} slots in a time window that come before a cursor, in descending start time
+     * order. Used to page backwards.
+     *
+     * @param from        the start of the window, inclusive.
+     * @param to          the end of the window, exclusive, or {@code null} for no end.
+     * @param beforeStart the start time of the first slot of the following page.
+     * @param beforeId    the ID of the first slot of the following page.
+     * @param limit       the maximum number of slots to return.
+     * @return a list of available {@link Visit} entities.
+     */
+    @Query("select v from Visit v where " + WINDOW
+            + "and (v.startTime < :beforeStart or (v.startTime = :beforeStart and v.id < :beforeId)) "
+            + "order by v.startTime desc, v.id desc")
+    List<Visit> findAvailableBefore(LocalDateTime from, LocalDateTime to, LocalDateTime beforeStart, long beforeId,
+                                    Limit limit);
+
+    /**
+     * Finds the times of all {@link Visit} entities, booked or not, that overlap a time range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link VisitTimes} projections.
+     */
+    @Query("select v.id as id, v.startTime as startTime, v.endTime as endTime from Visit v "
+            + "where v.startTime < :to and v.endTime > :from order by v.startTime asc")
+    List<VisitTimes> findTimesOverlapping(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Checks whether a {@link Visit} other than the specified one overlaps a time range.
+     *
+     * @param from    the start of the range, inclusive.
+     * @param to      the end of the range, exclusive.
+     * @param visitId the ID of the visit to leave out, or {@code null}.
+     * @return {@code true} if another visit overlaps the range.
+     */
+    @Query("select count(v) > 0 from Visit v where v.startTime < :to and v.endTime > :from "
+            + "and (:visitId is null or v.id <> :visitId)")
+    boolean existsOverlapping(LocalDateTime from, LocalDateTime to, Long visitId);
+
+    /**
+     * Finds the times of a {@link Visit} without loading it.
+     *
+     * @param id the ID of the visit.
+     * @return an {@link Optional} containing the {@link VisitTimes} projection if the visit exists.
+     */
+    @Query("select v.id as id, v.startTime as startTime, v.endTime as endTime from Visit v where v.id = :id")
+    Optional<VisitTimes> findTimesById(Long id);
+
+    /**
+     * Finds the times of the {@link Visit} entities whose ID is greater than a cursor, in ID order. Used to build the
+     * schedule index in keyset batches.
+     *
+     * @param afterId the ID of the last visit of the previous batch; {@code 0} for the first batch.
+     * @param limit   the maximum number of visits to return.
+     * @return a list of {@link VisitTimes} projections.
+     */
+    @Query("select v.id as id, v.startTime as startTime, v.endTime as endTime from Visit v "
+            + "where v.id > :afterId order by v.id asc")
+    List<VisitTimes> findTimesAfter(long afterId, Limit limit);
+
+    /**
+     * Streams the start times of the available {@link Visit} slots. The rows are fetched from the database in chunks
+     * as the stream is consumed, so the whole table never has to fit in memory; the stream must be consumed within a
+     * transaction and closed afterwards.
+     *
+     * @return a {@link Stream} of start times.
+     */
+    @Query("select v.startTime from Visit v where v.available = true")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<LocalDateTime> streamAvailableStartTimes();
+
+    /**
+     * Finds the seat counts of a {@link Visit}.
+     *
+     * @param id the ID of the visit.
+     * @return an {@link Optional} containing the {@link VisitSeats} projection if the visit exists.
+     */
+    @Query("select v.capacity as capacity, v.seatsLeft as seatsLeft from Visit v where v.id = :id")
+    Optional<VisitSeats> findSeatsById(Long id);
+
+    /**
+     * The statement taking seats from a visit slot if, and only if, that many seats are still free. {@code available}
+     * is assigned before {@code seats_left} and from its old value, which MySQL, evaluating assignments left to right,
+     * and standard SQL, evaluating them all against the old row, agree on. Single-seat slots also record their visitor
+     * in {@code user_id}.
+     */
+    String TAKE_SEATS = "UPDATE visits SET available = (seats_left > :seats), "
+            + "user_id = CASE WHEN capacity = 1 THEN :userId ELSE user_id END, "
+            + "seats_left = seats_left - :seats, updated_at = CURRENT_TIMESTAMP, revision = revision + 1 "
+            + "WHERE id = :visitId AND seats_left >= :seats ";
+
+    /**
+     * Takes seats from a visit slot if, and only if, that many seats are still free and nobody is waiting for the
+     * slot. The checks and the decrement are a single conditional update guarded in SQL, so concurrent bookings of
+     * the same slot are serialized by the row lock alone and can never oversell it, and seats freed while users wait
+     * are left to the waitlist: a booking that finds too few seats or a waitlist affects nothing.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user booking the seats.
+     * @param seats   the number of seats to take.
+     * @return {@code 1} if the seats were taken, {@code 0} if the slot does not exist, has too few seats left or has
+     * a waitlist.
+     */
+    @Modifying
+    @Query(value = TAKE_SEATS + "AND NOT EXISTS (SELECT 1 FROM visit_waitlist w WHERE w.visit_id = :visitId)",
+            nativeQuery = true)
+    int reserveSeats(Long visitId, Long userId, int seats);
+
+    /**
+     * Takes seats from a visit slot for a user promoted from its waitlist, if that many seats are still free.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the promoted user.
+     * @param seats   the number of seats to take.
+     * @return {@code 1} if the seats were taken, {@code 0} if the slot does not exist or has too few seats left.
+     */
+    @Modifying
+    @Query(value = TAKE_SEATS, nativeQuery = true)
+    int reserveWaitlistedSeats(Long visitId, Long userId, int seats);
+
+    /**
+     * Gives seats back to a visit slot, making it available again.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param seats   the number of seats given back.
+     * @return {@code 1} if the seats were given back, {@code 0} if the slot does not exist or that many seats were
+     * not taken.
+     */
+    @Modifying
+    @Query(value = "UPDATE visits SET available = true, user_id = NULL, seats_left = seats_left + :seats, "
+            + "updated_at = CURRENT_TIMESTAMP, revision = revision + 1 WHERE id = :visitId AND seats_left + :seats <= capacity",
+            nativeQuery = true)
+    int releaseSeats(Long visitId, int seats);
+
+    /**
+     * Gives every seat of a visit slot back, making it available again.
+     *
+     * @param visitId the ID of the visit slot.
+     * @return {@code 1} if the slot was reset, {@code 0} if it does not exist.
+     */
+    @Modifying
+    @Query(value = "UPDATE visits SET available = true, user_id = NULL, seats_left = capacity, "
+            + "updated_at = CURRENT_TIMESTAMP, revision = revision + 1 WHERE id = :visitId", nativeQuery = true)
+    int releaseAllSeats(Long visitId);
+
+    /**
+     * Changes the number of seats a visit slot offers, keeping the seats already booked. The change is refused in
+     * SQL when it would leave fewer seats than are booked.
+     *
+     * @param visitId  the ID of the visit slot.
+     * @param capacity the new number of seats.
+     * @return {@code 1} if the capacity was changed, {@code 0} if the slot does not exist or more seats are booked.
+     */
+    @Modifying
+    @Query(value = "UPDATE visits SET available = (seats_left + :capacity - capacity > 0), "
+            + "seats_left = seats_left + :capacity - capacity, capacity = :capacity, updated_at = CURRENT_TIMESTAMP, revision = revision + 1 "
+            + "WHERE id = :visitId AND seats_left + :capacity - capacity >= 0", nativeQuery = true)
+    int resizeSeats(Long visitId, int capacity);
+
+    /**
+     * Finds the times of the {@link Visit} entities that ended before a cutoff, earliest end first. Used to pick the
+     * next batch of visits to archive with a seek on the {@code end_time} index.
+     *
+     * @param cutoff the time before which the visits ended.
+     * @param limit  the maximum number of visits to return.
+     * @return a list of {@link VisitTimes} projections.
+     */
+    @Query("select v.id as id, v.startTime as startTime, v.endTime as endTime from Visit v "
+            + "where v.endTime < :cutoff order by v.endTime asc, v.id asc")
+    List<VisitTimes> findTimesEndedBefore(LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Copies visits into the {@code visits_archive} table, keeping their IDs.
+     *
+     * @param ids the IDs of the visits.
+     * @return the number of visits copied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO visits_archive (id, start_time, end_time, user_id, capacity, seats_left, available, "
+            + "updated_at, archived_at) SELECT id, start_time, end_time, user_id, capacity, seats_left, available, "
+            + "updated_at, CURRENT_TIMESTAMP FROM visits WHERE id IN (:ids)", nativeQuery = true)
+    int copyToArchive(Collection<Long> ids);
+
+    /**
+     * Deletes visits with one statement. The database deletes their bookings and waitlist entries along with them.
+     *
+     * @param ids the IDs of the visits.
+     * @return the number of visits deleted.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM visits WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIds(Collection<Long> ids);
+
+    /**
+     * Finds how many seats were booked on the visits starting within a time range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link VisitUsage} projections.
+     */
+    @Query("select v.id as id, v.startTime as startTime, v.endTime as endTime, v.capacity as capacity, "
+            + "v.capacity - v.seatsLeft as seatsBooked from Visit v "
+            + "where v.startTime >= :from and v.startTime < :to order by v.startTime asc")
+    List<VisitUsage> findUsageBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds how many seats were booked on the current and archived visits starting within a time range, in start time
+     * order. Both tables are read with a seek on their start time index and the results are unioned.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link VisitUsage} projections.
+     */
+    @Query(value = "SELECT u.id AS id, u.start_time AS startTime, u.end_time AS endTime, u.capacity AS capacity, "
+            + "u.seats_booked AS seatsBooked FROM ("
+            + "SELECT id, start_time, end_time, capacity, capacity - seats_left AS seats_booked FROM visits "
+            + "WHERE start_time >= :from AND start_time < :to "
+            + "UNION ALL "
+            + "SELECT id, start_time, end_time, capacity, capacity - seats_left AS seats_booked FROM visits_archive "
+            + "WHERE start_time >= :from AND start_time < :to"
+            + ") u ORDER BY u.start_time", nativeQuery = true)
+    List<VisitUsage> findUsageBetweenIncludingArchive(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Summarizes the visits table for validating cached listing pages. The seat statements stamp
+     * {@code updated_at} from the database clock and entity updates from the application clock, so the latest
+     * timestamp alone can miss a write; the sum of the row revisions moves with every one of them.
+     *
+     * @return the {@link ListingVersion} of the visits table.
+     */
+    @Query("select count(v) as count, max(v.updatedAt) as lastUpdated, coalesce(sum(v.revision), 0) as revision "
+            + "from Visit v")
+    ListingVersion findListingVersion();
 }
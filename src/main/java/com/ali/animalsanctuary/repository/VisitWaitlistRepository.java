@@ -0,0 +1,84 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.dto.WaitlistPlace;
+import com.ali.animalsanctuary.entity.VisitWaitlistEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link VisitWaitlistEntry} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Every statement is a seek on the unique {@code (visit_id, user_id)} constraint or the {@code (visit_id, id)} index
+ * of the waitlist table, so joining, leaving and reading the head of a waitlist cost {@code O(log n)} however long
+ * the waitlists grow.
+ *
+ * @see VisitWaitlistEntry
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VisitWaitlistRepository extends JpaRepository<VisitWaitlistEntry, Long> {
+
+    /**
+     * Adds a user to the end of the waitlist of a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @param seats   the number of seats the user wants.
+     * @return {@code 1}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO visit_waitlist (visit_id, user_id, seats, created_at) "
+            + "VALUES (:visitId, :userId, :seats, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertEntry(Long visitId, Long userId, int seats);
+
+    /**
+     * Checks whether a user is on the waitlist of a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @return {@code true} if the user is waiting for the slot.
+     */
+    boolean existsByVisitIdAndUserId(Long visitId, Long userId);
+
+    /**
+     * Finds the entries of the waitlist of a visit slot that follow a given entry, first come first.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param afterId the ID of the entry to start after; {@code 0} for the head of the waitlist.
+     * @param limit   the maximum number of entries to return.
+     * @return a list of {@link WaitlistPlace} projections.
+     */
+    @Query("select w.id as id, w.user.id as userId, w.seats as seats from VisitWaitlistEntry w "
+            + "where w.visit.id = :visitId and w.id > :afterId order by w.id asc")
+    List<WaitlistPlace> findHead(Long visitId, Long afterId, Limit limit);
+
+    /**
+     * Finds the visit slots whose waitlist may be served: slots with free seats, and slots that have started, whose
+     * waitlist has expired.
+     *
+     * @param now the current time.
+     * @return the IDs of the visit slots.
+     */
+    @Query("select distinct w.visit.id from VisitWaitlistEntry w "
+            + "where w.visit.seatsLeft > 0 or w.visit.startTime <= :now")
+    List<Long> findVisitIdsToPromote(LocalDateTime now);
+
+    /**
+     * Removes a user from the waitlist of a visit slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param userId  the ID of the user.
+     * @return {@code 1} if the user was removed, {@code 0} if they were not waiting.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM visit_waitlist WHERE visit_id = :visitId AND user_id = :userId", nativeQuery = true)
+    int deleteEntry(Long visitId, Long userId);
+}
@@ -0,0 +1,55 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.dto.AvailabilityWindow;
+import com.ali.animalsanctuary.entity.VolunteerAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link VolunteerAvailability} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Includes projection queries reading the windows without loading their users, for every user at once when
+ * assigning shifts or for one user on their availability page.
+ *
+ * @see VolunteerAvailability
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VolunteerAvailabilityRepository extends JpaRepository<VolunteerAvailability, Long> {
+
+    /**
+     * Finds the windows of every user, with one narrow SELECT on the {@code volunteer_availability} table.
+     *
+     * @return a list of {@link AvailabilityWindow} projections, in user order.
+     */
+    @Query("select a.id as id, a.user.id as userId, a.dayOfWeek as dayOfWeek, a.startTime as startTime, "
+            + "a.endTime as endTime from VolunteerAvailability a order by a.user.id asc")
+    List<AvailabilityWindow> findAllWindows();
+
+    /**
+     * Finds the windows of a user, with one seek on the {@code user_id} index.
+     *
+     * @param userId the ID of the user.
+     * @return a list of {@link AvailabilityWindow} projections, in ID order.
+     */
+    @Query("select a.id as id, a.user.id as userId, a.dayOfWeek as dayOfWeek, a.startTime as startTime, "
+            + "a.endTime as endTime from VolunteerAvailability a where a.user.id = :userId order by a.id asc")
+    List<AvailabilityWindow> findWindowsByUserId(Long userId);
+
+    /**
+     * Deletes a window of a user, if it is theirs.
+     *
+     * @param id     the ID of the window.
+     * @param userId the ID of the user.
+     * @return {@code 1} if the window was deleted, {@code 0} if it does not exist or belongs to another user.
+     */
+    @Modifying
+    @Query("delete from VolunteerAvailability a where a.id = :id and a.user.id = :userId")
+    int deleteWindow(Long id, Long userId);
+}
@@ -0,0 +1,75 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.dto.VolunteerHoursPeriod;
+import com.ali.animalsanctuary.dto.VolunteerHoursRank;
+import com.ali.animalsanctuary.entity.VolunteerHours;
+import com.ali.animalsanctuary.entity.VolunteerHours.Granularity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for reading the {@link VolunteerHours} rollups.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * The reports read the rollup rows of a range of periods only, so their cost depends on the number of users and
+ * periods in the range, never on the number of shifts behind them. The rows themselves are written with plain SQL
+ * by the service keeping them up to date.
+ *
+ * @see VolunteerHours
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VolunteerHoursRepository extends JpaRepository<VolunteerHours, Long> {
+
+    /**
+     * Ranks the users by the hours they contributed over a range of periods, most hours first, with one scan of the
+     * {@code (granularity, period_start)} index.
+     *
+     * @param granularity the granularity of the rollups to sum.
+     * @param from        the first period of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @param limit       the maximum number of users to return.
+     * @return a list of {@link VolunteerHoursRank} projections.
+     */
+    @Query("select h.userId as userId, u.username as username, sum(h.minutes) as minutes, sum(h.shifts) as shifts "
+            + "from VolunteerHours h join User u on u.id = h.userId "
+            + "where h.granularity = :granularity and h.periodStart >= :from and h.periodStart < :to "
+            + "group by h.userId, u.username order by sum(h.minutes) desc, h.userId asc")
+    List<VolunteerHoursRank> findLeaderboard(Granularity granularity, LocalDate from, LocalDate to, Limit limit);
+
+    /**
+     * Finds the rollups of a user over a range of periods, oldest first, with one seek on the unique
+     * {@code (user_id, granularity, period_start)} constraint.
+     *
+     * @param userId      the ID of the user.
+     * @param granularity the granularity of the rollups.
+     * @param from        the first period of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @return a list of {@link VolunteerHoursPeriod} projections.
+     */
+    @Query("select h.periodStart as periodStart, h.minutes as minutes, h.shifts as shifts from VolunteerHours h "
+            + "where h.userId = :userId and h.granularity = :granularity "
+            + "and h.periodStart >= :from and h.periodStart < :to order by h.periodStart asc")
+    List<VolunteerHoursPeriod> findPeriods(Long userId, Granularity granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Sums the minutes of the rollups of a user over a range of periods, with one seek on the unique
+     * {@code (user_id, granularity, period_start)} constraint.
+     *
+     * @param userId      the ID of the user.
+     * @param granularity the granularity of the rollups.
+     * @param from        the first period of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @return the minutes, {@code 0} if the user has no rollups in the range.
+     */
+    @Query("select coalesce(sum(h.minutes), 0) from VolunteerHours h "
+            + "where h.userId = :userId and h.granularity = :granularity "
+            + "and h.periodStart >= :from and h.periodStart < :to")
+    long sumMinutes(Long userId, Granularity granularity, LocalDate from, LocalDate to);
+}
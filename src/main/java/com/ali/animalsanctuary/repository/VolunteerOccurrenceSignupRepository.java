@@ -0,0 +1,130 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.dto.OccurrenceCount;
+import com.ali.animalsanctuary.dto.OccurrenceSignupTimes;
+import com.ali.animalsanctuary.entity.VolunteerOccurrenceSignup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link VolunteerOccurrenceSignup} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Includes a grouped query counting the sign-ups of every occurrence in a date range at once, statements recording a
+ * sign-up without loading the task or the user, a keyset query reading the sign-ups for the hours rollups, and a
+ * range query reading the sign-ups of the weeks being assigned.
+ *
+ * @see VolunteerOccurrenceSignup
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VolunteerOccurrenceSignupRepository extends JpaRepository<VolunteerOccurrenceSignup, Long> {
+
+    /**
+     * Counts the sign-ups of every occurrence starting in a range, with one scan of the {@code occurrence_start}
+     * index. Occurrences nobody signed up for are not returned.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link OccurrenceCount} projections, one per occurrence with sign-ups.
+     */
+    @Query("select s.recurrence.id as recurrenceId, s.occurrenceStart as occurrenceStart, count(s) as signedUp "
+            + "from VolunteerOccurrenceSignup s where s.occurrenceStart >= :from and s.occurrenceStart < :to "
+            + "group by s.recurrence.id, s.occurrenceStart")
+    List<OccurrenceCount> countBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Counts the sign-ups of one occurrence.
+     *
+     * @param recurrenceId    the ID of the recurring task.
+     * @param occurrenceStart the start time of the occurrence.
+     * @return the number of users signed up for the occurrence.
+     */
+    @Query("select count(s) from VolunteerOccurrenceSignup s "
+            + "where s.recurrence.id = :recurrenceId and s.occurrenceStart = :occurrenceStart")
+    long countSignups(Long recurrenceId, LocalDateTime occurrenceStart);
+
+    /**
+     * Checks whether a user signed up for an occurrence, with one seek on the unique constraint.
+     *
+     * @param recurrenceId    the ID of the recurring task.
+     * @param occurrenceStart the start time of the occurrence.
+     * @param userId          the ID of the user.
+     * @return {@code true} if the user signed up for the occurrence.
+     */
+    @Query("select count(s) > 0 from VolunteerOccurrenceSignup s where s.recurrence.id = :recurrenceId "
+            + "and s.occurrenceStart = :occurrenceStart and s.user.id = :userId")
+    boolean existsSignup(Long recurrenceId, LocalDateTime occurrenceStart, Long userId);
+
+    /**
+     * Records that a user signed up for an occurrence. Meant to run in the transaction holding the lock on the
+     * recurring task; the unique {@code (recurrence_id, occurrence_start, user_id)} constraint rejects a second
+     * sign-up by the same user.
+     *
+     * @param recurrenceId    the ID of the recurring task.
+     * @param occurrenceStart the start time of the occurrence.
+     * @param userId          the ID of the user.
+     * @return {@code 1}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO volunteer_occurrence_signups (recurrence_id, occurrence_start, user_id, created_at) "
+            + "VALUES (:recurrenceId, :occurrenceStart, :userId, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertSignup(Long recurrenceId, LocalDateTime occurrenceStart, Long userId);
+
+    /**
+     * Checks whether a user signed up for an occurrence overlapping a time range. An occurrence lasts as long as the
+     * first occurrence of its task.
+     *
+     * @param userId the ID of the user.
+     * @param from   the start of the range, inclusive.
+     * @param to     the end of the range, exclusive.
+     * @return {@code true} if the user is signed up for an overlapping occurrence.
+     */
+    @Query("select count(s) > 0 from VolunteerOccurrenceSignup s join s.recurrence r where s.user.id = :userId "
+            + "and s.occurrenceStart < :to and s.occurrenceStart + (r.endDate - r.startDate) > :from")
+    boolean existsOverlapping(Long userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the sign-ups for the occurrences of a recurring task, with the times of its first occurrence.
+     *
+     * @param recurrenceId the ID of the recurring task.
+     * @return a list of {@link OccurrenceSignupTimes} projections.
+     */
+    @Query("select s.id as id, s.user.id as userId, s.occurrenceStart as occurrenceStart, "
+            + "r.startDate as firstStart, r.endDate as firstEnd "
+            + "from VolunteerOccurrenceSignup s join s.recurrence r where r.id = :recurrenceId")
+    List<OccurrenceSignupTimes> findSignupTimes(Long recurrenceId);
+
+    /**
+     * Finds the sign-ups whose ID is greater than a cursor, in ID order, with the times of the first occurrence of
+     * their task.
+     *
+     * @param afterId the ID of the last sign-up of the previous batch; {@code 0} for the first batch.
+     * @param limit   the maximum number of sign-ups to return.
+     * @return a list of {@link OccurrenceSignupTimes} projections.
+     */
+    @Query("select s.id as id, s.user.id as userId, s.occurrenceStart as occurrenceStart, "
+            + "r.startDate as firstStart, r.endDate as firstEnd "
+            + "from VolunteerOccurrenceSignup s join s.recurrence r where s.id > :afterId order by s.id asc")
+    List<OccurrenceSignupTimes> findSignupTimesAfter(long afterId, Limit limit);
+
+    /**
+     * Finds the sign-ups for the occurrences starting in a range, with the times of the first occurrence of their
+     * task, with one scan of the {@code occurrence_start} index.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link OccurrenceSignupTimes} projections.
+     */
+    @Query("select s.id as id, s.user.id as userId, s.occurrenceStart as occurrenceStart, "
+            + "r.startDate as firstStart, r.endDate as firstEnd from VolunteerOccurrenceSignup s join s.recurrence r "
+            + "where s.occurrenceStart >= :from and s.occurrenceStart < :to")
+    List<OccurrenceSignupTimes> findSignupTimesBetween(LocalDateTime from, LocalDateTime to);
+}
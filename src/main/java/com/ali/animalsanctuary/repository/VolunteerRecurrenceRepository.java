@@ -0,0 +1,50 @@
+package com.ali.animalsanctuary.repository;
+
+import com.ali.animalsanctuary.entity.VolunteerRecurrence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing and managing {@link VolunteerRecurrence} entities.
+ * Provides CRUD operations inherited from {@link JpaRepository}.
+ *
+ * Includes a query finding the rules that may have occurrences in a date range, which are then expanded in memory,
+ * and a locking read serializing the sign-ups for the occurrences of a rule.
+ *
+ * @see VolunteerRecurrence
+ * @see JpaRepository
+ */
+
+@Repository
+public interface VolunteerRecurrenceRepository extends JpaRepository<VolunteerRecurrence, Long> {
+
+    /**
+     * Finds the rules whose first occurrence starts before the end of a range and whose last occurrence, if any,
+     * starts in it or after it, with one scan of the {@code (start_date, last_start)} index.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link VolunteerRecurrence} entities, in ID order.
+     */
+    @Query("select r from VolunteerRecurrence r where r.startDate < :to "
+            + "and (r.lastStart is null or r.lastStart >= :from) order by r.id asc")
+    List<VolunteerRecurrence> findActiveBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds a rule and locks its row until the end of the transaction, so that concurrent sign-ups for its
+     * occurrences check the capacity one at a time.
+     *
+     * @param id the ID of the rule.
+     * @return an {@link Optional} containing the {@link VolunteerRecurrence}, if it exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from VolunteerRecurrence r where r.id = :id")
+    Optional<VolunteerRecurrence> findLockedById(Long id);
+}
@@ -1,14 +1,30 @@
 package com.ali.animalsanctuary.repository;
 
+import com.ali.animalsanctuary.dto.ShiftMember;
+import com.ali.animalsanctuary.dto.ShiftTimes;
+import com.ali.animalsanctuary.dto.VolunteerCard;
 import com.ali.animalsanctuary.entity.Volunteer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for accessing and managing {@link Volunteer} entities.
  * Provides CRUD operations inherited from {@link JpaRepository}.
  *
- * The repository will be automatically implemented by Spring Data JPA.
+ * Includes projection queries listing the volunteer works without loading their members, projection queries
+ * reading the times of the shifts and the users signed up for them, used to build the schedule index, and native
+ * statements signing users up through the {@code volunteer_users} join table without
+ * loading the members of a shift.
  *
  * @see Volunteer
  * @see JpaRepository
@@ -17,4 +33,165 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface VolunteerRepository extends JpaRepository<Volunteer, Long> {
+
+    /**
+     * Finds the times of the shifts whose ID is greater than a cursor, in ID order.
+     *
+     * @param afterId the ID of the last shift of the previous batch; {@code 0} for the first batch.
+     * @param limit   the maximum number of shifts to return.
+     * @return a list of {@link ShiftTimes} projections.
+     */
+    @Query("select v.id as id, v.startDate as startDate, v.endDate as endDate from Volunteer v "
+            + "where v.id > :afterId order by v.id asc")
+    List<ShiftTimes> findShiftTimesAfter(long afterId, Limit limit);
+
+    /**
+     * Finds the times of a shift without loading it or its members.
+     *
+     * @param id the ID of the shift.
+     * @return an {@link Optional} containing the {@link ShiftTimes} projection, if the shift exists.
+     */
+    @Query("select v.id as id, v.startDate as startDate, v.endDate as endDate from Volunteer v where v.id = :id")
+    Optional<ShiftTimes> findShiftTimesById(Long id);
+
+    /**
+     * Finds the times of a shift and locks its row until the end of the transaction, so that they cannot change
+     * before the hours of the shift are credited.
+     *
+     * @param id the ID of the shift.
+     * @return an {@link Optional} containing the {@link ShiftTimes} projection, if the shift exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v.id as id, v.startDate as startDate, v.endDate as endDate from Volunteer v where v.id = :id")
+    Optional<ShiftTimes> findLockedShiftTimesById(Long id);
+
+    /**
+     * Finds a shift and locks its row until the end of the transaction, so that no user signs up for it while its
+     * members are read and their hours moved. Sign-ups take their place with an update of the same row.
+     *
+     * @param id the ID of the shift.
+     * @return an {@link Optional} containing the {@link Volunteer}, if it exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from Volunteer v where v.id = :id")
+    Optional<Volunteer> findLockedById(Long id);
+
+    /**
+     * Finds the users signed up for the specified shifts.
+     *
+     * @param shiftIds the IDs of the shifts.
+     * @return a list of {@link ShiftMember} projections, one per user and shift.
+     */
+    @Query("select v.id as shiftId, u.id as userId from Volunteer v join v.users u where v.id in :shiftIds")
+    List<ShiftMember> findMembers(Collection<Long> shiftIds);
+
+    /**
+     * Finds every volunteer work for the listing page, in start time order, with one narrow SELECT on the
+     * {@code volunteers} table. The members are not joined, so the cost depends on the number of works only.
+     *
+     * @return a list of {@link VolunteerCard} projections.
+     */
+    @Query("select v.id as id, v.task as task, v.startDate as startDate, v.endDate as endDate, "
+            + "v.capacity as capacity, v.signedUp as signedUp from Volunteer v order by v.startDate asc, v.id asc")
+    List<VolunteerCard> findAllCards();
+
+    /**
+     * Finds the volunteer works starting in a range, in start time order, with one scan of the {@code start_date}
+     * index. The members are not joined.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link VolunteerCard} projections.
+     */
+    @Query("select v.id as id, v.task as task, v.startDate as startDate, v.endDate as endDate, "
+            + "v.capacity as capacity, v.signedUp as signedUp from Volunteer v "
+            + "where v.startDate >= :from and v.startDate < :to order by v.startDate asc, v.id asc")
+    List<VolunteerCard> findCardsStartingBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the shifts a user signed up for, in start time order, with one join on the {@code user_id} index of the
+     * {@code volunteer_users} table.
+     *
+     * @param userId the ID of the user.
+     * @return a list of {@link Volunteer} entities, whose users are not loaded.
+     */
+    @Query("select v from Volunteer v join v.users u where u.id = :userId order by v.startDate asc, v.id asc")
+    List<Volunteer> findAllByUserId(Long userId);
+
+    /**
+     * Checks whether a user signed up for a shift, other than the specified one, that overlaps a time range.
+     *
+     * @param userId      the ID of the user.
+     * @param from        the start of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @param volunteerId the ID of the shift to leave out, or {@code null}.
+     * @return {@code true} if the user is signed up for an overlapping shift.
+     */
+    @Query("select count(v) > 0 from Volunteer v join v.users u where u.id = :userId "
+            + "and v.startDate < :to and v.endDate > :from and (:volunteerId is null or v.id <> :volunteerId)")
+    boolean existsMemberOverlapping(Long userId, LocalDateTime from, LocalDateTime to, Long volunteerId);
+
+    /**
+     * Checks whether a shift for a task, other than the specified one, overlaps a time range.
+     *
+     * @param task        the task of the shift.
+     * @param from        the start of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @param volunteerId the ID of the shift to leave out, or {@code null}.
+     * @return {@code true} if another shift for the task overlaps the range.
+     */
+    @Query("select count(v) > 0 from Volunteer v where v.task = :task and v.startDate < :to and v.endDate > :from "
+            + "and (:volunteerId is null or v.id <> :volunteerId)")
+    boolean existsTaskOverlapping(String task, LocalDateTime from, LocalDateTime to, Long volunteerId);
+
+    /**
+     * Counts the sign-ups of a user for a shift, with one seek on the primary key of the {@code volunteer_users}
+     * table.
+     *
+     * @param volunteerId the ID of the shift.
+     * @param userId      the ID of the user.
+     * @return {@code 1} if the user is signed up for the shift, {@code 0} otherwise.
+     */
+    @Query(value = "SELECT COUNT(*) FROM volunteer_users WHERE volunteer_id = :volunteerId AND user_id = :userId",
+            nativeQuery = true)
+    long countMember(Long volunteerId, Long userId);
+
+    /**
+     * Takes a place on a shift if, and only if, it has no capacity or is not full yet. The check and the increment
+     * are a single conditional update guarded in SQL, so concurrent sign-ups for the same shift are serialized by
+     * the row lock alone and can never overfill it.
+     *
+     * @param volunteerId the ID of the shift.
+     * @return {@code 1} if a place was taken, {@code 0} if the shift does not exist or is full.
+     */
+    @Modifying
+    @Query(value = "UPDATE volunteers SET signed_up = signed_up + 1 "
+            + "WHERE id = :volunteerId AND (capacity IS NULL OR signed_up < capacity)", nativeQuery = true)
+    int takePlace(Long volunteerId);
+
+    /**
+     * Gives a place taken by {@link #takePlace(Long)} back to a shift.
+     *
+     * @param volunteerId the ID of the shift.
+     * @return {@code 1} if the place was given back, {@code 0} if the shift does not exist or has no sign-ups.
+     */
+    @Modifying
+    @Query(value = "UPDATE volunteers SET signed_up = signed_up - 1 WHERE id = :volunteerId AND signed_up > 0",
+            nativeQuery = true)
+    int releasePlace(Long volunteerId);
+
+    /**
+     * Signs a user up for a shift with a single insert into the {@code volunteer_users} join table, unless they are
+     * signed up already. Neither the shift nor its members are loaded.
+     *
+     * @param volunteerId the ID of the shift.
+     * @param userId      the ID of the user.
+     * @return {@code 1} if the user was signed up, {@code 0} if they already were or the shift does not exist.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO volunteer_users (volunteer_id, user_id) "
+            + "SELECT v.id, :userId FROM volunteers v WHERE v.id = :volunteerId AND NOT EXISTS "
+            + "(SELECT 1 FROM volunteer_users m WHERE m.volunteer_id = :volunteerId AND m.user_id = :userId)",
+            nativeQuery = true)
+    int insertMember(Long volunteerId, Long userId);
 }
@@ -0,0 +1,91 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.AnimalFacets;
+import com.ali.animalsanctuary.dto.AnimalFilter;
+import com.ali.animalsanctuary.dto.FacetCounts;
+
+import java.util.List;
+
+/**
+ * In-memory index answering filtered catalogue queries without a database round trip.
+ *
+ * The index maps every value of every facet (species, breed, gender, age and adoption status) to the set of IDs of
+ * the animals having that value. A multi-facet query is the intersection of those sets. Text facet values are
+ * matched case-insensitively, like the default collation of the animals table.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #isReady()}: Checks whether the index has been built and can answer queries.</li>
+ *     <li>{@link #rebuild()}: Rebuilds the index from the animals table.</li>
+ *     <li>{@link #put(AnimalFacets)}: Adds an animal to the index, or updates its facet values.</li>
+ *     <li>{@link #remove(Long)}: Removes an animal from the index.</li>
+ *     <li>{@link #count(AnimalFilter)}: Counts the matching animals and the animals per facet value.</li>
+ *     <li>{@link #findIdsAfter(AnimalFilter, long, int)}: Finds the IDs of matching animals after a cursor.</li>
+ *     <li>{@link #findIdsBefore(AnimalFilter, long, int)}: Finds the IDs of matching animals before a cursor.</li>
+ * </ul>
+ *
+ * @see AnimalFacets
+ */
+
+public interface AnimalFacetIndex {
+
+    String SPECIES = "species";
+    String BREED = "breed";
+    String GENDER = "gender";
+    String AGE = "age";
+    String ADOPTED = "adopted";
+
+    /**
+     * Checks whether the index has been built and can answer queries.
+     *
+     * @return {@code true} once the initial build has completed.
+     */
+    boolean isReady();
+
+    /**
+     * Rebuilds the index from the animals table, replacing its current content.
+     */
+    void rebuild();
+
+    /**
+     * Adds an animal to the index, or replaces the facet values it was indexed with.
+     *
+     * @param facets the facet values of the animal.
+     */
+    void put(AnimalFacets facets);
+
+    /**
+     * Removes an animal from the index. Removing an animal that is not indexed is a no-op.
+     *
+     * @param id the ID of the animal.
+     */
+    void remove(Long id);
+
+    /**
+     * Counts the animals matching a filter, and the animals per value of each facet.
+     *
+     * @param filter the catalogue filter.
+     * @return the {@link FacetCounts} of the filter.
+     */
+    FacetCounts count(AnimalFilter filter);
+
+    /**
+     * Finds the IDs of the animals matching a filter whose ID is greater than a cursor, in ascending order.
+     *
+     * @param filter  the catalogue filter.
+     * @param afterId the cursor; {@code 0} to start from the first animal.
+     * @param limit   the maximum number of IDs to return.
+     * @return the matching IDs.
+     */
+    List<Long> findIdsAfter(AnimalFilter filter, long afterId, int limit);
+
+    /**
+     * Finds the IDs of the animals matching a filter whose ID is less than a cursor, nearest to the cursor first.
+     *
+     * @param filter   the catalogue filter.
+     * @param beforeId the cursor.
+     * @param limit    the maximum number of IDs to return.
+     * @return the matching IDs, in descending order.
+     */
+    List<Long> findIdsBefore(AnimalFilter filter, long beforeId, int limit);
+}
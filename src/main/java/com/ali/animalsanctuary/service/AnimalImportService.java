@@ -0,0 +1,64 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.ImportReport;
+import com.ali.animalsanctuary.entity.Animal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Service interface for importing {@link Animal} entities in bulk, such as intake lists from partner shelters.
+ *
+ * Rows are read one at a time from a CSV file with a header row, or from a JSON Lines file with one object per line,
+ * and saved in batches. The recognized columns are {@code name}, {@code species}, {@code breed}, {@code gender},
+ * {@code age}, {@code adoptionStatus}, {@code description} and {@code image}, the path of the animal's image inside
+ * an accompanying ZIP archive. Invalid rows are reported and skipped; they do not stop the import.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #importAnimals(InputStream, String, File)}: Imports the animals listed in a CSV or JSON Lines file.</li>
+ *     <li>{@link #formatOf(String)}: Derives the import format from a file name.</li>
+ * </ul>
+ *
+ * @see ImportReport
+ */
+
+public interface AnimalImportService {
+
+    /**
+     * The format of comma separated files with a header row.
+     */
+    String CSV = "csv";
+
+    /**
+     * The format of files with one JSON object per line.
+     */
+    String JSONL = "jsonl";
+
+    /**
+     * Imports the animals listed in a CSV or JSON Lines file.
+     *
+     * @param data      the import file content; it is read to the end but not closed.
+     * @param format    the format of the file, {@link #CSV} or {@link #JSONL}.
+     * @param imagesZip a ZIP archive holding the images referenced by the rows, or {@code null}.
+     * @return the {@link ImportReport} with the per-row errors and throughput.
+     * @throws IOException if the import file or the archive cannot be read.
+     */
+    ImportReport importAnimals(InputStream data, String format, File imagesZip) throws IOException;
+
+    /**
+     * Derives the import format from a file name, treating {@code .json} and {@code .ndjson} files as JSON Lines.
+     *
+     * @param fileName the name of the import file.
+     * @return {@link #JSONL} for JSON files, otherwise {@link #CSV}.
+     */
+    static String formatOf(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+            return JSONL;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.AnimalSearchHit;
+import com.ali.animalsanctuary.entity.Animal;
+
+import java.util.List;
+
+/**
+ * Service interface for full-text search over the names and descriptions of {@link Animal} entities.
+ *
+ * The search index is maintained incrementally as animals change. Changes become visible to searches within the
+ * configured refresh interval rather than immediately.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #index(Animal)}: Adds an animal to the search index, or replaces its indexed text.</li>
+ *     <li>{@link #remove(Long)}: Removes an animal from the search index.</li>
+ *     <li>{@link #search(String, int)}: Finds the animals best matching a query.</li>
+ *     <li>{@link #rebuild()}: Rebuilds the search index from the animals table.</li>
+ * </ul>
+ *
+ * @see AnimalSearchHit
+ */
+
+public interface AnimalSearchService {
+
+    /**
+     * Adds an animal to the search index, or replaces the text it was indexed with.
+     *
+     * @param animal the {@link Animal} entity to index.
+     */
+    void index(Animal animal);
+
+    /**
+     * Removes an animal from the search index. Removing an animal that is not indexed is a no-op.
+     *
+     * @param id the ID of the animal.
+     */
+    void remove(Long id);
+
+    /**
+     * Finds the animals best matching a query, most relevant first.
+     *
+     * @param query the query text.
+     * @param limit the maximum number of results.
+     * @return a list of {@link AnimalSearchHit} results.
+     */
+    List<AnimalSearchHit> search(String query, int limit);
+
+    /**
+     * Rebuilds the search index from the animals table, replacing its current content.
+     */
+    void rebuild();
+}
@@ -1,10 +1,17 @@
 package com.ali.animalsanctuary.service;
 
+import com.ali.animalsanctuary.dto.AnimalCard;
+import com.ali.animalsanctuary.dto.AnimalFilter;
+import com.ali.animalsanctuary.dto.AnimalImageInfo;
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.FacetCounts;
+import com.ali.animalsanctuary.dto.ListingVersion;
 import com.ali.animalsanctuary.entity.Animal;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service interface for managing {@link Animal} entities.
@@ -19,7 +26,11 @@ import java.util.List;
  *     <li>{@link #deleteAnimal(Long)}: Deletes the {@link Animal} entity with the specified ID.</li>
  *     <li>{@link #findAnimalById(Long)}: Retrieves the {@link Animal} entity with the specified ID.</li>
  *     <li>{@link #findAllAnimals()} : Retrieves a list of all {@link Animal} entities.</li>
+ *     <li>{@link #findAnimalCards(AnimalFilter, Long, Long, int)} : Retrieves one keyset paginated page of the filtered catalogue.</li>
+ *     <li>{@link #countFacets(AnimalFilter)} : Counts the matching animals per facet value.</li>
  *     <li>{@link #adoptAnimal(Long, Long)}: Processes the adoption of an {@link Animal} by a {@link} with the given ID.</li>
+ *     <li>{@link #findImageInfo(Long)}: Retrieves the image columns of the {@link Animal} with the specified ID.</li>
+ *     <li>{@link #getListingVersion()}: Summarizes the animals for validating cached listing pages.</li>
  * </ul>
  *
  * @see Animal
@@ -33,7 +44,7 @@ public interface AnimalService {
      * @param animal the {@link Animal} entity to be saved.
      * @param image  the image file to be associated with the animal.
      * @return the saved {@link Animal} entity.
-     * @throws IOException if an I/O error occurs during file handling.
+     * @throws IOException if an I/O error occurs during file handling, or the image is rejected.
      */
     Animal saveAnimal(Animal animal, MultipartFile image) throws IOException;
 
@@ -44,7 +55,7 @@ public interface AnimalService {
      * @param animal the updated {@link Animal} entity.
      * @param image  the new image file to be associated with the animal.
      * @return the updated {@link Animal} entity.
-     * @throws IOException if an I/O error occurs during file handling.
+     * @throws IOException if an I/O error occurs during file handling, or the image is rejected.
      */
     Animal updateAnimal(Long id, Animal animal, MultipartFile image) throws IOException;
 
@@ -70,6 +81,26 @@ public interface AnimalService {
      */
     List<Animal> findAllAnimals();
 
+    /**
+     * Retrieves one page of the listing cards of the {@link Animal} entities matching a filter, in ID order.
+     * At most one of the cursors may be given; without a cursor the first page is returned.
+     *
+     * @param filter   the catalogue filter.
+     * @param afterId  the {@code next} cursor of the previous page, or {@code null}.
+     * @param beforeId the {@code previous} cursor of the following page, or {@code null}.
+     * @param size     the page size.
+     * @return a {@link CursorPage} of {@link AnimalCard} projections.
+     */
+    CursorPage<AnimalCard> findAnimalCards(AnimalFilter filter, Long afterId, Long beforeId, int size);
+
+    /**
+     * Counts the {@link Animal} entities matching a filter, and the animals per facet value.
+     *
+     * @param filter the catalogue filter.
+     * @return an {@link Optional} containing the {@link FacetCounts}, or empty while the counts are unavailable.
+     */
+    Optional<FacetCounts> countFacets(AnimalFilter filter);
+
     /**
      * Processes the adoption of an {@link Animal} by a {@link} with the given ID.
      *
@@ -78,4 +109,19 @@ public interface AnimalService {
      * @return the adopted {@link Animal} entity.
      */
     Animal adoptAnimal(Long id, Long userId);
+
+    /**
+     * Retrieves the image columns of the {@link Animal} with the specified ID without loading the entity.
+     *
+     * @param id the ID of the {@link Animal}.
+     * @return the {@link AnimalImageInfo} projection.
+     */
+    AnimalImageInfo findImageInfo(Long id);
+
+    /**
+     * Summarizes the animals for validating cached listing pages.
+     *
+     * @return the current {@link ListingVersion} of the animals.
+     */
+    ListingVersion getListingVersion();
 }
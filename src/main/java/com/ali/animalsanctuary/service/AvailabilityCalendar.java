@@ -0,0 +1,72 @@
+package com.ali.animalsanctuary.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * In-memory calendar of the open visit slots, answering which days and slots have openings without a database round
+ * trip.
+ *
+ * A slot is identified by its start time, to the minute. Overlapping slots are rejected, so no two slots share a start
+ * minute.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the calendar from the visits table.</li>
+ *     <li>{@link #open(LocalDateTime)}: Marks the slot starting at a time as open.</li>
+ *     <li>{@link #close(LocalDateTime)}: Marks the slot starting at a time as booked or removed.</li>
+ *     <li>{@link #isOpen(LocalDateTime)}: Checks whether the slot starting at a time is open.</li>
+ *     <li>{@link #countOpenings(YearMonth)}: Counts the open slots of every day of a month that has any.</li>
+ *     <li>{@link #findOpenings(LocalDate)}: Lists the start times of the open slots of a day.</li>
+ * </ul>
+ */
+
+public interface AvailabilityCalendar {
+
+    /**
+     * Rebuilds the calendar from the available visits, replacing its current content.
+     */
+    void rebuild();
+
+    /**
+     * Marks the slot starting at a time as open.
+     *
+     * @param start the start time of the slot.
+     */
+    void open(LocalDateTime start);
+
+    /**
+     * Marks the slot starting at a time as no longer open, because it was booked or deleted.
+     *
+     * @param start the start time of the slot.
+     */
+    void close(LocalDateTime start);
+
+    /**
+     * Checks whether the slot starting at a time is open.
+     *
+     * @param start the start time of the slot.
+     * @return {@code true} if an open slot starts at that minute.
+     */
+    boolean isOpen(LocalDateTime start);
+
+    /**
+     * Counts the open slots of every day of a month that has any, leaving out the slots that already started.
+     *
+     * @param month the month.
+     * @return the number of open slots per day, in date order; days without openings are left out.
+     */
+    SortedMap<LocalDate, Integer> countOpenings(YearMonth month);
+
+    /**
+     * Lists the start times of the open slots of a day, leaving out the slots that already started.
+     *
+     * @param day the day.
+     * @return the start times of the open slots, in order.
+     */
+    List<LocalTime> findOpenings(LocalDate day);
+}
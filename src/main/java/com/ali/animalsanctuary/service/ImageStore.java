@@ -0,0 +1,88 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.StoredImage;
+import com.ali.animalsanctuary.exception.ImageRejectedException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Storage abstraction for image content kept outside the relational database.
+ *
+ * Images are content addressed: the key of a stored image is the hex encoded SHA-256 digest of its bytes,
+ * so storing the same image twice yields the same key and only one copy on disk. Resized variants of an image are
+ * stored alongside the original under the same key and a target width.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #store(InputStream, long)}: Streams image content into the store, detecting its format.</li>
+ *     <li>{@link #load(String)}: Retrieves the stored image with the specified key.</li>
+ *     <li>{@link #exists(String)}: Checks whether an image with the specified key is stored.</li>
+ *     <li>{@link #delete(String)}: Removes the stored image with the specified key and all of its variants.</li>
+ *     <li>{@link #storeVariant(String, int, InputStream)}: Stores a resized variant of an image.</li>
+ *     <li>{@link #loadVariant(String, int)}: Retrieves a resized variant of an image.</li>
+ * </ul>
+ *
+ * @see StoredImage
+ */
+
+public interface ImageStore {
+
+    /**
+     * Streams image content into the store. The MIME type is detected from the leading bytes of the content rather
+     * than trusted from the client, and content that is too large or not in a supported image format is rejected
+     * before anything becomes visible in the store.
+     *
+     * @param content the image content; it is read to the end, or until it is rejected, but not closed.
+     * @param maxSize the maximum accepted size in bytes.
+     * @return the {@link StoredImage} describing the stored content.
+     * @throws ImageRejectedException if the content exceeds {@code maxSize} or is not a supported image.
+     * @throws IOException            if an I/O error occurs while writing the image.
+     */
+    StoredImage store(InputStream content, long maxSize) throws IOException;
+
+    /**
+     * Retrieves the stored image with the specified key.
+     *
+     * @param key the content address of the image.
+     * @return an {@link Optional} containing the image {@link Resource}, or empty if no such image is stored.
+     */
+    Optional<Resource> load(String key);
+
+    /**
+     * Checks whether an image with the specified key is stored.
+     *
+     * @param key the content address of the image.
+     * @return {@code true} if the image is stored.
+     */
+    boolean exists(String key);
+
+    /**
+     * Removes the stored image with the specified key, together with its variants. Removing a missing image is a no-op.
+     *
+     * @param key the content address of the image.
+     * @throws IOException if an I/O error occurs while deleting the image.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Stores a resized JPEG variant of an image, replacing any existing variant of the same width.
+     *
+     * @param key     the content address of the original image.
+     * @param width   the width of the variant in pixels.
+     * @param content the JPEG encoded variant; it is read to the end but not closed.
+     * @throws IOException if an I/O error occurs while writing the variant.
+     */
+    void storeVariant(String key, int width, InputStream content) throws IOException;
+
+    /**
+     * Retrieves a resized JPEG variant of an image.
+     *
+     * @param key   the content address of the original image.
+     * @param width the width of the variant in pixels.
+     * @return an {@link Optional} containing the variant {@link Resource}, or empty if it has not been generated.
+     */
+    Optional<Resource> loadVariant(String key, int width);
+}
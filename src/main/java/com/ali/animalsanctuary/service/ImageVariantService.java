@@ -0,0 +1,58 @@
+package com.ali.animalsanctuary.service;
+
+import org.springframework.core.io.Resource;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the resized variants of stored images.
+ *
+ * This interface defines the operations for generating smaller copies of an image for responsive pages and for
+ * picking the variant that best fits a requested display width.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #generateVariantsAsync(String)}: Schedules the generation of all variants of an image.</li>
+ *     <li>{@link #getWidths()}: Retrieves the configured variant widths.</li>
+ *     <li>{@link #selectWidth(int)}: Picks the variant width that best serves a requested width.</li>
+ *     <li>{@link #findVariant(String, int)}: Retrieves a generated variant of an image.</li>
+ * </ul>
+ *
+ * @see ImageStore
+ */
+
+public interface ImageVariantService {
+
+    /**
+     * Schedules the generation of all variants of an image on a background worker.
+     *
+     * @param key the content address of the original image.
+     */
+    void generateVariantsAsync(String key);
+
+    /**
+     * Retrieves the configured variant widths, in ascending order.
+     *
+     * @return the variant widths in pixels.
+     */
+    List<Integer> getWidths();
+
+    /**
+     * Picks the smallest variant width that is at least the requested width.
+     *
+     * @param requestedWidth the width the image is displayed at, in pixels.
+     * @return the selected variant width, or empty if the original image should be served.
+     */
+    Optional<Integer> selectWidth(int requestedWidth);
+
+    /**
+     * Retrieves a generated variant of an image. If the variant is missing, its generation is scheduled and an
+     * empty result is returned so the caller can fall back to the original.
+     *
+     * @param key   the content address of the original image.
+     * @param width the variant width.
+     * @return an {@link Optional} containing the variant {@link Resource}, or empty if it is not available yet.
+     */
+    Optional<Resource> findVariant(String key, int width);
+}
@@ -0,0 +1,174 @@
+package com.ali.animalsanctuary.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory index of the time ranges occupied by visit slots and volunteer shifts, answering overlap queries without
+ * a database round trip.
+ *
+ * The index holds one interval per visit slot and per volunteer shift, and the commitments of every user: the visits
+ * they hold seats on and the shifts they signed up for. Ranges are half-open, so a slot ending at 10:00 does not overlap
+ * one starting at 10:00.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the index from the visits and volunteers tables.</li>
+ *     <li>{@link #putVisit(Long, LocalDateTime, LocalDateTime)}: Adds a visit slot, or updates its times.</li>
+ *     <li>{@link #addVisitMember(Long, Long)}: Records that a user booked seats on a visit slot.</li>
+ *     <li>{@link #removeVisitMember(Long, Long)}: Records that a user canceled their seats on a visit slot.</li>
+ *     <li>{@link #clearVisitMembers(Long)}: Records that every booking of a visit slot was canceled.</li>
+ *     <li>{@link #removeVisit(Long)}: Removes a visit slot.</li>
+ *     <li>{@link #putShift(Long, LocalDateTime, LocalDateTime, Collection)}: Adds a volunteer shift, or updates its times and members.</li>
+ *     <li>{@link #addShiftMember(Long, Long)}: Records that a user signed up for a volunteer shift.</li>
+ *     <li>{@link #removeShift(Long)}: Removes a volunteer shift.</li>
+ *     <li>{@link #getVisitStart(Long)}: Looks up the start time of a visit slot.</li>
+ *     <li>{@link #isVisitMember(Long, Long)}: Checks whether a user holds seats on a visit slot.</li>
+ *     <li>{@link #findVisitsOverlapping(LocalDateTime, LocalDateTime)}: Finds the visit slots overlapping a range.</li>
+ *     <li>{@link #findShiftsOverlapping(LocalDateTime, LocalDateTime)}: Finds the volunteer shifts overlapping a range.</li>
+ *     <li>{@link #isUserBusy(Long, LocalDateTime, LocalDateTime)}: Checks whether a user has a commitment overlapping a range.</li>
+ *     <li>{@link #isUserBusyDuringVisit(Long, Long)}: Checks whether booking a visit slot would double-book a user.</li>
+ *     <li>{@link #isUserBusyDuringShift(Long, Long)}: Checks whether joining a volunteer shift would double-book a user.</li>
+ * </ul>
+ */
+
+public interface ScheduleIndex {
+
+    /**
+     * Rebuilds the index from the visits and volunteers tables, replacing its current content.
+     */
+    void rebuild();
+
+    /**
+     * Adds a visit slot to the index, or replaces the times it was indexed with. The users holding seats on the slot
+     * keep them.
+     *
+     * @param id    the ID of the visit.
+     * @param start the start time of the visit.
+     * @param end   the end time of the visit.
+     */
+    void putVisit(Long id, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Records that a user booked seats on an indexed visit slot. Adding a member to a visit that is not indexed is a
+     * no-op.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     */
+    void addVisitMember(Long id, Long userId);
+
+    /**
+     * Records that a user canceled their seats on a visit slot.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     */
+    void removeVisitMember(Long id, Long userId);
+
+    /**
+     * Records that every booking of a visit slot was canceled.
+     *
+     * @param id the ID of the visit.
+     */
+    void clearVisitMembers(Long id);
+
+    /**
+     * Removes a visit slot from the index. Removing a visit that is not indexed is a no-op.
+     *
+     * @param id the ID of the visit.
+     */
+    void removeVisit(Long id);
+
+    /**
+     * Adds a volunteer shift to the index, or replaces the times and members it was indexed with.
+     *
+     * @param id      the ID of the shift.
+     * @param start   the start of the shift.
+     * @param end     the end of the shift.
+     * @param userIds the IDs of the users signed up for the shift.
+     */
+    void putShift(Long id, LocalDateTime start, LocalDateTime end, Collection<Long> userIds);
+
+    /**
+     * Records that a user signed up for an indexed volunteer shift. Adding a member to a shift that is not indexed is
+     * a no-op.
+     *
+     * @param id     the ID of the shift.
+     * @param userId the ID of the user.
+     */
+    void addShiftMember(Long id, Long userId);
+
+    /**
+     * Removes a volunteer shift from the index. Removing a shift that is not indexed is a no-op.
+     *
+     * @param id the ID of the shift.
+     */
+    void removeShift(Long id);
+
+    /**
+     * Looks up the start time of an indexed visit slot.
+     *
+     * @param id the ID of the visit.
+     * @return the start time of the visit, or {@code null} if the visit is not indexed.
+     */
+    LocalDateTime getVisitStart(Long id);
+
+    /**
+     * Checks whether a user holds seats on a visit slot.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     * @return {@code true} if the user booked the visit.
+     */
+    boolean isVisitMember(Long id, Long userId);
+
+    /**
+     * Finds the IDs of the visit slots, booked or not, overlapping a range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the IDs of the overlapping visits.
+     */
+    List<Long> findVisitsOverlapping(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the IDs of the volunteer shifts overlapping a range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the IDs of the overlapping shifts.
+     */
+    List<Long> findShiftsOverlapping(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Checks whether a user has booked a visit or signed up for a shift overlapping a range.
+     *
+     * @param userId the ID of the user.
+     * @param from   the start of the range, inclusive.
+     * @param to     the end of the range, exclusive.
+     * @return {@code true} if the user is busy during the range.
+     */
+    boolean isUserBusy(Long userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Checks whether a user has another commitment overlapping a visit slot, so that booking it would double-book
+     * them.
+     *
+     * @param userId  the ID of the user.
+     * @param visitId the ID of the visit.
+     * @return {@code true} if the user is busy during the visit; {@code false} if the visit is not indexed.
+     */
+    boolean isUserBusyDuringVisit(Long userId, Long visitId);
+
+    /**
+     * Checks whether a user has another commitment overlapping a volunteer shift, so that signing up for it would
+     * double-book them.
+     *
+     * @param userId  the ID of the user.
+     * @param shiftId the ID of the shift.
+     * @return {@code true} if the user is busy during the shift; {@code false} if the shift is not indexed.
+     */
+    boolean isUserBusyDuringShift(Long userId, Long shiftId);
+}
@@ -0,0 +1,35 @@
+package com.ali.animalsanctuary.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface pushing the changes of visit slots to the browsers showing the visits page, as server-sent
+ * events.
+ *
+ * Every {@code slots} event carries a JSON array of {@link com.ali.animalsanctuary.dto.VisitSlotState} entries, the
+ * latest state of each slot that changed since the previous event. A {@code reload} event asks the page to reload
+ * itself, when a connection fell too far behind to be caught up slot by slot.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #subscribe()}: Opens a new event stream.</li>
+ *     <li>{@link #getSubscriberCount()}: Counts the open event streams.</li>
+ * </ul>
+ */
+
+public interface SlotUpdateBroadcaster {
+
+    /**
+     * Opens a new event stream receiving the changes of all visit slots.
+     *
+     * @return the {@link SseEmitter} to return from the request handler.
+     */
+    SseEmitter subscribe();
+
+    /**
+     * Counts the open event streams.
+     *
+     * @return the number of connected browsers.
+     */
+    int getSubscriberCount();
+}
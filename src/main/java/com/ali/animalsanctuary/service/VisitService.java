@@ -1,8 +1,15 @@
 package com.ali.animalsanctuary.service;
 
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.ListingVersion;
+import com.ali.animalsanctuary.dto.SlotGenerationResult;
+import com.ali.animalsanctuary.dto.VisitRecurrence;
+import com.ali.animalsanctuary.dto.VisitUsage;
 import com.ali.animalsanctuary.entity.Visit;
 import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,12 +22,23 @@ import java.util.Optional;
  * <p>Methods:
  * <ul>
  *     <li>{@link #createVisit(VisitDto)}: Creates a new visit based on the provided {@link VisitDto}.</li>
+ *     <li>{@link #generateVisits(VisitRecurrence)}: Creates the visit slots of a recurring schedule.</li>
  *     <li>{@link #updateVisit(VisitDto)}: Updates an existing visit based on the provided {@link VisitDto}.</li>
  *     <li>{@link #deleteVisit(Long)}: Deletes the {@link Visit} entity with the specified ID.</li>
- *     <li>{@link #getAvailableVisits()} : Retrieves a list of all available {@link Visit} entities.</li>
+ *     <li>{@link #findAvailableVisits(LocalDateTime, LocalDateTime, String, String, int)}: Retrieves one page of the available {@link Visit} entities in a time window.</li>
  *     <li>{@link #getVisitById(Long)}: Retrieves an {@link Optional} containing the {@link Visit} entity with the specified ID.</li>
  *     <li>{@link #bookVisit(Long, Long)}: Books a visit for a user with the specified ID.</li>
+ *     <li>{@link #bookSeats(Long, Long, int)}: Books several seats of a visit for a user with the specified ID.</li>
+ *     <li>{@link #cancelBooking(Long, Long)}: Cancels the seats a user booked on a visit.</li>
  *     <li>{@link #cancelVisit(Long)}: Cancels the visit with the specified ID.</li>
+ *     <li>{@link #joinWaitlist(Long, Long, int)}: Puts a user on the waitlist of a visit.</li>
+ *     <li>{@link #leaveWaitlist(Long, Long)}: Takes a user off the waitlist of a visit.</li>
+ *     <li>{@link #promoteWaitlist(Long, Long, int)}: Books freed seats of a visit for a batch of users on its waitlist.</li>
+ *     <li>{@link #getSeatsLeft(Long)}: Counts the seats left on a visit.</li>
+ *     <li>{@link #getBookedSeats(Long, Long)}: Counts the seats a user booked on a visit.</li>
+ *     <li>{@link #getListingVersion()}: Summarizes the visits for validating cached listing pages.</li>
+ *     <li>{@link #archiveVisitsEndedBefore(LocalDateTime, int)}: Moves a batch of past visits into the archive.</li>
+ *     <li>{@link #findVisitUsage(LocalDateTime, LocalDateTime, boolean)}: Reports the seats booked on the visits in a time range.</li>
  * </ul>
  *
  * @see Visit
@@ -33,13 +51,24 @@ public interface VisitService {
      * Creates a new visit based on the provided {@link VisitDto}.
      *
      * @param visitDto the {@link VisitDto} containing the details of the visit to be created.
+     * @throws ScheduleConflictException if the visit overlaps another visit slot.
      */
     void createVisit(VisitDto visitDto);
 
+    /**
+     * Creates the visit slots of a recurring schedule, leaving out slots that overlap existing visits.
+     *
+     * @param recurrence the {@link VisitRecurrence} describing the schedule.
+     * @return the {@link SlotGenerationResult} counting the created and skipped slots.
+     * @throws IllegalArgumentException if the schedule is incomplete or too long.
+     */
+    SlotGenerationResult generateVisits(VisitRecurrence recurrence);
+
     /**
      * Updates an existing visit based on the provided {@link VisitDto}.
      *
      * @param visitDto the {@link VisitDto} containing the updated details of the visit.
+     * @throws ScheduleConflictException if the new times overlap another visit slot.
      */
     void updateVisit(VisitDto visitDto);
 
@@ -51,11 +80,16 @@ public interface VisitService {
     void deleteVisit(Long id);
 
     /**
-     * Retrieves a list of all available {@link Visit} entities.
+     * Retrieves one page of the available {@link Visit} entities starting within a time window, in start time order.
      *
-     * @return a list of all available {@link Visit} entities.
+     * @param from   the start of the window, inclusive.
+     * @param to     the end of the window, exclusive, or {@code null} for no end.
+     * @param after  the {@code next} cursor of the previous page, or {@code null}.
+     * @param before the {@code previous} cursor of the following page, or {@code null}.
+     * @param size   the page size.
+     * @return a {@link CursorPage} of available {@link Visit} entities.
      */
-    List<Visit> getAvailableVisits();
+    CursorPage<Visit> findAvailableVisits(LocalDateTime from, LocalDateTime to, String after, String before, int size);
 
     /**
      * Retrieves an {@link Optional} containing the {@link Visit} entity with the specified ID.
@@ -66,17 +100,118 @@ public interface VisitService {
     Optional<Visit> getVisitById(Long id);
 
     /**
-     * Books a visit for a user with the specified ID.
+     * Books one seat of a visit for a user with the specified ID, if the visit is still available.
      *
      * @param visitId the ID of the visit to be booked.
      * @param userId  the ID of the user booking the visit.
+     * @return {@code true} if the visit was booked, {@code false} if it had already been booked.
+     * @throws ScheduleConflictException if the user already booked the visit or has a visit or volunteer shift at
+     * that time.
+     */
+    boolean bookVisit(Long visitId, Long userId);
+
+    /**
+     * Books several seats of a visit for a user with the specified ID, if that many seats are still free.
+     *
+     * @param visitId the ID of the visit to be booked.
+     * @param userId  the ID of the user booking the seats.
+     * @param seats   the number of seats to book.
+     * @return {@code true} if the seats were booked, {@code false} if too few seats are left.
+     * @throws IllegalArgumentException if fewer than one seat is requested.
+     * @throws ScheduleConflictException if the user already booked the visit or has a visit or volunteer shift at
+     * that time.
      */
-    void bookVisit(Long visitId, Long userId);
+    boolean bookSeats(Long visitId, Long userId, int seats);
 
     /**
-     * Cancels the visit with the specified ID.
+     * Cancels the seats a user booked on a visit, giving them back to the visit.
+     *
+     * @param visitId the ID of the visit.
+     * @param userId  the ID of the user.
+     * @return {@code true} if a booking was canceled, {@code false} if the user had none.
+     */
+    boolean cancelBooking(Long visitId, Long userId);
+
+    /**
+     * Cancels every booking of the visit with the specified ID, making all of its seats available again.
      *
      * @param visitId the ID of the visit to be canceled.
      */
     void cancelVisit(Long visitId);
+
+    /**
+     * Puts a user at the end of the waitlist of a visit. Seats freed on the visit are booked for the waiting users in
+     * the order they joined, and while anyone waits, the visit cannot be booked directly.
+     *
+     * @param visitId the ID of the visit.
+     * @param userId  the ID of the user.
+     * @param seats   the number of seats the user wants.
+     * @throws IllegalArgumentException if fewer than one seat is requested.
+     * @throws ScheduleConflictException if the user already booked or waits for the visit, has a visit or volunteer
+     * shift at that time, or wants more seats than the visit offers.
+     */
+    void joinWaitlist(Long visitId, Long userId, int seats);
+
+    /**
+     * Takes a user off the waitlist of a visit.
+     *
+     * @param visitId the ID of the visit.
+     * @param userId  the ID of the user.
+     * @return {@code true} if the user was waiting, {@code false} otherwise.
+     */
+    boolean leaveWaitlist(Long visitId, Long userId);
+
+    /**
+     * Books the free seats of a visit for a batch of users on its waitlist, in order, skipping users whose seats do
+     * not fit. Entries that can never be served are dropped.
+     *
+     * @param visitId the ID of the visit.
+     * @param afterId the ID of the waitlist entry to continue after; {@code 0} to start at the head.
+     * @param max     the maximum number of waitlist entries to handle.
+     * @return the ID of the last entry handled, to continue after, or {@code null} once nothing more can be promoted.
+     */
+    Long promoteWaitlist(Long visitId, Long afterId, int max);
+
+    /**
+     * Counts the seats left on a visit, without querying the visits table once the visit has been counted.
+     *
+     * @param visitId the ID of the visit.
+     * @return the number of seats left, or {@code 0} if the visit does not exist.
+     */
+    int getSeatsLeft(Long visitId);
+
+    /**
+     * Counts the seats a user booked on a visit.
+     *
+     * @param visitId the ID of the visit.
+     * @param userId  the ID of the user.
+     * @return the number of seats booked, or {@code 0} if the user has no booking.
+     */
+    int getBookedSeats(Long visitId, Long userId);
+
+    /**
+     * Summarizes the visits for validating cached listing pages.
+     *
+     * @return the current {@link ListingVersion} of the visits.
+     */
+    ListingVersion getListingVersion();
+
+    /**
+     * Moves a batch of visits that ended before a cutoff, with their bookings, into the archive tables.
+     *
+     * @param cutoff    the time before which the visits ended.
+     * @param batchSize the maximum number of visits to move.
+     * @return the number of visits moved.
+     */
+    int archiveVisitsEndedBefore(LocalDateTime cutoff, int batchSize);
+
+    /**
+     * Reports how many seats were booked on the visits starting within a time range, in start time order.
+     *
+     * @param from            the start of the range, inclusive.
+     * @param to              the end of the range, exclusive.
+     * @param includeArchived whether archived visits are included.
+     * @return a list of {@link VisitUsage} projections.
+     */
+    List<VisitUsage> findVisitUsage(LocalDateTime from, LocalDateTime to, boolean includeArchived);
 }
@@ -0,0 +1,82 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.AssignmentPlan;
+import com.ali.animalsanctuary.dto.AvailabilityWindow;
+import com.ali.animalsanctuary.entity.VolunteerAvailability;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Service interface for the weekly availability of the volunteers and the automatic assignment of volunteers to the
+ * open places of the volunteer works.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getAvailability(Long)}: Lists the availability windows of a user.</li>
+ *     <li>{@link #addAvailability(Long, DayOfWeek, LocalTime, LocalTime)}: Adds an availability window to a user.</li>
+ *     <li>{@link #removeAvailability(Long, Long)}: Removes an availability window of a user.</li>
+ *     <li>{@link #planAssignments(LocalDate, LocalDate)}: Proposes volunteers for the open places of the volunteer works in a date range.</li>
+ *     <li>{@link #applyAssignments(AssignmentPlan)}: Signs the proposed volunteers up.</li>
+ * </ul>
+ *
+ * @see VolunteerAvailability
+ * @see AssignmentPlan
+ */
+
+public interface VolunteerAssignmentService {
+
+    /**
+     * Lists the availability windows of a user.
+     *
+     * @param userId the ID of the user.
+     * @return a list of {@link AvailabilityWindow} projections, in day and start time order.
+     */
+    List<AvailabilityWindow> getAvailability(Long userId);
+
+    /**
+     * Adds a weekly availability window to a user.
+     *
+     * @param userId    the ID of the user.
+     * @param dayOfWeek the day of the week of the window.
+     * @param startTime the time of day the window starts.
+     * @param endTime   the time of day the window ends; {@code 00:00} for midnight.
+     * @return the saved {@link VolunteerAvailability} entity.
+     * @throws RuntimeException if the user is not found.
+     * @throws ScheduleConflictException if the window does not end after it starts.
+     */
+    VolunteerAvailability addAvailability(Long userId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime);
+
+    /**
+     * Removes an availability window of a user.
+     *
+     * @param userId the ID of the user.
+     * @param id     the ID of the window.
+     * @return {@code true} if the window was removed; {@code false} if it does not exist or belongs to another user.
+     */
+    boolean removeAvailability(Long userId, Long id);
+
+    /**
+     * Proposes volunteers for the open places of the volunteer works starting in a date range, within the configured
+     * time budget. A user is proposed for a work only if one of their windows covers it, it overlaps none of their
+     * shifts, and their shifts starting in the same week stay within the configured weekly hours. Nothing is saved.
+     *
+     * @param from the first day of the range.
+     * @param to   the day after the last day of the range.
+     * @return the {@link AssignmentPlan}.
+     */
+    AssignmentPlan planAssignments(LocalDate from, LocalDate to);
+
+    /**
+     * Signs the volunteers of a plan up for their works, one sign-up at a time. Sign-ups that no longer fit, because
+     * since the plan was made the work filled up or moved out of the availability of the user, or the user booked a
+     * visit or another shift at that time or enough shifts to reach their weekly limit, are skipped.
+     *
+     * @param plan the {@link AssignmentPlan} to apply.
+     * @return the number of users signed up.
+     */
+    int applyAssignments(AssignmentPlan plan);
+}
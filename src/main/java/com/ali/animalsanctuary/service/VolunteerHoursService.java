@@ -0,0 +1,88 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.VolunteerHoursRank;
+import com.ali.animalsanctuary.dto.VolunteerHoursSummary;
+import com.ali.animalsanctuary.entity.VolunteerHours;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for the volunteer hours rollups.
+ *
+ * Every change to a shift or its members credits or debits the daily and monthly {@link VolunteerHours} rows of the
+ * users concerned in the same transaction, and the reports read those rows only, so answering how many hours each
+ * volunteer contributed over months or years costs the same however many shifts lie behind the answer.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the rollups from the one-off shifts and the occurrence sign-ups.</li>
+ *     <li>{@link #credit(Collection, LocalDateTime, LocalDateTime)}: Adds a shift to the hours of its users.</li>
+ *     <li>{@link #debit(Collection, LocalDateTime, LocalDateTime)}: Takes a shift off the hours of its users.</li>
+ *     <li>{@link #getLeaderboard(YearMonth, YearMonth, int)}: Ranks the users by the hours they contributed over a range of months.</li>
+ *     <li>{@link #getUserSummary(Long, YearMonth, YearMonth)}: Summarizes the hours of a user over a range of months.</li>
+ *     <li>{@link #getMinutes(Long, LocalDate, LocalDate)}: Sums the minutes of the shifts a user starts over a range of days.</li>
+ * </ul>
+ *
+ * @see VolunteerHours
+ */
+
+public interface VolunteerHoursService {
+
+    /**
+     * Rebuilds the rollups from the one-off shifts and the occurrence sign-ups, replacing their current content.
+     * Meant to run while no shift is being changed, such as at startup.
+     */
+    void rebuild();
+
+    /**
+     * Adds a shift to the hours of the users signed up for it, in the current transaction.
+     *
+     * @param userIds the IDs of the users.
+     * @param start   the start time of the shift.
+     * @param end     the end time of the shift.
+     */
+    void credit(Collection<Long> userIds, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Takes a shift off the hours of the users signed up for it, in the current transaction.
+     *
+     * @param userIds the IDs of the users.
+     * @param start   the start time the shift was credited with.
+     * @param end     the end time the shift was credited with.
+     */
+    void debit(Collection<Long> userIds, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Ranks the users by the hours they contributed over a range of months, most hours first.
+     *
+     * @param from  the first month of the range.
+     * @param to    the last month of the range, inclusive.
+     * @param limit the maximum number of users to return.
+     * @return a list of {@link VolunteerHoursRank} projections.
+     */
+    List<VolunteerHoursRank> getLeaderboard(YearMonth from, YearMonth to, int limit);
+
+    /**
+     * Summarizes the hours of a user over a range of months, with the days of its last month.
+     *
+     * @param userId the ID of the user.
+     * @param from   the first month of the range.
+     * @param to     the last month of the range, inclusive.
+     * @return the {@link VolunteerHoursSummary} of the user.
+     */
+    VolunteerHoursSummary getUserSummary(Long userId, YearMonth from, YearMonth to);
+
+    /**
+     * Sums the minutes of the shifts a user starts over a range of days, in the current transaction.
+     *
+     * @param userId the ID of the user.
+     * @param from   the first day of the range.
+     * @param to     the day after the last day of the range.
+     * @return the minutes.
+     */
+    long getMinutes(Long userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,79 @@
+package com.ali.animalsanctuary.service;
+
+import com.ali.animalsanctuary.dto.ShiftOccurrence;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.VolunteerRecurrence;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for managing recurring volunteer tasks, whose occurrences are expanded from a recurrence rule
+ * for the dates asked for instead of being stored.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #saveRecurrence(VolunteerRecurrence)}: Saves a new {@link VolunteerRecurrence} entity.</li>
+ *     <li>{@link #getRecurrenceById(Long)}: Retrieves the {@link VolunteerRecurrence} entity with the specified ID.</li>
+ *     <li>{@link #deleteRecurrence(Long)}: Deletes the {@link VolunteerRecurrence} entity with the specified ID, and its sign-ups.</li>
+ *     <li>{@link #getUpcomingShifts(LocalDateTime, LocalDateTime)}: Lists the one-off volunteer works and the occurrences starting in a range.</li>
+ *     <li>{@link #signUp(Long, LocalDateTime, User)}: Signs a {@link User} up for one occurrence of a recurring task.</li>
+ * </ul>
+ *
+ * @see VolunteerRecurrence
+ * @see ShiftOccurrence
+ */
+
+public interface VolunteerRecurrenceService {
+
+    /**
+     * Saves a new {@link VolunteerRecurrence} entity, storing its rule in canonical form.
+     *
+     * @param recurrence the {@link VolunteerRecurrence} entity to be saved.
+     * @return the saved {@link VolunteerRecurrence} entity.
+     * @throws IllegalArgumentException if the rule cannot be parsed or has no occurrence; the message is safe to
+     *                                  show to the user.
+     * @throws ScheduleConflictException if the first occurrence does not end after it starts.
+     */
+    VolunteerRecurrence saveRecurrence(VolunteerRecurrence recurrence);
+
+    /**
+     * Retrieves the {@link VolunteerRecurrence} entity with the specified ID.
+     *
+     * @param id the ID of the {@link VolunteerRecurrence} entity to be retrieved.
+     * @return the {@link VolunteerRecurrence} entity with the specified ID, or {@code null} if not found.
+     */
+    VolunteerRecurrence getRecurrenceById(Long id);
+
+    /**
+     * Deletes the {@link VolunteerRecurrence} entity with the specified ID, with its sign-ups, taking them off the
+     * hours of the users who made them.
+     *
+     * @param id the ID of the {@link VolunteerRecurrence} entity to be deleted.
+     */
+    void deleteRecurrence(Long id);
+
+    /**
+     * Lists the one-off volunteer works and the occurrences of the recurring tasks starting in a range, in start
+     * time order, with the number of users signed up for each.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link ShiftOccurrence} objects.
+     */
+    List<ShiftOccurrence> getUpcomingShifts(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Signs a {@link User} up for one occurrence of a recurring task, unless they are signed up already.
+     *
+     * @param recurrenceId    the ID of the recurring task.
+     * @param occurrenceStart the start time of the occurrence.
+     * @param user            the {@link User} signing up.
+     * @return {@code true} if the user was signed up; {@code false} if they already were.
+     * @throws RuntimeException if the recurring task is not found or has no occurrence at that time.
+     * @throws ScheduleConflictException if the occurrence is full, or the user already has a visit or a volunteer
+     * shift at that time.
+     */
+    boolean signUp(Long recurrenceId, LocalDateTime occurrenceStart, User user);
+}
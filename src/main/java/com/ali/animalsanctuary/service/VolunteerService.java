@@ -1,7 +1,9 @@
 package com.ali.animalsanctuary.service;
 
+import com.ali.animalsanctuary.dto.VolunteerCard;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
 
 import java.util.List;
 
@@ -16,6 +18,7 @@ import java.util.List;
  *     <li>{@link #saveVolunteer(Volunteer)}: Saves a new {@link Volunteer} entity.</li>
  *     <li>{@link #getVolunteerById(Long)}: Retrieves the {@link Volunteer} entity with the specified ID.</li>
  *     <li>{@link #getAllVolunteers()} : Retrieves a list of all {@link Volunteer} entities.</li>
+ *     <li>{@link #getVolunteerCards()}: Retrieves the volunteer works shown on the listing page, without their members.</li>
  *     <li>{@link #getVolunteersByUserId(Long)}: Retrieves a list of {@link Volunteer} entities associated with the specified user ID.</li>
  *     <li>{@link #deleteVolunteer(Long)}: Deletes the {@link Volunteer} entity with the specified ID.</li>
  *     <li>{@link #addUserToVolunteer(Long, User)}: Associates a {@link User} with a {@link Volunteer} entity.</li>
@@ -31,6 +34,7 @@ public interface VolunteerService {
      *
      * @param volunteer the {@link Volunteer} entity to be saved.
      * @return the saved {@link Volunteer} entity.
+     * @throws ScheduleConflictException if the shift overlaps another shift for the same task.
      */
     Volunteer saveVolunteer(Volunteer volunteer);
 
@@ -49,6 +53,13 @@ public interface VolunteerService {
      */
     List<Volunteer> getAllVolunteers();
 
+    /**
+     * Retrieves the volunteer works shown on the listing page, in start time order, without their members.
+     *
+     * @return a list of {@link VolunteerCard} projections.
+     */
+    List<VolunteerCard> getVolunteerCards();
+
     /**
      * Retrieves a list of {@link Volunteer} entities associated with the specified user ID.
      *
@@ -65,10 +76,14 @@ public interface VolunteerService {
     void deleteVolunteer(Long id);
 
     /**
-     * Associates a {@link User} with a {@link Volunteer} entity.
+     * Associates a {@link User} with a {@link Volunteer} entity, unless they are associated already.
      *
      * @param volunteerId the ID of the {@link Volunteer} entity.
      * @param user        the {@link User} to be associated with the volunteer.
+     * @return {@code true} if the user was signed up; {@code false} if they already were.
+     * @throws RuntimeException if the {@link Volunteer} entity with the specified ID is not found.
+     * @throws ScheduleConflictException if the volunteer work is full, or the user already has a visit or another
+     * shift at that time.
      */
-    void addUserToVolunteer(Long volunteerId, User user);
+    boolean addUserToVolunteer(Long volunteerId, User user);
 }
@@ -0,0 +1,430 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.AnimalFacets;
+import com.ali.animalsanctuary.dto.AnimalFilter;
+import com.ali.animalsanctuary.dto.FacetCounts;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalFacetIndex;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of the {@link AnimalFacetIndex} interface using compressed Roaring bitmaps.
+ *
+ * Each facet value maps to a {@link RoaringBitmap} of animal IDs, ages map to one bitmap per year so that age
+ * ranges are unions of a few bitmaps, and a query is the intersection of the bitmaps selected by the filter.
+ * Counting the animals per facet value is an intersection cardinality, which Roaring computes without
+ * materializing the intersection. Reads share a read lock; updates take the write lock briefly.
+ *
+ * <p>The index is built on startup by reading the facet columns of the animals table in keyset batches. Until the
+ * build completes {@link #isReady()} is {@code false} and callers query the database instead. Updates arriving
+ * while a rebuild runs are applied to both the live and the new index, and rows they touched are skipped by the
+ * rebuild so that a stale batch never overwrites them.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #isReady()}: Checks whether the index has been built and can answer queries.</li>
+ *     <li>{@link #rebuild()}: Rebuilds the index from the animals table.</li>
+ *     <li>{@link #put(AnimalFacets)}: Adds an animal to the index, or updates its facet values.</li>
+ *     <li>{@link #remove(Long)}: Removes an animal from the index.</li>
+ *     <li>{@link #count(AnimalFilter)}: Counts the matching animals and the animals per facet value.</li>
+ *     <li>{@link #findIdsAfter(AnimalFilter, long, int)}: Finds the IDs of matching animals after a cursor.</li>
+ *     <li>{@link #findIdsBefore(AnimalFilter, long, int)}: Finds the IDs of matching animals before a cursor.</li>
+ * </ul>
+ *
+ * @see AnimalFacetIndex
+ * @see AnimalRepository
+ */
+
+@Service
+public class AnimalFacetIndexImpl implements AnimalFacetIndex, ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalFacetIndexImpl.class);
+
+    private static final int[] AGE_BAND_STARTS = {0, 2, 5, 10};
+    private static final String[] AGE_BAND_LABELS = {"0-1", "2-4", "5-9", "10+"};
+
+    private final AnimalRepository animalRepository;
+    private final int batchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private Index current = new Index();
+    private Index building;
+    private RoaringBitmap touchedWhileBuilding;
+
+    /**
+     * Constructs a new {@link AnimalFacetIndexImpl}.
+     *
+     * @param animalRepository the repository the index is built from.
+     * @param batchSize        the number of animals read per batch while building.
+     */
+    public AnimalFacetIndexImpl(AnimalRepository animalRepository,
+                                @Value("${sanctuary.facets.rebuild-batch-size:5000}") int batchSize) {
+        this.animalRepository = animalRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Checks whether the index has been built and can answer queries.
+     *
+     * @return {@code true} once the initial build has completed.
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rebuilds the index from the animals table, replacing its current content. The live index keeps answering
+     * queries until the new one is swapped in.
+     */
+    @Override
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            building = new Index();
+            touchedWhileBuilding = new RoaringBitmap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int indexed = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                List<AnimalFacets> batch = animalRepository.findFacetsAfter(lastId, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (AnimalFacets facets : batch) {
+                        if (!touchedWhileBuilding.contains(toIndex(facets.getId()))) {
+                            building.add(facets);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                indexed += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            lock.writeLock().lock();
+            try {
+                building.runOptimize();
+                current = building;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = null;
+                touchedWhileBuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Indexed facets of {} animals in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Adds an animal to the index, or replaces the facet values it was indexed with.
+     *
+     * @param facets the facet values of the animal.
+     */
+    @Override
+    public void put(AnimalFacets facets) {
+        int id = toIndex(facets.getId());
+        lock.writeLock().lock();
+        try {
+            current.remove(id);
+            current.add(facets);
+            if (building != null) {
+                touchedWhileBuilding.add(id);
+                building.remove(id);
+                building.add(facets);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an animal from the index. Removing an animal that is not indexed is a no-op.
+     *
+     * @param id the ID of the animal.
+     */
+    @Override
+    public void remove(Long id) {
+        int index = toIndex(id);
+        lock.writeLock().lock();
+        try {
+            current.remove(index);
+            if (building != null) {
+                touchedWhileBuilding.add(index);
+                building.remove(index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the animals matching a filter, and the animals per value of each facet. The count of a facet value
+     * ignores the filter on that facet itself.
+     *
+     * @param filter the catalogue filter.
+     * @return the {@link FacetCounts} of the filter.
+     */
+    @Override
+    public FacetCounts count(AnimalFilter filter) {
+        lock.readLock().lock();
+        try {
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            counts.put(SPECIES, current.species.count(current.match(filter, SPECIES)));
+            counts.put(BREED, current.breed.count(current.match(filter, BREED)));
+            counts.put(GENDER, current.gender.count(current.match(filter, GENDER)));
+            counts.put(AGE, current.countAgeBands(current.match(filter, AGE)));
+            counts.put(ADOPTED, current.adopted.count(current.match(filter, ADOPTED)));
+            return new FacetCounts(current.match(filter, null).getCardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the IDs of the animals matching a filter whose ID is greater than a cursor, in ascending order.
+     *
+     * @param filter  the catalogue filter.
+     * @param afterId the cursor; {@code 0} to start from the first animal.
+     * @param limit   the maximum number of IDs to return.
+     * @return the matching IDs.
+     */
+    @Override
+    public List<Long> findIdsAfter(AnimalFilter filter, long afterId, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (afterId >= Integer.MAX_VALUE) {
+            return ids;
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = current.match(filter, null);
+            long next = matches.nextValue((int) Math.max(afterId + 1, 0));
+            while (next >= 0 && ids.size() < limit) {
+                ids.add(next);
+                next = next < Integer.MAX_VALUE ? matches.nextValue((int) next + 1) : -1;
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the IDs of the animals matching a filter whose ID is less than a cursor, nearest to the cursor first.
+     *
+     * @param filter   the catalogue filter.
+     * @param beforeId the cursor.
+     * @param limit    the maximum number of IDs to return.
+     * @return the matching IDs, in descending order.
+     */
+    @Override
+    public List<Long> findIdsBefore(AnimalFilter filter, long beforeId, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (beforeId <= 0) {
+            return ids;
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = current.match(filter, null);
+            long previous = matches.previousValue((int) Math.min(beforeId - 1, Integer.MAX_VALUE));
+            while (previous >= 0 && ids.size() < limit) {
+                ids.add(previous);
+                previous = previous > 0 ? matches.previousValue((int) previous - 1) : -1;
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int toIndex(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The bitmaps of one text facet, keyed by normalized value. The first spelling seen of each value is kept as its
+     * display label.
+     */
+    private static final class Facet {
+
+        private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+
+        void add(String value, int id) {
+            String key = normalize(value);
+            if (key != null) {
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+                labels.putIfAbsent(key, value.trim());
+            }
+        }
+
+        void remove(int id) {
+            bitmaps.entrySet().removeIf(entry -> {
+                entry.getValue().remove(id);
+                if (entry.getValue().isEmpty()) {
+                    labels.remove(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        RoaringBitmap get(String value) {
+            return bitmaps.getOrDefault(normalize(value), new RoaringBitmap());
+        }
+
+        Map<String, Integer> count(RoaringBitmap base) {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+            bitmaps.forEach((key, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(bitmap, base);
+                if (count > 0) {
+                    entries.add(Map.entry(labels.get(key), count));
+                }
+            });
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            entries.forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+            return counts;
+        }
+
+        void runOptimize() {
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+
+    /**
+     * One complete set of facet bitmaps. Not thread safe; guarded by the enclosing lock.
+     */
+    private static final class Index {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Facet species = new Facet();
+        private final Facet breed = new Facet();
+        private final Facet gender = new Facet();
+        private final Facet adopted = new Facet();
+        private final NavigableMap<Integer, RoaringBitmap> ages = new TreeMap<>();
+
+        void add(AnimalFacets facets) {
+            int id = toIndex(facets.getId());
+            all.add(id);
+            species.add(facets.getSpecies(), id);
+            breed.add(facets.getBreed(), id);
+            gender.add(facets.getGender(), id);
+            adopted.add(String.valueOf(facets.isAdopted()), id);
+            ages.computeIfAbsent(facets.getAge(), age -> new RoaringBitmap()).add(id);
+        }
+
+        void remove(int id) {
+            if (!all.contains(id)) {
+                return;
+            }
+            all.remove(id);
+            species.remove(id);
+            breed.remove(id);
+            gender.remove(id);
+            adopted.remove(id);
+            ages.values().removeIf(bitmap -> {
+                bitmap.remove(id);
+                return bitmap.isEmpty();
+            });
+        }
+
+        /**
+         * Intersects the bitmaps selected by a filter, leaving out the filter on one facet. The returned bitmap may be
+         * shared with the index and must not be modified.
+         */
+        RoaringBitmap match(AnimalFilter filter, String excludedFacet) {
+            List<RoaringBitmap> selected = new ArrayList<>();
+            selected.add(all);
+            if (!SPECIES.equals(excludedFacet) && normalize(filter.getSpecies()) != null) {
+                selected.add(species.get(filter.getSpecies()));
+            }
+            if (!BREED.equals(excludedFacet) && normalize(filter.getBreed()) != null) {
+                selected.add(breed.get(filter.getBreed()));
+            }
+            if (!GENDER.equals(excludedFacet) && normalize(filter.getGender()) != null) {
+                selected.add(gender.get(filter.getGender()));
+            }
+            if (!ADOPTED.equals(excludedFacet) && filter.getAdopted() != null) {
+                selected.add(adopted.get(String.valueOf(filter.getAdopted())));
+            }
+            if (!AGE.equals(excludedFacet) && (filter.getMinAge() != null || filter.getMaxAge() != null)) {
+                int min = filter.getMinAge() != null ? filter.getMinAge() : Integer.MIN_VALUE;
+                int max = filter.getMaxAge() != null ? filter.getMaxAge() : Integer.MAX_VALUE;
+                selected.add(min > max ? new RoaringBitmap()
+                        : FastAggregation.or(ages.subMap(min, true, max, true).values().iterator()));
+            }
+            return selected.size() == 1 ? all : FastAggregation.and(selected.iterator());
+        }
+
+        Map<String, Integer> countAgeBands(RoaringBitmap base) {
+            int[] bandCounts = new int[AGE_BAND_STARTS.length];
+            ages.forEach((age, bitmap) -> {
+                int band = 0;
+                while (band + 1 < AGE_BAND_STARTS.length && age >= AGE_BAND_STARTS[band + 1]) {
+                    band++;
+                }
+                bandCounts[band] += RoaringBitmap.andCardinality(bitmap, base);
+            });
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int band = 0; band < bandCounts.length; band++) {
+                if (bandCounts[band] > 0) {
+                    counts.put(AGE_BAND_LABELS[band], bandCounts[band]);
+                }
+            }
+            return counts;
+        }
+
+        void runOptimize() {
+            all.runOptimize();
+            species.runOptimize();
+            breed.runOptimize();
+            gender.runOptimize();
+            adopted.runOptimize();
+            ages.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.entity.Animal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+/**
+ * Moves {@code animals_seq} past the IDs already used in the animals table.
+ *
+ * Animal IDs used to come from an identity column. When the ID generator was switched to the pooled
+ * {@code animals_seq} sequence, existing databases got a new sequence starting at 1, which would hand out IDs that
+ * are already taken. Before the application starts serving requests, this component advances the sequence so that
+ * the first block of IDs it hands out starts above the highest existing ID. It never moves the sequence backwards.
+ *
+ * <p>MySQL has no sequences, so Hibernate emulates {@code animals_seq} with a single row table holding the next
+ * value. H2, used in tests, has a native sequence; its next value is read from {@code INFORMATION_SCHEMA} and it is
+ * restarted with {@code ALTER SEQUENCE} only if that is lower. On other databases the sequence is left alone, since
+ * restarting it blindly could hand out pooled blocks of IDs again.
+ *
+ * @see Animal
+ */
+
+@Component
+@DependsOn("entityManagerFactory")
+public class AnimalIdSequenceAligner implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalIdSequenceAligner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new {@link AnimalIdSequenceAligner}.
+     *
+     * @param jdbcTemplate the template used to read the highest ID and advance the sequence.
+     */
+    public AnimalIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM animals", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // The pooled optimizer hands out the block of IDs that ends at the value it reads from the sequence.
+        long nextValue = maxId + Animal.ID_ALLOCATION_SIZE;
+        String product = jdbcTemplate.execute((Connection connection) ->
+                JdbcUtils.commonDatabaseName(connection.getMetaData().getDatabaseProductName()));
+        if ("MySQL".equals(product) || "MariaDB".equals(product)) {
+            int updated = jdbcTemplate.update("UPDATE animals_seq SET next_val = ? WHERE next_val < ?", nextValue, nextValue);
+            if (updated > 0) {
+                logger.info("Advanced animals_seq to {} past the existing animal IDs", nextValue);
+            }
+        } else if ("H2".equals(product)) {
+            Long currentValue = jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                    + "WHERE SEQUENCE_NAME = 'ANIMALS_SEQ'", Long.class);
+            if (currentValue == null || currentValue < nextValue) {
+                jdbcTemplate.execute("ALTER SEQUENCE animals_seq RESTART WITH " + nextValue);
+                logger.info("Advanced animals_seq to {} past the existing animal IDs", nextValue);
+            }
+        } else {
+            logger.warn("Not checking animals_seq on {}; it must start above {}", product, maxId);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.ImportReport;
+import com.ali.animalsanctuary.dto.ImportRowError;
+import com.ali.animalsanctuary.service.AnimalImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command line entry point of the {@link AnimalImportService}.
+ *
+ * When the application is started with {@code --import.file=<path>}, the file is imported and the application exits
+ * with status 0 if every row was imported and 1 otherwise: the runner reports the status as an
+ * {@link ExitCodeGenerator}, and {@link com.ali.animalsanctuary.AnimalSanctuaryApplication#main(String[])} closes the
+ * context and exits once an import ran. The optional {@code --import.images=<zip>} names the
+ * image archive, and {@code --import.format=csv|jsonl} overrides the format taken from the file extension. Add
+ * {@code --spring.main.web-application-type=none} to import without starting the web server, for example:
+ *
+ * <pre>
+ * java -jar animal-sanctuary.jar --spring.main.web-application-type=none \
+ *     --import.file=intake.csv --import.images=intake-photos.zip
+ * </pre>
+ *
+ * @see AnimalImportService
+ */
+
+@Component
+public class AnimalImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalImportRunner.class);
+
+    private final AnimalImportService animalImportService;
+    private volatile Integer exitCode;
+
+    /**
+     * Constructs a new {@link AnimalImportRunner}.
+     *
+     * @param animalImportService the service importing the animals.
+     */
+    public AnimalImportRunner(AnimalImportService animalImportService) {
+        this.animalImportService = animalImportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String file = option(args, "import.file");
+        if (file == null) {
+            return;
+        }
+        String images = option(args, "import.images");
+        String format = option(args, "import.format");
+        if (format == null) {
+            format = AnimalImportService.formatOf(file);
+        }
+
+        ImportReport report;
+        try (InputStream data = Files.newInputStream(Path.of(file))) {
+            report = animalImportService.importAnimals(data, format, images != null ? new File(images) : null);
+        }
+        for (ImportRowError error : report.getErrors()) {
+            logger.warn("Line {}: {}", error.getLine(), error.getMessage());
+        }
+        exitCode = report.getErrors().isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Tells whether the application was started to import a file, and so should exit once it started.
+     *
+     * @return {@code true} if an import ran.
+     */
+    public boolean isImportRun() {
+        return exitCode != null;
+    }
+
+    /**
+     * Reports the exit status of the import.
+     *
+     * @return {@code 0} if every row was imported or no import ran, {@code 1} otherwise.
+     */
+    @Override
+    public int getExitCode() {
+        return exitCode != null ? exitCode : 0;
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,499 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.AnimalFacets;
+import com.ali.animalsanctuary.dto.ImportReport;
+import com.ali.animalsanctuary.dto.ImportRowError;
+import com.ali.animalsanctuary.dto.StoredImage;
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.exception.ImageRejectedException;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalFacetIndex;
+import com.ali.animalsanctuary.service.AnimalImportService;
+import com.ali.animalsanctuary.service.AnimalSearchService;
+import com.ali.animalsanctuary.service.ImageStore;
+import com.ali.animalsanctuary.service.ImageVariantService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Implementation of the {@link AnimalImportService} interface.
+ *
+ * The import file is streamed: only the rows of the current batch are held in memory. Each batch is saved through
+ * the {@link AnimalRepository} in its own transaction, flushed, and cleared from the persistence context, so
+ * Hibernate sends the inserts as JDBC batches and the context does not grow with the file. If a batch fails, its rows
+ * are saved again one per transaction to find the rows at fault, and the rest of the batch is kept. Images are
+ * streamed from the archive into the {@link ImageStore} with the same size and format checks as uploads.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #importAnimals(InputStream, String, File)}: Imports the animals listed in a CSV or JSON Lines file.</li>
+ * </ul>
+ *
+ * @see AnimalImportService
+ * @see Animal
+ */
+
+@Service
+public class AnimalImportServiceImpl implements AnimalImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalImportServiceImpl.class);
+
+    private final AnimalRepository animalRepository;
+    private final ImageReferences imageReferences;
+    private final ImageVariantService imageVariantService;
+    private final AnimalFacetIndex animalFacetIndex;
+    private final AnimalSearchService animalSearchService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long maxImageSize;
+
+    /**
+     * Constructs a new {@link AnimalImportServiceImpl}.
+     *
+     * @param animalRepository    the repository for managing {@link Animal} entities.
+     * @param imageReferences     the guard storing the imported images and removing those of rejected rows.
+     * @param imageVariantService the service generating resized copies of the imported images.
+     * @param animalFacetIndex    the in-memory index answering catalogue filters.
+     * @param animalSearchService the full-text search index over animal names and descriptions.
+     * @param entityManager       the entity manager flushed and cleared after each batch.
+     * @param transactionManager  the transaction manager running one transaction per batch.
+     * @param objectMapper        the mapper parsing JSON Lines rows.
+     * @param batchSize           the number of rows saved per transaction.
+     * @param maxImageSize        the maximum accepted size of an imported image.
+     */
+    public AnimalImportServiceImpl(AnimalRepository animalRepository, ImageReferences imageReferences,
+                                   ImageVariantService imageVariantService, AnimalFacetIndex animalFacetIndex,
+                                   AnimalSearchService animalSearchService, EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                   @Value("${sanctuary.import.batch-size:500}") int batchSize,
+                                   @Value("${sanctuary.images.max-size:10MB}") DataSize maxImageSize) {
+        this.animalRepository = animalRepository;
+        this.imageReferences = imageReferences;
+        this.imageVariantService = imageVariantService;
+        this.animalFacetIndex = animalFacetIndex;
+        this.animalSearchService = animalSearchService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxImageSize = maxImageSize.toBytes();
+    }
+
+    /**
+     * Imports the animals listed in a CSV or JSON Lines file.
+     *
+     * @param data      the import file content; it is read to the end but not closed.
+     * @param format    the format of the file, {@link #CSV} or {@link #JSONL}.
+     * @param imagesZip a ZIP archive holding the images referenced by the rows, or {@code null}.
+     * @return the {@link ImportReport} with the per-row errors and throughput.
+     * @throws IOException if the import file or the archive cannot be read.
+     * @throws IllegalArgumentException if the format is not supported.
+     */
+    @Override
+    public ImportReport importAnimals(InputStream data, String format, File imagesZip) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8));
+        Iterator<ImportRecord> records = switch (format == null ? "" : format.toLowerCase(Locale.ROOT)) {
+            case CSV -> new CsvRecordReader(reader);
+            case JSONL -> new JsonLinesRecordReader(reader, objectMapper);
+            default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+        };
+
+        ImportReport report = new ImportReport(0, 0, new ArrayList<>(), 0);
+        try (ZipFile images = imagesZip != null ? new ZipFile(imagesZip) : null) {
+            List<ImportRecord> batch = new ArrayList<>(batchSize);
+            List<Animal> animals = new ArrayList<>(batchSize);
+            while (true) {
+                ImportRecord record;
+                try {
+                    if (!records.hasNext()) {
+                        break;
+                    }
+                    record = records.next();
+                } catch (UncheckedImportException e) {
+                    report.setRowsRead(report.getRowsRead() + 1);
+                    report.getErrors().add(new ImportRowError(e.line, e.getMessage()));
+                    continue;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                try {
+                    animals.add(toAnimal(record, images));
+                    batch.add(record);
+                } catch (InvalidRowException | ImageRejectedException e) {
+                    report.getErrors().add(new ImportRowError(record.line, e.getMessage()));
+                }
+                if (animals.size() == batchSize) {
+                    saveBatch(batch, animals, report);
+                    batch.clear();
+                    animals.clear();
+                    logProgress(report, started);
+                }
+            }
+            if (!animals.isEmpty()) {
+                saveBatch(batch, animals, report);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        logger.info("Imported {} of {} animals in {} ms ({} rows/s), {} rows rejected", report.getImported(),
+                report.getRowsRead(), report.getElapsedMillis(), Math.round(report.getRowsPerSecond()),
+                report.getErrors().size());
+        return report;
+    }
+
+    /**
+     * Saves one batch of animals in a single transaction, falling back to one transaction per animal if the batch
+     * fails. Saved animals are added to the facet and search indexes once their transaction commits.
+     */
+    private void saveBatch(List<ImportRecord> batch, List<Animal> animals, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                animalRepository.saveAll(animals);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            animals.forEach(animal -> {
+                unpinImage(animal);
+                indexImported(animal);
+            });
+            report.setImported(report.getImported() + animals.size());
+            return;
+        } catch (DataAccessException | PersistenceException e) {
+            logger.warn("Import batch of {} rows failed, retrying the rows one by one: {}", animals.size(),
+                    e.getMessage());
+        }
+        for (int i = 0; i < animals.size(); i++) {
+            Animal animal = animals.get(i);
+            // The failed batch assigned IDs that were rolled back; saving them again would be treated as a merge.
+            animal.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> animalRepository.save(animal));
+                unpinImage(animal);
+                indexImported(animal);
+                report.setImported(report.getImported() + 1);
+            } catch (DataAccessException | PersistenceException e) {
+                report.getErrors().add(new ImportRowError(batch.get(i).line, rootMessage(e)));
+                unpinImage(animal);
+                imageReferences.release(animal.getImageKey());
+            }
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private void indexImported(Animal animal) {
+        animalFacetIndex.put(AnimalFacets.of(animal));
+        animalSearchService.index(animal);
+        imageVariantService.generateVariantsAsync(animal.getImageKey());
+    }
+
+    private Animal toAnimal(ImportRecord record, ZipFile images) throws IOException {
+        Map<String, String> fields = record.fields;
+        Animal animal = new Animal();
+        animal.setName(required(fields, "name"));
+        animal.setSpecies(required(fields, "species"));
+        animal.setBreed(optional(fields, "breed"));
+        animal.setGender(optional(fields, "gender"));
+        animal.setAdoptionStatus(optional(fields, "adoptionstatus"));
+        animal.setDescription(optional(fields, "description"));
+
+        String age = optional(fields, "age");
+        if (age != null) {
+            try {
+                animal.setAge(Integer.parseInt(age));
+            } catch (NumberFormatException e) {
+                throw new InvalidRowException("Age is not a whole number: " + age);
+            }
+            if (animal.getAge() < 0) {
+                throw new InvalidRowException("Age must not be negative: " + age);
+            }
+        }
+
+        String image = optional(fields, "image");
+        if (image != null) {
+            if (images == null) {
+                throw new InvalidRowException("Image " + image + " was given but no image archive was uploaded");
+            }
+            ZipEntry entry = images.getEntry(image);
+            if (entry == null || entry.isDirectory()) {
+                throw new InvalidRowException("Image " + image + " is not in the image archive");
+            }
+            StoredImage storedImage = imageReferences.store(() -> images.getInputStream(entry), maxImageSize);
+            animal.setImageKey(storedImage.getKey());
+            animal.setImageSize(storedImage.getSize());
+            animal.setImageContentType(storedImage.getContentType());
+        }
+        return animal;
+    }
+
+    private static String required(Map<String, String> fields, String column) {
+        String value = optional(fields, column);
+        if (value == null) {
+            throw new InvalidRowException("Missing " + column);
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Drops the pin the import holds on the image of a row once the row is saved or rejected.
+     */
+    private void unpinImage(Animal animal) {
+        if (animal.getImageKey() != null) {
+            imageReferences.unpin(animal.getImageKey());
+        }
+    }
+
+    private static void logProgress(ImportReport report, long started) {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        logger.info("Imported {} animals so far ({} rows/s)", report.getImported(),
+                Math.round(report.getRowsRead() * 1000.0 / elapsedMillis));
+    }
+
+    /**
+     * One row of an import file, with its column names lower cased.
+     */
+    private static final class ImportRecord {
+
+        private final long line;
+        private final Map<String, String> fields;
+
+        private ImportRecord(long line, Map<String, String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Signals a row whose values cannot be imported.
+     */
+    private static final class InvalidRowException extends RuntimeException {
+
+        private InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Signals a row that cannot be parsed. Reading continues with the next row.
+     */
+    private static final class UncheckedImportException extends RuntimeException {
+
+        private final long line;
+
+        private UncheckedImportException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+
+    /**
+     * Reads RFC 4180 comma separated rows: fields may be quoted, quoted fields may contain commas, line breaks and
+     * doubled quotes, and the first row names the columns.
+     */
+    private static final class CsvRecordReader implements Iterator<ImportRecord> {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+        private long line = 1;
+        private List<String> nextRow;
+        private long nextRowLine;
+
+        private CsvRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> columns = readRow();
+            if (columns == null) {
+                this.header = List.of();
+            } else {
+                this.header = columns.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null && !header.isEmpty()) {
+                try {
+                    do {
+                        nextRowLine = line;
+                        nextRow = readRow();
+                    } while (nextRow != null && nextRow.size() == 1 && nextRow.get(0).isEmpty());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public ImportRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<String> row = nextRow;
+            nextRow = null;
+            if (row.size() != header.size()) {
+                throw new UncheckedImportException(nextRowLine,
+                        "Expected " + header.size() + " fields but found " + row.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), row.get(i));
+            }
+            return new ImportRecord(nextRowLine, fields);
+        }
+
+        /**
+         * Reads the fields of the next row, or returns {@code null} at the end of the input.
+         */
+        private List<String> readRow() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new UncheckedImportException(nextRowLine, "Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    /**
+     * Reads one JSON object per line. Blank lines are skipped.
+     */
+    private static final class JsonLinesRecordReader implements Iterator<ImportRecord> {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+        private String nextLine;
+
+        private JsonLinesRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String read = reader.readLine();
+                    if (read == null) {
+                        return false;
+                    }
+                    line++;
+                    if (!read.isBlank()) {
+                        nextLine = read;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ImportRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String json = nextLine;
+            nextLine = null;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(json);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedImportException(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new UncheckedImportException(line, "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.fields().forEachRemaining(field -> fields.put(field.getKey().toLowerCase(Locale.ROOT),
+                    field.getValue().isNull() ? null : field.getValue().asText()));
+            return new ImportRecord(line, fields);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.AnimalCard;
+import com.ali.animalsanctuary.dto.AnimalSearchHit;
+import com.ali.animalsanctuary.dto.ListingVersion;
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalSearchService;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of the {@link AnimalSearchService} interface using an embedded Apache Lucene index.
+ *
+ * Names and descriptions are analyzed with Lucene's English analyzer (tokenization, lower casing, stop words and
+ * Porter stemming) and ranked with BM25, with matches in the name weighted above matches in the description. The
+ * index lives in a directory on local disk and survives restarts. Each commit records the latest update timestamp
+ * of the animals indexed so far; on startup the index is rebuilt only if its document count no longer matches the
+ * animals table or an animal was updated after that timestamp.
+ *
+ * <p>Writes go to a single shared {@link IndexWriter}. Searches use a {@link SearcherManager} that a background
+ * thread refreshes at a fixed interval, so updates become searchable in near real time without reopening the index
+ * for every change. Changes are committed to disk at a longer interval and on shutdown.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #index(Animal)}: Adds an animal to the search index, or replaces its indexed text.</li>
+ *     <li>{@link #remove(Long)}: Removes an animal from the search index.</li>
+ *     <li>{@link #search(String, int)}: Finds the animals best matching a query.</li>
+ *     <li>{@link #rebuild()}: Rebuilds the search index from the animals table.</li>
+ * </ul>
+ *
+ * @see AnimalSearchService
+ */
+
+@Service
+public class AnimalSearchServiceImpl implements AnimalSearchService, ApplicationRunner, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalSearchServiceImpl.class);
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String IMAGE_KEY = "imageKey";
+    private static final String LAST_UPDATED = "lastUpdated";
+
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(NAME, 2.0f, DESCRIPTION, 1.0f);
+    private static final int FRAGMENT_SIZE = 120;
+    private static final int MAX_FRAGMENTS = 2;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final AnimalRepository animalRepository;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final FSDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<LocalDateTime> lastUpdated = new AtomicReference<>();
+
+    /**
+     * Constructs a new {@link AnimalSearchServiceImpl}, opening or creating the index directory.
+     *
+     * @param animalRepository  the repository the index is rebuilt from.
+     * @param indexDir          the directory holding the index files.
+     * @param refreshIntervalMs how often, in milliseconds, recent changes are made searchable.
+     * @param commitIntervalMs  how often, in milliseconds, recent changes are committed to disk.
+     * @throws IOException if the index cannot be opened.
+     */
+    public AnimalSearchServiceImpl(AnimalRepository animalRepository,
+                                   @Value("${sanctuary.search.index-dir:data/search-index}") String indexDir,
+                                   @Value("${sanctuary.search.refresh-interval-ms:1000}") long refreshIntervalMs,
+                                   @Value("${sanctuary.search.commit-interval-ms:60000}") long commitIntervalMs)
+            throws IOException {
+        this.animalRepository = animalRepository;
+        Path path = Paths.get(indexDir).toAbsolutePath().normalize();
+        Files.createDirectories(path);
+        this.directory = FSDirectory.open(path);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setSimilarity(new BM25Similarity());
+        this.writer = new IndexWriter(directory, config);
+        if (writer.getLiveCommitData() != null) {
+            writer.getLiveCommitData().forEach(entry -> {
+                if (LAST_UPDATED.equals(entry.getKey())) {
+                    lastUpdated.set(LocalDateTime.parse(entry.getValue()));
+                }
+            });
+        }
+        this.searcherManager = new SearcherManager(writer, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(new BM25Similarity());
+                return searcher;
+            }
+        });
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::commit, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Rebuilds the index on startup when it is missing or out of step with the animals table, for example after the
+     * index directory was deleted or changes were lost before they were committed. Lost inserts and deletes show in
+     * the document count, lost updates in an animal updated after the last update the index recorded.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        int indexed;
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            indexed = searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+        ListingVersion version = animalRepository.findListingVersion();
+        LocalDateTime indexedUpTo = lastUpdated.get();
+        boolean lagging = version.getLastUpdated() != null
+                && (indexedUpTo == null || indexedUpTo.isBefore(version.getLastUpdated()));
+        if (indexed != version.getCount() || lagging) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Commits pending changes and closes the index.
+     */
+    @Override
+    public void destroy() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            searcherManager.close();
+            commitWithMarker();
+            writer.close();
+        } finally {
+            directory.close();
+        }
+    }
+
+    /**
+     * Adds an animal to the search index, or replaces the text it was indexed with.
+     *
+     * @param animal the {@link Animal} entity to index.
+     */
+    @Override
+    public void index(Animal animal) {
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(animal.getId())),
+                    toDocument(animal.getId(), animal.getName(), animal.getDescription(), animal.getImageKey()));
+            recordUpdate(animal.getUpdatedAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index animal " + animal.getId(), e);
+        }
+    }
+
+    /**
+     * Removes an animal from the search index. Removing an animal that is not indexed is a no-op.
+     *
+     * @param id the ID of the animal.
+     */
+    @Override
+    public void remove(Long id) {
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove animal " + id + " from the search index", e);
+        }
+    }
+
+    /**
+     * Finds the animals best matching a query, most relevant first. The query supports the classic Lucene syntax
+     * (quoted phrases, {@code +required} and {@code -excluded} terms, wildcards); text that does not parse is
+     * searched for literally.
+     *
+     * @param query the query text.
+     * @param limit the maximum number of results.
+     * @return a list of {@link AnimalSearchHit} results.
+     */
+    @Override
+    public List<AnimalSearchHit> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        try {
+            Query parsed = parse(query);
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(parsed, limit);
+                StoredFields storedFields = searcher.storedFields();
+                SimpleHTMLEncoder encoder = new SimpleHTMLEncoder();
+                Highlighter nameHighlighter = highlighter(parsed, NAME, encoder);
+                Highlighter descriptionHighlighter = highlighter(parsed, DESCRIPTION, encoder);
+
+                List<AnimalSearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Document document = storedFields.document(scoreDoc.doc);
+                    String name = document.get(NAME);
+                    String description = document.get(DESCRIPTION);
+                    hits.add(new AnimalSearchHit(
+                            Long.valueOf(document.get(ID)),
+                            highlight(nameHighlighter, NAME, name, encoder),
+                            highlight(descriptionHighlighter, DESCRIPTION, description, encoder),
+                            document.get(IMAGE_KEY),
+                            scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to search animals", e);
+        }
+    }
+
+    /**
+     * Rebuilds the search index from the animals table, reading the indexed columns in keyset batches.
+     */
+    @Override
+    public void rebuild() {
+        long started = System.nanoTime();
+        int indexed = 0;
+        try {
+            LocalDateTime upTo = animalRepository.findListingVersion().getLastUpdated();
+            writer.deleteAll();
+            long lastId = 0;
+            while (true) {
+                List<AnimalCard> batch = animalRepository.findCardsAfter(null, null, null, null, null, null,
+                        lastId, Limit.of(REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (AnimalCard card : batch) {
+                    writer.updateDocument(new Term(ID, String.valueOf(card.getId())),
+                            toDocument(card.getId(), card.getName(), card.getDescription(), card.getImageKey()));
+                }
+                indexed += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            recordUpdate(upTo);
+            commitWithMarker();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild the search index", e);
+        }
+        logger.info("Indexed {} animals for search in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Document toDocument(Long id, String name, String description, String imageKey) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        document.add(new TextField(NAME, name != null ? name : "", Field.Store.YES));
+        document.add(new TextField(DESCRIPTION, description != null ? description : "", Field.Store.YES));
+        if (imageKey != null) {
+            document.add(new StoredField(IMAGE_KEY, imageKey));
+        }
+        return document;
+    }
+
+    private Query parse(String query) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[]{NAME, DESCRIPTION}, analyzer, FIELD_BOOSTS);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(query));
+            } catch (ParseException escaped) {
+                throw new IllegalArgumentException("Unsupported search query: " + query, escaped);
+            }
+        }
+    }
+
+    private static Highlighter highlighter(Query query, String field, SimpleHTMLEncoder encoder) {
+        QueryScorer scorer = new QueryScorer(query, field);
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<mark>", "</mark>"), encoder, scorer);
+        highlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, FRAGMENT_SIZE));
+        return highlighter;
+    }
+
+    /**
+     * Highlights the matched terms of a stored field. Fields without a match are returned escaped, with long text
+     * cut down to the size of one fragment.
+     */
+    private String highlight(Highlighter highlighter, String field, String text, SimpleHTMLEncoder encoder)
+            throws IOException {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        try {
+            String fragments = highlighter.getBestFragments(analyzer.tokenStream(field, text), text,
+                    MAX_FRAGMENTS, " &hellip; ");
+            if (fragments != null && !fragments.isEmpty()) {
+                return fragments;
+            }
+        } catch (InvalidTokenOffsetsException e) {
+            logger.debug("Could not highlight field {}", field, e);
+        }
+        return encoder.encodeText(text.length() > FRAGMENT_SIZE ? text.substring(0, FRAGMENT_SIZE) + "…" : text);
+    }
+
+    private void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to refresh the search index", e);
+        }
+    }
+
+    /**
+     * Raises the latest update timestamp of the indexed animals.
+     */
+    private void recordUpdate(LocalDateTime updatedAt) {
+        if (updatedAt != null) {
+            lastUpdated.accumulateAndGet(updatedAt,
+                    (current, next) -> current == null || current.isBefore(next) ? next : current);
+        }
+    }
+
+    /**
+     * Commits the index together with the latest update timestamp of the animals it holds.
+     */
+    private void commitWithMarker() throws IOException {
+        LocalDateTime upTo = lastUpdated.get();
+        if (upTo != null) {
+            writer.setLiveCommitData(Map.of(LAST_UPDATED, upTo.toString()).entrySet());
+        }
+        writer.commit();
+    }
+
+    private void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                commitWithMarker();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to commit the search index", e);
+        }
+    }
+}
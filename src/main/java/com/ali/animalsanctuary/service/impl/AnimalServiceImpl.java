@@ -67,24 +67,48 @@
 
 package com.ali.animalsanctuary.service.impl;
 
+import com.ali.animalsanctuary.dto.AnimalCard;
+import com.ali.animalsanctuary.dto.AnimalFacets;
+import com.ali.animalsanctuary.dto.AnimalFilter;
+import com.ali.animalsanctuary.dto.AnimalImageInfo;
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.FacetCounts;
+import com.ali.animalsanctuary.dto.ListingVersion;
+import com.ali.animalsanctuary.dto.StoredImage;
 import com.ali.animalsanctuary.entity.Animal;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.repository.AnimalRepository;
 import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.service.AnimalFacetIndex;
+import com.ali.animalsanctuary.service.AnimalSearchService;
 import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.ImageStore;
+import com.ali.animalsanctuary.service.ImageVariantService;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link AnimalService} interface.
  *
  * This class provides the actual implementation of the methods defined in the {@link AnimalService} interface,
  * handling operations related to {@link Animal} entities, including saving, updating, deleting, and retrieving animals.
- * It also supports adopting animals and handling image files associated with animals.
+ * It also supports adopting animals and handling image files associated with animals. Image content is kept in the
+ * {@link ImageStore}; the animal record only references it by key. Resized variants of new images are generated in
+ * the background by the {@link ImageVariantService}.
  *
  * <p>Methods:
  * <ul>
@@ -93,12 +117,19 @@ import java.util.List;
  *     <li>{@link #deleteAnimal(Long)}: Deletes the {@link Animal} entity with the specified ID.</li>
  *     <li>{@link #findAnimalById(Long)}: Retrieves the {@link Animal} entity with the specified ID.</li>
  *     <li>{@link #findAllAnimals()} : Retrieves a list of all {@link Animal} entities.</li>
+ *     <li>{@link #findAnimalCards(AnimalFilter, Long, Long, int)} : Retrieves one keyset paginated page of the filtered catalogue.</li>
+ *     <li>{@link #countFacets(AnimalFilter)} : Counts the matching animals per facet value.</li>
  *     <li>{@link #adoptAnimal(Long, Long)}: Processes the adoption of an {@link Animal} by a {@link User} with the given ID.</li>
+ *     <li>{@link #findImageInfo(Long)}: Retrieves the image columns of the {@link Animal} with the specified ID.</li>
+ *     <li>{@link #getListingVersion()}: Summarizes the animals for validating cached listing pages.</li>
  * </ul>
  *
  * @see Animal
  * @see User
  * @see AnimalService
+ * @see ImageStore
+ * @see AnimalFacetIndex
+ * @see AnimalSearchService
  */
 
 @Service
@@ -106,16 +137,35 @@ public class AnimalServiceImpl implements AnimalService {
 
     private final AnimalRepository animalRepository;
     private final UserRepository userRepository;
+    private final ImageReferences imageReferences;
+    private final ImageVariantService imageVariantService;
+    private final AnimalFacetIndex animalFacetIndex;
+    private final AnimalSearchService animalSearchService;
+    private final long maxImageSize;
 
     /**
-     * Constructs a new {@link AnimalServiceImpl} with the specified {@link AnimalRepository} and {@link UserRepository}.
+     * Constructs a new {@link AnimalServiceImpl} with the specified repositories and image services.
      *
-     * @param animalRepository the repository for managing {@link Animal} entities.
-     * @param userRepository   the repository for managing {@link User} entities.
+     * @param animalRepository    the repository for managing {@link Animal} entities.
+     * @param userRepository      the repository for managing {@link User} entities.
+     * @param imageReferences     the guard storing animal images and removing them once unreferenced.
+     * @param imageVariantService the service generating resized copies of animal images.
+     * @param animalFacetIndex    the in-memory index answering catalogue filters.
+     * @param animalSearchService the full-text search index over animal names and descriptions.
+     * @param maxImageSize        the maximum accepted size of an uploaded image.
      */
-    public AnimalServiceImpl(AnimalRepository animalRepository, UserRepository userRepository) {
+    public AnimalServiceImpl(AnimalRepository animalRepository, UserRepository userRepository,
+                             ImageReferences imageReferences,
+                             ImageVariantService imageVariantService, AnimalFacetIndex animalFacetIndex,
+                             AnimalSearchService animalSearchService,
+                             @Value("${sanctuary.images.max-size:10MB}") DataSize maxImageSize) {
         this.animalRepository = animalRepository;
         this.userRepository = userRepository;
+        this.imageReferences = imageReferences;
+        this.imageVariantService = imageVariantService;
+        this.animalFacetIndex = animalFacetIndex;
+        this.animalSearchService = animalSearchService;
+        this.maxImageSize = maxImageSize.toBytes();
     }
 
     /**
@@ -124,14 +174,17 @@ public class AnimalServiceImpl implements AnimalService {
      * @param animal the {@link Animal} entity to be saved.
      * @param image  the image file to be associated with the animal (can be {@code null} or empty).
      * @return the saved {@link Animal} entity.
-     * @throws IOException if an I/O error occurs during image processing.
+     * @throws IOException if an I/O error occurs during image processing, or the image is rejected.
      */
     @Override
     public Animal saveAnimal(Animal animal, MultipartFile image) throws IOException {
-        if (image != null && !image.isEmpty()) {
-            animal.setImage(image.getBytes());
-        }
-        return animalRepository.save(animal);
+        animal.setImageKey(null);
+        animal.setImageSize(null);
+        animal.setImageContentType(null);
+        String uploadedKey = image != null && !image.isEmpty() ? attachImage(animal, image) : null;
+        Animal savedAnimal = save(animal, uploadedKey);
+        reindex(savedAnimal);
+        return savedAnimal;
     }
 
     /**
@@ -141,7 +194,7 @@ public class AnimalServiceImpl implements AnimalService {
      * @param animal the updated {@link Animal} entity.
      * @param image  the new image file to be associated with the animal (can be {@code null} or empty).
      * @return the updated {@link Animal} entity.
-     * @throws IOException if an I/O error occurs during image processing.
+     * @throws IOException if an I/O error occurs during image processing, or the image is rejected.
      */
     @Override
     public Animal updateAnimal(Long id, Animal animal, MultipartFile image) throws IOException {
@@ -154,10 +207,12 @@ public class AnimalServiceImpl implements AnimalService {
         existingAnimal.setAdoptionStatus(animal.getAdoptionStatus());
         existingAnimal.setDescription(animal.getDescription());
 
-        if (image != null && !image.isEmpty()) {
-            existingAnimal.setImage(image.getBytes());
-        }
-        return animalRepository.save(existingAnimal);
+        String previousImageKey = existingAnimal.getImageKey();
+        String uploadedKey = image != null && !image.isEmpty() ? attachImage(existingAnimal, image) : null;
+        Animal savedAnimal = save(existingAnimal, uploadedKey);
+        reindex(savedAnimal);
+        TransactionHooks.afterCommit(() -> imageReferences.release(previousImageKey));
+        return savedAnimal;
     }
 
     /**
@@ -167,7 +222,13 @@ public class AnimalServiceImpl implements AnimalService {
      */
     @Override
     public void deleteAnimal(Long id) {
+        String imageKey = animalRepository.findById(id).map(Animal::getImageKey).orElse(null);
         animalRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> {
+            animalFacetIndex.remove(id);
+            animalSearchService.remove(id);
+            imageReferences.release(imageKey);
+        });
     }
 
     /**
@@ -192,6 +253,60 @@ public class AnimalServiceImpl implements AnimalService {
         return animalRepository.findAll();
     }
 
+    /**
+     * Retrieves one page of the listing cards of the {@link Animal} entities matching a filter, in ID order.
+     *
+     * <p>Once the {@link AnimalFacetIndex} is built the matching IDs are resolved in memory and only the cards of the
+     * page are read, by primary key; until then the filter is evaluated by the database. Either way one row more
+     * than the page size is fetched to learn whether another page follows in the direction of travel without a
+     * separate count query. Paging backwards reads the rows nearest to the cursor in descending order and
+     * reverses them.
+     *
+     * @param filter   the catalogue filter.
+     * @param afterId  the {@code next} cursor of the previous page, or {@code null}.
+     * @param beforeId the {@code previous} cursor of the following page, or {@code null}.
+     * @param size     the page size.
+     * @return a {@link CursorPage} of {@link AnimalCard} projections.
+     */
+    @Override
+    public CursorPage<AnimalCard> findAnimalCards(AnimalFilter filter, Long afterId, Long beforeId, int size) {
+        filter.normalized();
+        if (beforeId != null) {
+            List<AnimalCard> cards = new ArrayList<>(findCardsBefore(filter, beforeId, size + 1));
+            boolean hasPrevious = cards.size() > size;
+            if (hasPrevious) {
+                cards.remove(size);
+            }
+            Collections.reverse(cards);
+            String previous = hasPrevious ? String.valueOf(cards.get(0).getId()) : null;
+            String next = cards.isEmpty() ? null : String.valueOf(cards.get(cards.size() - 1).getId());
+            return new CursorPage<>(cards, next, previous);
+        }
+
+        List<AnimalCard> cards = new ArrayList<>(findCardsAfter(filter, afterId != null ? afterId : 0L, size + 1));
+        boolean hasNext = cards.size() > size;
+        if (hasNext) {
+            cards.remove(size);
+        }
+        String next = hasNext ? String.valueOf(cards.get(cards.size() - 1).getId()) : null;
+        String previous = afterId != null && !cards.isEmpty() ? String.valueOf(cards.get(0).getId()) : null;
+        return new CursorPage<>(cards, next, previous);
+    }
+
+    /**
+     * Counts the {@link Animal} entities matching a filter, and the animals per facet value.
+     *
+     * @param filter the catalogue filter.
+     * @return an {@link Optional} containing the {@link FacetCounts}, or empty while the facet index is being built.
+     */
+    @Override
+    public Optional<FacetCounts> countFacets(AnimalFilter filter) {
+        if (!animalFacetIndex.isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(animalFacetIndex.count(filter.normalized()));
+    }
+
     /**
      * Processes the adoption of an {@link Animal} by a {@link User} with the given ID.
      *
@@ -211,9 +326,115 @@ public class AnimalServiceImpl implements AnimalService {
         animal.setAdopted(true);
         animal.setAdopter(user);
         animalRepository.save(animal);
+        reindex(animal);
 
         System.out.println("Animal adopted successfully");
 
         return animal;
     }
+
+    /**
+     * Retrieves the image columns of the {@link Animal} with the specified ID without loading the entity.
+     *
+     * @param id the ID of the {@link Animal}.
+     * @return the {@link AnimalImageInfo} projection.
+     * @throws RuntimeException if the animal with the specified ID is not found.
+     */
+    @Override
+    public AnimalImageInfo findImageInfo(Long id) {
+        return animalRepository.findImageInfoById(id).orElseThrow(() -> new RuntimeException("Animal not found"));
+    }
+
+    /**
+     * Summarizes the animals for validating cached listing pages.
+     *
+     * @return the current {@link ListingVersion} of the animals.
+     */
+    @Override
+    public ListingVersion getListingVersion() {
+        return animalRepository.findListingVersion();
+    }
+
+    private List<AnimalCard> findCardsAfter(AnimalFilter filter, long afterId, int limit) {
+        if (animalFacetIndex.isReady()) {
+            return findCardsByIds(animalFacetIndex.findIdsAfter(filter, afterId, limit));
+        }
+        return animalRepository.findCardsAfter(filter.getSpecies(), filter.getBreed(), filter.getGender(),
+                filter.getMinAge(), filter.getMaxAge(), filter.getAdopted(), afterId, Limit.of(limit));
+    }
+
+    private List<AnimalCard> findCardsBefore(AnimalFilter filter, long beforeId, int limit) {
+        if (animalFacetIndex.isReady()) {
+            return findCardsByIds(animalFacetIndex.findIdsBefore(filter, beforeId, limit));
+        }
+        return animalRepository.findCardsBefore(filter.getSpecies(), filter.getBreed(), filter.getGender(),
+                filter.getMinAge(), filter.getMaxAge(), filter.getAdopted(), beforeId, Limit.of(limit));
+    }
+
+    /**
+     * Reads the cards of the specified animals, keeping the order of the IDs. Animals deleted since the IDs were
+     * resolved are skipped.
+     */
+    private List<AnimalCard> findCardsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, AnimalCard> cardsById = animalRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(AnimalCard::getId, Function.identity()));
+        return ids.stream().map(cardsById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Brings the {@link AnimalFacetIndex} and the full-text search index up to date with an animal once the current
+     * transaction, if any, commits.
+     */
+    private void reindex(Animal animal) {
+        AnimalFacets facets = AnimalFacets.of(animal);
+        TransactionHooks.afterCommit(() -> {
+            animalFacetIndex.put(facets);
+            animalSearchService.index(animal);
+        });
+    }
+
+    /**
+     * Streams an uploaded image into the {@link ImageStore} from the multipart input stream, which the servlet
+     * container backs with a temporary file, so the upload is never held on the heap. The image stays pinned in the
+     * {@link ImageReferences} until the transaction saving the animal ends.
+     *
+     * @return the key of the stored image.
+     */
+    private String attachImage(Animal animal, MultipartFile image) throws IOException {
+        StoredImage storedImage = imageReferences.store(image::getInputStream, maxImageSize);
+        animal.setImageKey(storedImage.getKey());
+        animal.setImageSize(storedImage.getSize());
+        animal.setImageContentType(storedImage.getContentType());
+        imageVariantService.generateVariantsAsync(storedImage.getKey());
+        return storedImage.getKey();
+    }
+
+    /**
+     * Saves an animal, then unpins the image uploaded for it once the transaction ends. If the animal is not saved,
+     * the image is removed again unless something else uses it.
+     */
+    private Animal save(Animal animal, String uploadedKey) {
+        if (uploadedKey == null) {
+            return animalRepository.save(animal);
+        }
+        Animal savedAnimal;
+        try {
+            savedAnimal = animalRepository.save(animal);
+        } catch (RuntimeException e) {
+            TransactionHooks.afterCompletion(committed -> settleUpload(uploadedKey, false));
+            throw e;
+        }
+        TransactionHooks.afterCompletion(committed -> settleUpload(uploadedKey, committed));
+        return savedAnimal;
+    }
+
+    private void settleUpload(String imageKey, boolean saved) {
+        imageReferences.unpin(imageKey);
+        if (!saved) {
+            imageReferences.release(imageKey);
+        }
+    }
 }
@@ -0,0 +1,238 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link AvailabilityCalendar} interface using one lock-free bitset per day.
+ *
+ * Every day with slots has an {@link AtomicLongArray} of 1440 bits, one per minute of the day, where a set bit means
+ * an open slot starts at that minute. Bits are flipped with a compare-and-set loop on the word holding them, so
+ * bookings and cancellations never block each other or the readers, and a reader scanning a month sees every word
+ * in a consistent state. A day costs 184 bytes whatever the number of its slots. Slots are told apart by the minute
+ * they start at, so the {@link com.ali.animalsanctuary.service.VisitService} only accepts visits starting on a whole
+ * minute.
+ *
+ * <p>The calendar is rebuilt before the application starts serving requests, by streaming the start times of the
+ * available visits from the database, so that it agrees with the visits table after every restart. From then on the
+ * {@link com.ali.animalsanctuary.service.VisitService} updates it after each committed change.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the calendar from the visits table.</li>
+ *     <li>{@link #open(LocalDateTime)}: Marks the slot starting at a time as open.</li>
+ *     <li>{@link #close(LocalDateTime)}: Marks the slot starting at a time as booked or removed.</li>
+ *     <li>{@link #isOpen(LocalDateTime)}: Checks whether the slot starting at a time is open.</li>
+ *     <li>{@link #countOpenings(YearMonth)}: Counts the open slots of every day of a month that has any, from the current minute on.</li>
+ *     <li>{@link #findOpenings(LocalDate)}: Lists the start times of the open slots of a day, from the current minute on.</li>
+ * </ul>
+ *
+ * @see AvailabilityCalendar
+ * @see VisitRepository
+ */
+
+@Service
+public class AvailabilityCalendarImpl implements AvailabilityCalendar, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCalendarImpl.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final VisitRepository visitRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile ConcurrentMap<Long, AtomicLongArray> days = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link AvailabilityCalendarImpl}.
+     *
+     * @param visitRepository    the repository the calendar is built from.
+     * @param transactionManager the transaction manager keeping the connection open while the visits are streamed.
+     */
+    public AvailabilityCalendarImpl(VisitRepository visitRepository, PlatformTransactionManager transactionManager) {
+        this.visitRepository = visitRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the calendar from the available visits, replacing its current content. The new calendar is filled
+     * while the old one keeps answering, then swapped in; slots opened or closed meanwhile are only reflected if the
+     * stream read them after the change, so rebuilds are meant to run before requests are served.
+     */
+    @Override
+    public void rebuild() {
+        long started = System.nanoTime();
+        ConcurrentMap<Long, AtomicLongArray> rebuilt = new ConcurrentHashMap<>();
+        long slots = readOnlyTransaction.execute(status -> {
+            try (Stream<LocalDateTime> starts = visitRepository.streamAvailableStartTimes()) {
+                return starts.filter(start -> update(rebuilt, start, true)).count();
+            }
+        });
+        days = rebuilt;
+        logger.info("Loaded {} open visit slots over {} days in {} ms", slots, rebuilt.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Marks the slot starting at a time as open.
+     *
+     * @param start the start time of the slot.
+     */
+    @Override
+    public void open(LocalDateTime start) {
+        update(days, start, true);
+    }
+
+    /**
+     * Marks the slot starting at a time as no longer open, because it was booked or deleted.
+     *
+     * @param start the start time of the slot.
+     */
+    @Override
+    public void close(LocalDateTime start) {
+        update(days, start, false);
+    }
+
+    /**
+     * Checks whether the slot starting at a time is open.
+     *
+     * @param start the start time of the slot.
+     * @return {@code true} if an open slot starts at that minute.
+     */
+    @Override
+    public boolean isOpen(LocalDateTime start) {
+        AtomicLongArray bits = days.get(start.toLocalDate().toEpochDay());
+        int minute = minuteOfDay(start.toLocalTime());
+        return bits != null && (bits.get(minute / Long.SIZE) & (1L << (minute % Long.SIZE))) != 0;
+    }
+
+    /**
+     * Counts the open slots of every day of a month that has any. Slots that started before the current minute are
+     * left out, like they are on the visits page.
+     *
+     * @param month the month.
+     * @return the number of open slots per day, in date order; days without openings are left out.
+     */
+    @Override
+    public SortedMap<LocalDate, Integer> countOpenings(YearMonth month) {
+        SortedMap<LocalDate, Integer> openings = new TreeMap<>();
+        ConcurrentMap<Long, AtomicLongArray> snapshot = days;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate first = month.atDay(1).isBefore(now.toLocalDate()) ? now.toLocalDate() : month.atDay(1);
+        for (LocalDate day = first; !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+            AtomicLongArray bits = snapshot.get(day.toEpochDay());
+            if (bits == null) {
+                continue;
+            }
+            int from = firstMinute(day, now);
+            int count = 0;
+            for (int word = from / Long.SIZE; word < WORDS_PER_DAY; word++) {
+                count += Long.bitCount(wordFrom(bits, word, from));
+            }
+            if (count > 0) {
+                openings.put(day, count);
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Lists the start times of the open slots of a day. Slots that started before the current minute are left out.
+     *
+     * @param day the day.
+     * @return the start times of the open slots, in order.
+     */
+    @Override
+    public List<LocalTime> findOpenings(LocalDate day) {
+        List<LocalTime> openings = new ArrayList<>();
+        AtomicLongArray bits = days.get(day.toEpochDay());
+        LocalDateTime now = LocalDateTime.now();
+        if (bits == null || day.isBefore(now.toLocalDate())) {
+            return openings;
+        }
+        int from = firstMinute(day, now);
+        for (int word = from / Long.SIZE; word < WORDS_PER_DAY; word++) {
+            long remaining = wordFrom(bits, word, from);
+            while (remaining != 0) {
+                int minute = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+                openings.add(LocalTime.of(minute / 60, minute % 60));
+                remaining &= remaining - 1;
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Sets or clears the bit of the slot starting at a time with a compare-and-set loop.
+     *
+     * @return {@code true} if the bit changed.
+     */
+    private static boolean update(ConcurrentMap<Long, AtomicLongArray> days, LocalDateTime start, boolean open) {
+        if (start == null) {
+            return false;
+        }
+        long day = start.toLocalDate().toEpochDay();
+        AtomicLongArray bits = open ? days.computeIfAbsent(day, key -> new AtomicLongArray(WORDS_PER_DAY)) : days.get(day);
+        if (bits == null) {
+            return false;
+        }
+        int minute = minuteOfDay(start.toLocalTime());
+        int word = minute / Long.SIZE;
+        long mask = 1L << (minute % Long.SIZE);
+        while (true) {
+            long current = bits.get(word);
+            long next = open ? current | mask : current & ~mask;
+            if (next == current) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finds the first minute of a day, on or after today, whose slots have not started yet.
+     */
+    private static int firstMinute(LocalDate day, LocalDateTime now) {
+        return day.equals(now.toLocalDate()) ? minuteOfDay(now.toLocalTime()) : 0;
+    }
+
+    /**
+     * Reads a word of a day's bits, leaving out the bits of the minutes before {@code from}.
+     */
+    private static long wordFrom(AtomicLongArray bits, int word, int from) {
+        long value = bits.get(word);
+        return word == from / Long.SIZE ? value & (-1L << (from % Long.SIZE)) : value;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,281 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.StoredImage;
+import com.ali.animalsanctuary.exception.ImageRejectedException;
+import com.ali.animalsanctuary.service.ImageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Local filesystem implementation of the {@link ImageStore} interface.
+ *
+ * Images are streamed to a temporary file through a small fixed buffer while their SHA-256 digest is computed,
+ * their size is checked against the limit and their format is detected from the leading bytes, so the heap used by
+ * an upload does not depend on the size of the image. Accepted images are then atomically moved into place under
+ * a two level sharded directory layout derived from the digest ({@code ab/cd/abcd...}), which keeps directory
+ * sizes small no matter how many images are stored. Resized variants live next to their original as
+ * {@code <key>-w<width>.jpg}.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #store(InputStream, long)}: Streams image content to disk and returns its content address.</li>
+ *     <li>{@link #load(String)}: Retrieves the stored image file with the specified key.</li>
+ *     <li>{@link #exists(String)}: Checks whether an image with the specified key is stored.</li>
+ *     <li>{@link #delete(String)}: Removes the stored image file with the specified key and its variants.</li>
+ *     <li>{@link #storeVariant(String, int, InputStream)}: Writes a resized variant next to its original.</li>
+ *     <li>{@link #loadVariant(String, int)}: Retrieves a resized variant of an image.</li>
+ * </ul>
+ *
+ * @see ImageStore
+ */
+
+@Service
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 8192;
+    private static final int HEADER_SIZE = 12;
+
+    private final Path root;
+    private final Path tmp;
+
+    /**
+     * Constructs a new {@link FileSystemImageStore} rooted at the configured directory.
+     *
+     * @param root the directory under which images are stored.
+     * @throws IOException if the storage directories cannot be created.
+     */
+    public FileSystemImageStore(@Value("${sanctuary.images.root:data/images}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(this.tmp);
+    }
+
+    /**
+     * Streams image content to disk and returns its content address. Content that exceeds the size limit is
+     * rejected as soon as the limit is crossed, without reading the rest of it.
+     *
+     * @param content the image content.
+     * @param maxSize the maximum accepted size in bytes.
+     * @return the {@link StoredImage} describing the stored content.
+     * @throws ImageRejectedException if the content exceeds {@code maxSize} or is not a supported image.
+     * @throws IOException            if an I/O error occurs while writing the image.
+     */
+    @Override
+    public StoredImage store(InputStream content, long maxSize) throws IOException {
+        MessageDigest digest = sha256();
+        Path tempFile = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] header = new byte[HEADER_SIZE];
+            int headerLength = 0;
+            long size = 0;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new ImageRejectedException("Image exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    if (headerLength < HEADER_SIZE) {
+                        int copied = Math.min(read, HEADER_SIZE - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, copied);
+                        headerLength += copied;
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            String contentType = detectContentType(header, headerLength);
+            if (contentType == null) {
+                throw new ImageRejectedException("Only JPEG, PNG, GIF and WebP images are supported");
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(tempFile, target);
+            }
+            return new StoredImage(key, size, contentType);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Retrieves the stored image file with the specified key.
+     *
+     * @param key the content address of the image.
+     * @return an {@link Optional} containing the image {@link Resource}, or empty if no such image is stored.
+     */
+    @Override
+    public Optional<Resource> load(String key) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(key);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    /**
+     * Checks whether an image with the specified key is stored.
+     *
+     * @param key the content address of the image.
+     * @return {@code true} if the image is stored.
+     */
+    @Override
+    public boolean exists(String key) {
+        return isValidKey(key) && Files.isRegularFile(pathFor(key));
+    }
+
+    /**
+     * Removes the stored image file with the specified key and its variants.
+     *
+     * @param key the content address of the image.
+     * @throws IOException if an I/O error occurs while deleting the image.
+     */
+    @Override
+    public void delete(String key) throws IOException {
+        if (!isValidKey(key)) {
+            return;
+        }
+        Path path = pathFor(key);
+        Files.deleteIfExists(path);
+        if (Files.isDirectory(path.getParent())) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(path.getParent(), key + "-w*.jpg")) {
+                for (Path variant : variants) {
+                    Files.deleteIfExists(variant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a resized variant next to its original, replacing any existing variant of the same width.
+     *
+     * @param key     the content address of the original image.
+     * @param width   the width of the variant in pixels.
+     * @param content the JPEG encoded variant.
+     * @throws IOException if an I/O error occurs while writing the variant.
+     */
+    @Override
+    public void storeVariant(String key, int width, InputStream content) throws IOException {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        Path target = variantPathFor(key, width);
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(tmp, "variant-", ".part");
+        try {
+            Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Retrieves a resized variant of an image.
+     *
+     * @param key   the content address of the original image.
+     * @param width the width of the variant in pixels.
+     * @return an {@link Optional} containing the variant {@link Resource}, or empty if it has not been generated.
+     */
+    @Override
+    public Optional<Resource> loadVariant(String key, int width) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path path = variantPathFor(key, width);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Path variantPathFor(String key, int width) {
+        return pathFor(key).resolveSibling(key + "-w" + width + ".jpg");
+    }
+
+    /**
+     * Detects the image format from the magic number at the start of the content.
+     *
+     * @return the MIME type of the image, or {@code null} if the format is not supported.
+     */
+    static String detectContentType(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, int... magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Another upload of the same content won the race; its copy is identical.
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // Another upload of the same content won the race; its copy is identical.
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.StoredImage;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides when the content of an image may be removed from the {@link ImageStore}.
+ *
+ * <p>Images are content addressed, so an upload may reuse the file of an image another animal is just letting go
+ * of. An image is removed only once no animal row references it and no upload that stored it is still waiting for
+ * its transaction to end. Uploads pin the key of the image they stored until then; the pin and the check before a
+ * removal are made under a lock striped by key, so a removal never runs between an upload finding its file stored
+ * and pinning it.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #store(ImageContent, long)}: Stores image content and pins its key.</li>
+ *     <li>{@link #unpin(String)}: Drops the pin an upload holds on an image.</li>
+ *     <li>{@link #release(String)}: Removes an image that is neither referenced nor pinned.</li>
+ * </ul>
+ */
+@Component
+class ImageReferences {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageReferences.class);
+    private static final int STRIPES = 64;
+
+    private final AnimalRepository animalRepository;
+    private final ImageStore imageStore;
+    private final Object[] locks = new Object[STRIPES];
+    private final ConcurrentMap<String, Integer> pins = new ConcurrentHashMap<>();
+
+    ImageReferences(AnimalRepository animalRepository, ImageStore imageStore) {
+        this.animalRepository = animalRepository;
+        this.imageStore = imageStore;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stores image content and pins its key until {@link #unpin(String)}. If the file is removed between being
+     * stored and being pinned, the content is read and stored again.
+     *
+     * @param content opens the image content; it may be called more than once.
+     * @param maxSize the maximum accepted size in bytes.
+     * @return the {@link StoredImage} describing the stored content.
+     * @throws IOException if an I/O error occurs while storing the image, or the image is rejected.
+     */
+    StoredImage store(ImageContent content, long maxSize) throws IOException {
+        while (true) {
+            StoredImage storedImage;
+            try (InputStream in = content.open()) {
+                storedImage = imageStore.store(in, maxSize);
+            }
+            String key = storedImage.getKey();
+            synchronized (lockFor(key)) {
+                if (imageStore.exists(key)) {
+                    pins.merge(key, 1, Integer::sum);
+                    return storedImage;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the pin an upload holds on an image, once the transaction saving its animal has ended.
+     *
+     * @param key the content address of the image.
+     */
+    void unpin(String key) {
+        synchronized (lockFor(key)) {
+            pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Removes an image from the {@link ImageStore} unless an animal references it or an upload still pins it. Meant to
+     * run once the transaction that dropped the reference has committed.
+     *
+     * @param key the content address of the image, or {@code null}.
+     */
+    void release(String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (lockFor(key)) {
+            if (pins.containsKey(key) || animalRepository.existsByImageKey(key)) {
+                return;
+            }
+            try {
+                imageStore.delete(key);
+            } catch (IOException e) {
+                logger.warn("Failed to remove image {}", key, e);
+            }
+        }
+    }
+
+    private Object lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Opens the content of an image to store.
+     */
+    @FunctionalInterface
+    interface ImageContent {
+
+        InputStream open() throws IOException;
+    }
+}
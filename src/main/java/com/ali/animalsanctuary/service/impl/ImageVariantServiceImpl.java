@@ -0,0 +1,276 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.service.ImageStore;
+import com.ali.animalsanctuary.service.ImageVariantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the {@link ImageVariantService} interface using {@code javax.imageio}.
+ *
+ * Resizing is CPU and memory heavy, so variants are generated off the request thread on a small fixed pool with a
+ * bounded queue; when the queue is full new work is dropped rather than queued without limit, and missing variants
+ * are regenerated the next time they are requested. The original is decoded once with source
+ * subsampling, so a large photo never has to be held at full resolution, then scaled down step by step from the
+ * widest variant to the narrowest and encoded as JPEG. Widths that are not smaller than the original are skipped;
+ * the original is served for them instead. The images processed recently are remembered in a bounded LRU map, so
+ * their missing wide variants are not scheduled again on every request; an image that dropped out of it is only
+ * processed once more.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #generateVariantsAsync(String)}: Schedules the generation of all variants of an image.</li>
+ *     <li>{@link #getWidths()}: Retrieves the configured variant widths.</li>
+ *     <li>{@link #selectWidth(int)}: Picks the variant width that best serves a requested width.</li>
+ *     <li>{@link #findVariant(String, int)}: Retrieves a generated variant, scheduling its generation if missing.</li>
+ * </ul>
+ *
+ * @see ImageVariantService
+ * @see ImageStore
+ */
+
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantServiceImpl.class);
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final ImageStore imageStore;
+    private final ThreadPoolTaskExecutor executor;
+    private final List<Integer> widths;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, Boolean> processed;
+
+    /**
+     * Constructs a new {@link ImageVariantServiceImpl}.
+     *
+     * @param imageStore     the store holding originals and variants.
+     * @param widths         the variant widths in pixels.
+     * @param threads        the number of worker threads.
+     * @param queueCapacity  the maximum number of images waiting to be processed.
+     * @param processedLimit the maximum number of processed images remembered.
+     */
+    public ImageVariantServiceImpl(ImageStore imageStore,
+                                   @Value("${sanctuary.images.variant-widths:200,480,1024}") List<Integer> widths,
+                                   @Value("${sanctuary.images.variant-threads:2}") int threads,
+                                   @Value("${sanctuary.images.variant-queue-capacity:100}") int queueCapacity,
+                                   @Value("${sanctuary.images.variant-processed-limit:10000}") int processedLimit) {
+        this.imageStore = imageStore;
+        this.widths = widths.stream().sorted().distinct().toList();
+        this.processed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > processedLimit;
+            }
+        });
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("image-variant-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(30);
+        this.executor.initialize();
+    }
+
+    /**
+     * Stops the worker pool, letting queued images finish.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Schedules the generation of all variants of an image. Requests for an image that is already being processed,
+     * and requests rejected because the worker queue is full, are dropped.
+     *
+     * @param key the content address of the original image.
+     */
+    @Override
+    public void generateVariantsAsync(String key) {
+        if (key == null || !inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(key);
+                    processed.put(key, Boolean.TRUE);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to generate variants of image {}", key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(key);
+            logger.warn("Image variant queue is full; variants of image {} will be generated on demand", key);
+        }
+    }
+
+    /**
+     * Retrieves the configured variant widths, in ascending order.
+     *
+     * @return the variant widths in pixels.
+     */
+    @Override
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    /**
+     * Picks the smallest variant width that is at least the requested width.
+     *
+     * @param requestedWidth the width the image is displayed at, in pixels.
+     * @return the selected variant width, or empty if the original image should be served.
+     */
+    @Override
+    public Optional<Integer> selectWidth(int requestedWidth) {
+        return widths.stream().filter(width -> width >= requestedWidth).findFirst();
+    }
+
+    /**
+     * Retrieves a generated variant of an image, scheduling its generation if it is missing. Images that were already
+     * processed are not scheduled again: their missing variants are wider than the original, which is served instead.
+     *
+     * @param key   the content address of the original image.
+     * @param width the variant width.
+     * @return an {@link Optional} containing the variant {@link Resource}, or empty if it is not available yet.
+     */
+    @Override
+    public Optional<Resource> findVariant(String key, int width) {
+        Optional<Resource> variant = imageStore.loadVariant(key, width);
+        if (variant.isEmpty() && processed.get(key) == null && imageStore.exists(key)) {
+            generateVariantsAsync(key);
+        }
+        return variant;
+    }
+
+    void generateVariants(String key) throws IOException {
+        Optional<Resource> original = imageStore.load(key);
+        if (original.isEmpty()) {
+            return;
+        }
+        BufferedImage image;
+        int originalWidth;
+        try (InputStream in = original.get().getInputStream();
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                logger.info("Image {} is not in a readable format; no variants generated", key);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                originalWidth = reader.getWidth(0);
+                int largestWidth = widths.stream().filter(width -> width < originalWidth)
+                        .max(Integer::compare).orElse(0);
+                if (largestWidth == 0) {
+                    return;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, originalWidth / largestWidth);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        BufferedImage current = toRgb(image);
+        for (int i = widths.size() - 1; i >= 0; i--) {
+            int width = widths.get(i);
+            if (width >= originalWidth) {
+                continue;
+            }
+            current = scaleToWidth(current, width);
+            imageStore.storeVariant(key, width, new ByteArrayInputStream(encodeJpeg(current)));
+        }
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Scales an image down by halving it until it is within a factor of two of the target, then scaling the rest of
+     * the way in one step. Bilinear scaling by more than half at once skips source pixels and looks jagged.
+     */
+    private static BufferedImage scaleToWidth(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        while (current.getWidth() > targetWidth) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(1, (int) Math.round((double) current.getHeight() * width / current.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = scaled;
+        }
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
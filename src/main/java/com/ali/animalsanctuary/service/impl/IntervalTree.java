@@ -0,0 +1,263 @@
+package com.ali.animalsanctuary.service.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of half-open intervals {@code [start, end)} identified by ID, answering "which intervals overlap
+ * {@code [from, to)}" in {@code O(log n + k)} time for {@code k} results.
+ *
+ * The intervals are kept in an AVL tree ordered by start, then end, then ID, and every node is augmented with the
+ * greatest end in its subtree. A query skips every subtree whose greatest end is not after {@code from}, and every
+ * right subtree of a node that starts at or after {@code to}. Insertion and removal are {@code O(log n)}; an ID
+ * index finds the node to remove.
+ *
+ * <p>Not thread safe; callers synchronize access.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #put(long, long, long)}: Adds an interval, replacing any interval with the same ID.</li>
+ *     <li>{@link #remove(long)}: Removes the interval with the specified ID.</li>
+ *     <li>{@link #get(long)}: Looks up the interval with the specified ID.</li>
+ *     <li>{@link #forEachOverlapping(long, long, LongConsumer)}: Visits the IDs of the intervals overlapping a range.</li>
+ *     <li>{@link #anyOverlapping(long, long, long)}: Checks whether any other interval overlaps a range.</li>
+ *     <li>{@link #size()}: Counts the intervals.</li>
+ * </ul>
+ */
+public final class IntervalTree {
+
+    private static final class Node {
+        final long id;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private Node root;
+
+    /**
+     * Adds an interval, replacing any interval with the same ID.
+     *
+     * @param id    the ID of the interval.
+     * @param start the start of the interval, inclusive.
+     * @param end   the end of the interval, exclusive.
+     */
+    public void put(long id, long start, long end) {
+        Node existing = nodesById.get(id);
+        if (existing != null) {
+            if (existing.start == start && existing.end == end) {
+                return;
+            }
+            root = delete(root, existing);
+        }
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        nodesById.put(id, node);
+    }
+
+    /**
+     * Removes the interval with the specified ID. Removing an ID that is not present is a no-op.
+     *
+     * @param id the ID of the interval.
+     * @return {@code true} if an interval was removed.
+     */
+    public boolean remove(long id) {
+        Node existing = nodesById.remove(id);
+        if (existing == null) {
+            return false;
+        }
+        root = delete(root, existing);
+        return true;
+    }
+
+    /**
+     * Looks up the interval with the specified ID.
+     *
+     * @param id the ID of the interval.
+     * @return the start and end of the interval, or {@code null} if there is no interval with that ID.
+     */
+    public long[] get(long id) {
+        Node node = nodesById.get(id);
+        return node == null ? null : new long[]{node.start, node.end};
+    }
+
+    /**
+     * Visits the IDs of the intervals overlapping {@code [from, to)}, in start order.
+     *
+     * @param from   the start of the range, inclusive.
+     * @param to     the end of the range, exclusive.
+     * @param action the action receiving each ID.
+     */
+    public void forEachOverlapping(long from, long to, LongConsumer action) {
+        visit(root, from, to, action);
+    }
+
+    /**
+     * Checks whether any interval other than the excluded one overlaps {@code [from, to)}.
+     *
+     * @param from      the start of the range, inclusive.
+     * @param to        the end of the range, exclusive.
+     * @param excludeId the ID of an interval to ignore, such as the one being moved.
+     * @return {@code true} if an overlapping interval exists.
+     */
+    public boolean anyOverlapping(long from, long to, long excludeId) {
+        return any(root, from, to, excludeId);
+    }
+
+    /**
+     * Counts the intervals.
+     *
+     * @return the number of intervals in the tree.
+     */
+    public int size() {
+        return nodesById.size();
+    }
+
+    private static void visit(Node node, long from, long to, LongConsumer action) {
+        while (node != null && node.maxEnd > from) {
+            visit(node.left, from, to, action);
+            if (node.start >= to) {
+                return;
+            }
+            if (node.end > from) {
+                action.accept(node.id);
+            }
+            node = node.right;
+        }
+    }
+
+    private static boolean any(Node node, long from, long to, long excludeId) {
+        while (node != null && node.maxEnd > from) {
+            if (any(node.left, from, to, excludeId)) {
+                return true;
+            }
+            if (node.start >= to) {
+                return false;
+            }
+            if (node.end > from && node.id != excludeId) {
+                return true;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static int compare(Node a, Node b) {
+        int result = Long.compare(a.start, b.start);
+        if (result == 0) {
+            result = Long.compare(a.end, b.end);
+        }
+        return result != 0 ? result : Long.compare(a.id, b.id);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, Node deleted) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(deleted, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, deleted);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, deleted);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
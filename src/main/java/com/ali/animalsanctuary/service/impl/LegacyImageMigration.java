@@ -0,0 +1,139 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.StoredImage;
+import com.ali.animalsanctuary.exception.ImageRejectedException;
+import com.ali.animalsanctuary.service.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * One-shot migration that drains image blobs out of the legacy {@code animals.animal_image} LONGBLOB column
+ * into the {@link ImageStore}.
+ *
+ * On startup, every animal row that still carries a blob but no image key is processed in small batches: the blob
+ * is streamed into the store, the row is pointed at the resulting key, and the blob column is cleared. Once the
+ * column is empty the migration is a no-op and the column can be dropped by hand. Databases created after the
+ * column was removed from the mapping never have it, in which case the migration is skipped entirely. Blobs that are
+ * not in a supported image format are left in place and reported.
+ *
+ * @see ImageStore
+ */
+
+@Component
+public class LegacyImageMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyImageMigration.class);
+
+    private static final String LEGACY_COLUMN = "animal_image";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /**
+     * Constructs a new {@link LegacyImageMigration}.
+     *
+     * @param jdbcTemplate the template used to read and clear the legacy blobs.
+     * @param imageStore   the store receiving the image content.
+     * @param enabled      whether the migration runs on startup.
+     * @param batchSize    the number of rows migrated per batch.
+     */
+    public LegacyImageMigration(JdbcTemplate jdbcTemplate, ImageStore imageStore,
+                                @Value("${sanctuary.images.migrate-legacy:true}") boolean enabled,
+                                @Value("${sanctuary.images.migration-batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && legacyColumnExists()) {
+            migrate();
+        }
+    }
+
+    /**
+     * Moves every remaining legacy blob into the {@link ImageStore}.
+     *
+     * @return the number of migrated images.
+     */
+    public int migrate() {
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM animals WHERE id > ? AND animal_image IS NOT NULL AND image_key IS NULL ORDER BY id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                migrateRow(id);
+                migrated++;
+            }
+            lastId = ids.get(ids.size() - 1);
+            logger.info("Migrated {} legacy animal images so far", migrated);
+        }
+        if (migrated > 0) {
+            logger.info("Legacy image migration finished; column animals.{} can now be dropped", LEGACY_COLUMN);
+        }
+        return migrated;
+    }
+
+    private void migrateRow(Long id) {
+        StoredImage storedImage = jdbcTemplate.query("SELECT animal_image FROM animals WHERE id = ?", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            try (InputStream blob = rs.getBinaryStream(1)) {
+                if (blob == null) {
+                    return null;
+                }
+                return imageStore.store(blob, Long.MAX_VALUE);
+            } catch (ImageRejectedException e) {
+                logger.warn("Legacy image of animal {} was left in place: {}", id, e.getMessage());
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to migrate image of animal " + id, e);
+            }
+        }, id);
+        if (storedImage != null) {
+            jdbcTemplate.update(
+                    "UPDATE animals SET image_key = ?, image_size = ?, image_content_type = ?, animal_image = NULL WHERE id = ?",
+                    storedImage.getKey(), storedImage.getSize(), storedImage.getContentType(), id);
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : new String[]{"animals", "ANIMALS"}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+                    while (columns.next()) {
+                        if (LEGACY_COLUMN.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,350 @@
+package com.ali.animalsanctuary.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An iCalendar style recurrence rule, such as {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;UNTIL=20251231}, expanded
+ * against the start of its first occurrence.
+ *
+ * <p>The subset of RFC 5545 understood is {@code FREQ} ({@code DAILY}, {@code WEEKLY} or {@code MONTHLY}),
+ * {@code INTERVAL}, {@code BYDAY} (weekly rules only), {@code UNTIL} (a date, inclusive) and {@code COUNT}. Every
+ * occurrence starts at the time of day of the first one. A weekly rule without {@code BYDAY} repeats on the weekday of
+ * the first occurrence, and a monthly rule skips the months that have no such day of the month. Unlike RFC 5545, a
+ * first start that does not match {@code BYDAY} is not itself an occurrence.
+ *
+ * <p>Occurrences are never generated from the first one onwards: expanding a window jumps arithmetically to the period
+ * the window starts in, so the cost is the number of occurrences in the window, however far from the first start it
+ * lies.
+ *
+ * <p>Instances are immutable and thread safe.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #parse(String)}: Parses a rule.</li>
+ *     <li>{@link #occurrencesBetween(LocalDateTime, LocalDateTime, LocalDateTime)}: Lists the occurrences starting in a window.</li>
+ *     <li>{@link #isOccurrence(LocalDateTime, LocalDateTime)}: Checks whether a start time is an occurrence.</li>
+ *     <li>{@link #lastOccurrence(LocalDateTime)}: Finds the last occurrence of a bounded rule.</li>
+ *     <li>{@link #toString()}: Formats the rule in canonical form.</li>
+ * </ul>
+ */
+public final class RecurrenceRule {
+
+    /**
+     * How often a rule repeats.
+     */
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    /**
+     * The greatest {@code COUNT} accepted, which keeps finding the last occurrence of a counted rule cheap.
+     */
+    public static final int MAX_COUNT = 100_000;
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Map<String, DayOfWeek> DAYS = Map.of("MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY,
+            "WE", DayOfWeek.WEDNESDAY, "TH", DayOfWeek.THURSDAY, "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY,
+            "SU", DayOfWeek.SUNDAY);
+
+    private final Frequency frequency;
+    private final int interval;
+    private final List<DayOfWeek> byDay;
+    private final LocalDate until;
+    private final Integer count;
+
+    private RecurrenceRule(Frequency frequency, int interval, List<DayOfWeek> byDay, LocalDate until, Integer count) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.until = until;
+        this.count = count;
+    }
+
+    /**
+     * Parses a rule, with or without its {@code RRULE:} prefix. Parts are separated by semicolons and may come in any
+     * order; names and values are case insensitive.
+     *
+     * @param rule the rule to parse.
+     * @return the parsed {@link RecurrenceRule}.
+     * @throws IllegalArgumentException if the rule is missing {@code FREQ}, has a part that is not understood, or a
+     *                                  value out of range. The message is safe to show to the user.
+     */
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("A recurrence rule is required");
+        }
+        String text = rule.trim().toUpperCase(Locale.ROOT);
+        if (text.startsWith("RRULE:")) {
+            text = text.substring("RRULE:".length());
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        LocalDate until = null;
+        Integer count = null;
+        for (String part : text.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int equals = part.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Recurrence rule part " + part + " has no value");
+            }
+            String name = part.substring(0, equals).trim();
+            String value = part.substring(equals + 1).trim();
+            switch (name) {
+                case "FREQ" -> {
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("FREQ must be DAILY, WEEKLY or MONTHLY");
+                    }
+                }
+                case "INTERVAL" -> interval = parsePositive(name, value, 1000);
+                case "COUNT" -> count = parsePositive(name, value, MAX_COUNT);
+                case "UNTIL" -> until = parseUntil(value);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        DayOfWeek dayOfWeek = DAYS.get(day.trim());
+                        if (dayOfWeek == null) {
+                            throw new IllegalArgumentException("BYDAY must list days such as MO,WE,FR");
+                        }
+                        byDay.add(dayOfWeek);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Recurrence rule part " + name + " is not supported");
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("A recurrence rule needs a FREQ");
+        }
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        return new RecurrenceRule(frequency, interval, List.copyOf(byDay), until, count);
+    }
+
+    private static int parsePositive(String name, String value, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 1 && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(name + " must be a number from 1 to " + max);
+    }
+
+    private static LocalDate parseUntil(String value) {
+        try {
+            return LocalDate.parse(value.length() > 8 ? value.substring(0, 8) : value, UNTIL_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("UNTIL must be a date such as 20251231");
+        }
+    }
+
+    /**
+     * Lists the occurrences starting in a window, in start order.
+     *
+     * @param first the start of the first occurrence of the rule.
+     * @param from  the start of the window, inclusive.
+     * @param to    the end of the window, exclusive.
+     * @return the start times of the occurrences in the window.
+     */
+    public List<LocalDateTime> occurrencesBetween(LocalDateTime first, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        forEachBetween(first, from, to, occurrences::add);
+        return occurrences;
+    }
+
+    /**
+     * Checks whether a start time is an occurrence of the rule.
+     *
+     * @param first the start of the first occurrence of the rule.
+     * @param start the start time to check.
+     * @return {@code true} if an occurrence starts at that time.
+     */
+    public boolean isOccurrence(LocalDateTime first, LocalDateTime start) {
+        return occurrencesBetween(first, start, start.plusNanos(1)).contains(start);
+    }
+
+    /**
+     * Finds the start of the last occurrence of a rule with an {@code UNTIL} or a {@code COUNT}.
+     *
+     * @param first the start of the first occurrence of the rule.
+     * @return the start of the last occurrence; {@code null} if the rule repeats forever, or if it has no occurrence
+     * at all, which the caller tells apart with {@link #isUnbounded()}.
+     */
+    public LocalDateTime lastOccurrence(LocalDateTime first) {
+        if (isUnbounded()) {
+            return null;
+        }
+        LocalDateTime from = first;
+        LocalDateTime to = LocalDateTime.MAX;
+        if (until != null) {
+            // The last occurrence lies within one repetition span before the end of the UNTIL day.
+            to = until.plusDays(1).atStartOfDay();
+            LocalDateTime spanStart = switch (frequency) {
+                case DAILY -> to.minusDays(interval);
+                case WEEKLY -> to.minusWeeks(interval + 1L);
+                case MONTHLY -> to.minusMonths(12L * interval + 1);
+            };
+            if (spanStart.isAfter(from)) {
+                from = spanStart;
+            }
+        }
+        LocalDateTime[] last = new LocalDateTime[1];
+        forEachBetween(first, from, to, start -> last[0] = start);
+        return last[0];
+    }
+
+    /**
+     * Tells whether the rule has neither an {@code UNTIL} nor a {@code COUNT}.
+     *
+     * @return {@code true} if the rule repeats forever.
+     */
+    public boolean isUnbounded() {
+        return until == null && count == null;
+    }
+
+    /**
+     * Visits the occurrences starting in {@code [from, to)}. Period {@code p} of the rule is the day, week or month
+     * {@code p * interval} units after the one of the first occurrence; the first period visited is the one
+     * {@code from} falls in, and the index of each occurrence, needed for {@code COUNT}, is computed from the
+     * period.
+     */
+    private void forEachBetween(LocalDateTime first, LocalDateTime from, LocalDateTime to,
+                                Consumer<LocalDateTime> action) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        LocalDateTime start = from.isBefore(first) ? first : from;
+        switch (frequency) {
+            case DAILY -> forEachDaily(first, start, to, action);
+            case WEEKLY -> forEachWeekly(first, start, to, action);
+            case MONTHLY -> forEachMonthly(first, start, to, action);
+        }
+    }
+
+    private void forEachDaily(LocalDateTime first, LocalDateTime from, LocalDateTime to,
+                              Consumer<LocalDateTime> action) {
+        long period = Math.max(0, ChronoUnit.DAYS.between(first.toLocalDate(), from.toLocalDate()) / interval);
+        for (; ; period++) {
+            LocalDateTime occurrence = first.plusDays(period * interval);
+            if (!accept(occurrence, period, from, to, action)) {
+                return;
+            }
+        }
+    }
+
+    private void forEachWeekly(LocalDateTime first, LocalDateTime from, LocalDateTime to,
+                               Consumer<LocalDateTime> action) {
+        List<DayOfWeek> days = byDay.isEmpty() ? List.of(first.getDayOfWeek()) : byDay;
+        LocalDate firstWeek = first.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate fromWeek = from.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        // The days of the first week before the first occurrence are not occurrences, nor counted.
+        long skipped = days.stream().filter(day -> day.compareTo(first.getDayOfWeek()) < 0).count();
+        long period = Math.max(0, ChronoUnit.WEEKS.between(firstWeek, fromWeek) / interval);
+        for (; ; period++) {
+            LocalDate week = firstWeek.plusWeeks(period * interval);
+            for (int i = 0; i < days.size(); i++) {
+                long index = period * days.size() + i - skipped;
+                if (index < 0) {
+                    continue;
+                }
+                LocalDateTime occurrence = week.plusDays(days.get(i).ordinal()).atTime(first.toLocalTime());
+                if (!accept(occurrence, index, from, to, action)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void forEachMonthly(LocalDateTime first, LocalDateTime from, LocalDateTime to,
+                                Consumer<LocalDateTime> action) {
+        int dayOfMonth = first.getDayOfMonth();
+        YearMonth firstMonth = YearMonth.from(first);
+        long period = Math.max(0, ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(from)) / interval);
+        // Months without the day of the month are skipped and not counted; only days after the 28th can miss.
+        long index = period;
+        if (dayOfMonth > 28 && count != null) {
+            index = 0;
+            for (long skippedPeriod = 0; skippedPeriod < period; skippedPeriod++) {
+                if (firstMonth.plusMonths(skippedPeriod * interval).isValidDay(dayOfMonth)) {
+                    index++;
+                }
+            }
+        }
+        for (; ; period++) {
+            YearMonth month = firstMonth.plusMonths(period * interval);
+            if (!month.isValidDay(dayOfMonth)) {
+                if (!month.atDay(1).atStartOfDay().isBefore(to)) {
+                    return;
+                }
+                continue;
+            }
+            LocalDateTime occurrence = month.atDay(dayOfMonth).atTime(first.toLocalTime());
+            if (!accept(occurrence, index++, from, to, action)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Passes an occurrence to the action if it lies in the window, and tells whether later occurrences may still be
+     * in the window and allowed by {@code COUNT} and {@code UNTIL}.
+     */
+    private boolean accept(LocalDateTime occurrence, long index, LocalDateTime from, LocalDateTime to,
+                           Consumer<LocalDateTime> action) {
+        if ((count != null && index >= count) || (until != null && occurrence.toLocalDate().isAfter(until))
+                || !occurrence.isBefore(to)) {
+            return false;
+        }
+        if (!occurrence.isBefore(from)) {
+            action.accept(occurrence);
+        }
+        return true;
+    }
+
+    /**
+     * Formats the rule in canonical form, with its parts in a fixed order and defaults left out.
+     *
+     * @return the rule, such as {@code FREQ=WEEKLY;BYDAY=MO,TH;COUNT=10}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("FREQ=").append(frequency);
+        if (interval > 1) {
+            text.append(";INTERVAL=").append(interval);
+        }
+        if (!byDay.isEmpty()) {
+            text.append(";BYDAY=");
+            for (int i = 0; i < byDay.size(); i++) {
+                text.append(i > 0 ? "," : "").append(byDay.get(i).name(), 0, 2);
+            }
+        }
+        if (until != null) {
+            text.append(";UNTIL=").append(until.format(UNTIL_FORMAT));
+        }
+        if (count != null) {
+            text.append(";COUNT=").append(count);
+        }
+        return text.toString();
+    }
+}
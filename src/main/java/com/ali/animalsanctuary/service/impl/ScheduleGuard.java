@@ -0,0 +1,135 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.ScheduleLockRepository;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
+import com.ali.animalsanctuary.repository.VolunteerOccurrenceSignupRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Serializes the schedule checks of the visit and volunteer services in the database.
+ *
+ * <p>The {@link ScheduleIndex} answers overlap checks from memory, but it only learns about a change once the change
+ * commits, so two transactions checking it at the same time can both pass. The services therefore use the index as a
+ * fast pre-filter only: a change that passes it takes a row lock here and checks again in SQL, inside the transaction
+ * that makes the change. Bookings and sign-ups lock the rows of their users, before the rows of the slots or shifts
+ * they take places on, so all commitments of one user are checked one at a time. New and moved visit slots and shifts
+ * lock the row of their schedule in the {@code schedule_locks} table, since there is no row to lock for a slot that
+ * does not exist yet.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #lockSchedule(String)}: Locks the row of a schedule, creating it the first time.</li>
+ *     <li>{@link #lockUsers(Collection)}: Locks the rows of users in ID order.</li>
+ *     <li>{@link #checkUserFree(Long, LocalDateTime, LocalDateTime, Long, Long)}: Throws if a user has a commitment overlapping a range.</li>
+ *     <li>{@link #isUserBusy(Long, LocalDateTime, LocalDateTime, Long, Long)}: Checks in SQL whether a user has a commitment overlapping a range.</li>
+ * </ul>
+ */
+@Component
+class ScheduleGuard {
+
+    /**
+     * The schedule of the visit slots.
+     */
+    static final String VISITS = "visits";
+
+    /**
+     * The schedule of the one-off volunteer shifts.
+     */
+    static final String VOLUNTEERS = "volunteers";
+
+    private final ScheduleLockRepository scheduleLockRepository;
+    private final UserRepository userRepository;
+    private final VisitBookingRepository visitBookingRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository;
+    private final TransactionTemplate newTransaction;
+
+    ScheduleGuard(ScheduleLockRepository scheduleLockRepository, UserRepository userRepository,
+                  VisitBookingRepository visitBookingRepository,
+                  VolunteerRepository volunteerRepository,
+                  VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository,
+                  PlatformTransactionManager transactionManager) {
+        this.scheduleLockRepository = scheduleLockRepository;
+        this.userRepository = userRepository;
+        this.visitBookingRepository = visitBookingRepository;
+        this.volunteerRepository = volunteerRepository;
+        this.volunteerOccurrenceSignupRepository = volunteerOccurrenceSignupRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Locks the row of a schedule until the end of the current transaction. The row is created in a transaction of
+     * its own the first time it is needed; of several transactions creating it at once, the others find it created.
+     *
+     * @param name the name of the schedule.
+     */
+    void lockSchedule(String name) {
+        if (scheduleLockRepository.findLockedByName(name).isPresent()) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> scheduleLockRepository.insertLock(name));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent transaction meanwhile.
+        }
+        scheduleLockRepository.findLockedByName(name)
+                .orElseThrow(() -> new IllegalStateException("Schedule lock " + name + " could not be created"));
+    }
+
+    /**
+     * Locks the rows of users until the end of the current transaction, in ID order, so that transactions locking
+     * several users cannot deadlock each other.
+     *
+     * @param userIds the IDs of the users.
+     */
+    void lockUsers(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            userRepository.lockAllById(userIds);
+        }
+    }
+
+    /**
+     * Throws if a user has a commitment overlapping a time range. Meant to run once the row of the user is locked.
+     *
+     * @param userId      the ID of the user.
+     * @param from        the start of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @param visitId     the ID of a visit slot to leave out, or {@code null}.
+     * @param volunteerId the ID of a shift to leave out, or {@code null}.
+     * @throws ScheduleConflictException if the user is busy during the range.
+     */
+    void checkUserFree(Long userId, LocalDateTime from, LocalDateTime to, Long visitId, Long volunteerId) {
+        if (isUserBusy(userId, from, to, visitId, volunteerId)) {
+            throw new ScheduleConflictException("You already have a visit or volunteer shift at that time");
+        }
+    }
+
+    /**
+     * Checks in SQL whether a user booked a visit slot, or signed up for a shift or an occurrence of a recurring
+     * task, overlapping a time range.
+     *
+     * @param userId      the ID of the user.
+     * @param from        the start of the range, inclusive.
+     * @param to          the end of the range, exclusive.
+     * @param visitId     the ID of a visit slot to leave out, or {@code null}.
+     * @param volunteerId the ID of a shift to leave out, or {@code null}.
+     * @return {@code true} if the user is busy during the range.
+     */
+    boolean isUserBusy(Long userId, LocalDateTime from, LocalDateTime to, Long visitId, Long volunteerId) {
+        return visitBookingRepository.existsOverlapping(userId, from, to, visitId)
+                || volunteerRepository.existsMemberOverlapping(userId, from, to, volunteerId)
+                || volunteerOccurrenceSignupRepository.existsOverlapping(userId, from, to);
+    }
+}
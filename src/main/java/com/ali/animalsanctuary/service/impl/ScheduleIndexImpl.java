@@ -0,0 +1,531 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.ShiftMember;
+import com.ali.animalsanctuary.dto.ShiftTimes;
+import com.ali.animalsanctuary.dto.VisitMember;
+import com.ali.animalsanctuary.dto.VisitTimes;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of the {@link ScheduleIndex} interface using augmented interval trees.
+ *
+ * Visit slots and volunteer shifts live in one {@link IntervalTree} each, and every user with a commitment gets a
+ * small tree of the visits and shifts they are in, keyed by {@code 2 * id} for visits and {@code 2 * id + 1} for
+ * shifts so that both kinds share one tree. An overlap query costs {@code O(log n + k)} whatever the size of the
+ * schedule. Times are stored as epoch seconds; only their order matters, so the offset used is irrelevant. Reads share
+ * a read lock; updates take the write lock briefly.
+ *
+ * <p>The index is built before the application starts serving requests, by reading the times of the visits and
+ * shifts, the visit bookings and the shift members in keyset batches, so that the first overlap check already sees the whole schedule.
+ * A rebuild holds the write lock until the new index is complete, so updates arriving meanwhile wait rather than
+ * being lost.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the index from the visits and volunteers tables.</li>
+ *     <li>{@link #putVisit(Long, LocalDateTime, LocalDateTime)}: Adds a visit slot, or updates its times.</li>
+ *     <li>{@link #addVisitMember(Long, Long)}: Records that a user booked seats on a visit slot.</li>
+ *     <li>{@link #removeVisitMember(Long, Long)}: Records that a user canceled their seats on a visit slot.</li>
+ *     <li>{@link #clearVisitMembers(Long)}: Records that every booking of a visit slot was canceled.</li>
+ *     <li>{@link #removeVisit(Long)}: Removes a visit slot.</li>
+ *     <li>{@link #putShift(Long, LocalDateTime, LocalDateTime, Collection)}: Adds a volunteer shift, or updates its times and members.</li>
+ *     <li>{@link #addShiftMember(Long, Long)}: Records that a user signed up for a volunteer shift.</li>
+ *     <li>{@link #removeShift(Long)}: Removes a volunteer shift.</li>
+ *     <li>{@link #getVisitStart(Long)}: Looks up the start time of a visit slot.</li>
+ *     <li>{@link #isVisitMember(Long, Long)}: Checks whether a user holds seats on a visit slot.</li>
+ *     <li>{@link #findVisitsOverlapping(LocalDateTime, LocalDateTime)}: Finds the visit slots overlapping a range.</li>
+ *     <li>{@link #findShiftsOverlapping(LocalDateTime, LocalDateTime)}: Finds the volunteer shifts overlapping a range.</li>
+ *     <li>{@link #isUserBusy(Long, LocalDateTime, LocalDateTime)}: Checks whether a user has a commitment overlapping a range.</li>
+ *     <li>{@link #isUserBusyDuringVisit(Long, Long)}: Checks whether booking a visit slot would double-book a user.</li>
+ *     <li>{@link #isUserBusyDuringShift(Long, Long)}: Checks whether joining a volunteer shift would double-book a user.</li>
+ * </ul>
+ *
+ * @see ScheduleIndex
+ * @see IntervalTree
+ */
+
+@Service
+public class ScheduleIndexImpl implements ScheduleIndex, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleIndexImpl.class);
+
+    private final VisitRepository visitRepository;
+    private final VisitBookingRepository visitBookingRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final int batchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index current = new Index();
+
+    /**
+     * Constructs a new {@link ScheduleIndexImpl}.
+     *
+     * @param visitRepository        the repository the visit slots are read from.
+     * @param visitBookingRepository the repository the visit bookings are read from.
+     * @param volunteerRepository    the repository the volunteer shifts are read from.
+     * @param batchSize              the number of visits, bookings or shifts read per batch while building.
+     */
+    public ScheduleIndexImpl(VisitRepository visitRepository, VisitBookingRepository visitBookingRepository,
+                             VolunteerRepository volunteerRepository,
+                             @Value("${sanctuary.schedule.rebuild-batch-size:5000}") int batchSize) {
+        this.visitRepository = visitRepository;
+        this.visitBookingRepository = visitBookingRepository;
+        this.volunteerRepository = volunteerRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the visits and volunteers tables, replacing its current content. Queries and updates
+     * wait until the new index is complete.
+     */
+    @Override
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Index index = new Index();
+            long lastId = 0;
+            while (true) {
+                List<VisitTimes> batch = visitRepository.findTimesAfter(lastId, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (VisitTimes visit : batch) {
+                    index.putVisit(visit.getId(), visit.getStartTime(), visit.getEndTime());
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            lastId = 0;
+            while (true) {
+                List<VisitMember> batch = visitBookingRepository.findMembersAfter(lastId, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (VisitMember member : batch) {
+                    index.addVisitMember(member.getVisitId(), member.getUserId());
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            lastId = 0;
+            while (true) {
+                List<ShiftTimes> batch = volunteerRepository.findShiftTimesAfter(lastId, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> members = new HashMap<>();
+                List<Long> ids = batch.stream().map(ShiftTimes::getId).toList();
+                for (ShiftMember member : volunteerRepository.findMembers(ids)) {
+                    members.computeIfAbsent(member.getShiftId(), id -> new ArrayList<>()).add(member.getUserId());
+                }
+                for (ShiftTimes shift : batch) {
+                    index.putShift(shift.getId(), shift.getStartDate(), shift.getEndDate(),
+                            members.getOrDefault(shift.getId(), List.of()));
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            current = index;
+            logger.info("Indexed {} visit slots and {} volunteer shifts in {} ms", index.visits.size(),
+                    index.shifts.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a visit slot to the index, or replaces the times it was indexed with. The users holding seats on the slot
+     * keep them, at the new times.
+     *
+     * @param id    the ID of the visit.
+     * @param start the start time of the visit.
+     * @param end   the end time of the visit.
+     */
+    @Override
+    public void putVisit(Long id, LocalDateTime start, LocalDateTime end) {
+        lock.writeLock().lock();
+        try {
+            current.putVisit(id, start, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a user booked seats on an indexed visit slot. Adding a member to a visit that is not indexed is a
+     * no-op.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     */
+    @Override
+    public void addVisitMember(Long id, Long userId) {
+        lock.writeLock().lock();
+        try {
+            current.addVisitMember(id, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a user canceled their seats on a visit slot.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     */
+    @Override
+    public void removeVisitMember(Long id, Long userId) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> members = current.visitMembers.get(id);
+            if (members != null && members.remove(userId)) {
+                current.release(userId, visitKey(id));
+                if (members.isEmpty()) {
+                    current.visitMembers.remove(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that every booking of a visit slot was canceled.
+     *
+     * @param id the ID of the visit.
+     */
+    @Override
+    public void clearVisitMembers(Long id) {
+        lock.writeLock().lock();
+        try {
+            current.clearVisitMembers(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a visit slot from the index. Removing a visit that is not indexed is a no-op.
+     *
+     * @param id the ID of the visit.
+     */
+    @Override
+    public void removeVisit(Long id) {
+        lock.writeLock().lock();
+        try {
+            current.clearVisitMembers(id);
+            current.visits.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a volunteer shift to the index, or replaces the times and members it was indexed with.
+     *
+     * @param id      the ID of the shift.
+     * @param start   the start of the shift.
+     * @param end     the end of the shift.
+     * @param userIds the IDs of the users signed up for the shift.
+     */
+    @Override
+    public void putShift(Long id, LocalDateTime start, LocalDateTime end, Collection<Long> userIds) {
+        lock.writeLock().lock();
+        try {
+            current.putShift(id, start, end, userIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a user signed up for an indexed volunteer shift. Adding a member to a shift that is not indexed is
+     * a no-op.
+     *
+     * @param id     the ID of the shift.
+     * @param userId the ID of the user.
+     */
+    @Override
+    public void addShiftMember(Long id, Long userId) {
+        lock.writeLock().lock();
+        try {
+            long[] times = current.shifts.get(id);
+            if (times != null && current.shiftMembers.computeIfAbsent(id, key -> new HashSet<>()).add(userId)) {
+                current.commit(userId, shiftKey(id), times[0], times[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a volunteer shift from the index. Removing a shift that is not indexed is a no-op.
+     *
+     * @param id the ID of the shift.
+     */
+    @Override
+    public void removeShift(Long id) {
+        lock.writeLock().lock();
+        try {
+            current.putShiftMembers(id, null, 0, 0);
+            current.shifts.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up the start time of an indexed visit slot.
+     *
+     * @param id the ID of the visit.
+     * @return the start time of the visit, or {@code null} if the visit is not indexed.
+     */
+    @Override
+    public LocalDateTime getVisitStart(Long id) {
+        lock.readLock().lock();
+        try {
+            long[] times = current.visits.get(id);
+            return times == null ? null : LocalDateTime.ofEpochSecond(times[0], 0, ZoneOffset.UTC);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user holds seats on a visit slot.
+     *
+     * @param id     the ID of the visit.
+     * @param userId the ID of the user.
+     * @return {@code true} if the user booked the visit.
+     */
+    @Override
+    public boolean isVisitMember(Long id, Long userId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> members = current.visitMembers.get(id);
+            return members != null && members.contains(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the IDs of the visit slots, booked or not, overlapping a range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the IDs of the overlapping visits.
+     */
+    @Override
+    public List<Long> findVisitsOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Long> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            current.visits.forEachOverlapping(toSeconds(from), toSeconds(to), ids::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the IDs of the volunteer shifts overlapping a range, in start time order.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the IDs of the overlapping shifts.
+     */
+    @Override
+    public List<Long> findShiftsOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Long> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            current.shifts.forEachOverlapping(toSeconds(from), toSeconds(to), ids::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Checks whether a user has booked a visit or signed up for a shift overlapping a range.
+     *
+     * @param userId the ID of the user.
+     * @param from   the start of the range, inclusive.
+     * @param to     the end of the range, exclusive.
+     * @return {@code true} if the user is busy during the range.
+     */
+    @Override
+    public boolean isUserBusy(Long userId, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            return current.isBusy(userId, toSeconds(from), toSeconds(to), -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user has another commitment overlapping a visit slot, so that booking it would double-book
+     * them.
+     *
+     * @param userId  the ID of the user.
+     * @param visitId the ID of the visit.
+     * @return {@code true} if the user is busy during the visit; {@code false} if the visit is not indexed.
+     */
+    @Override
+    public boolean isUserBusyDuringVisit(Long userId, Long visitId) {
+        lock.readLock().lock();
+        try {
+            long[] times = current.visits.get(visitId);
+            return times != null && current.isBusy(userId, times[0], times[1], visitKey(visitId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user has another commitment overlapping a volunteer shift, so that signing up for it would
+     * double-book them.
+     *
+     * @param userId  the ID of the user.
+     * @param shiftId the ID of the shift.
+     * @return {@code true} if the user is busy during the shift; {@code false} if the shift is not indexed.
+     */
+    @Override
+    public boolean isUserBusyDuringShift(Long userId, Long shiftId) {
+        lock.readLock().lock();
+        try {
+            long[] times = current.shifts.get(shiftId);
+            return times != null && current.isBusy(userId, times[0], times[1], shiftKey(shiftId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long visitKey(long visitId) {
+        return visitId * 2;
+    }
+
+    private static long shiftKey(long shiftId) {
+        return shiftId * 2 + 1;
+    }
+
+    /**
+     * The trees and booking maps of one generation of the index. Callers hold the lock.
+     */
+    private static final class Index {
+
+        final IntervalTree visits = new IntervalTree();
+        final IntervalTree shifts = new IntervalTree();
+        final Map<Long, Set<Long>> visitMembers = new HashMap<>();
+        final Map<Long, Set<Long>> shiftMembers = new HashMap<>();
+        final Map<Long, IntervalTree> commitments = new HashMap<>();
+
+        void putVisit(Long id, LocalDateTime start, LocalDateTime end) {
+            if (start == null || end == null) {
+                return;
+            }
+            long from = toSeconds(start);
+            long to = toSeconds(end);
+            visits.put(id, from, to);
+            for (Long userId : visitMembers.getOrDefault(id, Set.of())) {
+                commit(userId, visitKey(id), from, to);
+            }
+        }
+
+        void addVisitMember(Long id, Long userId) {
+            long[] times = visits.get(id);
+            if (times != null && visitMembers.computeIfAbsent(id, key -> new HashSet<>()).add(userId)) {
+                commit(userId, visitKey(id), times[0], times[1]);
+            }
+        }
+
+        void clearVisitMembers(Long id) {
+            Set<Long> previous = visitMembers.remove(id);
+            if (previous != null) {
+                for (Long userId : previous) {
+                    release(userId, visitKey(id));
+                }
+            }
+        }
+
+        void putShift(Long id, LocalDateTime start, LocalDateTime end, Collection<Long> userIds) {
+            if (start == null || end == null) {
+                return;
+            }
+            long from = toSeconds(start);
+            long to = toSeconds(end);
+            shifts.put(id, from, to);
+            putShiftMembers(id, userIds, from, to);
+        }
+
+        /**
+         * Replaces the members of a shift, releasing the commitments of the users who left it and recording the
+         * commitments of the users in it, or only releasing them when {@code userIds} is {@code null}.
+         */
+        void putShiftMembers(Long id, Collection<Long> userIds, long from, long to) {
+            Set<Long> members = userIds != null ? new HashSet<>(userIds) : null;
+            Set<Long> previous = members != null ? shiftMembers.put(id, members) : shiftMembers.remove(id);
+            if (previous != null) {
+                for (Long userId : previous) {
+                    if (members == null || !members.contains(userId)) {
+                        release(userId, shiftKey(id));
+                    }
+                }
+            }
+            if (members != null) {
+                for (Long userId : members) {
+                    commit(userId, shiftKey(id), from, to);
+                }
+            }
+        }
+
+        void commit(Long userId, long key, long from, long to) {
+            commitments.computeIfAbsent(userId, id -> new IntervalTree()).put(key, from, to);
+        }
+
+        void release(Long userId, long key) {
+            IntervalTree tree = commitments.get(userId);
+            if (tree != null && tree.remove(key) && tree.size() == 0) {
+                commitments.remove(userId);
+            }
+        }
+
+        boolean isBusy(Long userId, long from, long to, long excludeKey) {
+            IntervalTree tree = commitments.get(userId);
+            return tree != null && tree.anyOverlapping(from, to, excludeKey);
+        }
+    }
+}
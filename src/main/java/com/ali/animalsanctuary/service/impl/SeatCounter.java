@@ -0,0 +1,129 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.VisitSeats;
+import com.ali.animalsanctuary.repository.VisitRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remaining-seat counts of the visit slots, kept in memory so that showing how many seats are left never queries the
+ * visits table.
+ *
+ * Each slot gets a {@link LongAdder} of the seats taken, loaded from the database the first time the slot is read and
+ * then moved by the deltas of the bookings and cancellations that commit. A {@link LongAdder} spreads concurrent
+ * updates over striped cells, so the commits of a busy group tour never contend on one memory location, and neither
+ * updates nor reads take a lock. The database remains the only judge of whether a booking fits: the counts may lag
+ * by the bookings in flight, and a slot whose count disagrees with a booking outcome is dropped and reloaded.
+ *
+ * A writer takes hold of the count of its slot before changing the database and applies its delta to that count
+ * only. A count loaded in between may already include the change, so the delta drops it instead of applying twice.
+ */
+final class SeatCounter {
+
+    static final class Seats {
+        private final int capacity;
+        private final LongAdder taken = new LongAdder();
+
+        private Seats(int capacity, int taken) {
+            this.capacity = capacity;
+            this.taken.add(taken);
+        }
+
+        int remaining() {
+            return (int) Math.max(0, capacity - taken.sum());
+        }
+    }
+
+    private final ConcurrentMap<Long, Seats> slots = new ConcurrentHashMap<>();
+    private final VisitRepository visitRepository;
+
+    SeatCounter(VisitRepository visitRepository) {
+        this.visitRepository = visitRepository;
+    }
+
+    /**
+     * Counts the seats left on a slot, loading its count on first use.
+     *
+     * @param visitId the ID of the visit slot.
+     * @return the number of seats left, or {@code 0} if the slot does not exist.
+     */
+    int remaining(Long visitId) {
+        Seats seats = get(visitId);
+        return seats != null ? seats.remaining() : 0;
+    }
+
+    /**
+     * Returns the count of a slot, loading it on first use. Writers call this before changing the slot and pass the
+     * result to {@link #taken} or {@link #returned} once the change commits.
+     *
+     * @param visitId the ID of the visit slot.
+     * @return the count, or {@code null} if the slot does not exist.
+     */
+    Seats get(Long visitId) {
+        Seats seats = slots.get(visitId);
+        if (seats == null) {
+            Optional<VisitSeats> row = visitRepository.findSeatsById(visitId);
+            if (row.isEmpty()) {
+                return null;
+            }
+            Seats loaded = new Seats(row.get().getCapacity(), row.get().getCapacity() - row.get().getSeatsLeft());
+            Seats raced = slots.putIfAbsent(visitId, loaded);
+            seats = raced != null ? raced : loaded;
+        }
+        return seats;
+    }
+
+    /**
+     * Records that a committed booking took seats from a slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param counted the count taken hold of before the booking.
+     * @param count   the number of seats taken.
+     */
+    void taken(Long visitId, Seats counted, int count) {
+        if (counted != null && slots.get(visitId) == counted && counted.remaining() >= count) {
+            counted.taken.add(count);
+        } else {
+            slots.remove(visitId);
+        }
+    }
+
+    /**
+     * Records that a committed cancellation gave seats back to a slot.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param counted the count taken hold of before the cancellation.
+     * @param count   the number of seats given back.
+     */
+    void returned(Long visitId, Seats counted, int count) {
+        if (counted != null && slots.get(visitId) == counted) {
+            counted.taken.add(-count);
+        } else {
+            slots.remove(visitId);
+        }
+    }
+
+    /**
+     * Drops the count of a slot, so that the next read loads it again.
+     *
+     * @param visitId the ID of the visit slot.
+     */
+    void forget(Long visitId) {
+        slots.remove(visitId);
+    }
+
+    /**
+     * Drops the count of a slot if it is still the specified one.
+     *
+     * @param visitId the ID of the visit slot.
+     * @param counted the count found to be wrong.
+     */
+    void forget(Long visitId, Seats counted) {
+        if (counted != null) {
+            slots.remove(visitId, counted);
+        }
+    }
+}
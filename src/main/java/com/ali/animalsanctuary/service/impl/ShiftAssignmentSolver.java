@@ -0,0 +1,828 @@
+package com.ali.animalsanctuary.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns volunteers to the open places of volunteer shifts, respecting when each volunteer is available, how many
+ * minutes a week they give at most, and that nobody is in two places at once, within a time budget.
+ *
+ * <p>A volunteer can take a shift if one of their weekly availability windows covers it on the day it starts, the
+ * minutes of their shifts starting in the same ISO week stay within their weekly limit, and it overlaps neither
+ * another of their shifts nor one of their existing commitments. Only the number of places filled is maximized;
+ * when filling a place, the volunteer with the smallest share of their weekly limit used among a sample of those who
+ * fit is preferred.
+ *
+ * <p>Since the weekly limit couples only the shifts of the same week, the shifts are split into one block per ISO week,
+ * and the blocks are solved in parallel as fork-join tasks; each block also computes the candidates of its shifts as
+ * parallel subtasks. A block is solved in two phases:
+ * <ol>
+ *     <li>Construction: the shifts with the fewest candidates per place are filled first, each with the least loaded
+ *     candidates that fit.</li>
+ *     <li>Improvement, until the share of the time budget of the block runs out: every open place is offered to its
+ *     candidates directly, then through an ejection, which moves a candidate off the one shift in their way and gives
+ *     that shift to someone else. At a local optimum a few random assignments are undone and the places refilled,
+ *     keeping the result unless fewer places end up filled.</li>
+ * </ol>
+ * A block starting late gets the same share of the remaining budget as the blocks still waiting, so every week is
+ * improved. Overlaps between shifts of neighbouring weeks are removed last, keeping the earlier shift. The
+ * construction phase always completes, so a result is returned even with a budget of zero.
+ *
+ * <p>Instances are thread safe; every call to {@link #solve(List, List, List, Duration, long)} works on its own state.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #solve(List, List, List, Duration, long)}: Assigns volunteers to the places of a set of shifts.</li>
+ *     <li>{@link #covers(Availability, LocalDateTime, LocalDateTime)}: Checks whether an availability window covers a shift.</li>
+ * </ul>
+ */
+public final class ShiftAssignmentSolver {
+
+    /**
+     * A shift to fill.
+     *
+     * @param id     the ID of the shift.
+     * @param start  the start of the shift.
+     * @param end    the end of the shift.
+     * @param places the number of places to fill.
+     */
+    public record Shift(long id, LocalDateTime start, LocalDateTime end, int places) {
+    }
+
+    /**
+     * A weekly window during which a volunteer is available. A window ending at midnight ends at {@code 00:00}.
+     *
+     * @param day   the day of the week.
+     * @param start the start of the window.
+     * @param end   the end of the window.
+     */
+    public record Availability(DayOfWeek day, LocalTime start, LocalTime end) {
+    }
+
+    /**
+     * A volunteer who may be assigned.
+     *
+     * @param userId           the ID of the user.
+     * @param maxWeeklyMinutes the most minutes of shifts starting in one week the volunteer takes, existing
+     *                         commitments included.
+     * @param availability     the weekly windows during which the volunteer is available.
+     */
+    public record Candidate(long userId, int maxWeeklyMinutes, List<Availability> availability) {
+    }
+
+    /**
+     * A time a volunteer is already committed to, such as a shift they signed up for. It counts towards their weekly
+     * limit and nothing overlapping it is assigned to them.
+     *
+     * @param userId the ID of the user.
+     * @param start  the start of the commitment.
+     * @param end    the end of the commitment.
+     */
+    public record Commitment(long userId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * The outcome of a call to {@link #solve(List, List, List, Duration, long)}.
+     *
+     * @param assignments  the IDs of the users assigned to each shift, by shift ID; shifts left empty are missing.
+     * @param placesFilled the number of places filled.
+     * @param placesOpen   the number of places there were to fill.
+     * @param moves        the number of improvements made after construction.
+     * @param elapsed      the time the call took.
+     */
+    public record Result(Map<Long, List<Long>> assignments, int placesFilled, int placesOpen, long moves,
+                         Duration elapsed) {
+
+        /**
+         * Returns the share of the places filled, from {@code 0} to {@code 1}.
+         *
+         * @return the fill rate; {@code 1} if there was nothing to fill.
+         */
+        public double fillRate() {
+            return placesOpen == 0 ? 1 : (double) placesFilled / placesOpen;
+        }
+    }
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * The number of shifts whose candidates one subtask computes.
+     */
+    private static final int CANDIDATE_BATCH = 256;
+
+    /**
+     * The number of fitting candidates compared when filling a place, so that filling costs the same however many
+     * volunteers are available.
+     */
+    private static final int SAMPLE = 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@link ShiftAssignmentSolver}.
+     *
+     * @param pool the pool the blocks and their subtasks run on.
+     */
+    public ShiftAssignmentSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Assigns volunteers to the places of a set of shifts. Shifts without places or ending before they start, and
+     * volunteers without availability, are ignored.
+     *
+     * @param shifts      the shifts to fill.
+     * @param candidates  the volunteers who may be assigned.
+     * @param commitments the times the volunteers are already committed to.
+     * @param budget      the time after which improving the assignment stops.
+     * @param seed        the seed of the random choices.
+     * @return the {@link Result}.
+     */
+    public Result solve(List<Shift> shifts, List<Candidate> candidates, List<Commitment> commitments,
+                        Duration budget, long seed) {
+        long started = System.nanoTime();
+        Problem problem = new Problem(shifts, candidates, commitments);
+        List<Block> blocks = problem.blocks(started + budget.toNanos(), seed);
+        AtomicInteger waiting = new AtomicInteger(blocks.size());
+        AtomicLong moves = new AtomicLong();
+        if (!blocks.isEmpty()) {
+            pool.invoke(new SolveBlocks(blocks, 0, blocks.size(), waiting, moves, pool.getParallelism()));
+        }
+
+        // Keep the earlier of two overlapping shifts of the same volunteer in neighbouring weeks.
+        List<List<Integer>> byVolunteer = new ArrayList<>(problem.volunteers);
+        for (int v = 0; v < problem.volunteers; v++) {
+            byVolunteer.add(null);
+        }
+        for (Block block : blocks) {
+            for (int i = 0; i < block.assigned.length; i += 2) {
+                int v = block.assigned[i + 1];
+                if (byVolunteer.get(v) == null) {
+                    byVolunteer.set(v, new ArrayList<>());
+                }
+                byVolunteer.get(v).add(block.assigned[i]);
+            }
+        }
+        Map<Integer, List<Long>> members = new TreeMap<>();
+        int filled = 0;
+        for (int v = 0; v < problem.volunteers; v++) {
+            List<Integer> taken = byVolunteer.get(v);
+            if (taken == null) {
+                continue;
+            }
+            taken.sort((a, b) -> Long.compare(problem.start[a], problem.start[b]));
+            long busyUntil = Long.MIN_VALUE;
+            for (int s : taken) {
+                if (problem.start[s] < busyUntil) {
+                    continue;
+                }
+                busyUntil = problem.end[s];
+                members.computeIfAbsent(s, key -> new ArrayList<>()).add(problem.userIds[v]);
+                filled++;
+            }
+        }
+        Map<Long, List<Long>> assignments = new LinkedHashMap<>();
+        members.forEach((s, userIds) -> assignments.put(problem.shiftIds[s], userIds));
+        return new Result(assignments, filled, problem.placesOpen, moves.get(),
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Checks whether an availability window covers a shift the way the solver requires: on the day the shift starts,
+     * from no later than its start to no earlier than its end, without the shift crossing midnight.
+     *
+     * @param window the availability window.
+     * @param start  the start of the shift.
+     * @param end    the end of the shift.
+     * @return {@code true} if the window covers the shift.
+     */
+    static boolean covers(Availability window, LocalDateTime start, LocalDateTime end) {
+        int from = start.toLocalTime().toSecondOfDay() / 60;
+        long to = from + Duration.between(start, end).toMinutes();
+        int windowStart = window.start().toSecondOfDay() / 60;
+        int windowEnd = window.end().toSecondOfDay() / 60;
+        return window.day() == start.getDayOfWeek() && to <= MINUTES_PER_DAY && windowStart <= from
+                && (windowEnd <= windowStart ? MINUTES_PER_DAY : windowEnd) >= to;
+    }
+
+    /**
+     * The problem in flat arrays shared read-only by the blocks: shifts and times in minutes, volunteers by index, and
+     * the availability windows of each day of the week sorted by start.
+     */
+    private static final class Problem {
+        final int volunteers;
+        final long[] userIds;
+        final int[] maxMinutes;
+        final int[][] windowStart = new int[7][];
+        final int[][] windowEnd = new int[7][];
+        final int[][] windowVolunteer = new int[7][];
+        final long[][] fixed;
+        final long[] shiftIds;
+        final long[] start;
+        final long[] end;
+        final int[] places;
+        final int[] day;
+        final int[] startOfDay;
+        final LocalDate[] week;
+        int placesOpen;
+
+        Problem(List<Shift> shifts, List<Candidate> candidates, List<Commitment> commitments) {
+            volunteers = candidates.size();
+            userIds = new long[volunteers];
+            maxMinutes = new int[volunteers];
+            Map<Long, Integer> indexes = new HashMap<>();
+            List<List<int[]>> windows = new ArrayList<>();
+            for (int d = 0; d < 7; d++) {
+                windows.add(new ArrayList<>());
+            }
+            for (int v = 0; v < volunteers; v++) {
+                Candidate candidate = candidates.get(v);
+                userIds[v] = candidate.userId();
+                maxMinutes[v] = candidate.maxWeeklyMinutes();
+                indexes.put(candidate.userId(), v);
+                for (Availability window : candidate.availability()) {
+                    int from = window.start().toSecondOfDay() / 60;
+                    int to = window.end().toSecondOfDay() / 60;
+                    windows.get(window.day().ordinal()).add(new int[]{from, to <= from ? MINUTES_PER_DAY : to, v});
+                }
+            }
+            for (int d = 0; d < 7; d++) {
+                List<int[]> dayWindows = windows.get(d);
+                dayWindows.sort((a, b) -> Integer.compare(a[0], b[0]));
+                windowStart[d] = dayWindows.stream().mapToInt(window -> window[0]).toArray();
+                windowEnd[d] = dayWindows.stream().mapToInt(window -> window[1]).toArray();
+                windowVolunteer[d] = dayWindows.stream().mapToInt(window -> window[2]).toArray();
+            }
+
+            List<List<long[]>> committed = new ArrayList<>(volunteers);
+            for (int v = 0; v < volunteers; v++) {
+                committed.add(null);
+            }
+            for (Commitment commitment : commitments) {
+                Integer v = indexes.get(commitment.userId());
+                if (v != null && commitment.end().isAfter(commitment.start())) {
+                    if (committed.get(v) == null) {
+                        committed.set(v, new ArrayList<>());
+                    }
+                    committed.get(v).add(new long[]{minutes(commitment.start()), minutes(commitment.end())});
+                }
+            }
+            fixed = new long[volunteers][];
+            for (int v = 0; v < volunteers; v++) {
+                List<long[]> intervals = committed.get(v);
+                if (intervals != null) {
+                    fixed[v] = new long[intervals.size() * 2];
+                    for (int i = 0; i < intervals.size(); i++) {
+                        fixed[v][2 * i] = intervals.get(i)[0];
+                        fixed[v][2 * i + 1] = intervals.get(i)[1];
+                    }
+                }
+            }
+
+            List<Shift> valid = shifts.stream()
+                    .filter(shift -> shift.places() > 0 && shift.end().isAfter(shift.start()))
+                    .toList();
+            int n = valid.size();
+            shiftIds = new long[n];
+            start = new long[n];
+            end = new long[n];
+            places = new int[n];
+            day = new int[n];
+            startOfDay = new int[n];
+            week = new LocalDate[n];
+            for (int s = 0; s < n; s++) {
+                Shift shift = valid.get(s);
+                shiftIds[s] = shift.id();
+                start[s] = minutes(shift.start());
+                end[s] = minutes(shift.end());
+                places[s] = shift.places();
+                day[s] = shift.start().getDayOfWeek().ordinal();
+                startOfDay[s] = shift.start().toLocalTime().toSecondOfDay() / 60;
+                week[s] = shift.start().toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                placesOpen += places[s];
+            }
+        }
+
+        List<Block> blocks(long deadline, long seed) {
+            Map<LocalDate, List<Integer>> byWeek = new TreeMap<>();
+            for (int s = 0; s < shiftIds.length; s++) {
+                byWeek.computeIfAbsent(week[s], key -> new ArrayList<>()).add(s);
+            }
+            List<Block> blocks = new ArrayList<>();
+            byWeek.forEach((monday, shifts) -> blocks.add(new Block(this, monday,
+                    shifts.stream().mapToInt(Integer::intValue).toArray(), deadline, seed ^ monday.toEpochDay())));
+            return blocks;
+        }
+
+        /**
+         * Lists the volunteers with a window covering a shift, each once.
+         */
+        int[] candidatesOf(int s, int[] seen, int stamp) {
+            int d = day[s];
+            int from = startOfDay[s];
+            long to = from + (end[s] - start[s]);
+            if (to > MINUTES_PER_DAY) {
+                return new int[0];
+            }
+            int[] starts = windowStart[d];
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] <= from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] found = new int[Math.min(low, volunteers)];
+            int count = 0;
+            for (int i = 0; i < low; i++) {
+                int v = windowVolunteer[d][i];
+                if (windowEnd[d][i] >= to && seen[v] != stamp) {
+                    seen[v] = stamp;
+                    found[count++] = v;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+
+        static long minutes(LocalDateTime time) {
+            return time.toEpochSecond(ZoneOffset.UTC) / 60;
+        }
+    }
+
+    /**
+     * Solves a range of blocks, splitting it in halves until a single block is left.
+     */
+    private static final class SolveBlocks extends RecursiveAction {
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final AtomicInteger waiting;
+        private final AtomicLong moves;
+        private final int parallelism;
+
+        SolveBlocks(List<Block> blocks, int from, int to, AtomicInteger waiting, AtomicLong moves, int parallelism) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.waiting = waiting;
+            this.moves = moves;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                moves.addAndGet(blocks.get(from).solve(waiting, parallelism));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SolveBlocks(blocks, from, middle, waiting, moves, parallelism),
+                    new SolveBlocks(blocks, middle, to, waiting, moves, parallelism));
+        }
+    }
+
+    /**
+     * Computes the candidates of a range of the shifts of a block, splitting it until it is small enough.
+     */
+    private static final class FindCandidates extends RecursiveAction {
+        private final Block block;
+        private final int from;
+        private final int to;
+
+        FindCandidates(Block block, int from, int to) {
+            this.block = block;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CANDIDATE_BATCH) {
+                block.findCandidates(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FindCandidates(block, from, middle), new FindCandidates(block, middle, to));
+        }
+    }
+
+    /**
+     * The shifts of one ISO week and their assignment. Shifts are addressed by their position in the block, and the
+     * state of the volunteers is kept for this week only.
+     */
+    private static final class Block {
+        private final Problem problem;
+        private final LocalDate monday;
+        private final int[] shifts;
+        private final long globalDeadline;
+        private final SplittableRandom random;
+
+        /**
+         * The result, as pairs of a shift index of the problem and a volunteer index.
+         */
+        int[] assigned = new int[0];
+
+        private int[][] candidates;
+        private int[][] members;
+        private int[] filled;
+        private int[] minutes;
+        private int[][] busy;
+        private int[] busyCount;
+        private int totalFilled;
+        private int[] log;
+        private int logSize = -1;
+
+        Block(Problem problem, LocalDate monday, int[] shifts, long globalDeadline, long seed) {
+            this.problem = problem;
+            this.monday = monday;
+            this.shifts = shifts;
+            this.globalDeadline = globalDeadline;
+            this.random = new SplittableRandom(seed);
+        }
+
+        /**
+         * Solves the block and returns the number of improvements made after construction.
+         */
+        long solve(AtomicInteger waiting, int parallelism) {
+            int n = shifts.length;
+            minutes = new int[problem.volunteers];
+            long weekStart = Problem.minutes(monday.atStartOfDay());
+            long weekEnd = Problem.minutes(monday.plusWeeks(1).atStartOfDay());
+            for (int v = 0; v < problem.volunteers; v++) {
+                long[] intervals = problem.fixed[v];
+                for (int i = 0; intervals != null && i < intervals.length; i += 2) {
+                    if (intervals[i] >= weekStart && intervals[i] < weekEnd) {
+                        minutes[v] += (int) (intervals[i + 1] - intervals[i]);
+                    }
+                }
+            }
+            candidates = new int[n][];
+            new FindCandidates(this, 0, n).invoke();
+            members = new int[n][];
+            filled = new int[n];
+            for (int i = 0; i < n; i++) {
+                members[i] = new int[problem.places[shifts[i]]];
+            }
+            busy = new int[problem.volunteers][];
+            busyCount = new int[problem.volunteers];
+
+            construct();
+            long now = System.nanoTime();
+            int left = waiting.getAndDecrement();
+            long deadline = now + Math.max(0, globalDeadline - now) * Math.min(parallelism, left) / Math.max(1, left);
+            long moves = improve(deadline);
+
+            int[] result = new int[totalFilled * 2];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < filled[i]; j++) {
+                    result[k++] = shifts[i];
+                    result[k++] = members[i][j];
+                }
+            }
+            assigned = result;
+            candidates = null;
+            members = null;
+            busy = null;
+            return moves;
+        }
+
+        /**
+         * Computes the candidates of the shifts from {@code from} to {@code to}: the volunteers with a window covering
+         * the shift whose commitments neither overlap it nor leave too few minutes of the week for it. Runs before any
+         * assignment, while {@link #minutes} holds the commitments only.
+         */
+        void findCandidates(int from, int to) {
+            int[] seen = new int[problem.volunteers];
+            for (int i = from; i < to; i++) {
+                int[] found = problem.candidatesOf(shifts[i], seen, i - from + 1);
+                int count = 0;
+                for (int v : found) {
+                    if (minutes[v] + duration(i) <= problem.maxMinutes[v] && !overlapsFixed(v, i)) {
+                        found[count++] = v;
+                    }
+                }
+                candidates[i] = count == found.length ? found : Arrays.copyOf(found, count);
+            }
+        }
+
+        /**
+         * Fills the shifts with the fewest candidates per place first, each place with the least loaded candidate.
+         */
+        private void construct() {
+            Integer[] order = new Integer[shifts.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byScarcity = Long.compare((long) candidates[a].length * members[b].length,
+                        (long) candidates[b].length * members[a].length);
+                return byScarcity != 0 ? byScarcity : Long.compare(start(a), start(b));
+            });
+            for (int i : order) {
+                while (filled[i] < members[i].length) {
+                    int v = leastLoadedFit(i);
+                    if (v < 0) {
+                        break;
+                    }
+                    assign(v, i);
+                }
+            }
+        }
+
+        /**
+         * Offers the open places to their candidates until no place can be filled, then perturbs the assignment and
+         * tries again, until the deadline or until every place that has as many candidates is filled.
+         */
+        private long improve(long deadline) {
+            long moves = 0;
+            int[] order = new int[shifts.length];
+            int bound = 0;
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+                bound += Math.min(members[i].length, candidates[i].length);
+            }
+            while (totalFilled < bound && System.nanoTime() < deadline) {
+                int gained = fillOpenPlaces(order, deadline);
+                moves += gained;
+                if (gained > 0) {
+                    continue;
+                }
+                // A local optimum: undo a few assignments at random and refill, unless that loses places.
+                int before = totalFilled;
+                log = new int[64];
+                logSize = 0;
+                int kicks = Math.max(1, totalFilled / 50);
+                for (int k = 0; k < kicks && totalFilled > 0; k++) {
+                    int i = random.nextInt(shifts.length);
+                    if (filled[i] > 0) {
+                        unassign(members[i][random.nextInt(filled[i])], i);
+                    }
+                }
+                while (System.nanoTime() < deadline && fillOpenPlaces(order, deadline) > 0) {
+                    // Refill until nothing more fits.
+                }
+                if (totalFilled < before) {
+                    revert();
+                } else {
+                    moves += totalFilled - before + 1;
+                }
+                logSize = -1;
+                log = null;
+            }
+            return moves;
+        }
+
+        /**
+         * Makes one pass over the shifts in random order, filling every open place that can be filled directly or
+         * through an ejection, and returns the number of places filled.
+         */
+        private int fillOpenPlaces(int[] order, long deadline) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            int gained = 0;
+            for (int i : order) {
+                if (filled[i] == members[i].length) {
+                    continue;
+                }
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                while (filled[i] < members[i].length) {
+                    int v = leastLoadedFit(i);
+                    if (v >= 0) {
+                        assign(v, i);
+                    } else if (!eject(i)) {
+                        break;
+                    }
+                    gained++;
+                }
+            }
+            return gained;
+        }
+
+        /**
+         * Fills a place of shift {@code i} with a candidate who is kept out of it by a single other shift, moving that
+         * shift to another candidate.
+         */
+        private boolean eject(int i) {
+            int[] list = candidates[i];
+            if (list.length == 0) {
+                return false;
+            }
+            int offset = random.nextInt(list.length);
+            int duration = duration(i);
+            for (int c = 0; c < list.length; c++) {
+                int v = list[(c + offset) % list.length];
+                if (isMember(v, i)) {
+                    continue;
+                }
+                int blocking = -1;
+                boolean blocked = false;
+                for (int b = 0; b < busyCount[v]; b++) {
+                    int other = busy[v][b];
+                    if (overlaps(other, i)) {
+                        if (blocking >= 0) {
+                            blocked = true;
+                            break;
+                        }
+                        blocking = other;
+                    }
+                }
+                if (blocked) {
+                    continue;
+                }
+                int excess = minutes[v] + duration - problem.maxMinutes[v];
+                if (blocking >= 0) {
+                    if (excess - duration(blocking) <= 0 && moveToAnother(v, blocking, i)) {
+                        return true;
+                    }
+                } else if (excess <= 0) {
+                    assign(v, i);
+                    return true;
+                } else {
+                    for (int b = 0; b < busyCount[v]; b++) {
+                        int other = busy[v][b];
+                        if (duration(other) >= excess && moveToAnother(v, other, i)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Gives the place of volunteer {@code v} on shift {@code from} to another candidate that fits, and moves
+         * {@code v} to shift {@code to}.
+         */
+        private boolean moveToAnother(int v, int from, int to) {
+            int[] list = candidates[from];
+            int offset = list.length == 0 ? 0 : random.nextInt(list.length);
+            for (int c = 0; c < list.length; c++) {
+                int w = list[(c + offset) % list.length];
+                if (w != v && fits(w, from)) {
+                    unassign(v, from);
+                    assign(v, to);
+                    assign(w, from);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the least loaded of the first few candidates of shift {@code i} that fit, from a random offset, or
+         * {@code -1} if none fits.
+         */
+        private int leastLoadedFit(int i) {
+            int[] list = candidates[i];
+            int offset = list.length == 0 ? 0 : random.nextInt(list.length);
+            int best = -1;
+            double bestLoad = Double.MAX_VALUE;
+            int sampled = 0;
+            for (int c = 0; c < list.length && sampled < SAMPLE; c++) {
+                int v = list[(c + offset) % list.length];
+                if (fits(v, i)) {
+                    sampled++;
+                    double load = (double) minutes[v] / Math.max(1, problem.maxMinutes[v]);
+                    if (load < bestLoad) {
+                        best = v;
+                        bestLoad = load;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private boolean fits(int v, int i) {
+            if (minutes[v] + duration(i) > problem.maxMinutes[v] || isMember(v, i)) {
+                return false;
+            }
+            for (int b = 0; b < busyCount[v]; b++) {
+                if (overlaps(busy[v][b], i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isMember(int v, int i) {
+            for (int j = 0; j < filled[i]; j++) {
+                if (members[i][j] == v) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean overlapsFixed(int v, int i) {
+            long[] intervals = problem.fixed[v];
+            for (int k = 0; intervals != null && k < intervals.length; k += 2) {
+                if (intervals[k] < end(i) && intervals[k + 1] > start(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean overlaps(int a, int b) {
+            return start(a) < end(b) && start(b) < end(a);
+        }
+
+        private void assign(int v, int i) {
+            members[i][filled[i]++] = v;
+            minutes[v] += duration(i);
+            if (busy[v] == null) {
+                busy[v] = new int[4];
+            } else if (busyCount[v] == busy[v].length) {
+                busy[v] = Arrays.copyOf(busy[v], busyCount[v] * 2);
+            }
+            busy[v][busyCount[v]++] = i;
+            totalFilled++;
+            record(v, i, true);
+        }
+
+        private void unassign(int v, int i) {
+            for (int j = 0; j < filled[i]; j++) {
+                if (members[i][j] == v) {
+                    members[i][j] = members[i][--filled[i]];
+                    break;
+                }
+            }
+            minutes[v] -= duration(i);
+            for (int b = 0; b < busyCount[v]; b++) {
+                if (busy[v][b] == i) {
+                    busy[v][b] = busy[v][--busyCount[v]];
+                    break;
+                }
+            }
+            totalFilled--;
+            record(v, i, false);
+        }
+
+        /**
+         * Records a change while a perturbation is being tried, so that it can be reverted.
+         */
+        private void record(int v, int i, boolean added) {
+            if (logSize < 0) {
+                return;
+            }
+            if (logSize + 2 > log.length) {
+                log = Arrays.copyOf(log, log.length * 2);
+            }
+            log[logSize++] = added ? i : ~i;
+            log[logSize++] = v;
+        }
+
+        private void revert() {
+            int size = logSize;
+            logSize = -1;
+            for (int k = size - 2; k >= 0; k -= 2) {
+                int i = log[k];
+                int v = log[k + 1];
+                if (i >= 0) {
+                    unassign(v, i);
+                } else {
+                    assign(v, ~i);
+                }
+            }
+        }
+
+        private long start(int i) {
+            return problem.start[shifts[i]];
+        }
+
+        private long end(int i) {
+            return problem.end[shifts[i]];
+        }
+
+        private int duration(int i) {
+            return (int) (end(i) - start(i));
+        }
+    }
+}
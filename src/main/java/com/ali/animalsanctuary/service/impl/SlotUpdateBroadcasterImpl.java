@@ -0,0 +1,350 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.VisitSlotState;
+import com.ali.animalsanctuary.event.VisitSlotChangedEvent;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.SlotUpdateBroadcaster;
+import com.ali.animalsanctuary.service.VisitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the {@link SlotUpdateBroadcaster} interface fanning slot changes out to server-sent event streams.
+ *
+ * <p>An open stream holds no thread: the request is switched to asynchronous mode and the connection waits in the
+ * servlet container's non-blocking connector, so thousands of idle browsers cost one small object each. Writes are
+ * made by a small fixed pool of sender threads.
+ *
+ * <p>Changes are coalesced twice. Committed changes only mark their slot as dirty, and a single broadcast thread turns
+ * the dirty slots into their current states once per flush interval, however many times each slot changed. Each
+ * stream then has its own pending map of slot states, where a newer state of a slot replaces the one not yet sent.
+ * A stream is written by at most one sender at a time, so a slow browser only delays its own events while the
+ * others keep flowing; its pending map keeps absorbing changes meanwhile, and once it holds more slots than
+ * {@code sanctuary.visits.live.max-pending} it is replaced by a single {@code reload} event.
+ *
+ * <p>A write to a browser that stopped reading blocks its sender. Once a write has been blocked for longer than
+ * {@code sanctuary.visits.live.send-timeout-ms}, the stream is dropped and the pool gets an extra sender standing in
+ * for the blocked one until its write returns, so the other streams keep all their senders; the stream is then
+ * closed, and the page reloads itself when the browser reconnects.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #subscribe()}: Opens a new event stream.</li>
+ *     <li>{@link #getSubscriberCount()}: Counts the open event streams.</li>
+ *     <li>{@link #onSlotChanged(VisitSlotChangedEvent)}: Marks a changed slot for the next broadcast.</li>
+ * </ul>
+ *
+ * @see SlotUpdateBroadcaster
+ * @see VisitSlotState
+ */
+
+@Service
+public class SlotUpdateBroadcasterImpl implements SlotUpdateBroadcaster, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotUpdateBroadcasterImpl.class);
+
+    /**
+     * One open event stream with the slot states waiting to be sent to it.
+     */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        // When the current write started, IDLE between writes, or EXPIRED once the write took too long.
+        final AtomicLong sendStartedAt = new AtomicLong(IDLE);
+        // Guarded by this.
+        final Map<Long, VisitSlotState> pending = new LinkedHashMap<>();
+        boolean reload;
+        boolean heartbeat;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private static final long IDLE = 0;
+    private static final long EXPIRED = -1;
+
+    private final VisitService visitService;
+    private final ScheduleIndex scheduleIndex;
+    private final long timeoutMs;
+    private final int maxPending;
+    private final int senderThreads;
+    private final long sendTimeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor senders;
+    // The number of senders blocked in a write that timed out. Guarded by senders.
+    private int blockedSenders;
+
+    /**
+     * Constructs a new {@link SlotUpdateBroadcasterImpl} and starts its broadcast and sender threads.
+     *
+     * @param visitService    the service counting the seats left on a slot.
+     * @param scheduleIndex   the index telling whether a slot still exists.
+     * @param flushIntervalMs how often, in milliseconds, the dirty slots are broadcast.
+     * @param heartbeatMs     how often, in milliseconds, idle streams are sent a comment to keep proxies from closing
+     *                        them.
+     * @param timeoutMs       how long, in milliseconds, a stream stays open before the browser reconnects.
+     * @param maxPending      the number of unsent slot states after which a stream is asked to reload instead.
+     * @param senderThreads   the number of threads writing to the streams.
+     * @param sendTimeoutMs   how long, in milliseconds, a write may block before its stream is dropped.
+     */
+    public SlotUpdateBroadcasterImpl(VisitService visitService, ScheduleIndex scheduleIndex,
+                                     @Value("${sanctuary.visits.live.flush-interval-ms:250}") long flushIntervalMs,
+                                     @Value("${sanctuary.visits.live.heartbeat-ms:25000}") long heartbeatMs,
+                                     @Value("${sanctuary.visits.live.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${sanctuary.visits.live.max-pending:500}") int maxPending,
+                                     @Value("${sanctuary.visits.live.sender-threads:4}") int senderThreads,
+                                     @Value("${sanctuary.visits.live.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.visitService = visitService;
+        this.scheduleIndex = scheduleIndex;
+        this.timeoutMs = timeoutMs;
+        this.maxPending = maxPending;
+        this.senderThreads = senderThreads;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visit-slot-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "visit-slot-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalMs = Math.max(1, sendTimeoutMs / 2);
+        scheduler.scheduleWithFixedDelay(this::broadcast, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::expireBlockedSends, checkIntervalMs, checkIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a new event stream receiving the changes of all visit slots. The stream is dropped when the browser goes
+     * away, a write fails, or it times out.
+     *
+     * @return the {@link SseEmitter} to return from the request handler.
+     */
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = createEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Creates the emitter of a new event stream.
+     *
+     * @param timeoutMs how long, in milliseconds, the stream stays open.
+     * @return a new {@link SseEmitter}.
+     */
+    protected SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Counts the open event streams.
+     *
+     * @return the number of connected browsers.
+     */
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Marks a changed slot for the next broadcast. Runs on the thread that committed the change and returns at once.
+     *
+     * @param event the event naming the slot.
+     */
+    @EventListener
+    public void onSlotChanged(VisitSlotChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            dirty.add(event.getVisitId());
+        }
+    }
+
+    /**
+     * Stops the broadcast and sender threads and closes the open streams.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Reads the current state of every dirty slot and queues it for every stream.
+     */
+    private void broadcast() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            List<VisitSlotState> states = new ArrayList<>();
+            for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+                Long visitId = it.next();
+                // Removed before reading, so a change committed meanwhile marks the slot dirty again.
+                it.remove();
+                states.add(stateOf(visitId));
+            }
+            for (Subscriber subscriber : subscribers) {
+                synchronized (subscriber) {
+                    if (!subscriber.reload) {
+                        states.forEach(state -> subscriber.pending.put(state.getId(), state));
+                        if (subscriber.pending.size() > maxPending) {
+                            subscriber.pending.clear();
+                            subscriber.reload = true;
+                        }
+                    }
+                }
+                schedule(subscriber);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to broadcast visit slot changes", e);
+        }
+    }
+
+    private VisitSlotState stateOf(Long visitId) {
+        if (scheduleIndex.getVisitStart(visitId) == null) {
+            return new VisitSlotState(visitId, 0, true);
+        }
+        return new VisitSlotState(visitId, visitService.getSeatsLeft(visitId), false);
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                subscriber.heartbeat = true;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Drops the streams whose current write has been blocked for too long, and adds a sender standing in for each
+     * sender stuck in such a write.
+     */
+    private void expireBlockedSends() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.sendStartedAt.get();
+            if (startedAt > IDLE && now - startedAt > sendTimeoutMs
+                    && subscriber.sendStartedAt.compareAndSet(startedAt, EXPIRED)) {
+                subscribers.remove(subscriber);
+                resizeSenders(1);
+                logger.info("Dropped a visit slot stream blocked for {} ms", now - startedAt);
+            }
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            blockedSenders += delta;
+            int size = senderThreads + blockedSenders;
+            // The core size may never exceed the maximum size, so the order depends on the direction.
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Hands a stream to a sender unless one is already writing to it; that sender picks up the new states before it
+     * lets go.
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            List<VisitSlotState> states;
+            boolean reload;
+            boolean heartbeat;
+            synchronized (subscriber) {
+                states = new ArrayList<>(subscriber.pending.values());
+                reload = subscriber.reload;
+                heartbeat = subscriber.heartbeat;
+                subscriber.pending.clear();
+                subscriber.reload = false;
+                subscriber.heartbeat = false;
+            }
+            if (states.isEmpty() && !reload && !heartbeat) {
+                subscriber.sending.set(false);
+                // A state queued after the check above but before the flag was cleared found the stream still taken.
+                synchronized (subscriber) {
+                    if (subscriber.pending.isEmpty() && !subscriber.reload && !subscriber.heartbeat
+                            || !subscriber.sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            subscriber.sendStartedAt.set(System.currentTimeMillis());
+            boolean failed = false;
+            try {
+                if (reload) {
+                    subscriber.emitter.send(SseEmitter.event().name("reload").data(""));
+                } else if (!states.isEmpty()) {
+                    subscriber.emitter.send(SseEmitter.event().name("slots").data(states, MediaType.APPLICATION_JSON));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The browser went away; the container completes the request itself.
+                failed = true;
+            }
+            boolean expired = subscriber.sendStartedAt.getAndSet(IDLE) == EXPIRED;
+            if (expired) {
+                resizeSenders(-1);
+                if (!failed) {
+                    // Closing the stream makes the browser reconnect and reload the states it missed.
+                    subscriber.emitter.complete();
+                }
+            }
+            if (failed || expired) {
+                subscribers.remove(subscriber);
+                return;
+            }
+        }
+    }
+}
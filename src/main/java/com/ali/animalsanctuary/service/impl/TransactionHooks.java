@@ -0,0 +1,53 @@
+package com.ali.animalsanctuary.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Defers updates of the in-memory indexes until the database transaction that caused them has committed, so that a
+ * rolled back write never shows up in an index.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Runs an action after the current transaction commits, or immediately when no transaction is active.
+     *
+     * @param action the action to run.
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction has ended, telling it whether the transaction committed, or
+     * immediately as committed when no transaction is active.
+     *
+     * @param action the action to run, given {@code true} if the transaction committed.
+     */
+    static void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.service.VisitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the visits that ended more than {@code sanctuary.visits.archive.min-age-days} ago out of the {@code visits}
+ * table on a fixed delay, so that the table holds upcoming and recent visits only and stays roughly constant in size.
+ *
+ * Each run archives batches of {@code sanctuary.visits.archive.batch-size} visits, one transaction per batch, until a
+ * batch comes back short. A run that fails is logged and retried on the next one; the visits it did not move stay in
+ * the {@code visits} table meanwhile.
+ *
+ * @see VisitService#archiveVisitsEndedBefore(LocalDateTime, int)
+ */
+@Component
+public class VisitArchiver implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitArchiver.class);
+
+    private final VisitService visitService;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new {@link VisitArchiver} and starts its background thread.
+     *
+     * @param visitService   the service archiving the visits.
+     * @param minAgeDays     how many days ago a visit must have ended to be archived.
+     * @param batchSize      the number of visits archived per transaction.
+     * @param initialDelayMs how long, in milliseconds, after startup the first run starts.
+     * @param intervalMs     how long, in milliseconds, to wait between runs.
+     */
+    public VisitArchiver(VisitService visitService,
+                         @Value("${sanctuary.visits.archive.min-age-days:30}") int minAgeDays,
+                         @Value("${sanctuary.visits.archive.batch-size:1000}") int batchSize,
+                         @Value("${sanctuary.visits.archive.initial-delay-ms:60000}") long initialDelayMs,
+                         @Value("${sanctuary.visits.archive.interval-ms:3600000}") long intervalMs) {
+        this.visitService = visitService;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visit-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archive, initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Archives every visit that ended before the cutoff, in batches.
+     *
+     * @return the number of visits archived.
+     */
+    public int archive() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = visitService.archiveVisitsEndedBefore(cutoff, batchSize);
+                archived += moved;
+            } while (moved == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to archive past visits after moving {} of them", archived, e);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} visits that ended before {} in {} ms", archived, cutoff,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.entity.VisitBooking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings visits booked before slots had seats in line with the seat model.
+ *
+ * Visits used to be single-seat slots whose visitor was only recorded in {@code visits.user_id}. When the
+ * {@code capacity} and {@code seats_left} columns were added, every existing row got one seat of each, including the
+ * booked ones, and the {@code visit_bookings} table started out empty. Before the application starts serving
+ * requests, and before the schedule index is built from the bookings, this component marks the seat of every
+ * unavailable slot as taken and records a booking for every visitor who has none. Both statements only touch rows
+ * that are still out of line, so running them again changes nothing.
+ *
+ * @see Visit
+ * @see VisitBooking
+ */
+
+@Component
+@DependsOn("entityManagerFactory")
+public class VisitSeatMigration implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitSeatMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new {@link VisitSeatMigration}.
+     *
+     * @param jdbcTemplate the template used to update the visits and insert the bookings.
+     */
+    public VisitSeatMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int full = jdbcTemplate.update("UPDATE visits SET seats_left = 0 WHERE available = false AND seats_left > 0");
+        int booked = jdbcTemplate.update("INSERT INTO visit_bookings (visit_id, user_id, seats, created_at) "
+                + "SELECT v.id, v.user_id, 1, CURRENT_TIMESTAMP FROM visits v WHERE v.user_id IS NOT NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM visit_bookings b WHERE b.visit_id = v.id)");
+        if (full > 0 || booked > 0) {
+            logger.info("Marked {} booked visits as full and recorded {} existing bookings", full, booked);
+        }
+    }
+}
@@ -1,13 +1,42 @@
 package com.ali.animalsanctuary.service.impl;
 
+import com.ali.animalsanctuary.dto.CursorPage;
+import com.ali.animalsanctuary.dto.ListingVersion;
+import com.ali.animalsanctuary.dto.SlotGenerationResult;
 import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.dto.VisitRecurrence;
+import com.ali.animalsanctuary.dto.VisitSeats;
+import com.ali.animalsanctuary.dto.VisitTimes;
+import com.ali.animalsanctuary.dto.VisitUsage;
+import com.ali.animalsanctuary.dto.WaitlistPlace;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.event.VisitSeatsFreedEvent;
+import com.ali.animalsanctuary.event.VisitSlotChangedEvent;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
 import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
 import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.repository.VisitWaitlistRepository;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import com.ali.animalsanctuary.service.ScheduleIndex;
 import com.ali.animalsanctuary.service.VisitService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,15 +47,45 @@ import java.util.Optional;
  * handling operations related to {@link Visit} entities, including creating, updating, deleting, and retrieving visits.
  * It also supports booking and canceling visits and retrieving available visits.
  *
+ * <p>A visit slot offers one or more seats. Seats are taken with a conditional decrement guarded in SQL and recorded
+ * as a {@link com.ali.animalsanctuary.entity.VisitBooking} in the same transaction, so a slot is never oversold and
+ * concurrent bookings of one slot only wait for its row lock, never for a Java lock. Remaining-seat reads are
+ * answered from an in-memory {@link SeatCounter}.
+ *
+ * <p>Users who find a slot full can join its waitlist. While anyone waits, direct bookings of the slot are refused,
+ * and seats freed by cancellations or a larger capacity are handed to the waiting users strictly in the order they
+ * joined. The hand-over happens off the request thread: once the change commits, a {@link VisitSeatsFreedEvent} is
+ * published and the {@link WaitlistPromoter} promotes the waitlist in batches.
+ *
+ * <p>Every committed change to the seats or existence of a slot also publishes a {@link VisitSlotChangedEvent}, which
+ * the {@link com.ali.animalsanctuary.service.SlotUpdateBroadcaster} pushes to the browsers showing the visits page.
+ *
+ * <p>Every change to a visit slot is mirrored into the {@link ScheduleIndex} and the {@link AvailabilityCalendar}
+ * once it commits. The index rejects slots overlapping another slot and bookings that would put a user in two places
+ * at once, and the calendar answers which days have openings, both without querying the visits table. Since the index
+ * trails the commits, it is only a fast pre-filter: a change it lets through is checked again in SQL under a row lock
+ * taken by the {@link ScheduleGuard}, so concurrent changes cannot both pass.
+ *
  * <p>Methods:
  * <ul>
  *     <li>{@link #createVisit(VisitDto)}: Creates a new {@link Visit} entity based on the provided {@link VisitDto} data transfer object.</li>
+ *     <li>{@link #generateVisits(VisitRecurrence)}: Expands a recurring schedule into visit slots and inserts them in JDBC batches.</li>
  *     <li>{@link #updateVisit(VisitDto)}: Updates an existing {@link Visit} entity with new information from the {@link VisitDto} data transfer object.</li>
  *     <li>{@link #deleteVisit(Long)}: Deletes the {@link Visit} entity with the specified ID.</li>
- *     <li>{@link #getAvailableVisits()}: Retrieves a list of all available {@link Visit} entities.</li>
+ *     <li>{@link #findAvailableVisits(LocalDateTime, LocalDateTime, String, String, int)}: Retrieves one keyset paginated page of the available {@link Visit} entities in a time window.</li>
  *     <li>{@link #getVisitById(Long)}: Retrieves an {@link Optional} containing the {@link Visit} entity with the specified ID, if it is available.</li>
- *     <li>{@link #bookVisit(Long, Long)}: Books a visit slot for a user, making it unavailable if the slot is currently available.</li>
- *     <li>{@link #cancelVisit(Long)}: Cancels a booking for a visit slot, making it available again.</li>
+ *     <li>{@link #bookVisit(Long, Long)}: Books one seat of a visit slot for a user.</li>
+ *     <li>{@link #bookSeats(Long, Long, int)}: Books seats of a visit slot for a user with a single conditional update, making it unavailable once no seats are left.</li>
+ *     <li>{@link #cancelBooking(Long, Long)}: Cancels the seats a user booked on a visit slot, making it available again.</li>
+ *     <li>{@link #cancelVisit(Long)}: Cancels every booking of a visit slot, making it available again.</li>
+ *     <li>{@link #joinWaitlist(Long, Long, int)}: Puts a user at the end of the waitlist of a visit slot.</li>
+ *     <li>{@link #leaveWaitlist(Long, Long)}: Takes a user off the waitlist of a visit slot.</li>
+ *     <li>{@link #promoteWaitlist(Long, Long, int)}: Books freed seats for a batch of users on the waitlist of a visit slot.</li>
+ *     <li>{@link #getSeatsLeft(Long)}: Counts the seats left on a visit slot from memory.</li>
+ *     <li>{@link #getBookedSeats(Long, Long)}: Counts the seats a user booked on a visit slot.</li>
+ *     <li>{@link #getListingVersion()}: Summarizes the visits for validating cached listing pages.</li>
+ *     <li>{@link #archiveVisitsEndedBefore(LocalDateTime, int)}: Moves a batch of past visits and their bookings into the archive tables in one transaction.</li>
+ *     <li>{@link #findVisitUsage(LocalDateTime, LocalDateTime, boolean)}: Reports the seats booked on the visits in a time range, optionally unioning in the archive.</li>
  * </ul>
  *
  * @see Visit
@@ -37,48 +96,285 @@ import java.util.Optional;
 @Service
 public class VisitServiceImpl implements VisitService {
 
+    private static final Logger logger = LoggerFactory.getLogger(VisitServiceImpl.class);
+
+    /**
+     * The number of slot inserts sent to the database per JDBC batch.
+     */
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    /**
+     * The longest schedule that can be generated at once.
+     */
+    private static final int MAX_SCHEDULE_DAYS = 366;
+
     private final VisitRepository visitRepository;
+    private final VisitBookingRepository visitBookingRepository;
+    private final VisitWaitlistRepository visitWaitlistRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduleIndex scheduleIndex;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleGuard scheduleGuard;
+    private final SeatCounter seatCounter;
 
     /**
      * Constructs a new {@link VisitServiceImpl} with the specified {@link VisitRepository} and {@link UserRepository}.
      *
-     * @param visitRepository the repository for managing {@link Visit} entities.
-     * @param userRepository  the repository for managing {@link User} entities.
+     * @param visitRepository        the repository for managing {@link Visit} entities.
+     * @param visitBookingRepository  the repository recording who booked the seats of a visit.
+     * @param visitWaitlistRepository the repository of the users waiting for seats of a visit.
+     * @param userRepository          the repository for managing {@link User} entities.
+     * @param jdbcTemplate            the template used to insert generated slots in batches.
+     * @param scheduleIndex           the index checking slots and bookings for overlaps.
+     * @param availabilityCalendar    the calendar of open slots.
+     * @param eventPublisher          the publisher announcing committed slot changes.
+     * @param scheduleGuard           the guard serializing the overlap checks in the database.
      */
-    public VisitServiceImpl(VisitRepository visitRepository, UserRepository userRepository) {
+    public VisitServiceImpl(VisitRepository visitRepository, VisitBookingRepository visitBookingRepository,
+                            VisitWaitlistRepository visitWaitlistRepository, UserRepository userRepository,
+                            JdbcTemplate jdbcTemplate, ScheduleIndex scheduleIndex,
+                            AvailabilityCalendar availabilityCalendar, ApplicationEventPublisher eventPublisher,
+                            ScheduleGuard scheduleGuard) {
         this.visitRepository = visitRepository;
+        this.visitBookingRepository = visitBookingRepository;
+        this.visitWaitlistRepository = visitWaitlistRepository;
         this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduleIndex = scheduleIndex;
+        this.availabilityCalendar = availabilityCalendar;
+        this.eventPublisher = eventPublisher;
+        this.scheduleGuard = scheduleGuard;
+        this.seatCounter = new SeatCounter(visitRepository);
     }
 
     /**
      * Creates a new {@link Visit} entity based on the provided {@link VisitDto} data transfer object.
      *
      * @param visitDto the {@link VisitDto} containing information to create a new {@link Visit}.
+     * @throws ScheduleConflictException if the visit overlaps another visit slot.
      */
     @Override
+    @Transactional
     public void createVisit(VisitDto visitDto) {
+        checkNoOverlap(visitDto.getStartTime(), visitDto.getEndTime(), null);
         Visit visit = new Visit();
         visit.setStartTime(visitDto.getStartTime());
         visit.setEndTime(visitDto.getEndTime());
+        visit.setCapacity(capacityOf(visitDto.getCapacity()));
+        visit.setSeatsLeft(visit.getCapacity());
         visit.setAvailable(true);
-        visitRepository.save(visit);
+        Visit saved = visitRepository.save(visit);
+        TransactionHooks.afterCommit(() -> {
+            scheduleIndex.putVisit(saved.getId(), saved.getStartTime(), saved.getEndTime());
+            availabilityCalendar.open(saved.getStartTime());
+        });
+    }
+
+    /**
+     * Returns the number of seats requested for a slot, defaulting to one.
+     */
+    private static int capacityOf(Integer capacity) {
+        return capacity == null || capacity < 1 ? 1 : capacity;
+    }
+
+    /**
+     * Throws if a visit slot other than the specified one overlaps a time range. A range the index finds free is
+     * checked again in SQL with the visit schedule locked, which keeps it locked until the slot is written.
+     */
+    private void checkNoOverlap(LocalDateTime start, LocalDateTime end, Long visitId) {
+        if (start == null || end == null) {
+            return;
+        }
+        if (!end.isAfter(start)) {
+            throw new ScheduleConflictException("A visit must end after it starts");
+        }
+        if (!isWholeMinute(start.toLocalTime())) {
+            // The availability calendar tells slots apart by the minute they start at.
+            throw new ScheduleConflictException("A visit must start on a whole minute");
+        }
+        if (scheduleIndex.findVisitsOverlapping(start, end).stream().anyMatch(id -> !id.equals(visitId))) {
+            throw new ScheduleConflictException("The visit overlaps another visit slot");
+        }
+        scheduleGuard.lockSchedule(ScheduleGuard.VISITS);
+        if (visitRepository.existsOverlapping(start, end, visitId)) {
+            throw new ScheduleConflictException("The visit overlaps another visit slot");
+        }
+    }
+
+    /**
+     * Throws if a user holds seats on a visit slot or has another commitment at the same time. The
+     * {@link ScheduleIndex} answers first; if it finds the user free, their row is locked and the check repeated in
+     * SQL, so concurrent bookings of one user are checked one at a time. The user's row is locked before the row of
+     * the slot, like every booking and sign-up does. A second booking of the same slot that gets past the index is
+     * rejected by the unique {@code (visit_id, user_id)} key.
+     */
+    private void checkUserCanBook(Long visitId, Long userId) {
+        if (scheduleIndex.isVisitMember(visitId, userId)) {
+            throw new ScheduleConflictException("You have already booked this visit");
+        }
+        if (scheduleIndex.isUserBusyDuringVisit(userId, visitId)) {
+            throw new ScheduleConflictException("You already have a visit or volunteer shift at that time");
+        }
+        scheduleGuard.lockUsers(List.of(userId));
+        Optional<VisitTimes> times = visitRepository.findTimesById(visitId);
+        if (times.isPresent()) {
+            scheduleGuard.checkUserFree(userId, times.get().getStartTime(), times.get().getEndTime(), visitId, null);
+        }
+    }
+
+    /**
+     * Creates the visit slots of a recurring schedule, leaving out slots that overlap existing visits.
+     *
+     * <p>The schedule is expanded into slots in start time order, then the times of every visit in the schedule's
+     * range are read with one query and swept alongside the slots to drop the overlapping ones. The remaining slots
+     * are inserted with plain JDBC batches rather than through the entity manager, because the identity IDs of
+     * {@link Visit} would make Hibernate insert them one statement at a time. The row of the visit schedule is locked
+     * before the existing visits are read, so generations and single visits created at the same time are checked one
+     * after the other and never insert overlapping slots.
+     *
+     * @param recurrence the {@link VisitRecurrence} describing the schedule.
+     * @return the {@link SlotGenerationResult} counting the created and skipped slots.
+     * @throws IllegalArgumentException if the schedule is incomplete or too long.
+     */
+    @Override
+    @Transactional
+    public SlotGenerationResult generateVisits(VisitRecurrence recurrence) {
+        long started = System.nanoTime();
+        List<LocalDateTime> starts = expand(recurrence);
+        if (starts.isEmpty()) {
+            return new SlotGenerationResult(0, 0, 0);
+        }
+        long slotMinutes = recurrence.getSlotMinutes();
+        LocalDateTime rangeStart = starts.get(0);
+        LocalDateTime rangeEnd = starts.get(starts.size() - 1).plusMinutes(slotMinutes);
+        scheduleGuard.lockSchedule(ScheduleGuard.VISITS);
+        List<VisitTimes> existing = visitRepository.findTimesOverlapping(rangeStart, rangeEnd);
+
+        // Slots and existing visits are both in start time order. Every existing visit starting before the end of the
+        // current slot is consumed; the slot overlaps one of them exactly when the latest end among them is after the
+        // slot's start. Slot ends only grow, so each existing visit is consumed once.
+        List<LocalDateTime> free = new ArrayList<>(starts.size());
+        int next = 0;
+        LocalDateTime latestEnd = LocalDateTime.MIN;
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plusMinutes(slotMinutes);
+            while (next < existing.size() && existing.get(next).getStartTime().isBefore(end)) {
+                LocalDateTime existingEnd = existing.get(next).getEndTime();
+                if (existingEnd.isAfter(latestEnd)) {
+                    latestEnd = existingEnd;
+                }
+                next++;
+            }
+            if (!latestEnd.isAfter(start)) {
+                free.add(start);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int capacity = capacityOf(recurrence.getCapacity());
+        jdbcTemplate.batchUpdate("INSERT INTO visits (start_time, end_time, capacity, seats_left, available, updated_at) "
+                        + "VALUES (?, ?, ?, ?, true, ?)",
+                free, INSERT_BATCH_SIZE, (ps, start) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(start));
+                    ps.setTimestamp(2, Timestamp.valueOf(start.plusMinutes(slotMinutes)));
+                    ps.setInt(3, capacity);
+                    ps.setInt(4, capacity);
+                    ps.setTimestamp(5, now);
+                });
+        if (!free.isEmpty()) {
+            List<VisitTimes> created = visitRepository.findTimesOverlapping(rangeStart, rangeEnd);
+            TransactionHooks.afterCommit(() -> {
+                created.forEach(visit -> scheduleIndex.putVisit(visit.getId(), visit.getStartTime(),
+                        visit.getEndTime()));
+                free.forEach(availabilityCalendar::open);
+            });
+        }
+        return new SlotGenerationResult(free.size(), starts.size() - free.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Lists the start times of the slots of a recurring schedule in ascending order.
+     */
+    private static List<LocalDateTime> expand(VisitRecurrence recurrence) {
+        LocalDate startDate = recurrence.getStartDate();
+        LocalDate endDate = recurrence.getEndDate();
+        if (startDate == null || endDate == null || recurrence.getDayStart() == null || recurrence.getDayEnd() == null
+                || recurrence.getDaysOfWeek() == null || recurrence.getDaysOfWeek().isEmpty()) {
+            throw new IllegalArgumentException("Dates, times and at least one day of the week are required");
+        }
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_SCHEDULE_DAYS) {
+            throw new IllegalArgumentException("The schedule must end after it starts and span at most "
+                    + MAX_SCHEDULE_DAYS + " days");
+        }
+        if (recurrence.getSlotMinutes() <= 0 || !recurrence.getDayStart().isBefore(recurrence.getDayEnd())) {
+            throw new IllegalArgumentException("Slots must be longer than zero minutes and the day must end after it starts");
+        }
+        if (!isWholeMinute(recurrence.getDayStart())) {
+            throw new IllegalArgumentException("The first slot of the day must start on a whole minute");
+        }
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!recurrence.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime dayEnd = date.atTime(recurrence.getDayEnd());
+            for (LocalDateTime start = date.atTime(recurrence.getDayStart());
+                 !start.plusMinutes(recurrence.getSlotMinutes()).isAfter(dayEnd);
+                 start = start.plusMinutes(recurrence.getSlotMinutes())) {
+                starts.add(start);
+            }
+        }
+        return starts;
     }
 
     /**
      * Updates an existing {@link Visit} entity with new information from the provided {@link VisitDto} data transfer object.
      *
+     * <p>A new capacity is applied with a conditional update that keeps the seats already booked, so it cannot race
+     * with concurrent bookings, and only the changed columns of the visit are written.
+     *
      * @param visitDto the {@link VisitDto} containing updated information for an existing {@link Visit}.
      * @throws RuntimeException if the visit with the specified ID is not found.
+     * @throws ScheduleConflictException if the new times overlap another visit slot, or more seats are booked than
+     * the new capacity.
      */
     @Override
+    @Transactional
     public void updateVisit(VisitDto visitDto) {
         Optional<Visit> optionalVisit = visitRepository.findById(visitDto.getId());
         if (optionalVisit.isPresent()) {
+            checkNoOverlap(visitDto.getStartTime(), visitDto.getEndTime(), visitDto.getId());
             Visit visit = optionalVisit.get();
+            LocalDateTime previousStart = visit.getStartTime();
+            boolean wasAvailable = visit.isAvailable();
+            boolean grew = visitDto.getCapacity() != null && capacityOf(visitDto.getCapacity()) > visit.getCapacity();
+            if (visitDto.getCapacity() != null && visitDto.getCapacity() != visit.getCapacity()
+                    && visitRepository.resizeSeats(visit.getId(), capacityOf(visitDto.getCapacity())) == 0) {
+                throw new ScheduleConflictException("More seats are already booked than the new capacity");
+            }
             visit.setStartTime(visitDto.getStartTime());
             visit.setEndTime(visitDto.getEndTime());
-            visitRepository.save(visit);
+            Visit saved = visitRepository.save(visit);
+            boolean available = visitRepository.findSeatsById(saved.getId())
+                    .map(seats -> seats.getSeatsLeft() > 0).orElse(false);
+            TransactionHooks.afterCommit(() -> {
+                scheduleIndex.putVisit(saved.getId(), saved.getStartTime(), saved.getEndTime());
+                seatCounter.forget(saved.getId());
+                if (wasAvailable) {
+                    availabilityCalendar.close(previousStart);
+                }
+                if (available) {
+                    availabilityCalendar.open(saved.getStartTime());
+                }
+                if (grew) {
+                    eventPublisher.publishEvent(new VisitSeatsFreedEvent(saved.getId()));
+                }
+                eventPublisher.publishEvent(new VisitSlotChangedEvent(saved.getId()));
+            });
         } else {
             throw new RuntimeException("Visit not found");
         }
@@ -91,17 +387,62 @@ public class VisitServiceImpl implements VisitService {
      */
     @Override
     public void deleteVisit(Long id) {
-        visitRepository.deleteById(id);
+        visitRepository.findById(id).ifPresent(visit -> {
+            visitRepository.delete(visit);
+            TransactionHooks.afterCommit(() -> {
+                scheduleIndex.removeVisit(id);
+                seatCounter.forget(id);
+                if (visit.isAvailable()) {
+                    availabilityCalendar.close(visit.getStartTime());
+                }
+                eventPublisher.publishEvent(new VisitSlotChangedEvent(id));
+            });
+        });
     }
 
     /**
-     * Retrieves a list of all available {@link Visit} entities.
+     * Retrieves one page of the available {@link Visit} entities starting within a time window, in start time order.
+     *
+     * <p>Pages are addressed by keyset cursors of the form {@code <start time>_<id>}, taken from the first and last
+     * slots of the current page. One row more than the page size is fetched to learn whether another page follows in
+     * the direction of travel without a separate count query. A cursor that cannot be parsed is ignored and the
+     * first page is returned.
      *
-     * @return a list of available {@link Visit} entities.
+     * @param from   the start of the window, inclusive.
+     * @param to     the end of the window, exclusive, or {@code null} for no end.
+     * @param after  the {@code next} cursor of the previous page, or {@code null}.
+     * @param before the {@code previous} cursor of the following page, or {@code null}.
+     * @param size   the page size.
+     * @return a {@link CursorPage} of available {@link Visit} entities.
      */
     @Override
-    public List<Visit> getAvailableVisits() {
-        return visitRepository.findAllByAvailableTrue();
+    public CursorPage<Visit> findAvailableVisits(LocalDateTime from, LocalDateTime to, String after, String before,
+                                                 int size) {
+        Visit beforeCursor = parseCursor(before);
+        if (beforeCursor != null) {
+            List<Visit> visits = new ArrayList<>(visitRepository.findAvailableBefore(from, to,
+                    beforeCursor.getStartTime(), beforeCursor.getId(), Limit.of(size + 1)));
+            boolean hasPrevious = visits.size() > size;
+            if (hasPrevious) {
+                visits.remove(size);
+            }
+            Collections.reverse(visits);
+            String previous = hasPrevious ? cursorOf(visits.get(0)) : null;
+            String next = visits.isEmpty() ? null : cursorOf(visits.get(visits.size() - 1));
+            return new CursorPage<>(visits, next, previous);
+        }
+
+        Visit afterCursor = parseCursor(after);
+        List<Visit> visits = new ArrayList<>(visitRepository.findAvailableAfter(from, to,
+                afterCursor != null ? afterCursor.getStartTime() : from,
+                afterCursor != null ? afterCursor.getId() : 0L, Limit.of(size + 1)));
+        boolean hasNext = visits.size() > size;
+        if (hasNext) {
+            visits.remove(size);
+        }
+        String next = hasNext ? cursorOf(visits.get(visits.size() - 1)) : null;
+        String previous = afterCursor != null && !visits.isEmpty() ? cursorOf(visits.get(0)) : null;
+        return new CursorPage<>(visits, next, previous);
     }
 
     /**
@@ -116,47 +457,384 @@ public class VisitServiceImpl implements VisitService {
     }
 
     /**
-     * Books a visit slot for a user, making it unavailable if the slot is currently available.
+     * Books one seat of a visit slot for a user.
      *
      * @param visitId the ID of the {@link Visit} entity to be booked.
      * @param userId  the ID of the {@link User} entity booking the visit.
-     * @throws RuntimeException if the visit or user is not found, or if the visit slot is already booked.
+     * @return {@code true} if the visit was booked, {@code false} if the visit slot is already booked.
+     * @throws RuntimeException if the visit is not found.
+     * @throws ScheduleConflictException if the user already booked the visit or is busy at that time.
      */
     @Override
-    public void bookVisit(Long visitId, Long userId) {
-        Optional<Visit> optionalVisit = visitRepository.findById(visitId);
-        Optional<User> optionalUser = userRepository.findById(userId);
+    @Transactional
+    public boolean bookVisit(Long visitId, Long userId) {
+        return bookSeats(visitId, userId, 1);
+    }
 
-        if (optionalVisit.isPresent() && optionalUser.isPresent()) {
-            Visit visit = optionalVisit.get();
-            if (visit.isAvailable()) {
-                visit.setUser(optionalUser.get());
-                visit.setAvailable(false);
-                visitRepository.save(visit);
-            } else {
-                throw new RuntimeException("Visit slot is already booked");
-            }
-        } else {
-            throw new RuntimeException("Visit or User not found");
+    /**
+     * Books seats of a visit slot for a user, making it unavailable once no seats are left.
+     *
+     * <p>The seats are taken with one conditional {@code UPDATE} whose affected row count decides the outcome, so
+     * concurrent bookings of the same slot can never take more seats than it offers, and the booking is inserted in
+     * the same transaction. Concurrent bookings of one slot queue on its row lock in the database only: the seat
+     * count is never guarded by a Java lock, and the {@link ScheduleIndex} checks share its read lock. Only a failed booking looks
+     * the slot up again, to tell a missing slot from a full one. Before that, the index checks that the user has not
+     * booked the slot already and has no other visit or volunteer shift at the same time, and the same is checked
+     * again in SQL with the user's row locked. A slot with users on its waitlist refuses direct bookings, so that
+     * freed seats go to the users who waited for them.
+     *
+     * @param visitId the ID of the {@link Visit} entity to be booked.
+     * @param userId  the ID of the {@link User} entity booking the seats.
+     * @param seats   the number of seats to book.
+     * @return {@code true} if the seats were booked, {@code false} if too few seats are left or users are waiting.
+     * @throws IllegalArgumentException if fewer than one seat is requested.
+     * @throws RuntimeException if the visit is not found.
+     * @throws ScheduleConflictException if the user already booked the visit or is busy at that time.
+     */
+    @Override
+    @Transactional
+    public boolean bookSeats(Long visitId, Long userId, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("At least one seat must be booked");
+        }
+        checkUserCanBook(visitId, userId);
+        // Take hold of the count before taking the seats, so that the commit below updates a count without them.
+        SeatCounter.Seats counted = seatCounter.get(visitId);
+        if (visitRepository.reserveSeats(visitId, userId, seats) == 1) {
+            visitBookingRepository.insertBooking(visitId, userId, seats);
+            // The row stays locked until the commit, so this is exactly what the booking left.
+            boolean full = visitRepository.findSeatsById(visitId).map(row -> row.getSeatsLeft() == 0).orElse(false);
+            TransactionHooks.afterCommit(() -> {
+                seatCounter.taken(visitId, counted, seats);
+                scheduleIndex.addVisitMember(visitId, userId);
+                if (full) {
+                    LocalDateTime start = scheduleIndex.getVisitStart(visitId);
+                    if (start != null) {
+                        availabilityCalendar.close(start);
+                    }
+                }
+                eventPublisher.publishEvent(new VisitSlotChangedEvent(visitId));
+            });
+            return true;
+        }
+        if (counted != null && counted.remaining() >= seats) {
+            seatCounter.forget(visitId, counted);
+        }
+        if (!visitRepository.existsById(visitId)) {
+            throw new RuntimeException("Visit not found");
+        }
+        return false;
+    }
+
+    /**
+     * Cancels the seats a user booked on a visit slot, giving them back and making the slot available again. Of
+     * several concurrent cancellations of the same booking only the one deleting it gives the seats back.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @param userId  the ID of the {@link User} entity who booked the seats.
+     * @return {@code true} if a booking was canceled, {@code false} if the user had none.
+     */
+    @Override
+    @Transactional
+    public boolean cancelBooking(Long visitId, Long userId) {
+        SeatCounter.Seats counted = seatCounter.get(visitId);
+        Optional<Integer> seats = visitBookingRepository.findSeats(visitId, userId);
+        if (seats.isEmpty() || visitBookingRepository.deleteBooking(visitId, userId) == 0) {
+            return false;
         }
+        visitRepository.releaseSeats(visitId, seats.get());
+        TransactionHooks.afterCommit(() -> {
+            seatCounter.returned(visitId, counted, seats.get());
+            scheduleIndex.removeVisitMember(visitId, userId);
+            LocalDateTime start = scheduleIndex.getVisitStart(visitId);
+            if (start != null) {
+                availabilityCalendar.open(start);
+            }
+            eventPublisher.publishEvent(new VisitSeatsFreedEvent(visitId));
+            eventPublisher.publishEvent(new VisitSlotChangedEvent(visitId));
+        });
+        return true;
     }
 
     /**
-     * Cancels a booking for a visit slot, making it available again.
+     * Cancels every booking of a visit slot, making all of its seats available again. The waiting users are promoted
+     * onto the freed seats in the background, so canceling a large slot costs the request two statements.
      *
      * @param visitId the ID of the {@link Visit} entity to be canceled.
      * @throws RuntimeException if the visit with the specified ID is not found.
      */
     @Override
+    @Transactional
     public void cancelVisit(Long visitId) {
         Optional<Visit> optionalVisit = visitRepository.findById(visitId);
         if (optionalVisit.isPresent()) {
             Visit visit = optionalVisit.get();
-            visit.setUser(null);
-            visit.setAvailable(true);
-            visitRepository.save(visit);
+            visitBookingRepository.deleteBookings(visitId);
+            visitRepository.releaseAllSeats(visitId);
+            TransactionHooks.afterCommit(() -> {
+                seatCounter.forget(visitId);
+                scheduleIndex.clearVisitMembers(visitId);
+                availabilityCalendar.open(visit.getStartTime());
+                eventPublisher.publishEvent(new VisitSeatsFreedEvent(visitId));
+                eventPublisher.publishEvent(new VisitSlotChangedEvent(visitId));
+            });
         } else {
             throw new RuntimeException("Visit not found");
         }
     }
+
+    /**
+     * Puts a user at the end of the waitlist of a visit slot. Free seats are handed out by the promoter once the entry
+     * commits, so a user who joins the waitlist of a slot that still has seats is booked shortly afterwards.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @param userId  the ID of the {@link User} entity who waits.
+     * @param seats   the number of seats the user wants.
+     * @throws IllegalArgumentException if fewer than one seat is requested.
+     * @throws RuntimeException if the visit is not found.
+     * @throws ScheduleConflictException if the user already booked or waits for the visit, is busy at that time, or
+     * wants more seats than the visit offers.
+     */
+    @Override
+    @Transactional
+    public void joinWaitlist(Long visitId, Long userId, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("At least one seat must be requested");
+        }
+        VisitSeats slot = visitRepository.findSeatsById(visitId)
+                .orElseThrow(() -> new RuntimeException("Visit not found"));
+        if (seats > slot.getCapacity()) {
+            throw new ScheduleConflictException("The visit only has " + slot.getCapacity() + " seats");
+        }
+        checkUserCanBook(visitId, userId);
+        if (visitWaitlistRepository.existsByVisitIdAndUserId(visitId, userId)) {
+            throw new ScheduleConflictException("You are already on the waitlist for this visit");
+        }
+        visitWaitlistRepository.insertEntry(visitId, userId, seats);
+        TransactionHooks.afterCommit(() -> eventPublisher.publishEvent(new VisitSeatsFreedEvent(visitId)));
+    }
+
+    /**
+     * Takes a user off the waitlist of a visit slot. The users behind them may now fit into the free seats, so the
+     * slot is handed to the promoter again.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @param userId  the ID of the {@link User} entity who waits.
+     * @return {@code true} if the user was waiting, {@code false} otherwise.
+     */
+    @Override
+    @Transactional
+    public boolean leaveWaitlist(Long visitId, Long userId) {
+        if (visitWaitlistRepository.deleteEntry(visitId, userId) == 0) {
+            return false;
+        }
+        TransactionHooks.afterCommit(() -> eventPublisher.publishEvent(new VisitSeatsFreedEvent(visitId)));
+        return true;
+    }
+
+    /**
+     * Books the free seats of a visit slot for a batch of users on its waitlist, in one transaction.
+     *
+     * <p>The batch is read with one seek on the {@code (visit_id, id)} index, and every promotion is the same guarded
+     * decrement as a direct booking followed by an insert and a delete by key, so each entry costs {@code O(log n)}
+     * however long the waitlist is. Users are served first come, first served, but a user whose party does not fit
+     * into the seats left keeps their place without holding up the smaller parties behind them, so seats never stay
+     * free while someone who fits is waiting. Users who booked the slot meanwhile or are now busy at that time, users
+     * wanting more seats than the slot has since it was made smaller, and every user still waiting once the slot has
+     * started are dropped from the waitlist. The rows of the users in the batch are locked before the slot's, in ID
+     * order, and their other commitments checked in SQL, as for a direct booking.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @param afterId the ID of the waitlist entry to continue after; {@code 0} to start at the head.
+     * @param max     the maximum number of waitlist entries to handle.
+     * @return the ID of the last entry handled, to continue after, or {@code null} once nothing more can be promoted.
+     */
+    @Override
+    @Transactional
+    public Long promoteWaitlist(Long visitId, Long afterId, int max) {
+        List<WaitlistPlace> head = visitWaitlistRepository.findHead(visitId, afterId, Limit.of(max));
+        if (head.isEmpty()) {
+            return null;
+        }
+        Optional<VisitTimes> times = visitRepository.findTimesById(visitId);
+        Optional<VisitSeats> slot = visitRepository.findSeatsById(visitId);
+        if (times.isEmpty() || slot.isEmpty()) {
+            return null;
+        }
+        Long last = head.get(head.size() - 1).getId();
+        if (!times.get().getStartTime().isAfter(LocalDateTime.now())) {
+            head.forEach(place -> dropFromWaitlist(visitId, place, "the visit has started"));
+            return last;
+        }
+        if (slot.get().getSeatsLeft() == 0) {
+            return null;
+        }
+        scheduleGuard.lockUsers(head.stream().map(WaitlistPlace::getUserId).toList());
+        // Take hold of the count before taking the seats, so that the commit below updates a count without them.
+        SeatCounter.Seats counted = seatCounter.get(visitId);
+        List<Long> promoted = new ArrayList<>();
+        int seats = 0;
+        for (WaitlistPlace place : head) {
+            Long userId = place.getUserId();
+            if (place.getSeats() > slot.get().getCapacity()) {
+                dropFromWaitlist(visitId, place, "the visit has fewer seats than wanted");
+                continue;
+            }
+            boolean stale = scheduleIndex.isVisitMember(visitId, userId)
+                    || scheduleIndex.isUserBusyDuringVisit(userId, visitId)
+                    || visitBookingRepository.findSeats(visitId, userId).isPresent()
+                    || scheduleGuard.isUserBusy(userId, times.get().getStartTime(), times.get().getEndTime(),
+                    visitId, null);
+            if (stale) {
+                dropFromWaitlist(visitId, place, "the user booked the visit or is busy at that time");
+                continue;
+            }
+            if (visitRepository.reserveWaitlistedSeats(visitId, userId, place.getSeats()) == 0) {
+                if (visitRepository.findSeatsById(visitId).map(VisitSeats::getSeatsLeft).orElse(0) == 0) {
+                    last = null;
+                    break;
+                }
+                // Too few seats left for this party; it keeps its place and the smaller parties behind it may fit.
+                continue;
+            }
+            visitBookingRepository.insertBooking(visitId, userId, place.getSeats());
+            visitWaitlistRepository.deleteEntry(visitId, userId);
+            promoted.add(userId);
+            seats += place.getSeats();
+        }
+        if (!promoted.isEmpty()) {
+            int taken = seats;
+            boolean full = visitRepository.findSeatsById(visitId).map(row -> row.getSeatsLeft() == 0).orElse(false);
+            TransactionHooks.afterCommit(() -> {
+                seatCounter.taken(visitId, counted, taken);
+                promoted.forEach(userId -> scheduleIndex.addVisitMember(visitId, userId));
+                if (full) {
+                    LocalDateTime start = scheduleIndex.getVisitStart(visitId);
+                    if (start != null) {
+                        availabilityCalendar.close(start);
+                    }
+                }
+                eventPublisher.publishEvent(new VisitSlotChangedEvent(visitId));
+            });
+        }
+        return last;
+    }
+
+    private void dropFromWaitlist(Long visitId, WaitlistPlace place, String reason) {
+        visitWaitlistRepository.deleteEntry(visitId, place.getUserId());
+        logger.info("Dropped user {} waiting for {} seats of visit {} from the waitlist: {}", place.getUserId(),
+                place.getSeats(), visitId, reason);
+    }
+
+    /**
+     * Counts the seats left on a visit slot. The count is read from the database the first time the slot is asked
+     * about and kept up to date in memory afterwards.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @return the number of seats left, or {@code 0} if the visit does not exist.
+     */
+    @Override
+    public int getSeatsLeft(Long visitId) {
+        return seatCounter.remaining(visitId);
+    }
+
+    /**
+     * Counts the seats a user booked on a visit slot.
+     *
+     * @param visitId the ID of the {@link Visit} entity.
+     * @param userId  the ID of the {@link User} entity.
+     * @return the number of seats booked, or {@code 0} if the user has no booking.
+     */
+    @Override
+    public int getBookedSeats(Long visitId, Long userId) {
+        return visitBookingRepository.findSeats(visitId, userId).orElse(0);
+    }
+
+    /**
+     * Summarizes the visits for validating cached listing pages.
+     *
+     * @return the current {@link ListingVersion} of the visits.
+     */
+    @Override
+    public ListingVersion getListingVersion() {
+        return visitRepository.findListingVersion();
+    }
+
+    /**
+     * Moves a batch of visits that ended before a cutoff into the {@code visits_archive} table, and their bookings into
+     * the {@code visit_bookings_archive} table, in one transaction.
+     *
+     * <p>The batch is found with a seek on the {@code end_time} index, copied with two {@code INSERT ... SELECT}
+     * statements and deleted with one {@code DELETE}, which also deletes the bookings and waitlist entries through
+     * their cascading foreign keys. Once the batch commits, the visits leave the {@link ScheduleIndex}, the seat
+     * counts and the {@link AvailabilityCalendar}. The batch size bounds the transaction, so archiving a long history
+     * never holds locks for long.
+     *
+     * @param cutoff    the time before which the visits ended.
+     * @param batchSize the maximum number of visits to move.
+     * @return the number of visits moved.
+     */
+    @Override
+    @Transactional
+    public int archiveVisitsEndedBefore(LocalDateTime cutoff, int batchSize) {
+        List<VisitTimes> batch = visitRepository.findTimesEndedBefore(cutoff, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(VisitTimes::getId).toList();
+        visitRepository.copyToArchive(ids);
+        visitBookingRepository.copyToArchive(ids);
+        visitRepository.deleteAllByIds(ids);
+        TransactionHooks.afterCommit(() -> batch.forEach(visit -> {
+            scheduleIndex.removeVisit(visit.getId());
+            seatCounter.forget(visit.getId());
+            availabilityCalendar.close(visit.getStartTime());
+        }));
+        return batch.size();
+    }
+
+    /**
+     * Reports how many seats were booked on the visits starting within a time range, in start time order. Archived
+     * visits are only read when asked for, so reports over recent visits never touch the archive.
+     *
+     * @param from            the start of the range, inclusive.
+     * @param to              the end of the range, exclusive.
+     * @param includeArchived whether archived visits are included.
+     * @return a list of {@link VisitUsage} projections.
+     */
+    @Override
+    public List<VisitUsage> findVisitUsage(LocalDateTime from, LocalDateTime to, boolean includeArchived) {
+        return includeArchived
+                ? visitRepository.findUsageBetweenIncludingArchive(from, to)
+                : visitRepository.findUsageBetween(from, to);
+    }
+
+    private static boolean isWholeMinute(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    private static String cursorOf(Visit visit) {
+        return visit.getStartTime() + "_" + visit.getId();
+    }
+
+    /**
+     * Parses a page cursor into a {@link Visit} holding only the start time and ID it refers to.
+     */
+    private static Visit parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf('_');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            Visit visit = new Visit();
+            visit.setStartTime(LocalDateTime.parse(cursor.substring(0, separator)));
+            visit.setId(Long.parseLong(cursor.substring(separator + 1)));
+            return visit;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,365 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.AssignedShift;
+import com.ali.animalsanctuary.dto.AssignmentPlan;
+import com.ali.animalsanctuary.dto.AvailabilityWindow;
+import com.ali.animalsanctuary.dto.OccurrenceSignupTimes;
+import com.ali.animalsanctuary.dto.ShiftMember;
+import com.ali.animalsanctuary.dto.ShiftTimes;
+import com.ali.animalsanctuary.dto.VolunteerCard;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.VolunteerAvailability;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerAvailabilityRepository;
+import com.ali.animalsanctuary.repository.VolunteerOccurrenceSignupRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.VolunteerAssignmentService;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerService;
+import com.ali.animalsanctuary.service.impl.ShiftAssignmentSolver.Availability;
+import com.ali.animalsanctuary.service.impl.ShiftAssignmentSolver.Candidate;
+import com.ali.animalsanctuary.service.impl.ShiftAssignmentSolver.Commitment;
+import com.ali.animalsanctuary.service.impl.ShiftAssignmentSolver.Result;
+import com.ali.animalsanctuary.service.impl.ShiftAssignmentSolver.Shift;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link VolunteerAssignmentService} interface.
+ *
+ * <p>Planning reads the volunteer works of the whole weeks around the range with one narrow query, their members in
+ * batches, the occurrence sign-ups of those weeks and every availability window, and hands them to a
+ * {@link ShiftAssignmentSolver} running on a fork-join pool owned by this service. The members and occurrence
+ * sign-ups are commitments the solver works around, so the weekly hours of a user count the shifts they already have.
+ * Visits are not read: a proposed sign-up clashing with one is skipped when the plan is applied.
+ *
+ * <p>Applying a plan goes through {@link VolunteerService#addUserToVolunteer(Long, User)}, so every sign-up takes its
+ * place under the capacity guard, credits the volunteer hours and is checked against the schedule index like a sign-up
+ * made by the user. Since the plan may be applied long after it was made, each sign-up first locks the row of its user
+ * and of its work and checks the current times of the work against the availability windows of the user and, from the
+ * volunteer hours rollups, against their weekly limit, in the transaction that makes it.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #getAvailability(Long)}: Lists the availability windows of a user.</li>
+ *     <li>{@link #addAvailability(Long, DayOfWeek, LocalTime, LocalTime)}: Adds an availability window to a user.</li>
+ *     <li>{@link #removeAvailability(Long, Long)}: Removes an availability window of a user.</li>
+ *     <li>{@link #planAssignments(LocalDate, LocalDate)}: Runs the solver over the open places of a date range.</li>
+ *     <li>{@link #applyAssignments(AssignmentPlan)}: Signs the proposed volunteers up one at a time.</li>
+ *     <li>{@link #destroy()}: Shuts the solver pool down.</li>
+ * </ul>
+ *
+ * @see ShiftAssignmentSolver
+ * @see VolunteerAssignmentService
+ */
+
+@Service
+public class VolunteerAssignmentServiceImpl implements VolunteerAssignmentService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerAssignmentServiceImpl.class);
+
+    /**
+     * The number of volunteer works whose members are read with one query.
+     */
+    private static final int MEMBER_BATCH = 1000;
+
+    /**
+     * What became of one proposed sign-up.
+     */
+    private enum Outcome {
+        APPLIED, SKIPPED, WORK_DELETED
+    }
+
+    private final VolunteerAvailabilityRepository volunteerAvailabilityRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository;
+    private final UserRepository userRepository;
+    private final VolunteerService volunteerService;
+    private final VolunteerHoursService volunteerHoursService;
+    private final ScheduleGuard scheduleGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final ShiftAssignmentSolver solver;
+    private final Duration timeBudget;
+    private final int maxWeeklyMinutes;
+    private final int defaultPlaces;
+
+    /**
+     * Constructs a new {@link VolunteerAssignmentServiceImpl}.
+     *
+     * @param volunteerAvailabilityRepository     the repository of the availability windows.
+     * @param volunteerRepository                 the repository of the volunteer works.
+     * @param volunteerOccurrenceSignupRepository the repository of the occurrence sign-ups.
+     * @param userRepository                      the repository of the users.
+     * @param volunteerService                    the service signing users up for volunteer works.
+     * @param volunteerHoursService               the service the weekly hours of a user are read from.
+     * @param scheduleGuard                       the guard locking the rows of the users signed up.
+     * @param transactionManager                  the transaction manager each sign-up runs in.
+     * @param timeBudgetMs                        the time after which the solver stops improving a plan.
+     * @param maxHoursPerWeek                     the most hours of shifts starting in one week a user is given.
+     * @param defaultPlaces                       the number of places filled on a volunteer work without capacity.
+     * @param parallelism                         the number of solver threads; {@code 0} for one per processor.
+     */
+    public VolunteerAssignmentServiceImpl(VolunteerAvailabilityRepository volunteerAvailabilityRepository,
+                                          VolunteerRepository volunteerRepository,
+                                          VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository,
+                                          UserRepository userRepository,
+                                          VolunteerService volunteerService,
+                                          VolunteerHoursService volunteerHoursService,
+                                          ScheduleGuard scheduleGuard,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${sanctuary.volunteers.assignment.time-budget-ms:2000}") long timeBudgetMs,
+                                          @Value("${sanctuary.volunteers.assignment.max-hours-per-week:20}") int maxHoursPerWeek,
+                                          @Value("${sanctuary.volunteers.assignment.default-places:1}") int defaultPlaces,
+                                          @Value("${sanctuary.volunteers.assignment.parallelism:0}") int parallelism) {
+        this.volunteerAvailabilityRepository = volunteerAvailabilityRepository;
+        this.volunteerRepository = volunteerRepository;
+        this.volunteerOccurrenceSignupRepository = volunteerOccurrenceSignupRepository;
+        this.userRepository = userRepository;
+        this.volunteerService = volunteerService;
+        this.volunteerHoursService = volunteerHoursService;
+        this.scheduleGuard = scheduleGuard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.solver = new ShiftAssignmentSolver(pool);
+        this.timeBudget = Duration.ofMillis(timeBudgetMs);
+        this.maxWeeklyMinutes = maxHoursPerWeek * 60;
+        this.defaultPlaces = defaultPlaces;
+    }
+
+    /**
+     * Stops the solver pool.
+     */
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    /**
+     * Lists the availability windows of a user, in day and start time order.
+     *
+     * @param userId the ID of the user.
+     * @return a list of {@link AvailabilityWindow} projections.
+     */
+    @Override
+    public List<AvailabilityWindow> getAvailability(Long userId) {
+        return volunteerAvailabilityRepository.findWindowsByUserId(userId).stream()
+                .sorted(Comparator.comparing(AvailabilityWindow::getDayOfWeek)
+                        .thenComparing(AvailabilityWindow::getStartTime))
+                .toList();
+    }
+
+    /**
+     * Adds a weekly availability window to a user.
+     *
+     * @param userId    the ID of the user.
+     * @param dayOfWeek the day of the week of the window.
+     * @param startTime the time of day the window starts.
+     * @param endTime   the time of day the window ends; {@code 00:00} for midnight.
+     * @return the saved {@link VolunteerAvailability} entity.
+     * @throws RuntimeException if the user is not found.
+     * @throws ScheduleConflictException if the window does not end after it starts.
+     */
+    @Override
+    @Transactional
+    public VolunteerAvailability addAvailability(Long userId, DayOfWeek dayOfWeek, LocalTime startTime,
+                                                 LocalTime endTime) {
+        if (!endTime.equals(LocalTime.MIDNIGHT) && !endTime.isAfter(startTime)) {
+            throw new ScheduleConflictException("The availability must end after it starts");
+        }
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        VolunteerAvailability window = new VolunteerAvailability();
+        window.setUser(user);
+        window.setDayOfWeek(dayOfWeek);
+        window.setStartTime(startTime);
+        window.setEndTime(endTime);
+        return volunteerAvailabilityRepository.save(window);
+    }
+
+    /**
+     * Removes an availability window of a user.
+     *
+     * @param userId the ID of the user.
+     * @param id     the ID of the window.
+     * @return {@code true} if the window was removed; {@code false} if it does not exist or belongs to another user.
+     */
+    @Override
+    @Transactional
+    public boolean removeAvailability(Long userId, Long id) {
+        return volunteerAvailabilityRepository.deleteWindow(id, userId) > 0;
+    }
+
+    /**
+     * Proposes volunteers for the open places of the volunteer works starting in a date range. The open places of a
+     * work are its capacity, or the configured default places without one, less its members.
+     *
+     * @param from the first day of the range.
+     * @param to   the day after the last day of the range.
+     * @return the {@link AssignmentPlan}.
+     */
+    @Override
+    public AssignmentPlan planAssignments(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        LocalDateTime weeksStart = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        LocalDateTime weeksEnd = to.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        List<VolunteerCard> cards = volunteerRepository.findCardsStartingBetween(weeksStart, weeksEnd);
+
+        List<Commitment> commitments = new ArrayList<>();
+        Map<Long, VolunteerCard> cardsById = cards.stream()
+                .collect(Collectors.toMap(VolunteerCard::getId, Function.identity()));
+        List<Long> occupied = cards.stream().filter(card -> card.getSignedUp() > 0).map(VolunteerCard::getId).toList();
+        for (int i = 0; i < occupied.size(); i += MEMBER_BATCH) {
+            for (ShiftMember member : volunteerRepository.findMembers(
+                    occupied.subList(i, Math.min(i + MEMBER_BATCH, occupied.size())))) {
+                VolunteerCard card = cardsById.get(member.getShiftId());
+                commitments.add(new Commitment(member.getUserId(), card.getStartDate(), card.getEndDate()));
+            }
+        }
+        for (OccurrenceSignupTimes signup : volunteerOccurrenceSignupRepository.findSignupTimesBetween(weeksStart,
+                weeksEnd)) {
+            commitments.add(new Commitment(signup.getUserId(), signup.getOccurrenceStart(), signup.getOccurrenceStart()
+                    .plus(Duration.between(signup.getFirstStart(), signup.getFirstEnd()))));
+        }
+
+        List<Shift> shifts = new ArrayList<>();
+        for (VolunteerCard card : cards) {
+            int places = (card.getCapacity() != null ? card.getCapacity() : defaultPlaces) - card.getSignedUp();
+            if (places > 0 && !card.getStartDate().isBefore(start) && card.getStartDate().isBefore(end)) {
+                shifts.add(new Shift(card.getId(), card.getStartDate(), card.getEndDate(), places));
+            }
+        }
+        Map<Long, List<Availability>> windows = new LinkedHashMap<>();
+        for (AvailabilityWindow window : volunteerAvailabilityRepository.findAllWindows()) {
+            windows.computeIfAbsent(window.getUserId(), key -> new ArrayList<>())
+                    .add(new Availability(window.getDayOfWeek(), window.getStartTime(), window.getEndTime()));
+        }
+        List<Candidate> candidates = new ArrayList<>(windows.size());
+        windows.forEach((userId, availability) -> candidates.add(new Candidate(userId, maxWeeklyMinutes,
+                availability)));
+
+        Result result = solver.solve(shifts, candidates, commitments, timeBudget, from.toEpochDay());
+        List<AssignedShift> assignments = new ArrayList<>();
+        for (Shift shift : shifts) {
+            List<Long> userIds = result.assignments().get(shift.id());
+            if (userIds != null) {
+                VolunteerCard card = cardsById.get(shift.id());
+                assignments.add(new AssignedShift(card.getId(), card.getTask(), card.getStartDate(), card.getEndDate(),
+                        userIds));
+            }
+        }
+        logger.info("Planned {} of {} open places of {} volunteer works from {} to {} for {} volunteers in {} ms",
+                result.placesFilled(), result.placesOpen(), shifts.size(), from, to, candidates.size(),
+                result.elapsed().toMillis());
+        return new AssignmentPlan(from, to, shifts.size(), candidates.size(), result.placesOpen(),
+                result.placesFilled(), result.moves(), result.elapsed().toMillis(), assignments);
+    }
+
+    /**
+     * Signs the volunteers of a plan up for their works, each sign-up in its own transaction. A sign-up is skipped if
+     * the work no longer fits the availability windows of the user, would take them over their weekly limit counting
+     * the shifts they signed up for since the plan was made, or clashes with another of their commitments; the
+     * sign-ups of a work deleted since the plan was made are all skipped.
+     *
+     * @param plan the {@link AssignmentPlan} to apply.
+     * @return the number of users signed up.
+     * @throws RuntimeException if a sign-up fails for another reason, such as a lock timeout; the sign-ups applied
+     * before it are kept.
+     */
+    @Override
+    public int applyAssignments(AssignmentPlan plan) {
+        List<Long> userIds = plan.getAssignments().stream()
+                .flatMap(shift -> shift.getUserIds().stream())
+                .distinct()
+                .toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        int applied = 0;
+        int skipped = 0;
+        for (AssignedShift shift : plan.getAssignments()) {
+            List<Long> shiftUserIds = shift.getUserIds();
+            for (int i = 0; i < shiftUserIds.size(); i++) {
+                User user = users.get(shiftUserIds.get(i));
+                Outcome outcome;
+                try {
+                    outcome = user != null
+                            ? transactionTemplate.execute(status -> signUp(shift.getVolunteerId(), user))
+                            : Outcome.SKIPPED;
+                } catch (ScheduleConflictException e) {
+                    logger.debug("Skipped user {} on volunteer work {}: {}", user.getId(), shift.getVolunteerId(),
+                            e.getMessage());
+                    outcome = Outcome.SKIPPED;
+                }
+                if (outcome == Outcome.WORK_DELETED) {
+                    logger.info("Skipped volunteer work {}, deleted since the plan was made", shift.getVolunteerId());
+                    skipped += shiftUserIds.size() - i;
+                    break;
+                }
+                if (outcome == Outcome.APPLIED) {
+                    applied++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        logger.info("Applied {} sign-ups of the plan from {} to {}, skipped {}", applied, plan.getFrom(), plan.getTo(),
+                skipped);
+        return applied;
+    }
+
+    /**
+     * Signs a user up for a work of a plan if it still fits their availability and weekly limit. The row of the user
+     * is locked before the row of the work, in the order every sign-up takes them, so the hours read cannot change
+     * until the sign-up commits.
+     */
+    private Outcome signUp(Long volunteerId, User user) {
+        scheduleGuard.lockUsers(List.of(user.getId()));
+        Optional<ShiftTimes> times = volunteerRepository.findLockedShiftTimesById(volunteerId);
+        if (times.isEmpty()) {
+            return Outcome.WORK_DELETED;
+        }
+        LocalDateTime start = times.get().getStartDate();
+        LocalDateTime end = times.get().getEndDate();
+        if (start == null || end == null || !isAvailable(user.getId(), start, end)) {
+            logger.debug("Skipped user {} on volunteer work {}: no longer available", user.getId(), volunteerId);
+            return Outcome.SKIPPED;
+        }
+        LocalDate monday = start.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long weekMinutes = volunteerHoursService.getMinutes(user.getId(), monday, monday.plusWeeks(1));
+        if (weekMinutes + Duration.between(start, end).toMinutes() > maxWeeklyMinutes) {
+            logger.debug("Skipped user {} on volunteer work {}: {} minutes already that week", user.getId(),
+                    volunteerId, weekMinutes);
+            return Outcome.SKIPPED;
+        }
+        return volunteerService.addUserToVolunteer(volunteerId, user) ? Outcome.APPLIED : Outcome.SKIPPED;
+    }
+
+    private boolean isAvailable(Long userId, LocalDateTime start, LocalDateTime end) {
+        return volunteerAvailabilityRepository.findWindowsByUserId(userId).stream()
+                .anyMatch(window -> ShiftAssignmentSolver.covers(new Availability(window.getDayOfWeek(),
+                        window.getStartTime(), window.getEndTime()), start, end));
+    }
+}
@@ -0,0 +1,347 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.OccurrenceSignupTimes;
+import com.ali.animalsanctuary.dto.ShiftMember;
+import com.ali.animalsanctuary.dto.ShiftTimes;
+import com.ali.animalsanctuary.dto.VolunteerHoursPeriod;
+import com.ali.animalsanctuary.dto.VolunteerHoursRank;
+import com.ali.animalsanctuary.dto.VolunteerHoursSummary;
+import com.ali.animalsanctuary.entity.VolunteerHours;
+import com.ali.animalsanctuary.entity.VolunteerHours.Granularity;
+import com.ali.animalsanctuary.repository.VolunteerHoursRepository;
+import com.ali.animalsanctuary.repository.VolunteerOccurrenceSignupRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link VolunteerHoursService} interface keeping the {@code volunteer_hours} rollups with
+ * plain SQL.
+ *
+ * <p>A shift is credited in full to the day and the month it starts in, as its length in minutes and one shift. A
+ * change is applied to the rows of all its users at once: the missing rows are inserted empty, then every row is
+ * moved by the same delta with one batched conditional update, and rows left without shifts are deleted. The
+ * statements run in the caller's transaction, so the rollups commit or roll back with the change they reflect.
+ *
+ * <p>When the application starts with no rollups while users are signed up for shifts, such as the first time it
+ * runs with this table, the rollups are built from the shifts in ID order batches. The sign-ups for occurrences of
+ * recurring tasks count like shifts of their own, credited to the day and month the occurrence starts in.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #rebuild()}: Rebuilds the rollups from the one-off shifts and the occurrence sign-ups.</li>
+ *     <li>{@link #credit(Collection, LocalDateTime, LocalDateTime)}: Adds a shift to the hours of its users.</li>
+ *     <li>{@link #debit(Collection, LocalDateTime, LocalDateTime)}: Takes a shift off the hours of its users.</li>
+ *     <li>{@link #getLeaderboard(YearMonth, YearMonth, int)}: Ranks the users by their hours over a range of months, from the monthly rollups.</li>
+ *     <li>{@link #getUserSummary(Long, YearMonth, YearMonth)}: Summarizes the hours of a user over a range of months, from the rollups of the user.</li>
+ *     <li>{@link #getMinutes(Long, LocalDate, LocalDate)}: Sums the minutes of the shifts a user starts over a range of days, from the daily rollups.</li>
+ * </ul>
+ *
+ * @see VolunteerHours
+ * @see VolunteerHoursService
+ */
+
+@Service
+public class VolunteerHoursServiceImpl implements VolunteerHoursService, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerHoursServiceImpl.class);
+
+    /**
+     * The number of rollup rows sent to the database per JDBC batch while rebuilding.
+     */
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String INSERT_MISSING = "INSERT INTO volunteer_hours "
+            + "(user_id, granularity, period_start, minutes, shifts) "
+            + "SELECT u.id, ?, ?, 0, 0 FROM users u WHERE u.id = ? AND NOT EXISTS (SELECT 1 FROM volunteer_hours h "
+            + "WHERE h.user_id = u.id AND h.granularity = ? AND h.period_start = ?)";
+
+    private static final String ADD = "UPDATE volunteer_hours SET minutes = minutes + ?, shifts = shifts + ? "
+            + "WHERE user_id = ? AND granularity = ? AND period_start = ?";
+
+    private static final String DELETE_EMPTY = "DELETE FROM volunteer_hours "
+            + "WHERE user_id = ? AND granularity = ? AND period_start = ? AND shifts <= 0";
+
+    private static final String INSERT = "INSERT INTO volunteer_hours "
+            + "(user_id, granularity, period_start, minutes, shifts) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * One rollup row: a user and the day or month it covers.
+     */
+    private record Period(Long userId, Granularity granularity, LocalDate start) {
+    }
+
+    private final VolunteerHoursRepository volunteerHoursRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /**
+     * Constructs a new {@link VolunteerHoursServiceImpl}.
+     *
+     * @param volunteerHoursRepository the repository the rollups are read from.
+     * @param volunteerRepository      the repository the shifts are read from while rebuilding.
+     * @param volunteerOccurrenceSignupRepository the repository the occurrence sign-ups are read from while
+     *                                            rebuilding.
+     * @param jdbcTemplate             the template used to write the rollups.
+     * @param transactionManager       the transaction manager the startup rebuild runs in.
+     * @param batchSize                the number of shifts read per batch while rebuilding.
+     */
+    public VolunteerHoursServiceImpl(VolunteerHoursRepository volunteerHoursRepository,
+                                     VolunteerRepository volunteerRepository,
+                                     VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository,
+                                     JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     @Value("${sanctuary.volunteers.hours.rebuild-batch-size:5000}") int batchSize) {
+        this.volunteerHoursRepository = volunteerHoursRepository;
+        this.volunteerRepository = volunteerRepository;
+        this.volunteerOccurrenceSignupRepository = volunteerOccurrenceSignupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Builds the rollups once the application has started, if there are none yet. The call does not go through the
+     * transactional proxy, so the rebuild is wrapped in a transaction of its own here, and a failure leaves the table
+     * empty to be rebuilt on the next start rather than half filled.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (volunteerHoursRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /**
+     * Rebuilds the rollups from the volunteers, volunteer_users and volunteer_occurrence_signups tables, replacing
+     * their current content. The shifts with their members, then the occurrence sign-ups, are read in ID order
+     * batches and summed in memory, so the work is one pass over them however far back they go.
+     */
+    @Override
+    @Transactional
+    public void rebuild() {
+        long started = System.nanoTime();
+        Map<Period, long[]> totals = new HashMap<>();
+        long lastId = 0;
+        while (true) {
+            List<ShiftTimes> batch = volunteerRepository.findShiftTimesAfter(lastId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            Map<Long, ShiftTimes> shifts = batch.stream().collect(Collectors.toMap(ShiftTimes::getId, shift -> shift));
+            for (ShiftMember member : volunteerRepository.findMembers(shifts.keySet())) {
+                ShiftTimes shift = shifts.get(member.getShiftId());
+                long minutes = minutesOf(shift.getStartDate(), shift.getEndDate());
+                if (minutes < 0) {
+                    continue;
+                }
+                sum(totals, member.getUserId(), shift.getStartDate(), minutes);
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        lastId = 0;
+        while (true) {
+            List<OccurrenceSignupTimes> batch = volunteerOccurrenceSignupRepository.findSignupTimesAfter(lastId,
+                    Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (OccurrenceSignupTimes signup : batch) {
+                long minutes = minutesOf(signup.getFirstStart(), signup.getFirstEnd());
+                if (minutes >= 0) {
+                    sum(totals, signup.getUserId(), signup.getOccurrenceStart(), minutes);
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+
+        jdbcTemplate.update("DELETE FROM volunteer_hours");
+        List<Map.Entry<Period, long[]>> rows = new ArrayList<>(totals.entrySet());
+        jdbcTemplate.batchUpdate(INSERT, rows, INSERT_BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getKey().userId());
+            ps.setString(2, row.getKey().granularity().name());
+            ps.setDate(3, Date.valueOf(row.getKey().start()));
+            ps.setLong(4, row.getValue()[0]);
+            ps.setLong(5, row.getValue()[1]);
+        });
+        if (!rows.isEmpty()) {
+            logger.info("Rebuilt {} volunteer hours rollups in {} ms", rows.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Adds a shift to the daily and monthly hours of the users signed up for it. A shift without times or ending
+     * before it starts is not counted.
+     *
+     * @param userIds the IDs of the users.
+     * @param start   the start time of the shift.
+     * @param end     the end time of the shift.
+     */
+    @Override
+    @Transactional
+    public void credit(Collection<Long> userIds, LocalDateTime start, LocalDateTime end) {
+        long minutes = minutesOf(start, end);
+        if (userIds.isEmpty() || minutes < 0) {
+            return;
+        }
+        List<Period> periods = periodsOf(userIds, start);
+        try {
+            insertMissing(periods);
+        } catch (DuplicateKeyException e) {
+            // Another transaction inserted one of the rows meanwhile; the rows still missing are inserted again.
+            insertMissing(periods);
+        }
+        add(periods, minutes, 1);
+    }
+
+    /**
+     * Takes a shift off the daily and monthly hours of the users signed up for it, deleting the rows left without
+     * shifts.
+     *
+     * @param userIds the IDs of the users.
+     * @param start   the start time the shift was credited with.
+     * @param end     the end time the shift was credited with.
+     */
+    @Override
+    @Transactional
+    public void debit(Collection<Long> userIds, LocalDateTime start, LocalDateTime end) {
+        long minutes = minutesOf(start, end);
+        if (userIds.isEmpty() || minutes < 0) {
+            return;
+        }
+        List<Period> periods = periodsOf(userIds, start);
+        add(periods, -minutes, -1);
+        jdbcTemplate.batchUpdate(DELETE_EMPTY, periods, periods.size(), (ps, period) -> {
+            ps.setLong(1, period.userId());
+            ps.setString(2, period.granularity().name());
+            ps.setDate(3, Date.valueOf(period.start()));
+        });
+    }
+
+    /**
+     * Ranks the users by the hours they contributed over a range of months, summing their monthly rollups.
+     *
+     * @param from  the first month of the range.
+     * @param to    the last month of the range, inclusive.
+     * @param limit the maximum number of users to return.
+     * @return a list of {@link VolunteerHoursRank} projections.
+     */
+    @Override
+    public List<VolunteerHoursRank> getLeaderboard(YearMonth from, YearMonth to, int limit) {
+        return volunteerHoursRepository.findLeaderboard(Granularity.MONTH, from.atDay(1),
+                to.plusMonths(1).atDay(1), Limit.of(limit));
+    }
+
+    /**
+     * Summarizes the hours of a user over a range of months from their monthly rollups, with the daily rollups of
+     * the last month.
+     *
+     * @param userId the ID of the user.
+     * @param from   the first month of the range.
+     * @param to     the last month of the range, inclusive.
+     * @return the {@link VolunteerHoursSummary} of the user.
+     */
+    @Override
+    public VolunteerHoursSummary getUserSummary(Long userId, YearMonth from, YearMonth to) {
+        LocalDate end = to.plusMonths(1).atDay(1);
+        List<VolunteerHoursPeriod> months = volunteerHoursRepository.findPeriods(userId, Granularity.MONTH,
+                from.atDay(1), end);
+        List<VolunteerHoursPeriod> days = volunteerHoursRepository.findPeriods(userId, Granularity.DAY,
+                to.atDay(1), end);
+        return new VolunteerHoursSummary(userId,
+                months.stream().mapToLong(VolunteerHoursPeriod::getMinutes).sum(),
+                months.stream().mapToLong(VolunteerHoursPeriod::getShifts).sum(),
+                months, days);
+    }
+
+    /**
+     * Sums the minutes of the shifts a user starts over a range of days from their daily rollups.
+     *
+     * @param userId the ID of the user.
+     * @param from   the first day of the range.
+     * @param to     the day after the last day of the range.
+     * @return the minutes.
+     */
+    @Override
+    public long getMinutes(Long userId, LocalDate from, LocalDate to) {
+        return volunteerHoursRepository.sumMinutes(userId, Granularity.DAY, from, to);
+    }
+
+    private static void sum(Map<Period, long[]> totals, Long userId, LocalDateTime start, long minutes) {
+        for (Period period : periodsOf(userId, start)) {
+            long[] total = totals.computeIfAbsent(period, key -> new long[2]);
+            total[0] += minutes;
+            total[1]++;
+        }
+    }
+
+    private void insertMissing(List<Period> periods) {
+        jdbcTemplate.batchUpdate(INSERT_MISSING, periods, periods.size(), (ps, period) -> {
+            ps.setString(1, period.granularity().name());
+            ps.setDate(2, Date.valueOf(period.start()));
+            ps.setLong(3, period.userId());
+            ps.setString(4, period.granularity().name());
+            ps.setDate(5, Date.valueOf(period.start()));
+        });
+    }
+
+    private void add(List<Period> periods, long minutes, int shifts) {
+        jdbcTemplate.batchUpdate(ADD, periods, periods.size(), (ps, period) -> {
+            ps.setLong(1, minutes);
+            ps.setInt(2, shifts);
+            ps.setLong(3, period.userId());
+            ps.setString(4, period.granularity().name());
+            ps.setDate(5, Date.valueOf(period.start()));
+        });
+    }
+
+    private static List<Period> periodsOf(Collection<Long> userIds, LocalDateTime start) {
+        List<Period> periods = new ArrayList<>(userIds.size() * 2);
+        for (Long userId : Set.copyOf(userIds)) {
+            periods.addAll(periodsOf(userId, start));
+        }
+        return periods;
+    }
+
+    private static List<Period> periodsOf(Long userId, LocalDateTime start) {
+        LocalDate day = start.toLocalDate();
+        return List.of(new Period(userId, Granularity.DAY, day),
+                new Period(userId, Granularity.MONTH, day.withDayOfMonth(1)));
+    }
+
+    /**
+     * Returns the length of a shift in minutes, or {@code -1} if it has no times or ends before it starts.
+     */
+    private static long minutesOf(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            return -1;
+        }
+        return Duration.between(start, end).toMinutes();
+    }
+}
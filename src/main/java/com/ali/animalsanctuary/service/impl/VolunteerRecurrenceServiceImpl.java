@@ -0,0 +1,225 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.dto.OccurrenceCount;
+import com.ali.animalsanctuary.dto.OccurrenceSignupTimes;
+import com.ali.animalsanctuary.dto.ShiftOccurrence;
+import com.ali.animalsanctuary.dto.VolunteerCard;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.VolunteerRecurrence;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.VolunteerOccurrenceSignupRepository;
+import com.ali.animalsanctuary.repository.VolunteerRecurrenceRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerRecurrenceService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link VolunteerRecurrenceService} interface.
+ *
+ * <p>A recurring task is one {@code volunteer_recurrences} row however many occurrences it has. Listing a range reads
+ * the one-off works starting in it, the rules that may have occurrences in it, and the sign-up counts of its
+ * occurrences, three statements in all; each rule is then expanded with {@link RecurrenceRule} for the range only, so
+ * the cost grows with the occurrences shown rather than with the length of the rules.
+ *
+ * <p>Sign-ups for an occurrence lock the row of its rule, so the capacity of an occurrence is checked and taken one
+ * sign-up at a time. They are credited to the {@link VolunteerHoursService} rollups in the same transaction, and
+ * checked against the {@link ScheduleIndex} for visits and one-off shifts at the same time.
+ *
+ * <p>Methods:
+ * <ul>
+ *     <li>{@link #saveRecurrence(VolunteerRecurrence)}: Saves a new {@link VolunteerRecurrence} entity with its rule in canonical form.</li>
+ *     <li>{@link #getRecurrenceById(Long)}: Retrieves a {@link VolunteerRecurrence} entity by its ID.</li>
+ *     <li>{@link #deleteRecurrence(Long)}: Deletes a {@link VolunteerRecurrence} entity, debiting the hours of its sign-ups.</li>
+ *     <li>{@link #getUpcomingShifts(LocalDateTime, LocalDateTime)}: Lists the one-off works and the occurrences starting in a range.</li>
+ *     <li>{@link #signUp(Long, LocalDateTime, User)}: Signs a {@link User} up for one occurrence under the lock of its rule.</li>
+ * </ul>
+ *
+ * @see VolunteerRecurrence
+ * @see RecurrenceRule
+ * @see VolunteerRecurrenceService
+ */
+
+@Service
+public class VolunteerRecurrenceServiceImpl implements VolunteerRecurrenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerRecurrenceServiceImpl.class);
+
+    @Autowired
+    private VolunteerRecurrenceRepository volunteerRecurrenceRepository;
+
+    @Autowired
+    private VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private ScheduleGuard scheduleGuard;
+
+    /**
+     * Saves a new {@link VolunteerRecurrence} entity. The rule is stored in canonical form, along with the start of
+     * its last occurrence, so that listing a range skips the rules that ended before it.
+     *
+     * @param recurrence the {@link VolunteerRecurrence} entity to be saved.
+     * @return the saved {@link VolunteerRecurrence} entity.
+     * @throws IllegalArgumentException if the rule cannot be parsed or has no occurrence.
+     * @throws ScheduleConflictException if the first occurrence does not end after it starts.
+     */
+    @Override
+    @Transactional
+    public VolunteerRecurrence saveRecurrence(VolunteerRecurrence recurrence) {
+        if (!recurrence.getEndDate().isAfter(recurrence.getStartDate())) {
+            throw new ScheduleConflictException("A shift must end after it starts");
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(recurrence.getRule());
+        LocalDateTime lastStart = rule.lastOccurrence(recurrence.getStartDate());
+        if (lastStart == null && !rule.isUnbounded()) {
+            throw new IllegalArgumentException("The recurrence rule has no occurrence after the first start");
+        }
+        recurrence.setRule(rule.toString());
+        recurrence.setLastStart(lastStart);
+        return volunteerRecurrenceRepository.save(recurrence);
+    }
+
+    /**
+     * Retrieves a {@link VolunteerRecurrence} entity by its ID.
+     *
+     * @param id the ID of the {@link VolunteerRecurrence} entity to be retrieved.
+     * @return the {@link VolunteerRecurrence} entity with the specified ID, or {@code null} if not found.
+     */
+    @Override
+    public VolunteerRecurrence getRecurrenceById(Long id) {
+        return volunteerRecurrenceRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Deletes the {@link VolunteerRecurrence} entity with the specified ID. Its sign-ups are taken off the hours of
+     * their users one occurrence at a time, then deleted by the database along with the rule.
+     *
+     * @param id the ID of the {@link VolunteerRecurrence} entity to be deleted.
+     */
+    @Override
+    @Transactional
+    public void deleteRecurrence(Long id) {
+        Map<LocalDateTime, List<OccurrenceSignupTimes>> occurrences = volunteerOccurrenceSignupRepository
+                .findSignupTimes(id).stream()
+                .collect(Collectors.groupingBy(OccurrenceSignupTimes::getOccurrenceStart));
+        occurrences.forEach((start, signups) -> {
+            OccurrenceSignupTimes first = signups.get(0);
+            volunteerHoursService.debit(signups.stream().map(OccurrenceSignupTimes::getUserId).toList(), start,
+                    start.plus(Duration.between(first.getFirstStart(), first.getFirstEnd())));
+        });
+        volunteerRecurrenceRepository.deleteById(id);
+    }
+
+    /**
+     * Lists the one-off volunteer works and the occurrences of the recurring tasks starting in a range, in start
+     * time order.
+     *
+     * <p>The rules read are those whose first occurrence starts before the end of the range and whose last one, if
+     * any, does not start before it; each is expanded for the range alone. The sign-up counts of every occurrence in
+     * the range are read with one grouped query and matched to the occurrences in memory.
+     *
+     * @param from the start of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return a list of {@link ShiftOccurrence} objects.
+     */
+    @Override
+    public List<ShiftOccurrence> getUpcomingShifts(LocalDateTime from, LocalDateTime to) {
+        List<ShiftOccurrence> shifts = new ArrayList<>();
+        for (VolunteerCard card : volunteerRepository.findCardsStartingBetween(from, to)) {
+            shifts.add(new ShiftOccurrence(card.getId(), null, card.getTask(), card.getStartDate(),
+                    card.getEndDate(), card.getCapacity(), card.getSignedUp()));
+        }
+        List<VolunteerRecurrence> recurrences = volunteerRecurrenceRepository.findActiveBetween(from, to);
+        if (!recurrences.isEmpty()) {
+            Map<Long, Map<LocalDateTime, Long>> counts = new HashMap<>();
+            for (OccurrenceCount count : volunteerOccurrenceSignupRepository.countBetween(from, to)) {
+                counts.computeIfAbsent(count.getRecurrenceId(), key -> new HashMap<>())
+                        .put(count.getOccurrenceStart(), count.getSignedUp());
+            }
+            for (VolunteerRecurrence recurrence : recurrences) {
+                RecurrenceRule rule;
+                try {
+                    rule = RecurrenceRule.parse(recurrence.getRule());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping recurring volunteer work {} with invalid rule {}: {}", recurrence.getId(),
+                            recurrence.getRule(), e.getMessage());
+                    continue;
+                }
+                Duration length = Duration.between(recurrence.getStartDate(), recurrence.getEndDate());
+                Map<LocalDateTime, Long> signedUp = counts.getOrDefault(recurrence.getId(), Map.of());
+                for (LocalDateTime start : rule.occurrencesBetween(recurrence.getStartDate(), from, to)) {
+                    shifts.add(new ShiftOccurrence(null, recurrence.getId(), recurrence.getTask(), start,
+                            start.plus(length), recurrence.getCapacity(), signedUp.getOrDefault(start, 0L)));
+                }
+            }
+        }
+        shifts.sort(Comparator.comparing(ShiftOccurrence::getStartDate).thenComparing(ShiftOccurrence::getTask));
+        return shifts;
+    }
+
+    /**
+     * Signs a {@link User} up for one occurrence of a recurring task, unless they are signed up already.
+     *
+     * <p>The row of the rule is locked first, so that concurrent sign-ups for any of its occurrences count and insert
+     * one at a time and an occurrence is never overfilled; only the row of the user is locked before it, like every
+     * booking and sign-up does. The occurrence is checked against the rule, and the user against the
+     * {@link ScheduleIndex}, which holds their visits and one-off shifts, and then again in SQL.
+     *
+     * @param recurrenceId    the ID of the recurring task.
+     * @param occurrenceStart the start time of the occurrence.
+     * @param user            the {@link User} signing up.
+     * @return {@code true} if the user was signed up; {@code false} if they already were.
+     * @throws RuntimeException if the recurring task is not found or has no occurrence at that time.
+     * @throws ScheduleConflictException if the occurrence is full, or the user already has a visit or a volunteer
+     * shift at that time.
+     */
+    @Override
+    @Transactional
+    public boolean signUp(Long recurrenceId, LocalDateTime occurrenceStart, User user) {
+        scheduleGuard.lockUsers(List.of(user.getId()));
+        VolunteerRecurrence recurrence = volunteerRecurrenceRepository.findLockedById(recurrenceId)
+                .orElseThrow(() -> new RuntimeException("Recurring volunteer work not found"));
+        if (!RecurrenceRule.parse(recurrence.getRule()).isOccurrence(recurrence.getStartDate(), occurrenceStart)) {
+            throw new RuntimeException("Volunteer work occurrence not found");
+        }
+        if (volunteerOccurrenceSignupRepository.existsSignup(recurrenceId, occurrenceStart, user.getId())) {
+            return false;
+        }
+        LocalDateTime occurrenceEnd = occurrenceStart.plus(
+                Duration.between(recurrence.getStartDate(), recurrence.getEndDate()));
+        if (scheduleIndex.isUserBusy(user.getId(), occurrenceStart, occurrenceEnd)) {
+            throw new ScheduleConflictException("You already have a visit or volunteer shift at that time");
+        }
+        scheduleGuard.checkUserFree(user.getId(), occurrenceStart, occurrenceEnd, null, null);
+        if (recurrence.getCapacity() != null && volunteerOccurrenceSignupRepository.countSignups(recurrenceId,
+                occurrenceStart) >= recurrence.getCapacity()) {
+            throw new ScheduleConflictException("This volunteer work is full");
+        }
+        volunteerOccurrenceSignupRepository.insertSignup(recurrenceId, occurrenceStart, user.getId());
+        volunteerHoursService.credit(List.of(user.getId()), occurrenceStart, occurrenceEnd);
+        return true;
+    }
+}
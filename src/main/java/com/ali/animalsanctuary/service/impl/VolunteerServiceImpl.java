@@ -1,14 +1,23 @@
 package com.ali.animalsanctuary.service.impl;
 
+import com.ali.animalsanctuary.dto.ShiftMember;
+import com.ali.animalsanctuary.dto.ShiftTimes;
+import com.ali.animalsanctuary.dto.VolunteerCard;
 import com.ali.animalsanctuary.entity.User;
 import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
 import com.ali.animalsanctuary.repository.UserRepository;
 import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
 import com.ali.animalsanctuary.service.VolunteerService;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Implementation of the {@link VolunteerService} interface.
@@ -17,14 +26,21 @@ import java.util.List;
  * handling operations related to {@link Volunteer} entities, including saving, retrieving, deleting volunteers,
  * and managing user associations with volunteer tasks.
  *
+ * <p>Every change to a shift is mirrored into the {@link ScheduleIndex}, which rejects a shift overlapping another
+ * shift for the same task and a sign-up that would put a user in two places at once, without querying the volunteers
+ * table. The index trails the commits, so a change it lets through is checked again in SQL under a row lock taken
+ * by the {@link ScheduleGuard}. The same changes credit and debit the {@link VolunteerHoursService} rollups in the
+ * transaction that makes them.
+ *
  * <p>Methods:
  * <ul>
  *     <li>{@link #saveVolunteer(Volunteer)}: Saves a new or updated {@link Volunteer} entity.</li>
  *     <li>{@link #getVolunteerById(Long)}: Retrieves a {@link Volunteer} entity by its ID.</li>
  *     <li>{@link #getAllVolunteers()}: Retrieves a list of all {@link Volunteer} entities.</li>
+ *     <li>{@link #getVolunteerCards()}: Retrieves the volunteer works shown on the listing page with one narrow query.</li>
  *     <li>{@link #getVolunteersByUserId(Long)}: Retrieves a list of {@link Volunteer} entities associated with a specific user ID.</li>
  *     <li>{@link #deleteVolunteer(Long)}: Deletes the {@link Volunteer} entity with the specified ID.</li>
- *     <li>{@link #addUserToVolunteer(Long, User)}: Adds a {@link User} to a specific {@link Volunteer} entity.</li>
+ *     <li>{@link #addUserToVolunteer(Long, User)}: Adds a {@link User} to a specific {@link Volunteer} entity through its join table.</li>
  * </ul>
  *
  * @see Volunteer
@@ -41,15 +57,87 @@ public class VolunteerServiceImpl implements VolunteerService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private ScheduleGuard scheduleGuard;
+
     /**
      * Saves a new or updated {@link Volunteer} entity.
      *
+     * <p>The members of an existing volunteer work are left as they are: only its task, times and capacity are
+     * copied, since members join and leave through {@link #addUserToVolunteer(Long, User)}. A lower capacity does
+     * not remove members, it only stops new sign-ups until enough places are free. The row of an existing work is
+     * locked before its members are read, so that a concurrent sign-up either counts among them or credits the new
+     * times, and the hours of every member move with the work exactly once.
+     *
      * @param volunteer the {@link Volunteer} entity to be saved.
      * @return the saved {@link Volunteer} entity.
+     * @throws ScheduleConflictException if the shift overlaps another shift for the same task.
      */
     @Override
+    @Transactional
     public Volunteer saveVolunteer(Volunteer volunteer) {
-        return volunteerRepository.save(volunteer);
+        checkNoOverlap(volunteer);
+        Volunteer existing = volunteer.getId() == null ? null
+                : volunteerRepository.findLockedById(volunteer.getId()).orElse(null);
+        Volunteer saved;
+        List<Long> userIds;
+        if (existing == null) {
+            volunteer.setSignedUp(volunteer.getUsers().size());
+            saved = volunteerRepository.save(volunteer);
+            userIds = volunteer.getUsers().stream().map(User::getId).toList();
+            volunteerHoursService.credit(userIds, saved.getStartDate(), saved.getEndDate());
+        } else {
+            LocalDateTime oldStart = existing.getStartDate();
+            LocalDateTime oldEnd = existing.getEndDate();
+            existing.setTask(volunteer.getTask());
+            existing.setStartDate(volunteer.getStartDate());
+            existing.setEndDate(volunteer.getEndDate());
+            existing.setCapacity(volunteer.getCapacity());
+            saved = existing;
+            userIds = volunteerRepository.findMembers(List.of(existing.getId())).stream()
+                    .map(ShiftMember::getUserId)
+                    .toList();
+            if (!Objects.equals(oldStart, existing.getStartDate()) || !Objects.equals(oldEnd, existing.getEndDate())) {
+                volunteerHoursService.debit(userIds, oldStart, oldEnd);
+                volunteerHoursService.credit(userIds, existing.getStartDate(), existing.getEndDate());
+            }
+        }
+        TransactionHooks.afterCommit(() -> scheduleIndex.putShift(saved.getId(), saved.getStartDate(),
+                saved.getEndDate(), userIds));
+        return saved;
+    }
+
+    /**
+     * Throws if the shift ends before it starts or overlaps another shift for the same task. Only the few shifts
+     * the {@link ScheduleIndex} reports as overlapping are loaded to compare their tasks; if none matches, the shift
+     * schedule is locked until the shift is written and the check repeated in SQL.
+     */
+    private void checkNoOverlap(Volunteer volunteer) {
+        if (volunteer.getStartDate() == null || volunteer.getEndDate() == null) {
+            return;
+        }
+        if (!volunteer.getEndDate().isAfter(volunteer.getStartDate())) {
+            throw new ScheduleConflictException("A shift must end after it starts");
+        }
+        List<Long> overlapping = scheduleIndex.findShiftsOverlapping(volunteer.getStartDate(), volunteer.getEndDate())
+                .stream()
+                .filter(id -> !id.equals(volunteer.getId()))
+                .toList();
+        if (!overlapping.isEmpty() && volunteerRepository.findAllById(overlapping).stream()
+                .anyMatch(other -> Objects.equals(other.getTask(), volunteer.getTask()))) {
+            throw new ScheduleConflictException("Another " + volunteer.getTask() + " shift overlaps that time");
+        }
+        scheduleGuard.lockSchedule(ScheduleGuard.VOLUNTEERS);
+        if (volunteerRepository.existsTaskOverlapping(volunteer.getTask(), volunteer.getStartDate(),
+                volunteer.getEndDate(), volunteer.getId())) {
+            throw new ScheduleConflictException("Another " + volunteer.getTask() + " shift overlaps that time");
+        }
     }
 
     /**
@@ -74,41 +162,92 @@ public class VolunteerServiceImpl implements VolunteerService {
     }
 
     /**
-     * Retrieves a list of {@link Volunteer} entities associated with a specific user ID.
+     * Retrieves the volunteer works shown on the listing page, in start time order.
+     *
+     * <p>The works are read as {@link VolunteerCard} projections with one narrow query on the {@code volunteers}
+     * table, so neither their members nor the members' roles are loaded, however many works and sign-ups exist.
+     *
+     * @return a list of {@link VolunteerCard} projections.
+     */
+    @Override
+    public List<VolunteerCard> getVolunteerCards() {
+        return volunteerRepository.findAllCards();
+    }
+
+    /**
+     * Retrieves a list of {@link Volunteer} entities associated with a specific user ID, in start time order.
+     *
+     * <p>The shifts are found with a single join query on the {@code user_id} index of the {@code volunteer_users}
+     * table, so the cost depends on the number of shifts of the user rather than on every shift and sign-up.
      *
      * @param userId the ID of the {@link User} whose associated volunteers are to be retrieved.
      * @return a list of {@link Volunteer} entities associated with the specified user ID.
      */
     @Override
     public List<Volunteer> getVolunteersByUserId(Long userId) {
-        return volunteerRepository.findAll().stream()
-                .filter(volunteer -> volunteer.getUsers().stream()
-                        .anyMatch(user -> user.getId().equals(userId)))
-                .toList();
+        return volunteerRepository.findAllByUserId(userId);
     }
 
     /**
-     * Deletes the {@link Volunteer} entity with the specified ID.
+     * Deletes the {@link Volunteer} entity with the specified ID, taking it off the hours of its members. The row is
+     * locked before the members are read, so that no sign-up is credited for a work that is being deleted.
      *
      * @param id the ID of the {@link Volunteer} entity to be deleted.
      */
     @Override
+    @Transactional
     public void deleteVolunteer(Long id) {
+        volunteerRepository.findLockedShiftTimesById(id).ifPresent(shift -> volunteerHoursService.debit(
+                volunteerRepository.findMembers(List.of(id)).stream().map(ShiftMember::getUserId).toList(),
+                shift.getStartDate(), shift.getEndDate()));
         volunteerRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> scheduleIndex.removeShift(id));
     }
 
     /**
-     * Adds a {@link User} to a specific {@link Volunteer} entity.
+     * Adds a {@link User} to a specific {@link Volunteer} entity, unless they are a member already.
+     *
+     * <p>Neither the volunteer work nor its members are loaded: a place is taken with a conditional update of the
+     * {@code volunteers} row, guarded by the capacity, and the user is inserted into the {@code volunteer_users} join
+     * table directly. Concurrent sign-ups for the same work are serialized by that row lock alone, so a work is never
+     * overfilled, and a sign-up repeated meanwhile inserts nothing and gives its place back. The user's row is locked
+     * before the work's, so that the check against their other commitments, repeated in SQL, cannot race with another
+     * booking or sign-up of theirs. Once the place is taken, the times of the work are read under its row lock, so
+     * the check and the hours credited use the times a concurrent edit cannot change any more.
      *
      * @param volunteerId the ID of the {@link Volunteer} entity to which the user is to be added.
      * @param user the {@link User} to be added to the volunteer.
+     * @return {@code true} if the user was added; {@code false} if they already were a member.
      * @throws RuntimeException if the {@link Volunteer} entity with the specified ID is not found.
+     * @throws ScheduleConflictException if the volunteer work is full, or the user already has a visit or another
+     * shift at that time.
      */
     @Override
-    public void addUserToVolunteer(Long volunteerId, User user) {
-        Volunteer volunteer = volunteerRepository.findById(volunteerId)
+    @Transactional
+    public boolean addUserToVolunteer(Long volunteerId, User user) {
+        if (volunteerRepository.countMember(volunteerId, user.getId()) > 0) {
+            return false;
+        }
+        if (scheduleIndex.isUserBusyDuringShift(user.getId(), volunteerId)) {
+            throw new ScheduleConflictException("You already have a visit or volunteer shift at that time");
+        }
+        scheduleGuard.lockUsers(List.of(user.getId()));
+        if (volunteerRepository.takePlace(volunteerId) == 0) {
+            if (!volunteerRepository.existsById(volunteerId)) {
+                throw new RuntimeException("Volunteer work not found");
+            }
+            throw new ScheduleConflictException("This volunteer work is full");
+        }
+        // The row is locked by the place taken above, so these are the times the hours are credited for.
+        ShiftTimes shift = volunteerRepository.findLockedShiftTimesById(volunteerId)
                 .orElseThrow(() -> new RuntimeException("Volunteer work not found"));
-        volunteer.getUsers().add(user);
-        volunteerRepository.save(volunteer);
+        scheduleGuard.checkUserFree(user.getId(), shift.getStartDate(), shift.getEndDate(), null, volunteerId);
+        if (volunteerRepository.insertMember(volunteerId, user.getId()) == 0) {
+            volunteerRepository.releasePlace(volunteerId);
+            return false;
+        }
+        volunteerHoursService.credit(List.of(user.getId()), shift.getStartDate(), shift.getEndDate());
+        TransactionHooks.afterCommit(() -> scheduleIndex.addShiftMember(volunteerId, user.getId()));
+        return true;
     }
 }
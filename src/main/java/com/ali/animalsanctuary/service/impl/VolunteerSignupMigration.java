@@ -0,0 +1,48 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.entity.Volunteer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the sign-up count of volunteer shifts in line with the {@code volunteer_users} join table.
+ *
+ * When the {@code signed_up} column was added, every existing shift got a count of zero whatever its members. Before
+ * the application starts serving requests, this component sets the count of every shift whose count differs from its
+ * rows in the join table. The statement only touches rows that are still out of line, so running it again changes
+ * nothing.
+ *
+ * @see Volunteer
+ */
+
+@Component
+@DependsOn("entityManagerFactory")
+public class VolunteerSignupMigration implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerSignupMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new {@link VolunteerSignupMigration}.
+     *
+     * @param jdbcTemplate the template used to update the shifts.
+     */
+    public VolunteerSignupMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int recounted = jdbcTemplate.update("UPDATE volunteers SET signed_up = "
+                + "(SELECT COUNT(*) FROM volunteer_users m WHERE m.volunteer_id = volunteers.id) "
+                + "WHERE signed_up <> (SELECT COUNT(*) FROM volunteer_users m WHERE m.volunteer_id = volunteers.id)");
+        if (recounted > 0) {
+            logger.info("Recounted the sign-ups of {} volunteer shifts", recounted);
+        }
+    }
+}
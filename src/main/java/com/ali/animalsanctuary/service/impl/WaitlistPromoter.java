@@ -0,0 +1,112 @@
+package com.ali.animalsanctuary.service.impl;
+
+import com.ali.animalsanctuary.event.VisitSeatsFreedEvent;
+import com.ali.animalsanctuary.repository.VisitWaitlistRepository;
+import com.ali.animalsanctuary.service.VisitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves waiting users onto visit slots whose seats were freed, off the request threads.
+ *
+ * A committed cancellation only marks its slot as pending, so a request never waits for the waitlist to be served
+ * and any number of cancellations of the same slot between two runs collapse into one entry. A single background
+ * thread drains the pending slots on a fixed delay and promotes each slot's waitlist in batches, one transaction per
+ * batch, so a mass cancellation turns into a few short transactions instead of a storm of writes.
+ *
+ * <p>The pending slots are only a shortcut: the waitlists themselves are in the database, so the promoter also sweeps
+ * it on a slower delay, starting right after start-up, for slots with free seats or expired waitlists. Slots that
+ * were pending when the application stopped, or whose promotion failed, are served again by the next sweep.
+ *
+ * @see VisitService#promoteWaitlist(Long, Long, int)
+ */
+@Component
+public class WaitlistPromoter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    private final VisitService visitService;
+    private final VisitWaitlistRepository visitWaitlistRepository;
+    private final int batchSize;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new {@link WaitlistPromoter} and starts its background thread.
+     *
+     * @param visitService            the service promoting the waitlist of a slot.
+     * @param visitWaitlistRepository the repository finding the slots whose waitlist may be served.
+     * @param intervalMs              how often, in milliseconds, the pending slots are served.
+     * @param sweepIntervalMs         how often, in milliseconds, the waitlists are swept for slots to serve.
+     * @param batchSize               the number of waitlist entries handled per transaction.
+     */
+    public WaitlistPromoter(VisitService visitService, VisitWaitlistRepository visitWaitlistRepository,
+                            @Value("${sanctuary.waitlist.promotion-interval-ms:200}") long intervalMs,
+                            @Value("${sanctuary.waitlist.sweep-interval-ms:60000}") long sweepIntervalMs,
+                            @Value("${sanctuary.waitlist.promotion-batch-size:50}") int batchSize) {
+        this.visitService = visitService;
+        this.visitWaitlistRepository = visitWaitlistRepository;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visit-waitlist-promoter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, intervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::promotePending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks a visit slot for promotion on the next run.
+     *
+     * @param event the event naming the slot.
+     */
+    @EventListener
+    public void onSeatsFreed(VisitSeatsFreedEvent event) {
+        pending.add(event.getVisitId());
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void promotePending() {
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            Long visitId = it.next();
+            // Removed before serving, so seats freed while the slot is served mark it pending again.
+            it.remove();
+            try {
+                Long after = 0L;
+                do {
+                    after = visitService.promoteWaitlist(visitId, after, batchSize);
+                } while (after != null);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to promote the waitlist of visit {}, retrying on the next sweep", visitId, e);
+            }
+        }
+    }
+
+    private void sweep() {
+        try {
+            pending.addAll(visitWaitlistRepository.findVisitIdsToPromote(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to sweep the waitlists", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ali.animalsanctuary.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streams stored images to the client without materializing them on the heap.
+ *
+ * <p>File backed images are handed to the servlet container's sendfile support when the connector offers it, so the
+ * kernel copies the bytes straight from the page cache to the socket. Otherwise they are written with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, and non-file resources are copied through a small
+ * fixed buffer.
+ *
+ * <p>A single byte range requested with {@code Range} is answered with {@code 206 Partial Content}, unless an
+ * {@code If-Range} validator no longer matches the image. Requests for several ranges are answered with the full
+ * image, which the HTTP specification allows.
+ */
+
+@Component
+public class ImageResponseWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Writes an image, or the requested part of it, to the response.
+     *
+     * @param image       the stored image.
+     * @param contentType the MIME type of the image.
+     * @param etag        the strong entity tag of the image, used to validate {@code If-Range}.
+     * @param lastModified the modification date of the image in epoch milliseconds, or a negative value to use the
+     *                     date of the stored resource.
+     * @param request     the current request.
+     * @param response    the current response.
+     * @throws IOException if an I/O error occurs while reading the image or writing the response.
+     */
+    public void write(Resource image, String contentType, String etag, long lastModified,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = image.contentLength();
+        if (lastModified < 0) {
+            lastModified = image.lastModified();
+        }
+
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (image.isFile()) {
+            File file = image.getFile();
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            transferFile(file, start, count, response.getOutputStream());
+        } else {
+            copyStream(image, start, count, response.getOutputStream());
+        }
+    }
+
+    private static void transferFile(File file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static void copyStream(Resource image, long start, long count, OutputStream out) throws IOException {
+        try (InputStream in = image.getInputStream()) {
+            in.skipNBytes(start);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * An {@code If-Range} header makes the range conditional: the range is served only if the validator, either an
+     * entity tag or a date, still identifies the current image. Otherwise the full image is sent.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag != null && etag.equals(ifRange);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date >= 0 && lastModified / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ali.animalsanctuary.web;
+
+import com.ali.animalsanctuary.dto.ListingVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Builds weak entity tags for server-rendered listing pages.
+ *
+ * <p>The tag is derived from the data behind the page rather than from the rendered bytes, so a conditional request
+ * can be answered with {@code 304 Not Modified} before the rows are loaded or the template is rendered. Rendered pages
+ * also differ per user and per session (role dependent controls, CSRF tokens), so both are folded into the tag along
+ * with the query string. So are the flash attributes a redirect carried over: a failed booking changes no row, and
+ * its error message must not be lost to a {@code 304} answered from the tag the page had before.
+ */
+
+public final class PageEtags {
+
+    private PageEtags() {
+    }
+
+    /**
+     * Builds a weak entity tag for a listing page.
+     *
+     * @param request the current request.
+     * @param version the version of the data rendered by the page.
+     * @return the weak entity tag, including the {@code W/} prefix and quotes.
+     */
+    public static String weak(HttpServletRequest request, ListingVersion version) {
+        return weak(request, version, null);
+    }
+
+    /**
+     * Builds a weak entity tag for a listing page whose content also depends on something other than the data and
+     * the request, such as a time window that starts at the current time.
+     *
+     * @param request the current request.
+     * @param version the version of the data rendered by the page.
+     * @param scope   the additional state the page depends on, or {@code null}.
+     * @return the weak entity tag, including the {@code W/} prefix and quotes.
+     */
+    public static String weak(HttpServletRequest request, ListingVersion version, Object scope) {
+        HttpSession session = request.getSession(false);
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+        String state = request.getRequestURI()
+                + '?' + request.getQueryString()
+                + '|' + request.getRemoteUser()
+                + '|' + (session != null ? session.getId() : "")
+                + '|' + version.getCount()
+                + '|' + version.getLastUpdated()
+                + '|' + version.getRevision()
+                + '|' + scope
+                + '|' + (flash != null ? flash : "");
+        return "W/\"" + DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
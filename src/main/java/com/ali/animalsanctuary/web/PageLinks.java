@@ -0,0 +1,34 @@
+package com.ali.animalsanctuary.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Builds the links between the pages of keyset paginated listings.
+ *
+ * A listing page is addressed by the parameters of its filter plus one cursor, {@code after} or {@code before}.
+ * Links to the neighbouring pages keep every other parameter of the current request and replace the cursor.
+ */
+public final class PageLinks {
+
+    private PageLinks() {
+    }
+
+    /**
+     * Builds the link to a neighbouring page, keeping the filter and size of the current request.
+     *
+     * @param request     the current request.
+     * @param cursorParam the cursor parameter of the neighbouring page, {@code after} or {@code before}.
+     * @param cursor      the cursor value, already URL safe.
+     * @return the relative URL of the neighbouring page.
+     */
+    public static String pageUrl(HttpServletRequest request, String cursorParam, String cursor) {
+        return UriComponentsBuilder.fromPath(request.getRequestURI())
+                .query(request.getQueryString())
+                .replaceQueryParam("after")
+                .replaceQueryParam("before")
+                .replaceQueryParam(cursorParam, cursor)
+                .build(true)
+                .toUriString();
+    }
+}
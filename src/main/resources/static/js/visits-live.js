@@ -0,0 +1,47 @@
+//Keep the seats left on the visits page up to date from the server-sent events of /visits/live
+function initLiveVisits() {
+    var table = document.getElementById("visits-table");
+    if (!table || !window.EventSource) {
+        return;
+    }
+    var source = new EventSource(table.getAttribute("data-live-url"));
+    var opened = false;
+    //A reconnected stream only carries the changes made from then on, so reload to catch up on the ones missed
+    source.addEventListener("open", function () {
+        if (opened) {
+            source.close();
+            window.location.reload();
+        }
+        opened = true;
+    });
+    source.addEventListener("slots", function (event) {
+        JSON.parse(event.data).forEach(updateVisitRow);
+    });
+    source.addEventListener("reload", function () {
+        source.close();
+        window.location.reload();
+    });
+}
+
+function updateVisitRow(slot) {
+    var row = document.querySelector('tr[data-visit-id="' + slot.id + '"]');
+    if (!row) {
+        return;
+    }
+    if (slot.removed) {
+        row.parentNode.removeChild(row);
+        return;
+    }
+    row.querySelector(".seats-left").textContent = slot.seatsLeft;
+    var seats = row.querySelector('input[name="seats"]');
+    if (seats) {
+        seats.max = Math.max(1, slot.seatsLeft);
+    }
+    if (slot.seatsLeft === 0) {
+        row.classList.add("table-secondary");
+    } else {
+        row.classList.remove("table-secondary");
+    }
+}
+
+document.addEventListener("DOMContentLoaded", initLiveVisits);
@@ -0,0 +1,57 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.impl.AnimalIdSequenceAligner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that aligning the animal ID sequence with the existing IDs never moves it back when it is already ahead.
+ */
+@SpringBootTest
+public class AnimalIdSequenceAlignerTest {
+
+    @Autowired
+    private AnimalIdSequenceAligner animalIdSequenceAligner;
+
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Animal animal;
+
+    @AfterEach
+    public void deleteAnimal() {
+        animalService.deleteAnimal(animal.getId());
+    }
+
+    @Test
+    public void testSequenceAheadOfTheIdsIsNotMovedBack() throws Exception {
+        // Given
+        Animal newAnimal = new Animal();
+        newAnimal.setName("Sequoia");
+        newAnimal.setSpecies("Sequence test");
+        animal = animalService.saveAnimal(newAnimal, null);
+        long ahead = animal.getId() + 100L * Animal.ID_ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE animals_seq RESTART WITH " + ahead);
+
+        // When
+        animalIdSequenceAligner.afterPropertiesSet();
+
+        // Then
+        assertEquals(ahead, nextSequenceValue());
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_NAME = 'ANIMALS_SEQ'", Long.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.ImageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an image file is removed once the last animal using it is gone, but not while an upload of the same
+ * content is still saving its animal, and that the file of an upload whose animal is never saved does not linger.
+ */
+@SpringBootTest
+public class AnimalImageReleaseTest {
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> savedAnimalIds = new ArrayList<>();
+
+    @AfterEach
+    public void deleteAnimals() {
+        savedAnimalIds.forEach(animalService::deleteAnimal);
+    }
+
+    @Test
+    public void testImageIsRemovedWithItsLastAnimal() throws IOException {
+        // Given
+        Animal first = save("Shared one", image("shared"));
+        Animal second = save("Shared two", image("shared"));
+        String key = first.getImageKey();
+
+        // When
+        animalService.updateAnimal(first.getId(), newAnimal("Shared one"), image("replacement"));
+
+        // Then
+        assertTrue(imageStore.exists(key));
+        animalService.deleteAnimal(second.getId());
+        savedAnimalIds.remove(second.getId());
+        assertFalse(imageStore.exists(key));
+    }
+
+    @Test
+    public void testUploadInProgressKeepsTheImageOfADeletedAnimal() throws IOException {
+        // Given
+        Animal previous = save("Previous", image("reused"));
+        String key = previous.getImageKey();
+
+        // When
+        Animal uploaded = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                Animal animal = animalService.saveAnimal(newAnimal("Uploaded"), image("reused"));
+                CompletableFuture.runAsync(() -> animalService.deleteAnimal(previous.getId())).join();
+                return animal;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        savedAnimalIds.remove(previous.getId());
+        savedAnimalIds.add(uploaded.getId());
+
+        // Then
+        assertTrue(imageStore.exists(key));
+    }
+
+    @Test
+    public void testImageOfAnUnsavedAnimalIsRemoved() throws IOException {
+        // Given
+        MockMultipartFile rolledBack = image("rolled back");
+        MockMultipartFile rejected = image("rejected");
+        Animal orphan = newAnimal("Orphan");
+        User missing = new User();
+        missing.setId(Long.MAX_VALUE);
+        orphan.setAdopter(missing);
+
+        // When
+        String rolledBackKey = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                String key = animalService.saveAnimal(newAnimal("Rolled back"), rolledBack).getImageKey();
+                status.setRollbackOnly();
+                return key;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertThrows(RuntimeException.class, () -> animalService.saveAnimal(orphan, rejected));
+
+        // Then
+        assertFalse(imageStore.exists(rolledBackKey));
+        assertFalse(imageStore.exists(orphan.getImageKey()));
+    }
+
+    private Animal save(String name, MockMultipartFile image) throws IOException {
+        Animal animal = animalService.saveAnimal(newAnimal(name), image);
+        savedAnimalIds.add(animal.getId());
+        assertTrue(imageStore.exists(animal.getImageKey()));
+        return animal;
+    }
+
+    private static MockMultipartFile image(String content) {
+        byte[] bytes = new byte[JPEG_MAGIC.length + content.length()];
+        System.arraycopy(JPEG_MAGIC, 0, bytes, 0, JPEG_MAGIC.length);
+        System.arraycopy(content.getBytes(), 0, bytes, JPEG_MAGIC.length, content.length());
+        return new MockMultipartFile("image", content + ".jpg", "image/jpeg", bytes);
+    }
+
+    private static Animal newAnimal(String name) {
+        Animal animal = new Animal();
+        animal.setName(name);
+        animal.setSpecies("Image release test");
+        return animal;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.impl.AnimalImportRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the command line import imports the valid rows of a file and reports its outcome as the exit code of
+ * the application without exiting the JVM itself, and that it stays out of the way when no file is given.
+ */
+@SpringBootTest
+public class AnimalImportRunnerTest {
+
+    private static final String SPECIES = "Runner-imported";
+
+    @Autowired
+    private AnimalImportRunner animalImportRunner;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private AnimalService animalService;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    public void deleteImportedAnimals() {
+        importedAnimals().forEach(animal -> animalService.deleteAnimal(animal.getId()));
+    }
+
+    @Test
+    public void testImportReportsFailedRowsAsExitCode() throws Exception {
+        // Given
+        Path file = directory.resolve("intake.csv");
+        Files.writeString(file, "name,species,age\n"
+                + "Biscuit," + SPECIES + ",3\n"
+                + "Pepper," + SPECIES + ",old\n"
+                + "," + SPECIES + ",2\n");
+
+        // When
+        animalImportRunner.run(new DefaultApplicationArguments("--import.file=" + file));
+
+        // Then
+        assertTrue(animalImportRunner.isImportRun());
+        assertEquals(1, animalImportRunner.getExitCode());
+        assertEquals(List.of("Biscuit"), importedAnimals().stream().map(Animal::getName).toList());
+    }
+
+    @Test
+    public void testCompleteImportExitsWithZero() throws Exception {
+        // Given
+        Path file = directory.resolve("intake.jsonl");
+        Files.writeString(file, "{\"name\": \"Mochi\", \"species\": \"" + SPECIES + "\", \"age\": 1}\n"
+                + "{\"name\": \"Noodle\", \"species\": \"" + SPECIES + "\"}\n");
+
+        // When
+        animalImportRunner.run(new DefaultApplicationArguments("--import.file=" + file));
+
+        // Then
+        assertEquals(0, animalImportRunner.getExitCode());
+        assertEquals(2, importedAnimals().size());
+    }
+
+    @Test
+    public void testNothingHappensWithoutAFile() throws Exception {
+        // Given
+        AnimalImportRunner runner = new AnimalImportRunner(null);
+
+        // When
+        runner.run(new DefaultApplicationArguments("--server.port=0"));
+
+        // Then
+        assertFalse(runner.isImportRun());
+        assertEquals(0, runner.getExitCode());
+    }
+
+    private List<Animal> importedAnimals() {
+        return animalRepository.findAll().stream().filter(animal -> SPECIES.equals(animal.getSpecies())).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.AnimalSearchHit;
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.impl.AnimalSearchServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the search index is rebuilt on startup when an update of an animal never reached it, even though the
+ * index still holds as many documents as the animals table has rows.
+ */
+@SpringBootTest
+public class AnimalSearchIndexTest {
+
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @TempDir
+    private Path indexDir;
+
+    private Animal animal;
+
+    @AfterEach
+    public void deleteAnimal() {
+        animalService.deleteAnimal(animal.getId());
+    }
+
+    @Test
+    public void testLostUpdateIsReindexedOnStartup() throws Exception {
+        // Given
+        Animal newAnimal = new Animal();
+        newAnimal.setName("Marigold");
+        newAnimal.setSpecies("Search index test");
+        animal = animalService.saveAnimal(newAnimal, null);
+        AnimalSearchServiceImpl index = open();
+        assertEquals(List.of(animal.getId()), search(index, "Marigold"));
+        index.destroy();
+
+        Thread.sleep(10);
+        animal.setName("Rosemary");
+        animal = animalRepository.save(animal);
+
+        // When
+        index = open();
+
+        // Then
+        try {
+            assertEquals(List.of(animal.getId()), search(index, "Rosemary"));
+            assertTrue(search(index, "Marigold").isEmpty());
+        } finally {
+            index.destroy();
+        }
+    }
+
+    private AnimalSearchServiceImpl open() throws Exception {
+        AnimalSearchServiceImpl index = new AnimalSearchServiceImpl(animalRepository, indexDir.toString(), 60_000,
+                60_000);
+        index.run(new DefaultApplicationArguments());
+        return index;
+    }
+
+    private static List<Long> search(AnimalSearchServiceImpl index, String query) {
+        return index.search(query, 10).stream().map(AnimalSearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.VisitService;
+import com.ali.animalsanctuary.service.impl.AvailabilityCalendarImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the availability calendar stays exact under concurrent updates of the same day, that a rebuild streams
+ * exactly the available visits, that slots which already started are not counted, and that visits not starting on a
+ * whole minute are rejected.
+ */
+@SpringBootTest
+public class AvailabilityCalendarTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2096, 8, 5, 0, 0);
+    private static final int THREADS = 8;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    public void createUser() {
+        user = TestUsers.create(userRepository, "calendar", 1).get(0);
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUser() {
+        visitRepository.findTimesOverlapping(DAY, DAY.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        TestUsers.delete(userRepository, null, List.of(user));
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfOneDayAreAllKept() throws Exception {
+        // Given
+        AvailabilityCalendarImpl calendar = new AvailabilityCalendarImpl(visitRepository, transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int first = thread;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int minute = first; minute < 24 * 60; minute += THREADS) {
+                        calendar.open(DAY.plusMinutes(minute));
+                    }
+                    for (int minute = first; minute < 24 * 60; minute += THREADS) {
+                        if (minute % 2 == 1) {
+                            calendar.close(DAY.plusMinutes(minute));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        List<LocalTime> openings = calendar.findOpenings(DAY.toLocalDate());
+        assertEquals(12 * 60, openings.size());
+        assertTrue(openings.stream().allMatch(time -> (time.getHour() * 60 + time.getMinute()) % 2 == 0));
+        assertEquals(12 * 60, calendar.countOpenings(YearMonth.from(DAY)).get(DAY.toLocalDate()));
+        assertTrue(calendar.isOpen(DAY.withHour(23).withMinute(58)));
+        assertFalse(calendar.isOpen(DAY.withHour(23).withMinute(59)));
+    }
+
+    @Test
+    public void testRebuildStreamsTheAvailableVisits() {
+        // Given
+        Long booked = createSlot(DAY.withHour(9));
+        createSlot(DAY.withHour(10));
+        createSlot(DAY.withHour(11).withMinute(30));
+        assertTrue(visitService.bookVisit(booked, user.getId()));
+        AvailabilityCalendarImpl calendar = new AvailabilityCalendarImpl(visitRepository, transactionManager);
+
+        // When
+        calendar.rebuild();
+
+        // Then
+        assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(11, 30)), calendar.findOpenings(DAY.toLocalDate()));
+        assertEquals(2, calendar.countOpenings(YearMonth.from(DAY)).get(DAY.toLocalDate()));
+    }
+
+    @Test
+    public void testSlotsThatStartedAreNotCounted() {
+        // Given
+        AvailabilityCalendarImpl calendar = new AvailabilityCalendarImpl(visitRepository, transactionManager);
+        LocalDate today = LocalDate.now();
+        calendar.open(today.minusDays(1).atTime(12, 0));
+        calendar.open(today.plusDays(1).atTime(12, 0));
+        calendar.open(today.atTime(0, 0));
+        calendar.open(today.atTime(23, 59));
+
+        // When
+        LocalTime now = LocalTime.now();
+
+        // Then
+        assertFalse(calendar.countOpenings(YearMonth.from(today.minusDays(1))).containsKey(today.minusDays(1)));
+        assertTrue(calendar.findOpenings(today.minusDays(1)).isEmpty());
+        assertEquals(1, calendar.countOpenings(YearMonth.from(today.plusDays(1))).get(today.plusDays(1)));
+        if (now.isAfter(LocalTime.of(0, 1)) && now.isBefore(LocalTime.of(23, 58))) {
+            assertEquals(1, calendar.countOpenings(YearMonth.from(today)).get(today));
+            assertEquals(List.of(LocalTime.of(23, 59)), calendar.findOpenings(today));
+        }
+    }
+
+    @Test
+    public void testVisitsMustStartOnAWholeMinute() {
+        // When / Then
+        LocalDateTime start = DAY.withHour(14).withSecond(30);
+        assertThrows(ScheduleConflictException.class,
+                () -> visitService.createVisit(new VisitDto(null, start, start.plusHours(1), null, 1)));
+        assertTrue(visitRepository.findTimesOverlapping(DAY.withHour(14), DAY.withHour(16)).isEmpty());
+    }
+
+    private Long createSlot(LocalDateTime start) {
+        visitService.createVisit(new VisitDto(null, start, start.plusMinutes(30), null, 1));
+        return visitRepository.findTimesOverlapping(start, start.plusMinutes(1)).get(0).getId();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ali.animalsanctuary;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs numbered tasks from many threads at once, for the tests that race bookings and sign-ups against each other.
+ */
+final class ConcurrentTasks {
+
+    private ConcurrentTasks() {
+    }
+
+    /**
+     * Runs the numbered tasks on a fixed pool, starting them all at once, and fails if any of them threw.
+     *
+     * @param threads the size of the pool.
+     * @param tasks   the number of tasks; each is called with its number, from 0.
+     * @param task    the task to run.
+     * @return the elapsed time in nanoseconds, from the start of the tasks until the last one ended.
+     */
+    static long run(int threads, int tasks, IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run(index);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - started;
+        assertTrue(failures.isEmpty(), () -> failures.size() + " tasks failed, the first with: " + failures.peek());
+        return elapsed;
+    }
+
+    /**
+     * A task that is told its number.
+     */
+    @FunctionalInterface
+    interface IndexedTask {
+
+        void run(int index) throws Exception;
+    }
+}
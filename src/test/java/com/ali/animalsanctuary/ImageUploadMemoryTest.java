@@ -0,0 +1,202 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.Animal;
+import com.ali.animalsanctuary.repository.AnimalRepository;
+import com.ali.animalsanctuary.service.AnimalService;
+import com.ali.animalsanctuary.service.ImageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Uploads more image data at once than fits on the heap through the add animal form. Maven runs this class in its own
+ * JVM with a small {@code -Xmx} (see the {@code constrained-heap-tests} Surefire execution), so an upload path that
+ * buffers whole files in memory fails with an {@link OutOfMemoryError}.
+ */
+@SpringBootTest(properties = "sanctuary.images.max-size=64MB")
+@AutoConfigureMockMvc
+public class ImageUploadMemoryTest {
+
+    private static final int UPLOADS = 16;
+    private static final long UPLOAD_SIZE = 24L * 1024 * 1024;
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    private final List<Long> savedAnimalIds = new ArrayList<>();
+
+    @AfterEach
+    public void deleteAnimals() {
+        savedAnimalIds.forEach(animalService::deleteAnimal);
+    }
+
+    @Test
+    public void testConcurrentLargeUploadsStayWithinHeap() throws Exception {
+        // Given
+        assumeTrue(UPLOADS * UPLOAD_SIZE > 2 * Runtime.getRuntime().maxMemory(),
+                "uploads must not fit on the heap for this test to be meaningful");
+        ExecutorService executor = Executors.newFixedThreadPool(UPLOADS);
+
+        // When
+        List<Future<ResultActions>> futures = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            int seed = i;
+            futures.add(executor.submit(() -> upload("Upload " + seed,
+                    new GeneratedImageFile(seed, UPLOAD_SIZE, JPEG_MAGIC))));
+        }
+        for (Future<ResultActions> future : futures) {
+            future.get().andExpect(redirectedUrl("/animals"));
+        }
+        executor.shutdown();
+        List<Animal> saved = animalRepository.findAll().stream()
+                .filter(animal -> animal.getName().startsWith("Upload "))
+                .toList();
+        saved.forEach(animal -> savedAnimalIds.add(animal.getId()));
+
+        // Then
+        assertEquals(UPLOADS, saved.size());
+        for (Animal animal : saved) {
+            assertEquals(UPLOAD_SIZE, animal.getImageSize());
+            assertEquals("image/jpeg", animal.getImageContentType());
+            assertTrue(imageStore.exists(animal.getImageKey()));
+        }
+        assertEquals(UPLOADS, saved.stream().map(Animal::getImageKey).distinct().count());
+    }
+
+    @Test
+    public void testOversizedUploadIsRejected() throws Exception {
+        // Given
+        MockMultipartFile file = new GeneratedImageFile(1, 65L * 1024 * 1024, JPEG_MAGIC);
+
+        // When / Then
+        upload("Too large", file)
+                .andExpect(view().name("add-animal"))
+                .andExpect(model().attribute("error", "Image exceeds the maximum size of " + 64L * 1024 * 1024
+                        + " bytes"));
+    }
+
+    @Test
+    public void testNonImageUploadIsRejected() throws Exception {
+        // Given
+        MockMultipartFile file = new GeneratedImageFile(2, 1024, "%PDF-1.7".getBytes());
+
+        // When / Then
+        upload("Not an image", file)
+                .andExpect(view().name("add-animal"))
+                .andExpect(model().attribute("error", "Only JPEG, PNG, GIF and WebP images are supported"));
+    }
+
+    private ResultActions upload(String name, MockMultipartFile file) throws Exception {
+        return mockMvc.perform(multipart("/animals/save")
+                .file(file)
+                .param("name", name)
+                .param("species", "Dog")
+                .param("age", "2")
+                .with(user("admin").roles("ADMIN"))
+                .with(csrf()));
+    }
+
+    /**
+     * A multipart file whose content is generated while it is read, so the test itself never holds an upload in
+     * memory. Reading it whole with {@link #getBytes()} fails the test.
+     */
+    private static class GeneratedImageFile extends MockMultipartFile {
+
+        private final long seed;
+        private final long size;
+        private final byte[] magic;
+
+        GeneratedImageFile(long seed, long size, byte[] magic) {
+            super("file", "upload-" + seed + ".jpg", "image/jpeg", new byte[0]);
+            this.seed = seed;
+            this.size = size;
+            this.magic = magic;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Uploads must be streamed, not read into memory");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private final SplittableRandom random = new SplittableRandom(seed);
+                private long position;
+
+                @Override
+                public int read() {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(length, size - position);
+                    for (int i = 0; i < count; i++) {
+                        long index = position + i;
+                        buffer[offset + i] = index < magic.length ? magic[(int) index] : (byte) random.nextInt(256);
+                    }
+                    position += count;
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest.toPath());
+            }
+        }
+    }
+}
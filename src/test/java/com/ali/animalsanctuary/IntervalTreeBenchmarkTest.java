@@ -0,0 +1,82 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.service.impl.IntervalTree;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the latency of {@link IntervalTree} overlap queries over schedules of 10k, 100k and 1M intervals. The
+ * schedules are equally dense, as if the sanctuary kept running the same number of visits a day for longer, so the
+ * number of matches per query stays the same and only the tree grows. The default build skips this class; run it
+ * with the {@code benchmarks} Maven profile.
+ */
+public class IntervalTreeBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntervalTreeBenchmarkTest.class);
+
+    private static final long MINUTE = 60;
+    private static final int QUERIES = 100_000;
+
+    @Test
+    public void testQueryLatencyAt10kTo1MIntervals() {
+        logger.info("Intervals   Build ms   Query mean us   Query p99 us   Matches/query   Any-overlap mean us");
+        double[] means = new double[3];
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        for (int s = 0; s < sizes.length; s++) {
+            // Given
+            int size = sizes[s];
+            Random random = new Random(size);
+            long[][] intervals = IntervalTreeTest.randomSchedule(random, size);
+            long buildStarted = System.nanoTime();
+            IntervalTree tree = new IntervalTree();
+            for (int i = 0; i < intervals.length; i++) {
+                tree.put(i, intervals[i][0], intervals[i][1]);
+            }
+            long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+            long span = size * 30 * MINUTE;
+            long[] froms = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                froms[q] = (long) (random.nextDouble() * span);
+            }
+
+            // When
+            long[] matches = new long[1];
+            for (int q = 0; q < QUERIES; q++) {
+                tree.forEachOverlapping(froms[q], froms[q] + 60 * MINUTE, id -> matches[0]++);
+            }
+            matches[0] = 0;
+            long[] latencies = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                long started = System.nanoTime();
+                tree.forEachOverlapping(froms[q], froms[q] + 60 * MINUTE, id -> matches[0]++);
+                latencies[q] = System.nanoTime() - started;
+            }
+            long anyStarted = System.nanoTime();
+            int busy = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                if (tree.anyOverlapping(froms[q], froms[q] + 60 * MINUTE, -1)) {
+                    busy++;
+                }
+            }
+            long anyNanos = System.nanoTime() - anyStarted;
+
+            // Then
+            Arrays.sort(latencies);
+            means[s] = Arrays.stream(latencies).average().orElse(0) / 1000;
+            logger.info(String.format("%9d   %8d   %13.2f   %12.2f   %13.1f   %19.2f", size, buildMillis, means[s],
+                    latencies[(int) (QUERIES * 0.99)] / 1000.0, matches[0] / (double) QUERIES,
+                    anyNanos / 1000.0 / QUERIES));
+            assertEquals(size, tree.size());
+            assertTrue(busy > 0);
+        }
+        // A linear scan would be 100 times slower at 1M than at 10k; the tree only adds a few levels.
+        assertTrue(means[2] < means[0] * 50, "query latency should grow logarithmically");
+    }
+}
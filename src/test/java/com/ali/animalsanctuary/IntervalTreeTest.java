@@ -0,0 +1,77 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.service.impl.IntervalTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the {@link IntervalTree} against a linear scan after inserts, moves and removals.
+ */
+public class IntervalTreeTest {
+
+    private static final long MINUTE = 60;
+
+    @Test
+    public void testQueriesMatchLinearScan() {
+        // Given
+        Random random = new Random(7);
+        long[][] intervals = randomSchedule(random, 10_000);
+        IntervalTree tree = new IntervalTree();
+        for (int i = 0; i < intervals.length; i++) {
+            tree.put(i, intervals[i][0], intervals[i][1]);
+        }
+        // Move and remove a tenth of the intervals to exercise rebalancing.
+        for (int i = 0; i < intervals.length; i += 10) {
+            if (i % 20 == 0) {
+                tree.remove(i);
+                intervals[i] = null;
+            } else {
+                long start = intervals[i][0] + 45 * MINUTE;
+                intervals[i] = new long[]{start, start + 30 * MINUTE};
+                tree.put(i, intervals[i][0], intervals[i][1]);
+            }
+        }
+
+        // When / Then
+        long span = intervals.length * 30 * MINUTE;
+        for (int q = 0; q < 2_000; q++) {
+            long from = (long) (random.nextDouble() * span);
+            long to = from + (1 + random.nextInt(240)) * MINUTE;
+            List<Long> expected = new ArrayList<>();
+            List<long[]> candidates = new ArrayList<>();
+            for (int i = 0; i < intervals.length; i++) {
+                if (intervals[i] != null && intervals[i][0] < to && intervals[i][1] > from) {
+                    candidates.add(new long[]{intervals[i][0], intervals[i][1], i});
+                }
+            }
+            candidates.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                    : a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+            candidates.forEach(c -> expected.add(c[2]));
+
+            List<Long> actual = new ArrayList<>();
+            tree.forEachOverlapping(from, to, actual::add);
+            assertEquals(expected, actual);
+            boolean anyOther = expected.stream().anyMatch(id -> id != 0);
+            assertEquals(anyOther, tree.anyOverlapping(from, to, 0));
+        }
+        assertEquals(intervals.length - intervals.length / 20, tree.size());
+    }
+
+    /**
+     * A schedule of {@code size} visits of 30 to 120 minutes, starting on average every 30 minutes.
+     */
+    static long[][] randomSchedule(Random random, int size) {
+        long span = size * 30 * MINUTE;
+        long[][] intervals = new long[size][];
+        for (int i = 0; i < size; i++) {
+            long start = (long) (random.nextDouble() * span) / MINUTE * MINUTE;
+            intervals[i] = new long[]{start, start + (30 + 30 * random.nextInt(4)) * MINUTE};
+        }
+        return intervals;
+    }
+}
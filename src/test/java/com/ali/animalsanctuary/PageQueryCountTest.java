@@ -0,0 +1,151 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renders the volunteer works and visits listing pages with open-in-view turned off and checks that each render
+ * issues the same number of SQL statements with 10, 1,000 and 10,000 rows, every one of them with a member or a
+ * booker whose loading would add a statement per row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "pagereader", roles = "USER")
+public class PageQueryCountTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageQueryCountTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 8, 1, 8, 0);
+    private static final int[] ROWS = {10, 1_000, 10_000};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User member;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void createMember() {
+        member = TestUsers.create(userRepository, "pagemember", 1).get(0);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void deleteRowsAndMember() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("DELETE FROM volunteer_users WHERE user_id = ?", member.getId());
+        jdbcTemplate.update("DELETE FROM volunteers WHERE task LIKE 'Page task %'");
+        jdbcTemplate.update("DELETE FROM visits WHERE user_id = ?", member.getId());
+        TestUsers.delete(userRepository, null, List.of(member));
+    }
+
+    @Test
+    public void testVolunteerWorksPageStatementsDoNotGrowWithRows() throws Exception {
+        // Given
+        List<Long> counts = new ArrayList<>();
+        int created = 0;
+
+        // When
+        for (int rows : ROWS) {
+            insertVolunteerWorks(created, rows - created);
+            created = rows;
+            counts.add(countStatements("/volunteers"));
+        }
+
+        // Then
+        logger.info("Volunteer works page statements at {} rows: {}", Arrays.toString(ROWS), counts);
+        assertTrue(counts.get(0) <= 1, () -> "statements: " + counts);
+        assertEquals(counts.get(0), counts.get(1));
+        assertEquals(counts.get(0), counts.get(2));
+    }
+
+    @Test
+    public void testVisitsPageStatementsDoNotGrowWithRows() throws Exception {
+        // Given
+        List<Long> counts = new ArrayList<>();
+        int created = 0;
+
+        // When
+        for (int rows : ROWS) {
+            insertBookedVisits(created, rows - created);
+            created = rows;
+            counts.add(countStatements("/visits?from=2099-08-01&to=2099-12-31&size=50"));
+        }
+
+        // Then
+        logger.info("Visits page statements at {} rows: {}", Arrays.toString(ROWS), counts);
+        assertTrue(counts.get(0) <= 2, () -> "statements: " + counts);
+        assertEquals(counts.get(0), counts.get(1));
+        assertEquals(counts.get(0), counts.get(2));
+    }
+
+    private long countStatements(String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Inserts volunteer works after the existing ones, each with the member signed up.
+     */
+    private void insertVolunteerWorks(int offset, int count) {
+        List<Object[]> works = new ArrayList<>();
+        for (int i = offset; i < offset + count; i++) {
+            works.add(new Object[]{"Page task " + i, Timestamp.valueOf(DAY.plusHours(i)),
+                    Timestamp.valueOf(DAY.plusHours(i + 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO volunteers (task, start_date, end_date, signed_up) VALUES (?, ?, ?, 1)",
+                works);
+        jdbcTemplate.update("INSERT INTO volunteer_users (volunteer_id, user_id) SELECT v.id, ? FROM volunteers v "
+                + "WHERE v.task LIKE 'Page task %' AND NOT EXISTS "
+                + "(SELECT 1 FROM volunteer_users m WHERE m.volunteer_id = v.id)", member.getId());
+    }
+
+    /**
+     * Inserts group visits after the existing ones, each with a seat booked by the member and seats left.
+     */
+    private void insertBookedVisits(int offset, int count) {
+        List<Object[]> visits = new ArrayList<>();
+        for (int i = offset; i < offset + count; i++) {
+            visits.add(new Object[]{Timestamp.valueOf(DAY.plusMinutes(10L * i)),
+                    Timestamp.valueOf(DAY.plusMinutes(10L * i + 10)), member.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO visits (start_time, end_time, user_id, capacity, seats_left, available, "
+                + "updated_at) VALUES (?, ?, ?, 4, 3, true, CURRENT_TIMESTAMP)", visits);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.service.impl.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the windowed expansion of {@link RecurrenceRule} against a day by day walk from the first occurrence, for
+ * daily, weekly and monthly rules with intervals, {@code BYDAY}, {@code UNTIL} and {@code COUNT}, and measures how long
+ * expanding a month of a rule that started decades earlier takes.
+ */
+public class RecurrenceRuleTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurrenceRuleTest.class);
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 31, 8, 30);
+
+    private static final String[] RULES = {
+            "FREQ=DAILY",
+            "FREQ=DAILY;INTERVAL=3;COUNT=40",
+            "FREQ=WEEKLY",
+            "FREQ=WEEKLY;BYDAY=MO,WE,SA",
+            "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,SU;COUNT=25",
+            "FREQ=WEEKLY;BYDAY=MO,FR;UNTIL=20240615",
+            "FREQ=MONTHLY",
+            "FREQ=MONTHLY;INTERVAL=2;COUNT=9",
+            "FREQ=MONTHLY;UNTIL=20251130",
+    };
+
+    @Test
+    public void testWindowsMatchWalkFromFirstOccurrence() {
+        // Given
+        Random random = new Random(11);
+        List<LocalDateTime> firsts = List.of(FIRST, FIRST.minusDays(2), LocalDateTime.of(2024, 3, 15, 23, 0));
+
+        // When / Then
+        for (String text : RULES) {
+            RecurrenceRule rule = RecurrenceRule.parse(text);
+            for (LocalDateTime first : firsts) {
+                List<LocalDateTime> all = walk(text, first, first.plusYears(3));
+                for (int i = 0; i < 200; i++) {
+                    LocalDateTime from = first.minusDays(10).plusHours(random.nextInt(24 * 800));
+                    LocalDateTime to = from.plusHours(random.nextInt(24 * 70));
+                    List<LocalDateTime> expected = all.stream()
+                            .filter(start -> !start.isBefore(from) && start.isBefore(to))
+                            .toList();
+                    assertEquals(expected, rule.occurrencesBetween(first, from, to),
+                            () -> text + " from " + first + " in [" + from + ", " + to + ")");
+                }
+                if (!rule.isUnbounded()) {
+                    assertEquals(all.get(all.size() - 1), rule.lastOccurrence(first), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCountAndUntilBoundTheSeries() {
+        // Given
+        RecurrenceRule counted = RecurrenceRule.parse("RRULE:freq=weekly;byday=mo,th;count=5");
+        RecurrenceRule until = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20240205T000000Z");
+        LocalDateTime thursday = LocalDateTime.of(2024, 2, 1, 9, 0);
+
+        // When
+        List<LocalDateTime> countedStarts = counted.occurrencesBetween(thursday, thursday, thursday.plusYears(1));
+        List<LocalDateTime> untilStarts = until.occurrencesBetween(FIRST, FIRST, FIRST.plusYears(1));
+
+        // Then
+        assertEquals(List.of(thursday, thursday.plusDays(4), thursday.plusDays(7), thursday.plusDays(11),
+                thursday.plusDays(14)), countedStarts);
+        assertEquals(thursday.plusDays(14), counted.lastOccurrence(thursday));
+        assertEquals(6, untilStarts.size());
+        assertEquals(LocalDateTime.of(2024, 2, 5, 8, 30), until.lastOccurrence(FIRST));
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=5", counted.toString());
+        assertTrue(counted.isOccurrence(thursday, thursday.plusDays(11)));
+        assertFalse(counted.isOccurrence(thursday, thursday.plusDays(18)));
+        assertFalse(counted.isOccurrence(thursday, thursday.plusDays(4).plusMinutes(1)));
+        assertNull(RecurrenceRule.parse("FREQ=DAILY").lastOccurrence(FIRST));
+    }
+
+    @Test
+    public void testMonthlyRuleSkipsShortMonths() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;COUNT=4");
+
+        // When
+        List<LocalDateTime> starts = rule.occurrencesBetween(FIRST, FIRST, FIRST.plusYears(1));
+
+        // Then
+        assertEquals(List.of(FIRST, FIRST.withMonth(3), FIRST.withMonth(5), FIRST.withMonth(7)), starts);
+    }
+
+    @Test
+    public void testInvalidRulesAreRejected() {
+        for (String text : new String[]{"", "INTERVAL=2", "FREQ=YEARLY", "FREQ=DAILY;BYDAY=MO", "FREQ=WEEKLY;BYDAY=XX",
+                "FREQ=DAILY;COUNT=0", "FREQ=DAILY;UNTIL=tomorrow", "FREQ=DAILY;BYHOUR=8", "FREQ"}) {
+            assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse(text), text);
+        }
+    }
+
+    @Test
+    public void testExpandingAMonthCostsTheSameAfterDecades() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY");
+        LocalDateTime first = LocalDateTime.of(1900, 1, 1, 8, 0);
+        LocalDateTime from = LocalDateTime.of(2099, 1, 1, 0, 0);
+        int windows = 10_000;
+
+        // When
+        long started = System.nanoTime();
+        int occurrences = 0;
+        for (int i = 0; i < windows; i++) {
+            occurrences += rule.occurrencesBetween(first, from.plusDays(i), from.plusDays(i + 30)).size();
+        }
+        long nanos = System.nanoTime() - started;
+
+        // Then
+        logger.info("Expanded {} 30-day windows of a daily rule from 1900 in {} us each", windows,
+                String.format("%.1f", nanos / 1e3 / windows));
+        assertEquals(windows * 30, occurrences);
+    }
+
+    /**
+     * Lists the occurrences of a rule by walking every day from the first occurrence and testing it against the rule,
+     * counting the occurrences as it goes.
+     */
+    private static List<LocalDateTime> walk(String text, LocalDateTime first, LocalDateTime end) {
+        String frequency = part(text, "FREQ");
+        int interval = part(text, "INTERVAL") == null ? 1 : Integer.parseInt(part(text, "INTERVAL"));
+        Integer count = part(text, "COUNT") == null ? null : Integer.valueOf(part(text, "COUNT"));
+        LocalDate until = part(text, "UNTIL") == null ? null
+                : LocalDate.parse(part(text, "UNTIL"), DateTimeFormatter.BASIC_ISO_DATE);
+        List<DayOfWeek> days = new ArrayList<>();
+        if (part(text, "BYDAY") != null) {
+            for (String day : part(text, "BYDAY").split(",")) {
+                for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                    if (dayOfWeek.name().startsWith(day)) {
+                        days.add(dayOfWeek);
+                    }
+                }
+            }
+        } else {
+            days.add(first.getDayOfWeek());
+        }
+        LocalDate firstDay = first.toLocalDate();
+        LocalDate firstMonday = firstDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalTime time = first.toLocalTime();
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDate day = firstDay; day.atTime(time).isBefore(end); day = day.plusDays(1)) {
+            boolean matches = switch (frequency) {
+                case "DAILY" -> ChronoUnit.DAYS.between(firstDay, day) % interval == 0;
+                case "WEEKLY" -> days.contains(day.getDayOfWeek()) && ChronoUnit.WEEKS.between(firstMonday,
+                        day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))) % interval == 0;
+                default -> day.getDayOfMonth() == firstDay.getDayOfMonth()
+                        && ChronoUnit.MONTHS.between(YearMonth.from(firstDay), YearMonth.from(day)) % interval == 0;
+            };
+            if (!matches) {
+                continue;
+            }
+            if ((count != null && starts.size() == count) || (until != null && day.isAfter(until))) {
+                break;
+            }
+            starts.add(day.atTime(time));
+        }
+        return starts;
+    }
+
+    private static String part(String text, String name) {
+        for (String part : text.split(";")) {
+            if (part.startsWith(name + "=")) {
+                return part.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+}
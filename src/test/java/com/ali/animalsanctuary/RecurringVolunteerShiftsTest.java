@@ -0,0 +1,204 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.ShiftOccurrence;
+import com.ali.animalsanctuary.dto.VolunteerHoursSummary;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.VolunteerRecurrence;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerHoursRepository;
+import com.ali.animalsanctuary.repository.VolunteerOccurrenceSignupRepository;
+import com.ali.animalsanctuary.repository.VolunteerRecurrenceRepository;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerRecurrenceService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a recurring volunteer task is stored as one row, that sign-ups are stored per occurrence against it and
+ * respect its capacity and the volunteer hours, and that listing the next 30 days with hundreds of rules reads a
+ * fixed number of statements and expands only those days.
+ */
+@SpringBootTest
+public class RecurringVolunteerShiftsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringVolunteerShiftsTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2098, 3, 1, 8, 0);
+    private static final int RULES = 300;
+
+    @Autowired
+    private VolunteerRecurrenceService volunteerRecurrenceService;
+
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private VolunteerRecurrenceRepository volunteerRecurrenceRepository;
+
+    @Autowired
+    private VolunteerOccurrenceSignupRepository volunteerOccurrenceSignupRepository;
+
+    @Autowired
+    private VolunteerHoursRepository volunteerHoursRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> recurrences = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "regular", 3));
+    }
+
+    @AfterEach
+    public void deleteRecurrencesAndUsers() {
+        recurrences.forEach(volunteerRecurrenceService::deleteRecurrence);
+        TestUsers.delete(userRepository, volunteerHoursRepository, users);
+    }
+
+    @Test
+    public void testYearLongDailyTaskIsOneRow() {
+        // Given
+        long before = volunteerRecurrenceRepository.count();
+
+        // When
+        VolunteerRecurrence saved = createRecurrence("Year of feeding", DAY, "freq=daily;until=20990228", null);
+
+        // Then
+        assertEquals(before + 1, volunteerRecurrenceRepository.count());
+        assertEquals("FREQ=DAILY;UNTIL=20990228", saved.getRule());
+        assertEquals(LocalDateTime.of(2099, 2, 28, 8, 0), saved.getLastStart());
+        assertEquals(365, volunteerRecurrenceService.getUpcomingShifts(DAY, DAY.plusYears(2)).stream()
+                .filter(shift -> saved.getId().equals(shift.getRecurrenceId()))
+                .count());
+        assertThrows(IllegalArgumentException.class,
+                () -> createRecurrence("Never", DAY, "FREQ=DAILY;UNTIL=20980101", null));
+    }
+
+    @Test
+    public void testSignUpsAreStoredAgainstTheOccurrence() {
+        // Given
+        VolunteerRecurrence walking = createRecurrence("Walking", DAY, "FREQ=WEEKLY;BYDAY=MO,TH", 2);
+        LocalDateTime thursday = LocalDateTime.of(2098, 3, 6, 8, 0);
+        LocalDateTime monday = thursday.plusDays(4);
+
+        // When
+        assertTrue(volunteerRecurrenceService.signUp(walking.getId(), thursday, users.get(0)));
+        assertTrue(volunteerRecurrenceService.signUp(walking.getId(), thursday, users.get(1)));
+        assertFalse(volunteerRecurrenceService.signUp(walking.getId(), thursday, users.get(0)));
+        assertTrue(volunteerRecurrenceService.signUp(walking.getId(), monday, users.get(2)));
+
+        // Then
+        assertThrows(ScheduleConflictException.class,
+                () -> volunteerRecurrenceService.signUp(walking.getId(), thursday, users.get(2)));
+        assertThrows(RuntimeException.class,
+                () -> volunteerRecurrenceService.signUp(walking.getId(), thursday.plusDays(1), users.get(2)));
+        assertEquals(3, volunteerOccurrenceSignupRepository.count());
+        List<ShiftOccurrence> week = volunteerRecurrenceService.getUpcomingShifts(thursday, thursday.plusWeeks(1));
+        assertEquals(List.of(thursday, monday), week.stream().map(ShiftOccurrence::getStartDate).toList());
+        assertEquals(List.of(2L, 1L), week.stream().map(ShiftOccurrence::getSignedUp).toList());
+
+        VolunteerHoursSummary hours = volunteerHoursService.getUserSummary(users.get(0).getId(),
+                YearMonth.from(DAY), YearMonth.from(DAY));
+        assertEquals(60, hours.getMinutes());
+        assertEquals(1, hours.getShifts());
+        List<String> rollups = snapshot();
+        volunteerHoursService.rebuild();
+        assertEquals(rollups, snapshot());
+
+        volunteerRecurrenceService.deleteRecurrence(walking.getId());
+        recurrences.remove(walking.getId());
+        assertEquals(0, volunteerOccurrenceSignupRepository.count());
+        assertEquals(0, volunteerHoursService.getUserSummary(users.get(0).getId(), YearMonth.from(DAY),
+                YearMonth.from(DAY)).getShifts());
+    }
+
+    @Test
+    public void testNext30DaysWithHundredsOfRulesReadFixedStatements() {
+        // Given
+        LocalDateTime from = DAY.plusYears(1).withHour(0);
+        String[] rules = {"FREQ=DAILY", "FREQ=WEEKLY;BYDAY=MO,WE,FR", "FREQ=MONTHLY", "FREQ=DAILY;INTERVAL=2",
+                "FREQ=DAILY;COUNT=30"};
+        List<VolunteerRecurrence> created = new ArrayList<>();
+        for (int i = 0; i < RULES; i++) {
+            VolunteerRecurrence recurrence = new VolunteerRecurrence();
+            recurrence.setTask("Rule task " + i);
+            recurrence.setStartDate(DAY.plusMinutes(i));
+            recurrence.setEndDate(DAY.plusMinutes(i + 60));
+            recurrence.setRule(rules[i % rules.length]);
+            created.add(volunteerRecurrenceService.saveRecurrence(recurrence));
+        }
+        created.forEach(recurrence -> recurrences.add(recurrence.getId()));
+        LocalDateTime signedUpStart = from.plusDays(3).withHour(8);
+        volunteerRecurrenceService.signUp(created.get(0).getId(), signedUpStart, users.get(0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // When
+        statistics.clear();
+        long started = System.nanoTime();
+        List<ShiftOccurrence> shifts = volunteerRecurrenceService.getUpcomingShifts(from, from.plusDays(30));
+        long nanos = System.nanoTime() - started;
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        // Then
+        logger.info("Listed {} occurrences of {} rules for 30 days with {} statement(s) in {} ms", shifts.size(),
+                RULES, statements, nanos / 1_000_000);
+        assertEquals(3, statements);
+        long perRules = RULES / rules.length;
+        long mondaysWednesdaysFridays = shifts.stream()
+                .filter(shift -> shift.getTask().equals("Rule task 1"))
+                .count();
+        assertEquals(perRules * (30 + mondaysWednesdaysFridays + 1 + 15), shifts.stream()
+                .filter(shift -> shift.getTask().startsWith("Rule task "))
+                .count());
+        assertTrue(shifts.stream().anyMatch(shift -> shift.getStartDate().equals(signedUpStart)
+                && shift.getSignedUp() == 1));
+        assertTrue(nanos < 2_000_000_000L, () -> "listing took " + nanos / 1_000_000 + " ms");
+    }
+
+    private VolunteerRecurrence createRecurrence(String task, LocalDateTime start, String rule, Integer capacity) {
+        VolunteerRecurrence recurrence = new VolunteerRecurrence();
+        recurrence.setTask(task);
+        recurrence.setStartDate(start);
+        recurrence.setEndDate(start.plusHours(1));
+        recurrence.setRule(rule);
+        recurrence.setCapacity(capacity);
+        VolunteerRecurrence saved = volunteerRecurrenceService.saveRecurrence(recurrence);
+        recurrences.add(saved.getId());
+        return saved;
+    }
+
+    private List<String> snapshot() {
+        return volunteerHoursRepository.findAll().stream()
+                .map(row -> row.getUserId() + " " + row.getGranularity() + " " + row.getPeriodStart() + " "
+                        + row.getMinutes() + " " + row.getShifts())
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,237 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VisitService;
+import com.ali.animalsanctuary.service.VolunteerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that visit slots and volunteer shifts are kept apart, and users are kept from being double-booked, through
+ * the {@link ScheduleIndex}, also when the conflicting changes are made at the same time.
+ */
+@SpringBootTest
+public class ScheduleConflictTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 3, 2, 0, 0);
+    private static final int ROUNDS = 8;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VolunteerService volunteerService;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<Long> shiftIds = new ArrayList<>();
+
+    @BeforeEach
+    public void createUser() {
+        user = TestUsers.create(userRepository, "scheduler", 1).get(0);
+    }
+
+    @AfterEach
+    public void deleteSchedule() {
+        visitRepository.findTimesOverlapping(DAY, DAY.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        shiftIds.forEach(volunteerService::deleteVolunteer);
+        TestUsers.delete(userRepository, null, List.of(user));
+    }
+
+    @Test
+    public void testOverlappingVisitSlotsAreRejected() {
+        // Given
+        createVisit(10, 0, 11, 0);
+
+        // When / Then
+        ScheduleConflictException e = assertThrows(ScheduleConflictException.class, () -> createVisit(10, 30, 11, 30));
+        assertEquals("The visit overlaps another visit slot", e.getMessage());
+        assertDoesNotThrow(() -> createVisit(11, 0, 12, 0));
+        assertEquals(2, scheduleIndex.findVisitsOverlapping(DAY, DAY.plusDays(1)).size());
+    }
+
+    @Test
+    public void testMovingAVisitOnlyConflictsWithOtherSlots() {
+        // Given
+        Long first = createVisit(10, 0, 11, 0);
+        createVisit(12, 0, 13, 0);
+
+        // When / Then
+        assertDoesNotThrow(() -> visitService.updateVisit(new VisitDto(first, DAY.withHour(10).withMinute(30),
+                DAY.withHour(11).withMinute(30), null, null)));
+        assertThrows(ScheduleConflictException.class, () -> visitService.updateVisit(new VisitDto(first,
+                DAY.withHour(11), DAY.withHour(12).withMinute(30), null, null)));
+        assertEquals(List.of(first), scheduleIndex.findVisitsOverlapping(DAY.withHour(10), DAY.withHour(11)));
+    }
+
+    @Test
+    public void testUserCannotJoinAShiftDuringABookedVisit() {
+        // Given
+        Long visitId = createVisit(10, 0, 11, 0);
+        assertTrue(visitService.bookVisit(visitId, user.getId()));
+        Long overlapping = createShift("Feeding", 10, 30, 12, 0);
+        Long after = createShift("Cleaning", 12, 0, 13, 0);
+
+        // When / Then
+        assertThrows(ScheduleConflictException.class, () -> volunteerService.addUserToVolunteer(overlapping, user));
+        assertDoesNotThrow(() -> volunteerService.addUserToVolunteer(after, user));
+        assertTrue(scheduleIndex.isUserBusy(user.getId(), DAY.withHour(12), DAY.withHour(12).plusMinutes(1)));
+
+        // When the visit is canceled, the first shift is free again
+        visitService.cancelVisit(visitId);
+        assertDoesNotThrow(() -> volunteerService.addUserToVolunteer(overlapping, user));
+    }
+
+    @Test
+    public void testUserCannotBookAVisitDuringTheirShift() {
+        // Given
+        Long shiftId = createShift("Walking", 14, 0, 16, 0);
+        volunteerService.addUserToVolunteer(shiftId, user);
+        Long during = createVisit(15, 0, 15, 30);
+        Long after = createVisit(16, 0, 16, 30);
+
+        // When / Then
+        assertThrows(ScheduleConflictException.class, () -> visitService.bookVisit(during, user.getId()));
+        assertTrue(visitRepository.findById(during).orElseThrow().isAvailable());
+        assertTrue(visitService.bookVisit(after, user.getId()));
+        assertFalse(scheduleIndex.isUserBusy(user.getId(), DAY.withHour(13), DAY.withHour(14)));
+    }
+
+    @Test
+    public void testOverlappingShiftsForTheSameTaskAreRejected() {
+        // Given
+        createShift("Grooming", 9, 0, 12, 0);
+
+        // When / Then
+        assertThrows(ScheduleConflictException.class, () -> createShift("Grooming", 11, 0, 13, 0));
+        assertDoesNotThrow(() -> createShift("Feeding", 11, 0, 13, 0));
+        assertDoesNotThrow(() -> createShift("Grooming", 12, 0, 13, 0));
+    }
+
+    @Test
+    public void testConcurrentBookingAndSignUpOfOneUserCannotBothSucceed() throws Exception {
+        // Given
+        List<Long> visits = new ArrayList<>();
+        List<Long> shifts = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            visits.add(createVisit(round, 0, round, 30));
+            shifts.add(createShift("Race " + round, round, 15, round, 45));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long visitId = visits.get(round);
+                Long shiftId = shifts.get(round);
+
+                // When
+                int succeeded = race(executor, () -> visitService.bookVisit(visitId, user.getId()),
+                        () -> volunteerService.addUserToVolunteer(shiftId, user));
+
+                // Then
+                assertEquals(1, succeeded, "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentOverlappingVisitSlotsAreNotBothCreated() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                int hour = 12 + round;
+
+                // When
+                int succeeded = race(executor, () -> createVisit(hour, 0, hour, 40) != null,
+                        () -> createVisit(hour, 20, hour, 50) != null);
+
+                // Then
+                assertEquals(1, succeeded, "round " + round);
+                assertEquals(1, visitRepository.findTimesOverlapping(DAY.withHour(hour), DAY.withHour(hour + 1)).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts two schedule changes at the same moment and counts the ones that succeeded.
+     */
+    private static int race(ExecutorService executor, Callable<Boolean> first, Callable<Boolean> second)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Callable<Boolean> change : List.of(first, second)) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return change.call();
+                } catch (ScheduleConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private Long createVisit(int startHour, int startMinute, int endHour, int endMinute) {
+        LocalDateTime start = DAY.withHour(startHour).withMinute(startMinute);
+        visitService.createVisit(new VisitDto(null, start, DAY.withHour(endHour).withMinute(endMinute), null, null));
+        Visit visit = visitRepository.findAvailableAfter(start, start.plusMinutes(1), start, 0L,
+                Limit.of(1)).get(0);
+        return visit.getId();
+    }
+
+    private Long createShift(String task, int startHour, int startMinute, int endHour, int endMinute) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setTask(task);
+        volunteer.setStartDate(DAY.withHour(startHour).withMinute(startMinute));
+        volunteer.setEndDate(DAY.withHour(endHour).withMinute(endMinute));
+        Long id = volunteerService.saveVolunteer(volunteer).getId();
+        shiftIds.add(id);
+        return id;
+    }
+}
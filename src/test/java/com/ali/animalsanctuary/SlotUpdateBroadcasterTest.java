@@ -0,0 +1,226 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.event.VisitSlotChangedEvent;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VisitService;
+import com.ali.animalsanctuary.service.impl.SlotUpdateBroadcasterImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that slot changes reach every open stream, that a stream which stops reading is dropped without holding up
+ * the others and can reconnect, that a failed stream is removed, and that a stream falling too far behind is asked to
+ * reload. The slots are made up IDs, which the broadcaster reports as removed.
+ */
+@SpringBootTest
+public class SlotUpdateBroadcasterTest {
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    private final List<SlotUpdateBroadcasterImpl> broadcasters = new ArrayList<>();
+
+    @AfterEach
+    public void stopBroadcasters() {
+        broadcasters.forEach(SlotUpdateBroadcasterImpl::destroy);
+    }
+
+    @Test
+    public void testChangesFanOutToEveryStream() throws InterruptedException {
+        // Given
+        TestBroadcaster broadcaster = broadcaster(2, 100, 60_000);
+        List<TestEmitter> emitters = List.of(new TestEmitter(), new TestEmitter(), new TestEmitter());
+        emitters.forEach(broadcaster::subscribe);
+
+        // When
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-1L));
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-2L));
+
+        // Then
+        for (TestEmitter emitter : emitters) {
+            awaitUntil(() -> emitter.received(-1L) && emitter.received(-2L));
+        }
+        assertEquals(3, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    public void testBlockedStreamIsDroppedWithoutStarvingTheOthers() throws InterruptedException {
+        // Given
+        TestBroadcaster broadcaster = broadcaster(1, 100, 300);
+        TestEmitter blocked = new TestEmitter();
+        blocked.block();
+        TestEmitter first = new TestEmitter();
+        TestEmitter second = new TestEmitter();
+        broadcaster.subscribe(blocked);
+        broadcaster.subscribe(first);
+        broadcaster.subscribe(second);
+
+        // When
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-1L));
+
+        // Then
+        awaitUntil(() -> first.received(-1L) && second.received(-1L));
+        awaitUntil(() -> broadcaster.getSubscriberCount() == 2);
+
+        TestEmitter reconnected = new TestEmitter();
+        broadcaster.subscribe(reconnected);
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-2L));
+        awaitUntil(() -> reconnected.received(-2L) && first.received(-2L));
+
+        blocked.release();
+        awaitUntil(() -> blocked.completed);
+        assertFalse(blocked.received(-2L));
+    }
+
+    @Test
+    public void testFailedStreamIsRemoved() throws InterruptedException {
+        // Given
+        TestBroadcaster broadcaster = broadcaster(2, 100, 60_000);
+        TestEmitter broken = new TestEmitter();
+        broken.failing = true;
+        TestEmitter healthy = new TestEmitter();
+        broadcaster.subscribe(broken);
+        broadcaster.subscribe(healthy);
+
+        // When
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-1L));
+
+        // Then
+        awaitUntil(() -> broadcaster.getSubscriberCount() == 1);
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-2L));
+        awaitUntil(() -> healthy.received(-1L) && healthy.received(-2L));
+        assertTrue(broken.events.isEmpty());
+    }
+
+    @Test
+    public void testStreamFallingBehindIsAskedToReload() throws InterruptedException {
+        // Given
+        TestBroadcaster broadcaster = broadcaster(2, 2, 60_000);
+        TestEmitter slow = new TestEmitter();
+        slow.block();
+        broadcaster.subscribe(slow);
+        broadcaster.onSlotChanged(new VisitSlotChangedEvent(-1L));
+        slow.entered.await();
+
+        // When
+        for (long id = -2; id >= -4; id--) {
+            broadcaster.onSlotChanged(new VisitSlotChangedEvent(id));
+        }
+        Thread.sleep(500);
+        slow.release();
+
+        // Then
+        awaitUntil(() -> slow.events.size() == 2);
+        assertTrue(slow.received(-1L));
+        assertTrue(slow.events.get(1).startsWith("event:reload"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    private TestBroadcaster broadcaster(int senderThreads, int maxPending, long sendTimeoutMs) {
+        TestBroadcaster broadcaster = new TestBroadcaster(visitService, scheduleIndex, senderThreads, maxPending,
+                sendTimeoutMs);
+        broadcasters.add(broadcaster);
+        return broadcaster;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "the streams were not updated in time");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * A broadcaster handing out the emitters given to {@link #subscribe(TestEmitter)}.
+     */
+    private static final class TestBroadcaster extends SlotUpdateBroadcasterImpl {
+
+        private final Deque<TestEmitter> next = new ArrayDeque<>();
+
+        TestBroadcaster(VisitService visitService, ScheduleIndex scheduleIndex, int senderThreads, int maxPending,
+                        long sendTimeoutMs) {
+            super(visitService, scheduleIndex, 20, 60_000, 60_000, maxPending, senderThreads, sendTimeoutMs);
+        }
+
+        synchronized void subscribe(TestEmitter emitter) {
+            next.push(emitter);
+            subscribe();
+        }
+
+        @Override
+        protected SseEmitter createEmitter(long timeoutMs) {
+            return next.pop();
+        }
+    }
+
+    /**
+     * An emitter recording the events sent to it, which can be made to block like a browser that stopped reading, or
+     * to fail like one that went away.
+     */
+    private static final class TestEmitter extends SseEmitter {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+        volatile boolean failing;
+        volatile boolean completed;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        boolean received(Long visitId) {
+            return events.stream().anyMatch(event -> event.contains("VisitSlotState(id=" + visitId + ","));
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            entered.countDown();
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            events.add(builder.build().stream().map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerHoursRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the users a test books visits or signs up for shifts with, and removes them together with the volunteer hours
+ * recorded for them. Only the rows of the given users are removed, so tests sharing the database do not clear each
+ * other's data.
+ */
+final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * Saves users named {@code <prefix>0}, {@code <prefix>1} and so on.
+     *
+     * @param userRepository the repository saving the users.
+     * @param prefix         the prefix of the usernames.
+     * @param count          the number of users.
+     * @return the saved users, in name order.
+     */
+    static List<User> create(UserRepository userRepository, String prefix, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername(prefix + i);
+            user.setEmail(prefix + i + "@example.com");
+            user.setPassword("secret");
+            user.setFirstName(Character.toUpperCase(prefix.charAt(0)) + prefix.substring(1));
+            user.setLastName(String.valueOf(i));
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    /**
+     * Deletes users, after the volunteer hour rollups recorded for them.
+     *
+     * @param userRepository           the repository deleting the users.
+     * @param volunteerHoursRepository the repository holding the rollups, or {@code null} if the test records none.
+     * @param users                    the users to delete.
+     */
+    static void delete(UserRepository userRepository, VolunteerHoursRepository volunteerHoursRepository,
+                       List<User> users) {
+        if (volunteerHoursRepository != null) {
+            Set<Long> userIds = users.stream().map(User::getId).collect(Collectors.toSet());
+            volunteerHoursRepository.deleteAllInBatch(volunteerHoursRepository.findAll().stream()
+                    .filter(row -> userIds.contains(row.getUserId()))
+                    .toList());
+        }
+        userRepository.deleteAll(users);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.dto.VisitTimes;
+import com.ali.animalsanctuary.dto.VisitUsage;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.VisitService;
+import com.ali.animalsanctuary.service.impl.VisitArchiver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the archiver moves past visits and their bookings out of the live tables, leaves upcoming visits
+ * alone, and that the usage report over the live and archive tables adds up to the same seats as before.
+ */
+@SpringBootTest
+public class VisitArchiverTest {
+
+    private static final LocalDateTime PAST = LocalDateTime.of(2002, 3, 4, 0, 0);
+    private static final LocalDateTime FUTURE = LocalDateTime.of(2098, 3, 4, 0, 0);
+    private static final int VISITS = 5;
+
+    @Autowired
+    private VisitArchiver visitArchiver;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VisitBookingRepository visitBookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "archived", 3));
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUsers() {
+        jdbcTemplate.update("DELETE FROM visit_bookings_archive WHERE visit_id IN "
+                + "(SELECT id FROM visits_archive WHERE start_time >= ? AND start_time < ?)", PAST, PAST.plusDays(1));
+        jdbcTemplate.update("DELETE FROM visits_archive WHERE start_time >= ? AND start_time < ?", PAST,
+                PAST.plusDays(1));
+        visitRepository.findTimesOverlapping(PAST, PAST.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        visitRepository.findTimesOverlapping(FUTURE, FUTURE.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testPastVisitsAndBookingsAreMovedToTheArchive() {
+        // Given
+        for (int hour = 9; hour < 9 + VISITS; hour++) {
+            createSlot(PAST.withHour(hour), 3);
+        }
+        List<Long> past = visitRepository.findTimesOverlapping(PAST, PAST.plusDays(1)).stream()
+                .map(VisitTimes::getId).toList();
+        int booked = 0;
+        for (int i = 0; i < past.size(); i++) {
+            for (int user = 0; user <= i % users.size(); user++) {
+                assertTrue(visitService.bookSeats(past.get(i), users.get(user).getId(), 1));
+                booked++;
+            }
+        }
+        Long upcoming = createSlot(FUTURE.withHour(10), 2);
+        assertTrue(visitService.bookSeats(upcoming, users.get(0).getId(), 2));
+        int bookingsBefore = countBookings("visit_bookings", past);
+
+        // When
+        int archived = visitArchiver.archive();
+
+        // Then
+        assertTrue(archived >= VISITS);
+        assertEquals(booked, bookingsBefore);
+        assertTrue(visitService.findVisitUsage(PAST, PAST.plusDays(1), false).isEmpty());
+        List<VisitUsage> usage = visitService.findVisitUsage(PAST, PAST.plusDays(1), true);
+        assertEquals(past, usage.stream().map(VisitUsage::getId).toList());
+        assertEquals(booked, usage.stream().mapToInt(VisitUsage::getSeatsBooked).sum());
+        assertEquals(0, countBookings("visit_bookings", past));
+        assertEquals(bookingsBefore, countBookings("visit_bookings_archive", past));
+
+        assertEquals(1, visitService.findVisitUsage(FUTURE, FUTURE.plusDays(1), false).size());
+        assertEquals(2, visitBookingRepository.findSeats(upcoming, users.get(0).getId()).orElseThrow());
+        assertEquals(0, visitArchiver.archive());
+    }
+
+    private int countBookings(String table, List<Long> visitIds) {
+        String ids = String.join(",", visitIds.stream().map(String::valueOf).toList());
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE visit_id IN (" + ids + ")",
+                Integer.class);
+    }
+
+    private Long createSlot(LocalDateTime start, int capacity) {
+        visitService.createVisit(new VisitDto(null, start, start.plusHours(1), null, capacity));
+        return visitRepository.findTimesOverlapping(start, start.plusMinutes(1)).get(0).getId();
+    }
+}
@@ -0,0 +1,160 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.VisitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires thousands of parallel bookings at a handful of visit slots and checks that every slot is won exactly once,
+ * then compares the throughput of the conditional update with the previous read, check and save booking path.
+ */
+@SpringBootTest
+public class VisitBookingConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitBookingConcurrencyTest.class);
+
+    private static final int THREADS = 32;
+    private static final int USERS = 50;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "booker", USERS));
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUsers() {
+        visitRepository.deleteAll();
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testEachSlotIsBookedExactlyOnce() throws Exception {
+        // Given
+        List<Visit> slots = createSlots(5);
+        int attempts = 5000;
+        Map<Long, ConcurrentLinkedQueue<Long>> winners = new ConcurrentHashMap<>();
+        slots.forEach(slot -> winners.put(slot.getId(), new ConcurrentLinkedQueue<>()));
+
+        // When
+        ConcurrentTasks.run(THREADS, attempts, i -> {
+            Long slotId = slots.get(i % slots.size()).getId();
+            Long userId = users.get(i % USERS).getId();
+            if (visitService.bookVisit(slotId, userId)) {
+                winners.get(slotId).add(userId);
+            }
+        });
+
+        // Then
+        for (Visit slot : slots) {
+            assertEquals(1, winners.get(slot.getId()).size(), "slot " + slot.getId() + " must have exactly one winner");
+            Visit booked = visitRepository.findById(slot.getId()).orElseThrow();
+            assertFalse(booked.isAvailable());
+            assertEquals(winners.get(slot.getId()).peek(), booked.getUser().getId());
+        }
+    }
+
+    @Test
+    public void testBookingAnUnknownSlotFails() {
+        // When / Then
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> visitService.bookVisit(Long.MAX_VALUE, users.get(0).getId()));
+        assertEquals("Visit not found", e.getMessage());
+    }
+
+    @Test
+    public void testConditionalUpdateThroughputAgainstReadCheckSave() throws Exception {
+        // Given
+        int slotCount = 200;
+        int attemptsPerSlot = 16;
+        List<Visit> legacySlots = createSlots(slotCount);
+        List<Visit> atomicSlots = createSlots(slotCount);
+        AtomicInteger legacyWins = new AtomicInteger();
+        AtomicInteger atomicWins = new AtomicInteger();
+
+        // When
+        long legacyNanos = ConcurrentTasks.run(THREADS, slotCount * attemptsPerSlot, i -> {
+            if (readCheckSave(legacySlots.get(i / attemptsPerSlot).getId(), users.get(i % USERS).getId())) {
+                legacyWins.incrementAndGet();
+            }
+        });
+        long atomicNanos = ConcurrentTasks.run(THREADS, slotCount * attemptsPerSlot, i -> {
+            if (visitService.bookVisit(atomicSlots.get(i / attemptsPerSlot).getId(), users.get(i % USERS).getId())) {
+                atomicWins.incrementAndGet();
+            }
+        });
+
+        // Then
+        double legacyRate = slotCount * attemptsPerSlot / (legacyNanos / 1e9);
+        double atomicRate = slotCount * attemptsPerSlot / (atomicNanos / 1e9);
+        logger.info("Read, check and save: {} bookings/s, {} winners for {} slots", Math.round(legacyRate),
+                legacyWins.get(), slotCount);
+        logger.info("Conditional update: {} bookings/s, {} winners for {} slots", Math.round(atomicRate),
+                atomicWins.get(), slotCount);
+        assertEquals(slotCount, atomicWins.get());
+        assertTrue(legacyWins.get() >= slotCount);
+    }
+
+    /**
+     * The booking path replaced by the conditional update: two lookups, a check in Java and a save, with nothing
+     * stopping another thread from booking the slot in between.
+     */
+    private boolean readCheckSave(Long visitId, Long userId) {
+        Optional<Visit> optionalVisit = visitRepository.findById(visitId);
+        Optional<User> optionalUser = userRepository.findById(userId);
+        Visit visit = optionalVisit.orElseThrow();
+        if (!visit.isAvailable()) {
+            return false;
+        }
+        visit.setUser(optionalUser.orElseThrow());
+        visit.setAvailable(false);
+        visitRepository.save(visit);
+        return true;
+    }
+
+    private List<Visit> createSlots(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Visit> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Visit visit = new Visit();
+            visit.setStartTime(start.plusHours(i));
+            visit.setEndTime(start.plusHours(i).plusMinutes(30));
+            visit.setAvailable(true);
+            slots.add(visit);
+        }
+        return visitRepository.saveAll(slots);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.SlotGenerationResult;
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.dto.VisitRecurrence;
+import com.ali.animalsanctuary.dto.VisitTimes;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VisitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that generating a recurring schedule skips the slots overlapping existing visits, inserts long schedules
+ * across several JDBC batches, and that generations running at the same time never create overlapping slots.
+ */
+@SpringBootTest
+public class VisitGenerationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2095, 3, 7);
+    private static final int ROUNDS = 4;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private AvailabilityCalendar availabilityCalendar;
+
+    @AfterEach
+    public void deleteVisits() {
+        findVisits(DAY, DAY.plusDays(60)).forEach(visit -> visitService.deleteVisit(visit.getId()));
+    }
+
+    @Test
+    public void testSlotsOverlappingExistingVisitsAreSkipped() {
+        // Given
+        LocalDateTime existing = DAY.atTime(10, 15);
+        visitService.createVisit(new VisitDto(null, existing, existing.plusMinutes(30), null, 1));
+        VisitRecurrence recurrence = new VisitRecurrence(DAY, DAY.plusDays(1),
+                List.of(DAY.getDayOfWeek(), DAY.plusDays(1).getDayOfWeek()), LocalTime.of(10, 0), LocalTime.of(12, 0),
+                30, 3);
+
+        // When
+        SlotGenerationResult result = visitService.generateVisits(recurrence);
+
+        // Then
+        assertEquals(6, result.getCreated());
+        assertEquals(2, result.getSkipped());
+        List<VisitTimes> visits = findVisits(DAY, DAY.plusDays(2));
+        assertEquals(7, visits.size());
+        assertNoOverlaps(visits);
+        VisitTimes generated = visits.get(visits.size() - 1);
+        assertEquals(DAY.plusDays(1).atTime(11, 30), generated.getStartTime());
+        assertEquals(DAY.plusDays(1).atTime(12, 0), generated.getEndTime());
+        assertEquals(3, visitService.getSeatsLeft(generated.getId()));
+        assertEquals(generated.getStartTime(), scheduleIndex.getVisitStart(generated.getId()));
+        assertTrue(availabilityCalendar.isOpen(DAY.atTime(11, 0)));
+        assertFalse(availabilityCalendar.isOpen(DAY.atTime(10, 30)));
+
+        SlotGenerationResult again = visitService.generateVisits(recurrence);
+        assertEquals(0, again.getCreated());
+        assertEquals(8, again.getSkipped());
+    }
+
+    @Test
+    public void testLongScheduleIsInsertedInSeveralBatches() {
+        // Given
+        VisitRecurrence recurrence = new VisitRecurrence(DAY, DAY.plusDays(34), List.of(DayOfWeek.values()),
+                LocalTime.of(9, 0), LocalTime.of(17, 0), 30, 2);
+
+        // When
+        SlotGenerationResult result = visitService.generateVisits(recurrence);
+
+        // Then
+        assertEquals(35 * 16, result.getCreated());
+        assertEquals(0, result.getSkipped());
+        List<VisitTimes> visits = findVisits(DAY, DAY.plusDays(35));
+        assertEquals(35 * 16, visits.size());
+        assertNoOverlaps(visits);
+        assertEquals(16, availabilityCalendar.countOpenings(YearMonth.from(DAY.plusDays(34)))
+                .get(DAY.plusDays(34)));
+    }
+
+    @Test
+    public void testConcurrentGenerationsDoNotCreateOverlappingSlots() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // Given
+                LocalDate day = DAY.plusDays(40 + round);
+                VisitRecurrence first = new VisitRecurrence(day, day, List.of(day.getDayOfWeek()),
+                        LocalTime.of(9, 0), LocalTime.of(12, 0), 30, 1);
+                VisitRecurrence second = new VisitRecurrence(day, day, List.of(day.getDayOfWeek()),
+                        LocalTime.of(9, 15), LocalTime.of(12, 15), 30, 1);
+                CountDownLatch start = new CountDownLatch(1);
+
+                // When
+                Future<SlotGenerationResult> a = executor.submit(() -> {
+                    start.await();
+                    return visitService.generateVisits(first);
+                });
+                Future<SlotGenerationResult> b = executor.submit(() -> {
+                    start.await();
+                    return visitService.generateVisits(second);
+                });
+                start.countDown();
+                int created = a.get().getCreated() + b.get().getCreated();
+
+                // Then
+                List<VisitTimes> visits = findVisits(day, day.plusDays(1));
+                assertEquals(6, created);
+                assertEquals(6, visits.size());
+                assertNoOverlaps(visits);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<VisitTimes> findVisits(LocalDate from, LocalDate to) {
+        return visitRepository.findTimesOverlapping(from.atStartOfDay(), to.atStartOfDay());
+    }
+
+    private static void assertNoOverlaps(List<VisitTimes> visits) {
+        for (int i = 1; i < visits.size(); i++) {
+            assertFalse(visits.get(i).getStartTime().isBefore(visits.get(i - 1).getEndTime()),
+                    () -> "overlapping visits in " + visits.stream().map(VisitTimes::getStartTime).toList());
+        }
+    }
+}
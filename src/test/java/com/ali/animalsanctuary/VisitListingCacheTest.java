@@ -0,0 +1,137 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.VisitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.FlashMap;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the cached visits listing is revalidated after every booking, even when the bookings are stamped in
+ * the same second or an earlier write was stamped from a clock running ahead, and that the message of a failed
+ * booking is shown even though the listing did not change.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "listingreader", roles = "USER")
+public class VisitListingCacheTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 10, 5, 0, 0);
+    private static final String LISTING = "/visits?from=2099-10-05&to=2099-10-05";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "lister", 2));
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUsers() {
+        visitRepository.findTimesOverlapping(DAY, DAY.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testBookingsWithinOneSecondEachChangeTheETag() throws Exception {
+        // Given
+        Long slotId = createSlot(10, 3);
+        Long aheadId = createSlot(12, 1);
+        jdbcTemplate.update("UPDATE visits SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().plusDays(1)), aheadId);
+        String initial = etag();
+
+        // When
+        assertTrue(visitService.bookVisit(slotId, users.get(0).getId()));
+        String afterFirst = etag();
+        assertTrue(visitService.bookVisit(slotId, users.get(1).getId()));
+        String afterSecond = etag();
+
+        // Then
+        assertNotEquals(initial, afterFirst);
+        assertNotEquals(afterFirst, afterSecond);
+        mockMvc.perform(get(LISTING).session(session).header(HttpHeaders.IF_NONE_MATCH, afterFirst))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(LISTING).session(session).header(HttpHeaders.IF_NONE_MATCH, afterSecond))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testFailedBookingMessageIsShownDespiteAMatchingETag() throws Exception {
+        // Given
+        Long slotId = createSlot(10, 1);
+        assertTrue(visitService.bookVisit(slotId, users.get(0).getId()));
+        String cached = etag();
+
+        // When
+        FlashMap redirected = mockMvc.perform(post("/visits/book/" + slotId)
+                        .with(user(users.get(1).getUsername()).roles("USER")).with(csrf()))
+                .andExpect(flash().attribute("error", "Sorry, that visit is fully booked."))
+                .andReturn().getFlashMap();
+
+        // Then
+        mockMvc.perform(get(LISTING).session(session).flashAttrs(redirected)
+                        .header(HttpHeaders.IF_NONE_MATCH, cached))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Sorry, that visit is fully booked.")));
+        assertEquals(cached, etag());
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get(LISTING).session(session)).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private Long createSlot(int hour, int capacity) {
+        LocalDateTime start = DAY.withHour(hour);
+        visitService.createVisit(new VisitDto(null, start, start.plusHours(1), null, capacity));
+        return visitRepository.findAvailableAfter(start, start.plusMinutes(1), start, 0L, Limit.of(1)).get(0).getId();
+    }
+}
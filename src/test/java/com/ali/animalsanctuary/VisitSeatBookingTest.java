@@ -0,0 +1,161 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Visit;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import com.ali.animalsanctuary.service.VisitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires parallel seat bookings at a single group tour slot and checks that exactly its capacity is sold, measuring
+ * the booking throughput on the hot slot and the remaining-seat reads served alongside it.
+ */
+@SpringBootTest
+public class VisitSeatBookingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitSeatBookingTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 4, 6, 0, 0);
+    private static final int THREADS = 32;
+    private static final int USERS = 400;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VisitBookingRepository visitBookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AvailabilityCalendar availabilityCalendar;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "tourist", USERS));
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUsers() {
+        visitRepository.findTimesOverlapping(DAY, DAY.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testHotSlotSellsExactlyItsCapacity() throws Exception {
+        // Given
+        int capacity = USERS / 2;
+        Long slotId = createSlot(10, capacity);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicBoolean booking = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        AtomicInteger lowestRead = new AtomicInteger(capacity);
+
+        // When
+        Thread reader = new Thread(() -> {
+            while (booking.get()) {
+                lowestRead.accumulateAndGet(visitService.getSeatsLeft(slotId), Math::min);
+                reads.increment();
+            }
+        });
+        reader.start();
+        long nanos = ConcurrentTasks.run(THREADS, USERS, i -> {
+            if (visitService.bookVisit(slotId, users.get(i).getId())) {
+                sold.incrementAndGet();
+            }
+        });
+        booking.set(false);
+        reader.join();
+
+        // Then
+        double rate = USERS / (nanos / 1e9);
+        logger.info("Hot slot of {} seats: {} booking attempts from {} threads at {} bookings/s, "
+                + "{} remaining-seat reads meanwhile", capacity, USERS, THREADS, Math.round(rate), reads.sum());
+        assertEquals(capacity, sold.get());
+        Visit visit = visitRepository.findById(slotId).orElseThrow();
+        assertEquals(0, visit.getSeatsLeft());
+        assertFalse(visit.isAvailable());
+        assertEquals(capacity, visitBookingRepository.count());
+        assertEquals(0, visitService.getSeatsLeft(slotId));
+        assertTrue(lowestRead.get() >= 0);
+        assertFalse(availabilityCalendar.isOpen(DAY.withHour(10)));
+    }
+
+    @Test
+    public void testMultiSeatBookingsNeverOversell() throws Exception {
+        // Given
+        Long slotId = createSlot(14, 10);
+        AtomicInteger winners = new AtomicInteger();
+
+        // When
+        ConcurrentTasks.run(THREADS, 20, i -> {
+            if (visitService.bookSeats(slotId, users.get(i).getId(), 3)) {
+                winners.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(3, winners.get());
+        assertEquals(1, visitService.getSeatsLeft(slotId));
+        assertTrue(availabilityCalendar.isOpen(DAY.withHour(14)));
+        assertFalse(visitService.bookSeats(slotId, users.get(100).getId(), 2));
+        assertTrue(visitService.bookSeats(slotId, users.get(100).getId(), 1));
+        assertEquals(0, visitService.getSeatsLeft(slotId));
+        assertFalse(availabilityCalendar.isOpen(DAY.withHour(14)));
+    }
+
+    @Test
+    public void testCancelingABookingGivesItsSeatsBack() {
+        // Given
+        Long slotId = createSlot(16, 4);
+        User user = users.get(0);
+        assertTrue(visitService.bookSeats(slotId, user.getId(), 4));
+        assertFalse(visitService.getVisitById(slotId).isPresent());
+
+        // When / Then
+        assertThrows(ScheduleConflictException.class, () -> visitService.bookVisit(slotId, user.getId()));
+        assertTrue(visitService.cancelBooking(slotId, user.getId()));
+        assertFalse(visitService.cancelBooking(slotId, user.getId()));
+        assertEquals(4, visitService.getSeatsLeft(slotId));
+        assertEquals(4, visitRepository.findById(slotId).orElseThrow().getSeatsLeft());
+        assertTrue(availabilityCalendar.isOpen(DAY.withHour(16)));
+        assertTrue(visitService.bookVisit(slotId, user.getId()));
+    }
+
+    private Long createSlot(int hour, int capacity) {
+        LocalDateTime start = DAY.withHour(hour);
+        visitService.createVisit(new VisitDto(null, start, start.plusHours(1), null, capacity));
+        return visitRepository.findAvailableAfter(start, start.plusMinutes(1), start, 0L, Limit.of(1)).get(0).getId();
+    }
+}
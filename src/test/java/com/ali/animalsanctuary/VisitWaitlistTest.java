@@ -0,0 +1,223 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VisitDto;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.VisitWaitlistEntry;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VisitBookingRepository;
+import com.ali.animalsanctuary.repository.VisitRepository;
+import com.ali.animalsanctuary.repository.VisitWaitlistRepository;
+import com.ali.animalsanctuary.service.AvailabilityCalendar;
+import com.ali.animalsanctuary.service.VisitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the waitlist of a fully booked visit slot is served first come, first served by the background
+ * promoter, both after a single cancellation and after canceling a large slot at once, that a party too large for
+ * the seats left does not hold up the smaller ones behind it, and that waitlists left in the database are found by
+ * the sweep, dropping the entries that can never be served.
+ */
+@SpringBootTest(properties = "sanctuary.waitlist.sweep-interval-ms=500")
+public class VisitWaitlistTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitWaitlistTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 5, 4, 0, 0);
+    private static final LocalDateTime PAST = LocalDateTime.of(2001, 5, 4, 0, 0);
+    private static final int USERS = 300;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VisitBookingRepository visitBookingRepository;
+
+    @Autowired
+    private VisitWaitlistRepository visitWaitlistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AvailabilityCalendar availabilityCalendar;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "waiter", USERS));
+    }
+
+    @AfterEach
+    public void deleteVisitsAndUsers() {
+        visitRepository.findTimesOverlapping(DAY, DAY.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        visitRepository.findTimesOverlapping(PAST, PAST.plusDays(1))
+                .forEach(visit -> visitService.deleteVisit(visit.getId()));
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testCanceledSeatGoesToTheFirstUserWaiting() throws Exception {
+        // Given
+        Long slotId = createSlot(10, 1);
+        assertTrue(visitService.bookVisit(slotId, id(0)));
+        assertFalse(visitService.bookVisit(slotId, id(1)));
+        visitService.joinWaitlist(slotId, id(1), 1);
+        visitService.joinWaitlist(slotId, id(2), 1);
+
+        // When
+        assertTrue(visitService.cancelBooking(slotId, id(0)));
+
+        // Then
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(1)).isPresent()
+                && visitService.getSeatsLeft(slotId) == 0 && !availabilityCalendar.isOpen(DAY.withHour(10)));
+        assertEquals(1, visitWaitlistRepository.count());
+        assertTrue(visitWaitlistRepository.existsByVisitIdAndUserId(slotId, id(2)));
+        assertFalse(availabilityCalendar.isOpen(DAY.withHour(10)));
+        assertThrows(ScheduleConflictException.class, () -> visitService.joinWaitlist(slotId, id(1), 1));
+        assertThrows(ScheduleConflictException.class, () -> visitService.joinWaitlist(slotId, id(2), 1));
+    }
+
+    @Test
+    public void testDirectBookingsYieldToTheWaitlist() throws Exception {
+        // Given
+        Long slotId = createSlot(12, 3);
+        assertTrue(visitService.bookSeats(slotId, id(0), 3));
+        visitService.joinWaitlist(slotId, id(1), 2);
+        visitService.joinWaitlist(slotId, id(2), 1);
+
+        // When
+        assertTrue(visitService.cancelBooking(slotId, id(0)));
+        boolean jumpedTheQueue = visitService.bookVisit(slotId, id(3));
+
+        // Then
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(2)).isPresent()
+                && visitService.getSeatsLeft(slotId) == 0);
+        assertFalse(jumpedTheQueue);
+        assertEquals(0, visitWaitlistRepository.count());
+        assertEquals(2, visitBookingRepository.findSeats(slotId, id(1)).orElseThrow());
+        assertEquals(1, visitBookingRepository.findSeats(slotId, id(2)).orElseThrow());
+        assertEquals(0, visitRepository.findById(slotId).orElseThrow().getSeatsLeft());
+        assertEquals(0, visitService.getSeatsLeft(slotId));
+    }
+
+    @Test
+    public void testCancelingALargeSlotPromotesTheWaitlistInOrder() throws Exception {
+        // Given
+        int capacity = 200;
+        Long slotId = createSlot(14, capacity);
+        for (int i = 0; i < USERS; i++) {
+            visitService.joinWaitlist(slotId, id(i), 1);
+        }
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(capacity - 1)).isPresent());
+        assertEquals(USERS - capacity, visitWaitlistRepository.count());
+        assertFalse(visitBookingRepository.findSeats(slotId, id(capacity)).isPresent());
+        visitService.cancelVisit(slotId);
+
+        // When
+        long started = System.nanoTime();
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(USERS - 1)).isPresent()
+                && visitService.getSeatsLeft(slotId) == capacity - (USERS - capacity));
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        // Then
+        logger.info("Promoted {} waiting users after canceling a slot of {} seats in {} ms", USERS - capacity,
+                capacity, millis);
+        assertEquals(USERS - capacity, visitBookingRepository.count());
+        assertEquals(0, visitWaitlistRepository.count());
+        for (int i = capacity; i < USERS; i++) {
+            assertTrue(visitBookingRepository.findSeats(slotId, id(i)).isPresent());
+        }
+        assertEquals(capacity - (USERS - capacity), visitService.getSeatsLeft(slotId));
+        assertTrue(availabilityCalendar.isOpen(DAY.withHour(14)));
+    }
+
+    @Test
+    public void testLargePartyKeepsItsPlaceWithoutHoldingUpSmallerOnes() throws Exception {
+        // Given
+        Long slotId = createSlot(16, 3);
+        assertTrue(visitService.bookSeats(slotId, id(0), 2));
+
+        // When
+        visitService.joinWaitlist(slotId, id(1), 2);
+        visitService.joinWaitlist(slotId, id(2), 1);
+
+        // Then
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(2)).isPresent()
+                && visitService.getSeatsLeft(slotId) == 0);
+        assertTrue(visitWaitlistRepository.existsByVisitIdAndUserId(slotId, id(1)));
+
+        assertTrue(visitService.cancelBooking(slotId, id(0)));
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(1)).isPresent());
+        assertEquals(2, visitBookingRepository.findSeats(slotId, id(1)).orElseThrow());
+        assertEquals(0, visitWaitlistRepository.count());
+    }
+
+    @Test
+    public void testSweepServesWaitlistsLeftInTheDatabase() throws Exception {
+        // Given
+        Long slotId = createSlot(18, 2);
+        visitService.createVisit(new VisitDto(null, PAST, PAST.plusHours(1), null, 2));
+        Long pastId = visitRepository.findTimesOverlapping(PAST, PAST.plusDays(1)).get(0).getId();
+        assertTrue(visitService.bookSeats(pastId, id(3), 2));
+
+        // When
+        visitWaitlistRepository.save(new VisitWaitlistEntry(null, visitRepository.getReferenceById(slotId),
+                users.get(0), 5, null));
+        visitWaitlistRepository.save(new VisitWaitlistEntry(null, visitRepository.getReferenceById(slotId),
+                users.get(1), 1, null));
+        visitWaitlistRepository.save(new VisitWaitlistEntry(null, visitRepository.getReferenceById(pastId),
+                users.get(2), 1, null));
+
+        // Then
+        awaitUntil(() -> visitBookingRepository.findSeats(slotId, id(1)).isPresent()
+                && !visitWaitlistRepository.existsByVisitIdAndUserId(pastId, id(2))
+                && visitService.getSeatsLeft(slotId) == 1);
+        assertFalse(visitBookingRepository.findSeats(slotId, id(0)).isPresent());
+        assertEquals(1, visitBookingRepository.findSeats(slotId, id(1)).orElseThrow());
+        assertFalse(visitBookingRepository.findSeats(pastId, id(2)).isPresent());
+    }
+
+    private Long id(int user) {
+        return users.get(user).getId();
+    }
+
+    private Long createSlot(int hour, int capacity) {
+        LocalDateTime start = DAY.withHour(hour);
+        visitService.createVisit(new VisitDto(null, start, start.plusHours(1), null, capacity));
+        return visitRepository.findAvailableAfter(start, start.plusMinutes(1), start, 0L, Limit.of(1)).get(0).getId();
+    }
+
+    /**
+     * Waits for the background promoter to bring the waitlist into the expected state.
+     */
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "the waitlist was not promoted in time");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.AssignedShift;
+import com.ali.animalsanctuary.dto.AssignmentPlan;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerHoursRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.VolunteerAssignmentService;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the automatic assignment proposes only available volunteers without double booking them, works around
+ * the members a volunteer work already has, and that applying the plan signs the volunteers up and credits their
+ * hours.
+ */
+@SpringBootTest
+public class VolunteerAssignmentTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2097, 6, 3, 0, 0);
+
+    @Autowired
+    private VolunteerAssignmentService volunteerAssignmentService;
+
+    @Autowired
+    private VolunteerService volunteerService;
+
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private VolunteerHoursRepository volunteerHoursRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> shifts = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "assignee", 3));
+    }
+
+    @AfterEach
+    public void deleteShiftsAndUsers() {
+        shifts.forEach(volunteerService::deleteVolunteer);
+        TestUsers.delete(userRepository, volunteerHoursRepository, users);
+    }
+
+    @Test
+    public void testPlanRespectsAvailabilityAndOverlapsAndIsApplied() {
+        // Given
+        volunteerAssignmentService.addAvailability(users.get(0).getId(), DayOfWeek.MONDAY, LocalTime.of(8, 0),
+                LocalTime.of(12, 0));
+        volunteerAssignmentService.addAvailability(users.get(1).getId(), DayOfWeek.MONDAY, LocalTime.of(8, 0),
+                LocalTime.of(18, 0));
+        volunteerAssignmentService.addAvailability(users.get(2).getId(), DayOfWeek.TUESDAY, LocalTime.of(9, 0),
+                LocalTime.of(17, 0));
+        Long morning = createShift("Morning feeding", MONDAY.withHour(9), MONDAY.withHour(11), 2);
+        Long cleaning = createShift("Cleaning", MONDAY.withHour(10), MONDAY.withHour(12), null);
+        Long walking = createShift("Walking", MONDAY.withHour(13), MONDAY.withHour(15), 1);
+        Long grooming = createShift("Grooming", MONDAY.plusDays(1).withHour(10), MONDAY.plusDays(1).withHour(12), 2);
+        volunteerService.addUserToVolunteer(grooming, users.get(2));
+        LocalDate from = MONDAY.toLocalDate();
+
+        // When
+        AssignmentPlan plan = volunteerAssignmentService.planAssignments(from, from.plusDays(7));
+
+        // Then
+        assertEquals(4, plan.getShifts());
+        assertEquals(5, plan.getPlacesOpen());
+        assertEquals(3, plan.getPlacesFilled());
+        Map<Long, List<Long>> proposed = plan.getAssignments().stream()
+                .collect(Collectors.toMap(AssignedShift::getVolunteerId, AssignedShift::getUserIds));
+        assertEquals(List.of(users.get(1).getId()), proposed.get(walking));
+        assertFalse(proposed.containsKey(grooming));
+        List<Long> overlapping = new ArrayList<>(proposed.getOrDefault(morning, List.of()));
+        overlapping.addAll(proposed.getOrDefault(cleaning, List.of()));
+        assertEquals(List.of(users.get(0).getId(), users.get(1).getId()), overlapping.stream().sorted().toList());
+
+        assertEquals(3, volunteerAssignmentService.applyAssignments(plan));
+        assertEquals(1, volunteerRepository.countMember(walking, users.get(1).getId()));
+        assertEquals(4 * 60, volunteerHoursService.getUserSummary(users.get(1).getId(), YearMonth.from(MONDAY),
+                YearMonth.from(MONDAY)).getMinutes());
+        AssignmentPlan again = volunteerAssignmentService.planAssignments(from, from.plusDays(7));
+        assertEquals(2, again.getPlacesOpen());
+        assertEquals(0, again.getPlacesFilled());
+        assertTrue(again.getElapsedMillis() < 1000, () -> "planning took " + again.getElapsedMillis() + " ms");
+    }
+
+    @Test
+    public void testApplyingSkipsWorksDeletedSinceThePlanWasMade() {
+        // Given
+        volunteerAssignmentService.addAvailability(users.get(0).getId(), DayOfWeek.MONDAY, LocalTime.of(8, 0),
+                LocalTime.of(18, 0));
+        Long feeding = createShift("Feeding", MONDAY.withHour(9), MONDAY.withHour(10), 1);
+        Long walking = createShift("Walking", MONDAY.withHour(13), MONDAY.withHour(14), 1);
+        LocalDate from = MONDAY.toLocalDate();
+        AssignmentPlan plan = volunteerAssignmentService.planAssignments(from, from.plusDays(1));
+        assertEquals(2, plan.getPlacesFilled());
+
+        // When
+        volunteerService.deleteVolunteer(feeding);
+        shifts.remove(feeding);
+        int applied = volunteerAssignmentService.applyAssignments(plan);
+
+        // Then
+        assertEquals(1, applied);
+        assertEquals(1, volunteerRepository.countMember(walking, users.get(0).getId()));
+    }
+
+    @Test
+    public void testApplyingRechecksAvailabilityAndWeeklyHours() {
+        // Given
+        Long userId = users.get(0).getId();
+        volunteerAssignmentService.addAvailability(userId, DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        volunteerAssignmentService.addAvailability(userId, DayOfWeek.TUESDAY, LocalTime.of(8, 0), LocalTime.of(20, 0));
+        Long feeding = createShift("Feeding", MONDAY.withHour(9), MONDAY.withHour(10), 1);
+        Long repairs = createShift("Fence repairs", MONDAY.plusDays(1).withHour(8), MONDAY.plusDays(1).withHour(18), 1);
+        Long transport = createShift("Transport", MONDAY.plusDays(2).withHour(8), MONDAY.plusDays(2).withHour(20), 1);
+        LocalDate from = MONDAY.toLocalDate();
+        AssignmentPlan plan = volunteerAssignmentService.planAssignments(from, from.plusDays(2));
+        assertEquals(2, plan.getPlacesFilled());
+
+        // When
+        Volunteer moved = volunteerService.getVolunteerById(feeding);
+        moved.setStartDate(MONDAY.withHour(19));
+        moved.setEndDate(MONDAY.withHour(20));
+        volunteerService.saveVolunteer(moved);
+        assertTrue(volunteerService.addUserToVolunteer(transport, users.get(0)));
+        int applied = volunteerAssignmentService.applyAssignments(plan);
+
+        // Then
+        assertEquals(0, applied);
+        assertEquals(0, volunteerRepository.countMember(feeding, userId));
+        assertEquals(0, volunteerRepository.countMember(repairs, userId));
+    }
+
+    @Test
+    public void testAvailabilityWindowsBelongToTheirUser() {
+        // Given
+        Long userId = users.get(0).getId();
+        Long late = volunteerAssignmentService.addAvailability(userId, DayOfWeek.FRIDAY, LocalTime.of(18, 0),
+                LocalTime.MIDNIGHT).getId();
+        volunteerAssignmentService.addAvailability(userId, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+
+        // When / Then
+        assertThrows(ScheduleConflictException.class, () -> volunteerAssignmentService.addAvailability(userId,
+                DayOfWeek.MONDAY, LocalTime.of(11, 0), LocalTime.of(9, 0)));
+        assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), volunteerAssignmentService.getAvailability(userId)
+                .stream().map(window -> window.getDayOfWeek()).toList());
+        assertFalse(volunteerAssignmentService.removeAvailability(users.get(1).getId(), late));
+        assertTrue(volunteerAssignmentService.removeAvailability(userId, late));
+        assertEquals(1, volunteerAssignmentService.getAvailability(userId).size());
+    }
+
+    private Long createShift(String task, LocalDateTime start, LocalDateTime end, Integer capacity) {
+        Volunteer shift = new Volunteer();
+        shift.setTask(task);
+        shift.setStartDate(start);
+        shift.setEndDate(end);
+        shift.setCapacity(capacity);
+        Long id = volunteerService.saveVolunteer(shift).getId();
+        shifts.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,232 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.dto.VolunteerHoursRank;
+import com.ali.animalsanctuary.dto.VolunteerHoursSummary;
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.entity.VolunteerHours;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerHoursRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.VolunteerHoursService;
+import com.ali.animalsanctuary.service.VolunteerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the volunteer hours rollups follow every shift and sign-up change, agree with a rebuild from the raw
+ * tables, and let a report over years of history read a number of rows that does not depend on the shift count.
+ */
+@SpringBootTest
+public class VolunteerHoursRollupTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerHoursRollupTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 10, 1, 8, 0);
+    private static final YearMonth MONTH = YearMonth.from(DAY);
+
+    @Autowired
+    private VolunteerService volunteerService;
+
+    @Autowired
+    private VolunteerHoursService volunteerHoursService;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private VolunteerHoursRepository volunteerHoursRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> shifts = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "hourly", 3));
+    }
+
+    @AfterEach
+    public void deleteShiftsAndUsers() {
+        shifts.forEach(volunteerService::deleteVolunteer);
+        TestUsers.delete(userRepository, volunteerHoursRepository, users);
+    }
+
+    @Test
+    public void testRollupsFollowShiftAndSignUpChanges() {
+        // Given
+        Long feeding = createShift("Feeding", DAY, DAY.plusHours(2));
+        Long cleaning = createShift("Cleaning", DAY.plusDays(1), DAY.plusDays(1).plusMinutes(90));
+        Long walking = createShift("Walking", DAY.plusMonths(1), DAY.plusMonths(1).plusHours(3));
+
+        // When
+        volunteerService.addUserToVolunteer(feeding, users.get(0));
+        volunteerService.addUserToVolunteer(feeding, users.get(0));
+        volunteerService.addUserToVolunteer(feeding, users.get(1));
+        volunteerService.addUserToVolunteer(cleaning, users.get(0));
+        volunteerService.addUserToVolunteer(walking, users.get(0));
+        volunteerService.addUserToVolunteer(walking, users.get(2));
+        Volunteer longer = new Volunteer();
+        longer.setId(feeding);
+        longer.setTask("Feeding");
+        longer.setStartDate(DAY);
+        longer.setEndDate(DAY.plusHours(4));
+        volunteerService.saveVolunteer(longer);
+        volunteerService.deleteVolunteer(walking);
+        shifts.remove(walking);
+
+        // Then
+        VolunteerHoursSummary first = volunteerHoursService.getUserSummary(users.get(0).getId(), MONTH,
+                MONTH.plusMonths(1));
+        assertEquals(4 * 60 + 90, first.getMinutes());
+        assertEquals(2, first.getShifts());
+        assertEquals(1, first.getMonths().size());
+        assertEquals(0, first.getDays().size());
+        VolunteerHoursSummary october = volunteerHoursService.getUserSummary(users.get(0).getId(), MONTH, MONTH);
+        assertEquals(2, october.getDays().size());
+        assertEquals(4 * 60, october.getDays().get(0).getMinutes());
+        assertEquals(90, october.getDays().get(1).getMinutes());
+        assertEquals(0, volunteerHoursService.getUserSummary(users.get(2).getId(), MONTH, MONTH.plusMonths(1))
+                .getShifts());
+
+        List<VolunteerHoursRank> leaderboard = volunteerHoursService.getLeaderboard(MONTH, MONTH, 10);
+        assertEquals(List.of("hourly0", "hourly1"), leaderboard.stream().map(VolunteerHoursRank::getUsername).toList());
+        assertEquals(4 * 60, leaderboard.get(1).getMinutes());
+        assertEquals(snapshot(), rebuiltSnapshot());
+    }
+
+    @Test
+    public void testRollupsStayExactWhenTimesChangeDuringSignUps() throws Exception {
+        // Given
+        Long feeding = createShift("Feeding", DAY, DAY.plusHours(1));
+        ExecutorService executor = Executors.newFixedThreadPool(users.size() + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> changes = new ArrayList<>();
+
+        // When
+        for (User user : users) {
+            changes.add(executor.submit(() -> {
+                start.await();
+                return volunteerService.addUserToVolunteer(feeding, user);
+            }));
+        }
+        changes.add(executor.submit(() -> {
+            start.await();
+            for (int i = 1; i <= 4; i++) {
+                Volunteer moved = new Volunteer();
+                moved.setId(feeding);
+                moved.setTask("Feeding");
+                moved.setStartDate(DAY);
+                moved.setEndDate(DAY.plusHours(1).plusMinutes(15L * i));
+                volunteerService.saveVolunteer(moved);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> change : changes) {
+            change.get();
+        }
+        executor.shutdown();
+
+        // Then
+        for (User user : users) {
+            assertEquals(2 * 60, volunteerHoursService.getUserSummary(user.getId(), MONTH, MONTH).getMinutes());
+        }
+        assertEquals(snapshot(), rebuiltSnapshot());
+    }
+
+    @Test
+    public void testReportOverYearsReadsRollupsOnly() {
+        // Given
+        int count = 3000;
+        List<Volunteer> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Volunteer shift = new Volunteer();
+            shift.setTask("History task " + i);
+            shift.setStartDate(DAY.minusYears(3).plusHours(9L * i));
+            shift.setEndDate(DAY.minusYears(3).plusHours(9L * i + 1 + i % 3));
+            shift.setUsers(new HashSet<>(i % 2 == 0 ? users : users.subList(0, 1)));
+            shift.setSignedUp(shift.getUsers().size());
+            created.add(shift);
+        }
+        volunteerRepository.saveAll(created).forEach(shift -> shifts.add(shift.getId()));
+        volunteerHoursService.rebuild();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // When
+        statistics.clear();
+        List<VolunteerHoursRank> leaderboard = volunteerHoursService.getLeaderboard(MONTH.minusYears(3), MONTH, 10);
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        // Then
+        long rollups = volunteerHoursRepository.findAll().stream()
+                .filter(row -> row.getGranularity() == VolunteerHours.Granularity.MONTH)
+                .count();
+        logger.info("Leaderboard over {} shifts read {} monthly rollups with {} statement(s)", count, rollups,
+                statements);
+        assertEquals(1, statements);
+        assertTrue(rollups <= users.size() * 37L);
+        assertEquals(users.get(0).getId(), leaderboard.get(0).getUserId());
+        assertEquals(count, leaderboard.get(0).getShifts());
+        long expectedMinutes = 0;
+        for (int i = 0; i < count; i++) {
+            expectedMinutes += 60L * (1 + i % 3);
+        }
+        assertEquals(expectedMinutes, leaderboard.get(0).getMinutes());
+        assertEquals(count / 2, leaderboard.get(1).getShifts());
+    }
+
+    private Long createShift(String task, LocalDateTime start, LocalDateTime end) {
+        Volunteer shift = new Volunteer();
+        shift.setTask(task);
+        shift.setStartDate(start);
+        shift.setEndDate(end);
+        Long id = volunteerService.saveVolunteer(shift).getId();
+        shifts.add(id);
+        return id;
+    }
+
+    private List<String> snapshot() {
+        return volunteerHoursRepository.findAll().stream()
+                .sorted(Comparator.comparing(VolunteerHours::getUserId)
+                        .thenComparing(VolunteerHours::getGranularity)
+                        .thenComparing(VolunteerHours::getPeriodStart))
+                .map(row -> row.getUserId() + " " + row.getGranularity() + " " + row.getPeriodStart() + " "
+                        + row.getMinutes() + " " + row.getShifts())
+                .toList();
+    }
+
+    private List<String> rebuiltSnapshot() {
+        volunteerHoursService.rebuild();
+        return snapshot();
+    }
+}
@@ -0,0 +1,106 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.VolunteerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that looking up the shifts of a user issues the same number of SQL statements however many shifts and
+ * sign-ups exist.
+ */
+@SpringBootTest
+public class VolunteerShiftLookupTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 6, 1, 8, 0);
+
+    @Autowired
+    private VolunteerService volunteerService;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Volunteer> shifts = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "shift", 2));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void deleteShiftsAndUsers() {
+        statistics.setStatisticsEnabled(false);
+        volunteerRepository.deleteAllById(shifts.stream().map(Volunteer::getId).toList());
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testShiftsOfAUserAreFoundWithOneStatement() {
+        // Given
+        User member = users.get(0);
+        User other = users.get(1);
+        createShifts(12, member, other);
+
+        // When
+        statistics.clear();
+        List<Volunteer> few = volunteerService.getVolunteersByUserId(member.getId());
+        long fewStatements = statistics.getPrepareStatementCount();
+        createShifts(1000, member, other);
+        statistics.clear();
+        List<Volunteer> many = volunteerService.getVolunteersByUserId(member.getId());
+        long manyStatements = statistics.getPrepareStatementCount();
+
+        // Then
+        assertEquals(1, fewStatements);
+        assertEquals(fewStatements, manyStatements);
+        assertEquals(3, few.size());
+        assertEquals(3 + 250, many.size());
+        for (int i = 1; i < many.size(); i++) {
+            assertFalse(many.get(i).getStartDate().isBefore(many.get(i - 1).getStartDate()));
+        }
+    }
+
+    /**
+     * Creates shifts with both users signed up for every fourth one, and the other user for the rest.
+     */
+    private void createShifts(int count, User member, User other) {
+        List<Volunteer> created = new ArrayList<>();
+        int offset = shifts.size();
+        for (int i = 0; i < count; i++) {
+            Volunteer shift = new Volunteer();
+            shift.setTask("Lookup task " + (offset + i));
+            shift.setStartDate(DAY.plusHours(offset + i));
+            shift.setEndDate(DAY.plusHours(offset + i + 1));
+            shift.setUsers(new HashSet<>(i % 4 == 0 ? List.of(member, other) : List.of(other)));
+            created.add(shift);
+        }
+        shifts.addAll(volunteerRepository.saveAll(created));
+    }
+}
@@ -0,0 +1,158 @@
+package com.ali.animalsanctuary;
+
+import com.ali.animalsanctuary.entity.User;
+import com.ali.animalsanctuary.entity.Volunteer;
+import com.ali.animalsanctuary.exception.ScheduleConflictException;
+import com.ali.animalsanctuary.repository.UserRepository;
+import com.ali.animalsanctuary.repository.VolunteerRepository;
+import com.ali.animalsanctuary.service.ScheduleIndex;
+import com.ali.animalsanctuary.service.VolunteerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires hundreds of parallel sign-ups, each sent twice, at a single popular volunteer task and checks that a task
+ * with a capacity is never overfilled and that repeated sign-ups are no-ops, measuring the sign-up throughput.
+ */
+@SpringBootTest
+public class VolunteerSignupConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VolunteerSignupConcurrencyTest.class);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2099, 7, 1, 8, 0);
+    private static final int THREADS = 32;
+    private static final int USERS = 400;
+
+    @Autowired
+    private VolunteerService volunteerService;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> shifts = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        users.addAll(TestUsers.create(userRepository, "helper", USERS));
+    }
+
+    @AfterEach
+    public void deleteShiftsAndUsers() {
+        shifts.forEach(volunteerService::deleteVolunteer);
+        TestUsers.delete(userRepository, null, users);
+    }
+
+    @Test
+    public void testPopularTaskIsNeverOverfilled() throws Exception {
+        // Given
+        int capacity = 150;
+        Long shiftId = createShift("Popular feeding", 0, capacity);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger repeated = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+
+        // When
+        long nanos = ConcurrentTasks.run(THREADS, USERS * 2, i -> {
+            try {
+                if (volunteerService.addUserToVolunteer(shiftId, users.get(i % USERS))) {
+                    added.incrementAndGet();
+                } else {
+                    repeated.incrementAndGet();
+                }
+            } catch (ScheduleConflictException e) {
+                full.incrementAndGet();
+            }
+        });
+
+        // Then
+        logger.info("Popular task of {} places: {} sign-ups from {} threads at {} sign-ups/s", capacity, USERS * 2,
+                THREADS, Math.round(USERS * 2 / (nanos / 1e9)));
+        assertEquals(capacity, added.get());
+        assertEquals(capacity, repeated.get());
+        assertEquals(2 * (USERS - capacity), full.get());
+        assertEquals(capacity, volunteerRepository.findMembers(List.of(shiftId)).size());
+        assertEquals(capacity, volunteerRepository.findById(shiftId).orElseThrow().getSignedUp());
+        User late = users.stream()
+                .filter(user -> volunteerRepository.countMember(shiftId, user.getId()) == 0)
+                .findFirst()
+                .orElseThrow();
+        assertThrows(ScheduleConflictException.class, () -> volunteerService.addUserToVolunteer(shiftId, late));
+    }
+
+    @Test
+    public void testTaskWithoutCapacityTakesEveryoneOnce() throws Exception {
+        // Given
+        Long shiftId = createShift("Open cleaning", 2, null);
+        AtomicInteger added = new AtomicInteger();
+
+        // When
+        ConcurrentTasks.run(THREADS, USERS * 2, i -> {
+            if (volunteerService.addUserToVolunteer(shiftId, users.get(i % USERS))) {
+                added.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(USERS, added.get());
+        assertEquals(USERS, volunteerRepository.findMembers(List.of(shiftId)).size());
+        assertEquals(USERS, volunteerRepository.findById(shiftId).orElseThrow().getSignedUp());
+        assertTrue(scheduleIndex.isUserBusy(users.get(0).getId(), DAY.plusHours(2), DAY.plusHours(3)));
+        assertFalse(volunteerService.addUserToVolunteer(shiftId, users.get(0)));
+    }
+
+    @Test
+    public void testEditingATaskKeepsItsMembers() {
+        // Given
+        Long shiftId = createShift("Walking", 4, 2);
+        assertTrue(volunteerService.addUserToVolunteer(shiftId, users.get(0)));
+        assertTrue(volunteerService.addUserToVolunteer(shiftId, users.get(1)));
+
+        // When
+        Volunteer edited = new Volunteer();
+        edited.setId(shiftId);
+        edited.setTask("Long walking");
+        edited.setStartDate(DAY.plusHours(4));
+        edited.setEndDate(DAY.plusHours(6));
+        edited.setCapacity(3);
+        volunteerService.saveVolunteer(edited);
+
+        // Then
+        assertEquals(2, volunteerRepository.findMembers(List.of(shiftId)).size());
+        assertTrue(scheduleIndex.isUserBusy(users.get(0).getId(), DAY.plusHours(5), DAY.plusHours(6)));
+        assertTrue(volunteerService.addUserToVolunteer(shiftId, users.get(2)));
+        assertThrows(ScheduleConflictException.class, () -> volunteerService.addUserToVolunteer(shiftId, users.get(3)));
+    }
+
+    private Long createShift(String task, int hour, Integer capacity) {
+        Volunteer shift = new Volunteer();
+        shift.setTask(task);
+        shift.setStartDate(DAY.plusHours(hour));
+        shift.setEndDate(DAY.plusHours(hour + 1));
+        shift.setCapacity(capacity);
+        Long id = volunteerService.saveVolunteer(shift).getId();
+        shifts.add(id);
+        return id;
+    }
+}